@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * reads from a shared buffer with absolute gets, so that the buffer position is never changed
+ */
+final class ByteBufferInput implements DataInput {
+	private final ByteBuffer buffer;
+	private int position;
+
+	ByteBufferInput(ByteBuffer buffer, int position) {
+		this.buffer = buffer;
+		this.position = position;
+	}
+
+	private int advance(int count) throws EOFException {
+		if (position + count > buffer.limit()) {
+			throw new EOFException("read " + count + " bytes at " + position + ", limit " + buffer.limit());
+		}
+		int current = position;
+		position += count;
+		return current;
+	}
+
+	@Override
+	public void readFully(byte[] b) throws IOException {
+		readFully(b, 0, b.length);
+	}
+
+	@Override
+	public void readFully(byte[] b, int off, int len) throws IOException {
+		int start = advance(len);
+		for (int i = 0; i < len; i++) {
+			b[off + i] = buffer.get(start + i);
+		}
+	}
+
+	@Override
+	public int skipBytes(int n) {
+		int skipped = Math.max(0, Math.min(n, buffer.limit() - position));
+		position += skipped;
+		return skipped;
+	}
+
+	@Override
+	public boolean readBoolean() throws IOException {
+		return readByte() != 0;
+	}
+
+	@Override
+	public byte readByte() throws IOException {
+		return buffer.get(advance(1));
+	}
+
+	@Override
+	public int readUnsignedByte() throws IOException {
+		return readByte() & 0xFF;
+	}
+
+	@Override
+	public short readShort() throws IOException {
+		return buffer.getShort(advance(2));
+	}
+
+	@Override
+	public int readUnsignedShort() throws IOException {
+		return readShort() & 0xFFFF;
+	}
+
+	@Override
+	public char readChar() throws IOException {
+		return buffer.getChar(advance(2));
+	}
+
+	@Override
+	public int readInt() throws IOException {
+		return buffer.getInt(advance(4));
+	}
+
+	@Override
+	public long readLong() throws IOException {
+		return buffer.getLong(advance(8));
+	}
+
+	@Override
+	public float readFloat() throws IOException {
+		return buffer.getFloat(advance(4));
+	}
+
+	@Override
+	public double readDouble() throws IOException {
+		return buffer.getDouble(advance(8));
+	}
+
+	@Override
+	public String readLine() {
+		// same as DataInputStream.readLine: each byte is one char, a line ends with \n, \r or \r\n
+		int limit = buffer.limit();
+		if (position >= limit) {
+			return null;
+		}
+		StringBuilder line = new StringBuilder();
+		while (position < limit) {
+			char c = (char) (buffer.get(position++) & 0xFF);
+			if (c == '\n') {
+				break;
+			}
+			if (c == '\r') {
+				if (position < limit && buffer.get(position) == '\n') {
+					position++;
+				}
+				break;
+			}
+			line.append(c);
+		}
+		return line.toString();
+	}
+
+	@Override
+	public String readUTF() throws IOException {
+		return DataInputStream.readUTF(this);
+	}
+}
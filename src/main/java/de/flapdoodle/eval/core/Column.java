@@ -0,0 +1,291 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core;
+
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.evaluables.Primitive;
+
+import java.util.function.DoubleFunction;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * values of one variable or result for all rows of a batch, see {@link Expression#evaluateBatch(java.util.Map)},
+ * primitive columns are turned into values with the passed function when a row is read.
+ * Columns with a {@link Primitive} type can be evaluated by {@link de.flapdoodle.eval.core.evaluables.Kernel}s
+ * without boxing each row, results of such evaluations are primitive columns as well.
+ */
+public abstract class Column {
+
+	private Column() {
+		// only the variants below
+	}
+
+	public abstract int size();
+
+	/**
+	 * the value at this row, as passed in or as wrapped by the result
+	 */
+	@Nullable
+	public abstract Object get(int row);
+
+	/**
+	 * the value at this row as evaluation argument, null if missing
+	 */
+	@Nullable
+	public abstract Evaluated<?> evaluated(int row);
+
+	/**
+	 * primitive column of doubles, {@link #get(int)} returns the boxed value, the array is not copied
+	 */
+	public static Doubles of(double[] values, Primitive.OfDouble<?> type) {
+		return new Doubles(values, type);
+	}
+
+	/**
+	 * primitive column of longs, {@link #get(int)} returns the boxed value, the array is not copied
+	 */
+	public static Longs of(long[] values, Primitive.OfLong<?> type) {
+		return new Longs(values, type);
+	}
+
+	/**
+	 * primitive column of booleans, {@link #get(int)} returns the boxed value, the array is not copied
+	 */
+	public static Booleans of(boolean[] values, Primitive.OfBoolean<?> type) {
+		return new Booleans(values, type);
+	}
+
+	public static Column of(double[] values, DoubleFunction<?> asValue) {
+		return new Column() {
+			@Override
+			public int size() {
+				return values.length;
+			}
+
+			@Override
+			public Object get(int row) {
+				return values[row];
+			}
+
+			@Override
+			public Evaluated<?> evaluated(int row) {
+				return Evaluated.value(asValue.apply(values[row]));
+			}
+		};
+	}
+
+	public static Column of(long[] values, LongFunction<?> asValue) {
+		return new Column() {
+			@Override
+			public int size() {
+				return values.length;
+			}
+
+			@Override
+			public Object get(int row) {
+				return values[row];
+			}
+
+			@Override
+			public Evaluated<?> evaluated(int row) {
+				return Evaluated.value(asValue.apply(values[row]));
+			}
+		};
+	}
+
+	public static Column of(boolean[] values, Function<Boolean, ?> asValue) {
+		return new Column() {
+			@Override
+			public int size() {
+				return values.length;
+			}
+
+			@Override
+			public Object get(int row) {
+				return values[row];
+			}
+
+			@Override
+			public Evaluated<?> evaluated(int row) {
+				return Evaluated.value(asValue.apply(values[row]));
+			}
+		};
+	}
+
+	/**
+	 * column of objects like {@link java.math.BigDecimal}s, missing if null
+	 */
+	public static <T> Column of(T[] values, Function<? super T, ?> asValue) {
+		return new Column() {
+			@Override
+			public int size() {
+				return values.length;
+			}
+
+			@Override
+			public Object get(int row) {
+				return values[row];
+			}
+
+			@Override
+			public Evaluated<?> evaluated(int row) {
+				return values[row] != null
+					? Evaluated.value(asValue.apply(values[row]))
+					: null;
+			}
+		};
+	}
+
+	/**
+	 * column of values, which are passed to the evaluation as they are
+	 */
+	public static Column of(Object[] values) {
+		return of(values, Function.identity());
+	}
+
+	public static Column ofEvaluated(Evaluated<?>[] values) {
+		return new Column() {
+			@Override
+			public int size() {
+				return values.length;
+			}
+
+			@Override
+			public Object get(int row) {
+				return values[row].wrapped();
+			}
+
+			@Override
+			public Evaluated<?> evaluated(int row) {
+				return values[row];
+			}
+		};
+	}
+
+	public static final class Doubles extends Column {
+		private final double[] values;
+		private final Primitive.OfDouble<?> type;
+
+		private Doubles(double[] values, Primitive.OfDouble<?> type) {
+			this.values = values;
+			this.type = type;
+		}
+
+		public double[] values() {
+			return values;
+		}
+
+		public Primitive.OfDouble<?> type() {
+			return type;
+		}
+
+		@Override
+		public int size() {
+			return values.length;
+		}
+
+		@Override
+		public Object get(int row) {
+			return type.box(values[row]);
+		}
+
+		@Override
+		public Evaluated<?> evaluated(int row) {
+			return typed(type, values[row]);
+		}
+	}
+
+	public static final class Longs extends Column {
+		private final long[] values;
+		private final Primitive.OfLong<?> type;
+
+		private Longs(long[] values, Primitive.OfLong<?> type) {
+			this.values = values;
+			this.type = type;
+		}
+
+		public long[] values() {
+			return values;
+		}
+
+		public Primitive.OfLong<?> type() {
+			return type;
+		}
+
+		@Override
+		public int size() {
+			return values.length;
+		}
+
+		@Override
+		public Object get(int row) {
+			return type.box(values[row]);
+		}
+
+		@Override
+		public Evaluated<?> evaluated(int row) {
+			return typed(type, values[row]);
+		}
+	}
+
+	public static final class Booleans extends Column {
+		private final boolean[] values;
+		private final Primitive.OfBoolean<?> type;
+
+		private Booleans(boolean[] values, Primitive.OfBoolean<?> type) {
+			this.values = values;
+			this.type = type;
+		}
+
+		public boolean[] values() {
+			return values;
+		}
+
+		public Primitive.OfBoolean<?> type() {
+			return type;
+		}
+
+		@Override
+		public int size() {
+			return values.length;
+		}
+
+		@Override
+		public Object get(int row) {
+			return type.box(values[row]);
+		}
+
+		@Override
+		public Evaluated<?> evaluated(int row) {
+			return typed(type, values[row]);
+		}
+	}
+
+	// typed like the result of an evaluable returning the primitive type
+	private static <T> Evaluated<T> typed(Primitive.OfDouble<T> type, double value) {
+		return Evaluated.ofNullable(type.type(), type.box(value));
+	}
+
+	private static <T> Evaluated<T> typed(Primitive.OfLong<T> type, long value) {
+		return Evaluated.ofNullable(type.type(), type.box(value));
+	}
+
+	private static <T> Evaluated<T> typed(Primitive.OfBoolean<T> type, boolean value) {
+		return Evaluated.ofNullable(type.type(), type.box(value));
+	}
+}
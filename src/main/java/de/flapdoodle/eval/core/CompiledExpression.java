@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core;
+
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.tree.CompiledNode;
+import de.flapdoodle.eval.core.tree.EvaluationFrame;
+import de.flapdoodle.eval.core.tree.NodeCompiler;
+import de.flapdoodle.eval.core.tree.Program;
+import org.immutables.value.Value;
+
+@Value.Immutable
+public abstract class CompiledExpression {
+	@Value.Parameter
+	public abstract Expression expression();
+
+	/**
+	 * flat instruction array run by a stack interpreter instead of nested compiled nodes
+	 */
+	@Value.Default
+	public boolean flat() {
+		return false;
+	}
+
+	@Value.Derived
+	@Value.Auxiliary
+	protected CompiledNode root() {
+		return flat()
+			? Program.compile(expression().root(), expression().variables().slots())
+			: NodeCompiler.compile(expression().root(), expression().variables().slots());
+	}
+
+	@Value.Derived
+	@Value.Auxiliary
+	protected EvaluationContext evaluationContext() {
+		return expression().evaluationContext();
+	}
+
+	@Value.Auxiliary
+	public Evaluated<?> evaluate(VariableResolver variableResolver) throws EvaluationException {
+		return root().evaluate(EvaluationFrame.of(variableResolver, expression().sharedSlots()), evaluationContext());
+	}
+
+	public static CompiledExpression of(Expression expression) {
+		return ImmutableCompiledExpression.of(expression);
+	}
+
+	public static CompiledExpression flat(Expression expression) {
+		return ImmutableCompiledExpression.builder()
+			.expression(expression)
+			.flat(true)
+			.build();
+	}
+}
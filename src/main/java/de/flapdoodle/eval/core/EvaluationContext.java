@@ -16,8 +16,11 @@
  */
 package de.flapdoodle.eval.core;
 
+import de.flapdoodle.eval.core.tree.ParallelNodes;
+
 import java.math.MathContext;
 import java.time.ZoneId;
+import java.util.Optional;
 
 @org.immutables.value.Value.Immutable
 public interface EvaluationContext {
@@ -25,6 +28,17 @@ public interface EvaluationContext {
 
 	ZoneId zoneId();
 
+	Optional<ParallelArguments> parallelArguments();
+
+	/**
+	 * nodes which evaluate their arguments with {@link #parallelArguments()}
+	 */
+	@org.immutables.value.Value.Default
+	@org.immutables.value.Value.Auxiliary
+	default ParallelNodes parallelNodes() {
+		return ParallelNodes.none();
+	}
+
 	static ImmutableEvaluationContext.Builder builder() {
 		return ImmutableEvaluationContext.builder();
 	}
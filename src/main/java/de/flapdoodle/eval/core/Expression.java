@@ -19,31 +19,175 @@ package de.flapdoodle.eval.core;
 import de.flapdoodle.eval.core.evaluables.Evaluated;
 import de.flapdoodle.eval.core.exceptions.EvaluationException;
 import de.flapdoodle.eval.core.exceptions.ParseException;
+import de.flapdoodle.eval.core.parser.SourceSlice;
+import de.flapdoodle.eval.core.parser.TokenBuffer;
+import de.flapdoodle.eval.core.tree.AsyncEvaluation;
+import de.flapdoodle.eval.core.tree.BatchEvaluation;
+import de.flapdoodle.eval.core.tree.CommonSubexpressionElimination;
+import de.flapdoodle.eval.core.tree.EvaluationFrame;
+import de.flapdoodle.eval.core.tree.Interner;
 import de.flapdoodle.eval.core.tree.Node;
+import de.flapdoodle.eval.core.tree.ParallelNodes;
+import de.flapdoodle.eval.core.tree.VariableFrame;
 import de.flapdoodle.eval.core.tree.Variables;
 import de.flapdoodle.reflection.TypeInfo;
+import de.flapdoodle.types.Either;
 import org.immutables.value.Value;
 
 import java.math.MathContext;
 import java.time.ZoneId;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @org.immutables.value.Value.Immutable
 public abstract class Expression {
 	protected abstract MathContext mathContext();
 	protected abstract ZoneId zoneId();
-	public abstract String source();
+	@Value.Auxiliary
+	protected abstract Optional<ParallelArguments> parallelArguments();
+	/**
+	 * the parsed chars, a reference to the passed char sequence (or a view of it) and not a copy
+	 */
+	public abstract SourceSlice sourceChars();
 	public abstract Node root();
 
+	/**
+	 * a copy of the tokens of the source, kept by {@link ExpressionFactory#reparse(Expression, int, int, CharSequence)}
+	 * and only read there
+	 */
+	@Value.Auxiliary
+	protected abstract Optional<TokenBuffer> tokens();
+
+	/**
+	 * the resolver passed to {@link ExpressionFactory#parse(String, VariableTypeResolver)}, used again by
+	 * {@link ExpressionFactory#reparse(Expression, int, int, CharSequence)}
+	 */
+	@Value.Auxiliary
+	protected abstract Optional<VariableTypeResolver> variableTypeResolver();
+
 	@org.immutables.value.Value.Auxiliary
 	public Evaluated<?> evaluate(VariableResolver variableResolver) throws EvaluationException, ParseException {
-		return root().evaluate(variableResolver, EvaluationContext.builder()
+		return root().evaluate(EvaluationFrame.of(variableResolver, sharedSlots()), evaluationContext());
+	}
+
+	/**
+	 * evaluates without blocking on evaluables which return a future, see
+	 * {@link de.flapdoodle.eval.core.evaluables.TypedEvaluable#evaluateAsync}, independent arguments wait concurrently.
+	 * Evaluation runs on the executor, which might use virtual threads. Completes with the result or the
+	 * {@link EvaluationException} of {@link #evaluate(VariableResolver)}.
+	 */
+	@org.immutables.value.Value.Auxiliary
+	public CompletableFuture<Evaluated<?>> evaluateAsync(VariableResolver variableResolver, Executor executor) {
+		return AsyncEvaluation.evaluate(root(), sharedSlots(), variableResolver, evaluationContext(), executor);
+	}
+
+	/**
+	 * evaluates all rows at once, one node at a time, with the same results as {@link #evaluate(VariableResolver)}
+	 * for each row, fails with the exception of the first failing row. Nodes with primitive argument columns are
+	 * evaluated without boxing if the evaluable has a {@link de.flapdoodle.eval.core.evaluables.Kernel}.
+	 */
+	@org.immutables.value.Value.Auxiliary
+	public Column evaluateBatch(Map<String, Column> columns) throws EvaluationException {
+		return BatchEvaluation.evaluate(root(), sharedSlots(), columns, evaluationContext());
+	}
+
+	/**
+	 * evaluates all rows in parallel on the common pool, results in input order, a failing row does not stop the others
+	 */
+	@org.immutables.value.Value.Auxiliary
+	public List<Either<Evaluated<?>, EvaluationException>> evaluateAll(List<? extends VariableResolver> rows) {
+		return evaluateAll(rows.spliterator(), ForkJoinPool.commonPool());
+	}
+
+	@org.immutables.value.Value.Auxiliary
+	public List<Either<Evaluated<?>, EvaluationException>> evaluateAll(List<? extends VariableResolver> rows, ForkJoinPool pool) {
+		return evaluateAll(rows.spliterator(), pool);
+	}
+
+	@org.immutables.value.Value.Auxiliary
+	public List<Either<Evaluated<?>, EvaluationException>> evaluateAll(Spliterator<? extends VariableResolver> rows) {
+		return evaluateAll(rows, ForkJoinPool.commonPool());
+	}
+
+	@org.immutables.value.Value.Auxiliary
+	public List<Either<Evaluated<?>, EvaluationException>> evaluateAll(Spliterator<? extends VariableResolver> rows, ForkJoinPool pool) {
+		return ParallelEvaluation.evaluateAll(compile(), rows, pool);
+	}
+
+	/**
+	 * see {@link ExpressionCollectors#asFunction(Expression)}
+	 */
+	@org.immutables.value.Value.Auxiliary
+	public Function<VariableResolver, Evaluated<?>> asFunction() {
+		return ExpressionCollectors.asFunction(this);
+	}
+
+	/**
+	 * see {@link ExpressionCollectors#asPredicate(Expression, Predicate)}
+	 */
+	@org.immutables.value.Value.Auxiliary
+	public Predicate<VariableResolver> asPredicate(Predicate<? super Evaluated<?>> isTrue) {
+		return ExpressionCollectors.asPredicate(this, isTrue);
+	}
+
+	@org.immutables.value.Value.Auxiliary
+	protected EvaluationContext evaluationContext() {
+		return EvaluationContext.builder()
 			.mathContext(mathContext())
 			.zoneId(zoneId())
-			.build());
+			.parallelArguments(parallelArguments())
+			.parallelNodes(parallelNodes())
+			.build();
+	}
+
+	/**
+	 * only computed if parallel arguments are configured
+	 */
+	@Value.Lazy
+	protected ParallelNodes parallelNodes() {
+		return parallelArguments()
+			.map(it -> ParallelNodes.of(root(), it))
+			.orElse(ParallelNodes.none());
+	}
+
+	/**
+	 * number of nodes replaced by a shared node, see {@link CommonSubexpressionElimination}
+	 */
+	@Value.Derived
+	@Value.Auxiliary
+	public int eliminatedNodes() {
+		return CommonSubexpressionElimination.eliminatedNodes(root());
+	}
+
+	@Value.Derived
+	@Value.Auxiliary
+	protected int sharedSlots() {
+		return CommonSubexpressionElimination.slots(root());
+	}
+
+	/**
+	 * compiled once, evaluates to the same results as {@link #evaluate(VariableResolver)}
+	 */
+	@Value.Lazy
+	public CompiledExpression compile() {
+		return CompiledExpression.of(this);
+	}
+
+	/**
+	 * like {@link #compile()}, but flattened into an instruction array, evaluation does not recurse into nested calls
+	 */
+	@Value.Lazy
+	public CompiledExpression compileFlat() {
+		return CompiledExpression.flat(this);
 	}
 
 	@org.immutables.value.Value.Auxiliary
@@ -51,9 +195,17 @@ public abstract class Expression {
 		return root().evaluateType(variableResolver);
 	}
 
-	@Value.Derived
+	/**
+	 * the parsed source, copied from {@link #sourceChars()} on first use
+	 */
+	@Value.Lazy
+	public String source() {
+		return sourceChars().toString();
+	}
+
+	@Value.Default
 	public Variables variables() {
-		return Node.hashedUsedVariables(source(), root());
+		return Node.hashedUsedVariables(sourceChars(), root());
 	}
 
 	@Value.Lazy
@@ -61,6 +213,14 @@ public abstract class Expression {
 		return variables().nameHashMap();
 	}
 
+	/**
+	 * resolves each used variable once, compiled expressions read them by slot
+	 */
+	@org.immutables.value.Value.Auxiliary
+	public VariableFrame frame(VariableResolver variableResolver) {
+		return VariableFrame.of(variables(), variableResolver);
+	}
+
 	@org.immutables.value.Value.Derived
 	public Set<String> usedVariables() {
 		return variables().names();
@@ -73,6 +233,18 @@ public abstract class Expression {
 			.collect(Collectors.toSet());
 	}
 
+	/**
+	 * an equal expression, which shares token values, variable names and constants with all expressions compacted
+	 * with the same interner, without the tokens kept for {@link ExpressionFactory#reparse(Expression, int, int, CharSequence)}
+	 */
+	@org.immutables.value.Value.Auxiliary
+	public Expression compact(Interner interner) {
+		return ImmutableExpression.copyOf(this)
+			.withRoot(interner.node(root()))
+			.withVariables(interner.variables(variables()))
+			.withTokens(Optional.empty());
+	}
+
 	@org.immutables.value.Value.Auxiliary
 	public List<Node> allNodes() {
 		return Node.allNodes(root());
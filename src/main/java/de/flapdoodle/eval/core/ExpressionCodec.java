@@ -0,0 +1,339 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core;
+
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.parser.SourceSlice;
+import de.flapdoodle.eval.core.parser.Token;
+import de.flapdoodle.eval.core.parser.TokenType;
+import de.flapdoodle.eval.core.tree.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * versioned binary format of parsed expressions. Nodes are written with their tokens, functions and operators
+ * by name only, so they are resolved against the {@link ExpressionFactory} used for reading, which must use the
+ * same operators. Reading an expression does not need the tokenizer or parser.
+ * <p>
+ * Values of {@link ValueNode}s are written with {@link ExpressionFactory#valueCodec()}, literals the codec does not
+ * support are parsed again, constants are always taken from the reading factory. Nodes bound to variable types
+ * are read unbound.
+ */
+public final class ExpressionCodec {
+	public static final int MAGIC = 0x45564558;
+	public static final int VERSION = 2;
+
+	private static final int LOOKUP = 0;
+	private static final int LITERAL = 1;
+	private static final int VALUE = 2;
+	private static final int EVALUATABLE = 3;
+	private static final int SHARED = 4;
+	private static final int SHARED_REFERENCE = 5;
+
+	private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+	private final ExpressionFactory factory;
+
+	private ExpressionCodec(ExpressionFactory factory) {
+		this.factory = factory;
+	}
+
+	public static ExpressionCodec of(ExpressionFactory factory) {
+		return new ExpressionCodec(factory);
+	}
+
+	public void writeAll(List<Expression> expressions, OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+		writeHeader(data);
+		writeVarInt(data, expressions.size());
+		for (Expression expression : expressions) {
+			write(expression, data);
+		}
+		data.flush();
+	}
+
+	public List<Expression> readAll(InputStream in) throws IOException, EvaluationException {
+		DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+		readHeader(data);
+		int count = readVarInt(data);
+		List<Expression> expressions = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			expressions.add(read(data));
+		}
+		return expressions;
+	}
+
+	public static void writeHeader(DataOutput out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeShort(VERSION);
+	}
+
+	public static void readHeader(DataInput in) throws IOException {
+		int magic = in.readInt();
+		if (magic != MAGIC) {
+			throw new StreamCorruptedException(String.format("not an expression bundle: %08x", magic));
+		}
+		int version = in.readUnsignedShort();
+		if (version != VERSION) {
+			throw new InvalidClassException(ExpressionCodec.class.getName(), "unsupported version " + version + ", expected " + VERSION);
+		}
+	}
+
+	/**
+	 * writes one expression without header
+	 */
+	public void write(Expression expression, DataOutput out) throws IOException {
+		CharSequence source = expression.sourceChars();
+		writeString(out, source);
+		writeNode(out, source, expression.root(), new HashSet<>());
+
+		List<Variable> variables = expression.variables().list();
+		writeVarInt(out, variables.size());
+		for (Variable variable : variables) {
+			writeVarInt(out, variable.position());
+			writeValue(out, source, variable.position(), variable.name());
+			out.writeInt(variable.hash());
+		}
+	}
+
+	/**
+	 * reads one expression written by {@link #write(Expression, DataOutput)}
+	 */
+	public Expression read(DataInput in) throws IOException, EvaluationException {
+		String source = readString(in);
+		Node root = readNode(in, source, new HashMap<>());
+
+		int count = readVarInt(in);
+		ImmutableVariables.Builder variables = Variables.builder();
+		for (int i = 0; i < count; i++) {
+			int position = readVarInt(in);
+			String name = readValue(in, source, position);
+			variables.addList(Variable.of(name, in.readInt(), position));
+		}
+
+		return Expression.builder()
+			.mathContext(factory.mathContext())
+			.zoneId(factory.zoneId())
+			.parallelArguments(factory.parallelArguments())
+			.sourceChars(SourceSlice.of(source))
+			.root(root)
+			.variables(variables.build())
+			.build();
+	}
+
+	private void writeNode(DataOutput out, CharSequence source, Node node, Set<Integer> writtenSlots) throws IOException {
+		if (node instanceof SharedNode) {
+			int slot = ((SharedNode) node).slot();
+			if (writtenSlots.add(slot)) {
+				out.writeByte(SHARED);
+				writeVarInt(out, slot);
+				writeToken(out, source, node.token());
+				writeNode(out, source, Node.subnodes(node).get(0), writtenSlots);
+			} else {
+				out.writeByte(SHARED_REFERENCE);
+				writeVarInt(out, slot);
+				writeToken(out, source, node.token());
+			}
+		} else if (node instanceof LookupNode) {
+			out.writeByte(LOOKUP);
+			writeToken(out, source, node.token());
+		} else if (node instanceof ValueNode) {
+			Evaluated<?> value = ((ValueNode<?>) node).value();
+			TokenType type = node.token().type();
+			if (type != TokenType.VARIABLE_OR_CONSTANT && factory.valueCodec().canWrite(value)) {
+				out.writeByte(VALUE);
+				writeToken(out, source, node.token());
+				factory.valueCodec().write(value, out);
+			} else if (type == TokenType.NUMBER_LITERAL || type == TokenType.STRING_LITERAL || type == TokenType.VARIABLE_OR_CONSTANT) {
+				out.writeByte(LITERAL);
+				writeToken(out, source, node.token());
+			} else {
+				throw new NotSerializableException("value of " + node.token() + ": " + value);
+			}
+		} else if (node instanceof EvaluatableNode) {
+			List<Node> parameters = Node.subnodes(node);
+			out.writeByte(EVALUATABLE);
+			writeToken(out, source, node.token());
+			if (node.token().type() == TokenType.STRUCTURE_SEPARATOR) {
+				writeNode(out, source, parameters.get(0), writtenSlots);
+				writeToken(out, source, parameters.get(1).token());
+			} else {
+				writeVarInt(out, parameters.size());
+				for (Node parameter : parameters) {
+					writeNode(out, source, parameter, writtenSlots);
+				}
+			}
+		} else {
+			throw new NotSerializableException(node.getClass().getName());
+		}
+	}
+
+	private Node readNode(DataInput in, String source, Map<Integer, Node> sharedBodies) throws IOException, EvaluationException {
+		int tag = in.readUnsignedByte();
+		switch (tag) {
+			case SHARED: {
+				int slot = readVarInt(in);
+				Token token = readToken(in, source);
+				Node body = readNode(in, source, sharedBodies);
+				sharedBodies.put(slot, body);
+				return SharedNode.of(slot, body, token);
+			}
+			case SHARED_REFERENCE: {
+				int slot = readVarInt(in);
+				Token token = readToken(in, source);
+				Node body = sharedBodies.get(slot);
+				if (body == null) {
+					throw new StreamCorruptedException("shared node not found: " + slot);
+				}
+				return SharedNode.of(slot, body, token);
+			}
+			case LOOKUP:
+				return LookupNode.of(readToken(in, source));
+			case LITERAL: {
+				Token token = readToken(in, source);
+				switch (token.type()) {
+					case NUMBER_LITERAL:
+						return factory.numberLiteral(token);
+					case STRING_LITERAL:
+						return factory.stringLiteral(token);
+					default:
+						return factory.variableOrConstant(token);
+				}
+			}
+			case VALUE:
+				return ValueNode.of(readToken(in, source), factory.valueCodec().read(in));
+			case EVALUATABLE:
+				return readEvaluatable(in, source, readToken(in, source), sharedBodies);
+			default:
+				throw new StreamCorruptedException("unknown node: " + tag);
+		}
+	}
+
+	private Node readEvaluatable(DataInput in, String source, Token token, Map<Integer, Node> sharedBodies) throws IOException, EvaluationException {
+		if (token.type() == TokenType.STRUCTURE_SEPARATOR) {
+			Node structure = readNode(in, source, sharedBodies);
+			return factory.structureSeparator(token, structure, readToken(in, source));
+		}
+
+		int count = readVarInt(in);
+		List<Node> parameters = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			parameters.add(readNode(in, source, sharedBodies));
+		}
+
+		switch (token.type()) {
+			case PREFIX_OPERATOR:
+				return factory.prefixOperator(token, parameters.get(0));
+			case POSTFIX_OPERATOR:
+				return factory.postfixOperator(token, parameters.get(0));
+			case INFIX_OPERATOR:
+				return factory.infixOperator(token, parameters.get(0), parameters.get(1));
+			case ARRAY_INDEX:
+				return factory.arrayIndex(token, parameters.get(0), parameters.get(1));
+			case ASSOCIATE_INDEX:
+				return factory.associateIndex(token, parameters.get(0), parameters.get(1));
+			case FUNCTION:
+				return factory.function(token, parameters);
+			default:
+				throw new StreamCorruptedException("unexpected evaluatable token: " + token);
+		}
+	}
+
+	private static void writeToken(DataOutput out, CharSequence source, Token token) throws IOException {
+		out.writeByte(token.type().ordinal());
+		writeVarInt(out, token.start());
+		writeValue(out, source, token.start(), token.value());
+	}
+
+	private static Token readToken(DataInput in, String source) throws IOException {
+		int type = in.readUnsignedByte();
+		if (type >= TOKEN_TYPES.length) {
+			throw new StreamCorruptedException("unknown token type: " + type);
+		}
+		int start = readVarInt(in);
+		return Token.of(start, readValue(in, source, start), TOKEN_TYPES[type]);
+	}
+
+	// most token values are a copy of the source at the token position, only the length is written
+	private static void writeValue(DataOutput out, CharSequence source, int start, String value) throws IOException {
+		if (isSourceAt(source, start, value)) {
+			writeVarInt(out, value.length() << 1);
+		} else {
+			writeVarInt(out, 1);
+			writeString(out, value);
+		}
+	}
+
+	private static String readValue(DataInput in, String source, int start) throws IOException {
+		int lengthOrFlag = readVarInt(in);
+		if ((lengthOrFlag & 1) != 0) {
+			return readString(in);
+		}
+		int end = start + (lengthOrFlag >>> 1);
+		if (end > source.length()) {
+			throw new StreamCorruptedException("token out of source: " + start + ".." + end);
+		}
+		return source.substring(start, end);
+	}
+
+	private static boolean isSourceAt(CharSequence source, int start, String value) {
+		if (start + value.length() > source.length()) {
+			return false;
+		}
+		for (int i = 0; i < value.length(); i++) {
+			if (source.charAt(start + i) != value.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void writeString(DataOutput out, CharSequence value) throws IOException {
+		byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+		writeVarInt(out, bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInput in) throws IOException {
+		byte[] bytes = new byte[readVarInt(in)];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void writeVarInt(DataOutput out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private static int readVarInt(DataInput in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new StreamCorruptedException("malformed var int");
+	}
+}
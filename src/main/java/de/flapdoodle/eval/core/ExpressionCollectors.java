@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core;
+
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.tree.VariableFrame;
+
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * expressions as functions, predicates and collectors for {@link java.util.stream.Stream}s of rows, safe to use with
+ * parallel streams. Evaluation errors are thrown as {@link EvaluationException.AsRuntimeException}.
+ */
+public abstract class ExpressionCollectors {
+
+	private ExpressionCollectors() {
+		// no instance
+	}
+
+	public static Function<VariableResolver, Evaluated<?>> asFunction(Expression expression) {
+		CompiledExpression compiled = expression.compile();
+		return row -> evaluate(compiled, row);
+	}
+
+	/**
+	 * @param isTrue decides if a result matches, for example a check for a boolean value
+	 */
+	public static Predicate<VariableResolver> asPredicate(Expression expression, Predicate<? super Evaluated<?>> isTrue) {
+		CompiledExpression compiled = expression.compile();
+		return row -> isTrue.test(evaluate(compiled, row));
+	}
+
+	/**
+	 * evaluates the expression for each row and passes the result downstream
+	 */
+	public static <A, R> Collector<VariableResolver, ?, R> mapping(Expression expression, Collector<? super Evaluated<?>, A, R> downstream) {
+		return Collectors.mapping(asFunction(expression), downstream);
+	}
+
+	/**
+	 * evaluates the expression for each row and combines the results with an expression of two variables, the first
+	 * one used is the result so far, the second the next result, like 'sum + value'. The combination must be
+	 * associative for parallel streams.
+	 */
+	public static Collector<VariableResolver, ?, Optional<Evaluated<?>>> reducing(Expression expression, Expression combine) {
+		if (combine.usedVariables().size() != 2) {
+			throw new IllegalArgumentException("combine expression must use two variables: " + combine.usedVariables());
+		}
+		CompiledExpression compiled = expression.compile();
+		CompiledExpression combined = combine.compile();
+
+		return Collector.of(
+			() -> new Reduction(combined, combine.frame(VariableResolver.empty())),
+			(reduction, row) -> reduction.add(evaluate(compiled, row)),
+			(first, second) -> {
+				if (second.result != null) {
+					first.add(second.result);
+				}
+				return first;
+			},
+			reduction -> Optional.ofNullable(reduction.result)
+		);
+	}
+
+	// one per stream segment, so the frame is never shared between threads
+	private static final class Reduction {
+		private final CompiledExpression combine;
+		private final VariableFrame frame;
+		private Evaluated<?> result;
+
+		private Reduction(CompiledExpression combine, VariableFrame frame) {
+			this.combine = combine;
+			this.frame = frame;
+		}
+
+		private void add(Evaluated<?> value) {
+			if (result == null) {
+				result = value;
+			} else {
+				frame.set(0, result).set(1, value);
+				result = evaluate(combine, frame);
+			}
+		}
+	}
+
+	private static Evaluated<?> evaluate(CompiledExpression expression, VariableResolver row) {
+		try {
+			return expression.evaluate(row);
+		}
+		catch (EvaluationException ex) {
+			throw new EvaluationException.AsRuntimeException(ex);
+		}
+	}
+}
@@ -16,12 +16,18 @@
  */
 package de.flapdoodle.eval.core;
 
+import de.flapdoodle.checks.Preconditions;
+import de.flapdoodle.eval.core.cache.CacheStats;
+import de.flapdoodle.eval.core.cache.LruCache;
 import de.flapdoodle.eval.core.evaluables.*;
+import de.flapdoodle.eval.core.exceptions.BaseException;
 import de.flapdoodle.eval.core.exceptions.EvaluationException;
 import de.flapdoodle.eval.core.exceptions.ParseException;
 import de.flapdoodle.eval.core.parser.ASTNode;
 import de.flapdoodle.eval.core.parser.ShuntingYardConverter;
+import de.flapdoodle.eval.core.parser.SourceSlice;
 import de.flapdoodle.eval.core.parser.Token;
+import de.flapdoodle.eval.core.parser.TokenBuffer;
 import de.flapdoodle.eval.core.parser.Tokenizer;
 import de.flapdoodle.eval.core.tree.*;
 
@@ -45,6 +51,12 @@ public abstract class ExpressionFactory {
 	}
 
 	public  abstract VariableResolver constants();
+
+	/**
+	 * evaluate arguments of expensive evaluables in parallel, see {@link ParallelArguments}
+	 */
+	public abstract Optional<ParallelArguments> parallelArguments();
+
 	public  abstract TypedEvaluableByName evaluatables();
 	protected abstract TypedEvaluableByNumberOfArguments arrayAccess();
 	protected abstract TypedEvaluableByNumberOfArguments associateAccess();
@@ -55,6 +67,56 @@ public abstract class ExpressionFactory {
 
 	public abstract OperatorMap operatorMap();
 
+	/**
+	 * number of parsed expressions kept by {@link #parse(String)}, 0 disables caching
+	 */
+	@org.immutables.value.Value.Default
+	public int parsedExpressionCacheSize() {
+		return 0;
+	}
+
+	/**
+	 * evaluate subtrees without variables at parse time, see {@link ConstantFolding}
+	 */
+	@org.immutables.value.Value.Default
+	public boolean constantFolding() {
+		return false;
+	}
+
+	/**
+	 * evaluate structurally identical subtrees only once, see {@link CommonSubexpressionElimination}
+	 */
+	@org.immutables.value.Value.Default
+	public boolean commonSubexpressionElimination() {
+		return false;
+	}
+
+	/**
+	 * parse without token list and abstract syntax tree, see {@link SinglePassParser}
+	 */
+	@org.immutables.value.Value.Default
+	public boolean singlePassParser() {
+		return false;
+	}
+
+	/**
+	 * writes and reads values of parsed expressions, see {@link ExpressionCodec}
+	 */
+	@org.immutables.value.Value.Default
+	protected ValueCodec valueCodec() {
+		return ValueCodec.none();
+	}
+
+	@org.immutables.value.Value.Lazy
+	protected LruCache<String, Expression> parsedExpressionCache() {
+		return new LruCache<>(parsedExpressionCacheSize());
+	}
+
+	@org.immutables.value.Value.Check
+	protected void check() {
+		Preconditions.checkArgument(parsedExpressionCacheSize() >= 0, "parsedExpressionCacheSize must not be negative: %s", parsedExpressionCacheSize());
+	}
+
 	@org.immutables.value.Value.Auxiliary
 	public final ImmutableExpressionFactory withConstant(String name, Evaluated<?> value) {
 		return ImmutableExpressionFactory.copyOf(this)
@@ -65,25 +127,127 @@ public abstract class ExpressionFactory {
 
 	@org.immutables.value.Value.Auxiliary
 	public Expression parse(String expression) throws ParseException, EvaluationException {
-		Node node = map(abstractSyntaxTree(expression));
+		if (parsedExpressionCacheSize() > 0) {
+			try {
+				return parsedExpressionCache().get(expression, this::parseUncached);
+			}
+			catch (ParseException | EvaluationException ex) {
+				throw ex;
+			}
+			catch (BaseException ex) {
+				throw new IllegalStateException("unexpected exception", ex);
+			}
+		}
+		return parseUncached(expression);
+	}
+
+	@org.immutables.value.Value.Auxiliary
+	public CacheStats parsedExpressionCacheStats() {
+		return parsedExpressionCacheSize() > 0
+			? parsedExpressionCache().stats()
+			: CacheStats.empty();
+	}
+
+	/**
+	 * binds each evaluable node to the evaluable matching the declared variable types, type
+	 * errors are thrown here instead of on evaluation, see {@link TypeBinding}
+	 */
+	@org.immutables.value.Value.Auxiliary
+	public Expression parse(String expression, VariableTypeResolver variableTypeResolver) throws ParseException, EvaluationException {
+		return parse(expression, Optional.of(variableTypeResolver));
+	}
+
+	/**
+	 * parses {@code length} chars of the source starting at {@code offset} without copying them first, the
+	 * expression keeps {@link CharSequence#subSequence(int, int)} of the source (a view for a
+	 * {@link java.nio.CharBuffer}), results are not cached
+	 */
+	@org.immutables.value.Value.Auxiliary
+	public Expression parse(CharSequence source, int offset, int length) throws ParseException, EvaluationException {
+		return parse(source.subSequence(offset, offset + length), Optional.empty());
+	}
+
+	/**
+	 * parses the source of {@code previous} (an expression of this factory) after replacing {@code removedLength}
+	 * chars at {@code offset} with {@code inserted}. Only tokens around the edit are scanned again, function calls
+	 * outside of the edit are taken from the previous expression, which also provides the {@link VariableTypeResolver}
+	 * passed to {@link #parse(String, VariableTypeResolver)}. Results are not cached.
+	 */
+	@org.immutables.value.Value.Auxiliary
+	public Expression reparse(Expression previous, int offset, int removedLength, CharSequence inserted) throws ParseException, EvaluationException {
+		CharSequence previousSource = previous.sourceChars();
+		Preconditions.checkArgument(offset >= 0 && removedLength >= 0 && offset + removedLength <= previousSource.length(),
+			"edit out of range: %s+%s, length %s", offset, removedLength, previousSource.length());
+
+		String source = new StringBuilder(previousSource.length() - removedLength + inserted.length())
+			.append(previousSource, 0, offset)
+			.append(inserted)
+			.append(previousSource, offset + removedLength, previousSource.length())
+			.toString();
+
+		TokenBuffer previousTokens = previous.tokens().isPresent()
+			? previous.tokens().get()
+			: new Tokenizer(operatorMap()).tokenize(previousSource);
+		TokenBuffer tokens = new Tokenizer(operatorMap())
+			.retokenize(previousTokens, source, offset, removedLength, inserted.length());
+
+		SinglePassParser parser = new SinglePassParser(this, tokens, ReusableSubtrees.of(previous.root()));
+		return expression(source, parser.parse(), parser.variables(), previous.variableTypeResolver(), Optional.of(tokens));
+	}
+
+	private Expression parseUncached(String expression) throws ParseException, EvaluationException {
+		return parse(expression, Optional.empty());
+	}
+
+	private Expression parse(CharSequence expression, Optional<VariableTypeResolver> variableTypeResolver) throws ParseException, EvaluationException {
+		if (singlePassParser()) {
+			SinglePassParser parser = new SinglePassParser(this, expression);
+			return expression(expression, parser.parse(), parser.variables(), variableTypeResolver, Optional.empty());
+		}
+		return expression(expression, map(abstractSyntaxTree(expression)), null, variableTypeResolver, Optional.empty());
+	}
+
+	private Expression expression(CharSequence expression, Node node, Variables variables, Optional<VariableTypeResolver> variableTypeResolver,
+		Optional<TokenBuffer> tokens) throws EvaluationException {
+		if (constantFolding()) {
+			node = ConstantFolding.fold(node, EvaluationContext.builder()
+				.mathContext(mathContext())
+				.zoneId(zoneId())
+				.build());
+		}
+		if (variableTypeResolver.isPresent()) {
+			node = TypeBinding.bind(node, variableTypeResolver.get());
+		}
+		// variable positions refer to the source, so they are collected before subtrees get shared
+		if (variables == null || constantFolding()) {
+			// folding may remove unused branches
+			variables = Node.hashedUsedVariables(expression, node);
+		}
+		if (commonSubexpressionElimination()) {
+			node = CommonSubexpressionElimination.eliminate(node);
+		}
 		return Expression.builder()
 			.mathContext(mathContext())
 			.zoneId(zoneId())
+			.parallelArguments(parallelArguments())
 			.root(node)
-			.source(expression)
+			.sourceChars(SourceSlice.of(expression))
+			.variables(variables)
+			.tokens(tokens.map(TokenBuffer::copy))
+			.variableTypeResolver(variableTypeResolver)
 			.build();
 	}
 
 	// VisibleForTests
 	@org.immutables.value.Value.Auxiliary
-	public ASTNode abstractSyntaxTree(String expression) throws ParseException {
+	public ASTNode abstractSyntaxTree(CharSequence expression) throws ParseException {
 		return new ShuntingYardConverter(expression, tokens(expression), operatorMap(), evaluatables())
 			.toAbstractSyntaxTree();
 	}
 
 	// VisibleForTests
 	@org.immutables.value.Value.Auxiliary
-	public List<Token> tokens(String expression) throws ParseException {
+	public List<Token> tokens(CharSequence expression) throws ParseException {
 		return new Tokenizer(expression, operatorMap()).parse();
 	}
 
@@ -93,34 +257,34 @@ public abstract class ExpressionFactory {
 		Token token = startNode.getToken();
 		switch (token.type()) {
 			case NUMBER_LITERAL:
-				result = ValueNode.of(token, Evaluated.value(numberAsValue().parse(token.value(), mathContext())));
+				result = numberLiteral(token);
 				break;
 			case STRING_LITERAL:
-				result = ValueNode.of(token, Evaluated.value(stringAsValue().parse(token.value())));
+				result = stringLiteral(token);
 				break;
 			case VARIABLE_OR_CONSTANT:
-				result = getVariableOrConstant(token);
+				result = variableOrConstant(token);
 				break;
 			case PREFIX_OPERATOR:
-				result = prefixOperator(startNode, token);
+				result = prefixOperator(token, map(startNode.getParameters().get(0)));
 				break;
 			case POSTFIX_OPERATOR:
-				result = postfixOperator(startNode, token);
+				result = postfixOperator(token, map(startNode.getParameters().get(0)));
 				break;
 			case INFIX_OPERATOR:
-				result = infixOperator(startNode, token);
+				result = infixOperator(token, map(startNode.getParameters().get(0)), map(startNode.getParameters().get(1)));
 				break;
 			case ARRAY_INDEX:
-				result = evaluateArrayIndex(startNode);
+				result = arrayIndex(token, map(startNode.getParameters().get(0)), map(startNode.getParameters().get(1)));
 				break;
 			case ASSOCIATE_INDEX:
-				result = evaluateAssociateIndex(startNode);
+				result = associateIndex(token, map(startNode.getParameters().get(0)), map(startNode.getParameters().get(1)));
 				break;
 			case STRUCTURE_SEPARATOR:
-				result = evaluateStructureSeparator(startNode);
+				result = structureSeparator(token, map(startNode.getParameters().get(0)), startNode.getParameters().get(1).getToken());
 				break;
 			case FUNCTION:
-				result = evaluateFunction(startNode, token);
+				result = function(token, mapAll(startNode.getParameters()));
 				break;
 			default:
 				throw new EvaluationException(token, "Unexpected evaluation token: " + token);
@@ -128,13 +292,36 @@ public abstract class ExpressionFactory {
 		return result;
 	}
 
-	private Node postfixOperator(ASTNode startNode, Token token) throws EvaluationException {
-		List<Node> parameters = Arrays.asList(map(startNode.getParameters().get(0)));
+	private List<Node> mapAll(List<ASTNode> nodes) throws EvaluationException {
+		List<Node> parameterResults = new ArrayList<>();
+		for (ASTNode node : nodes) {
+			parameterResults.add(map(node));
+		}
+		return parameterResults;
+	}
+
+	Node numberLiteral(Token token) {
+		return ValueNode.of(token, Evaluated.value(numberAsValue().parse(token.value(), mathContext())));
+	}
+
+	Node stringLiteral(Token token) {
+		return ValueNode.of(token, Evaluated.value(stringAsValue().parse(token.value())));
+	}
+
+	Node variableOrConstant(Token token) {
+		Evaluated<?> result = constants().get(token.value());
+		if (result!=null) {
+			return ValueNode.of(token, result);
+		}
+		return LookupNode.of(token);
+	}
+
+	Node postfixOperator(Token token, Node operand) throws EvaluationException {
 		Optional<OperatorMapping> operatorMapping = operatorMap().postfixOperator(token.value());
 
 		if (!operatorMapping.isPresent()) throw new EvaluationException(token, "could not find postfix operator");
 
-		return evaluatableNode(token, operatorMapping.get(), parameters);
+		return evaluatableNode(token, operatorMapping.get(), Arrays.asList(operand));
 	}
 
 	private EvaluatableNode evaluatableNode(Token token, OperatorMapping operatorMapping, List<Node> parameters) {
@@ -146,78 +333,54 @@ public abstract class ExpressionFactory {
 		}
 	}
 
-	private Node infixOperator(ASTNode startNode, Token token) throws EvaluationException {
-		Node first = map(startNode.getParameters().get(0));
-		Node second = map(startNode.getParameters().get(1));
-		List<Node> parameters = Arrays.asList(first, second);
+	Node infixOperator(Token token, Node first, Node second) throws EvaluationException {
 		Optional<OperatorMapping> operatorMapping = operatorMap().infixOperator(token.value());
 
 		if (!operatorMapping.isPresent()) throw new EvaluationException(token, "could not find infix operator");
 
-		return evaluatableNode(token, operatorMapping.get(), parameters);
+		return evaluatableNode(token, operatorMapping.get(), Arrays.asList(first, second));
 	}
 
-	private Node prefixOperator(ASTNode startNode, Token token) throws EvaluationException {
-		List<Node> parameters = Arrays.asList(map(startNode.getParameters().get(0)));
+	Node prefixOperator(Token token, Node operand) throws EvaluationException {
 		Optional<OperatorMapping> operatorMapping = operatorMap().prefixOperator(token.value());
 
 		if (!operatorMapping.isPresent()) throw new EvaluationException(token, "could not find prefix operator");
 
-		return evaluatableNode(token, operatorMapping.get(), parameters);
+		return evaluatableNode(token, operatorMapping.get(), Arrays.asList(operand));
 	}
 
-	private Node getVariableOrConstant(Token token) {
-		Evaluated<?> result = constants().get(token.value());
-		if (result!=null) {
-			return ValueNode.of(token, result);
-		}
-		return LookupNode.of(token);
-	}
-
-	private Node evaluateFunction(ASTNode startNode, Token token) throws EvaluationException {
-		List<Node> parameterResults = new ArrayList<>();
-		for (int i = 0; i < startNode.getParameters().size(); i++) {
-			parameterResults.add(map(startNode.getParameters().get(i)));
-		}
-
-		Optional<? extends TypedEvaluableByArguments> evaluatable = evaluatables().find(token.value(),
-			startNode.getParameters().size());
+	Node function(Token token, List<Node> parameters) throws EvaluationException {
+		Optional<? extends TypedEvaluableByArguments> evaluatable = evaluatables().find(token.value(), parameters.size());
 
 		if (!evaluatable.isPresent()) throw new EvaluationException(token, "could not find evaluatable");
 
-		return EvaluatableNode.of(token, evaluatable.get(), parameterResults, exceptionMapper());
+		return EvaluatableNode.of(token, evaluatable.get(), parameters, exceptionMapper());
 	}
 
-	private Node evaluateArrayIndex(ASTNode startNode) throws EvaluationException {
-		Node objectNode = map(startNode.getParameters().get(0));
-		Node indexNode = map(startNode.getParameters().get(1));
+	Node arrayIndex(Token token, Node objectNode, Node indexNode) throws EvaluationException {
 		Optional<? extends TypedEvaluableByArguments> arrayAccess = arrayAccess().filterByNumberOfArguments(2);
 
-		if (!arrayAccess.isPresent()) throw new EvaluationException(startNode.getToken(), "could not find array access");
+		if (!arrayAccess.isPresent()) throw new EvaluationException(token, "could not find array access");
 
-		return EvaluatableNode.of(startNode.getToken(), arrayAccess.get(), Arrays.asList(objectNode, indexNode), exceptionMapper());
+		return EvaluatableNode.of(token, arrayAccess.get(), Arrays.asList(objectNode, indexNode), exceptionMapper());
 	}
 
-	private Node evaluateAssociateIndex(ASTNode startNode) throws EvaluationException {
-		Node objectNode = map(startNode.getParameters().get(0));
-		Node indexNode = map(startNode.getParameters().get(1));
+	Node associateIndex(Token token, Node objectNode, Node indexNode) throws EvaluationException {
 		Optional<? extends TypedEvaluableByArguments> associateAccess = associateAccess().filterByNumberOfArguments(2);
 
-		if (!associateAccess.isPresent()) throw new EvaluationException(startNode.getToken(), "could not find associate access");
+		if (!associateAccess.isPresent()) throw new EvaluationException(token, "could not find associate access");
 
-		return EvaluatableNode.of(startNode.getToken(), associateAccess.get(), Arrays.asList(objectNode, indexNode), exceptionMapper());
+		return EvaluatableNode.of(token, associateAccess.get(), Arrays.asList(objectNode, indexNode), exceptionMapper());
 	}
 	
-	private Node evaluateStructureSeparator(ASTNode startNode) throws EvaluationException {
-		Node structure = map(startNode.getParameters().get(0));
-		Token nameToken = startNode.getParameters().get(1).getToken();
+	Node structureSeparator(Token token, Node structure, Token nameToken) throws EvaluationException {
 		Node name = ValueNode.of(nameToken, Evaluated.value(stringAsValue().parse(nameToken.value())));
 
 		Optional<? extends TypedEvaluableByArguments> propertyAccess = propertyAccess().filterByNumberOfArguments(2);
 
-		if (!propertyAccess.isPresent()) throw new EvaluationException(startNode.getToken(), "could not find property access");
+		if (!propertyAccess.isPresent()) throw new EvaluationException(token, "could not find property access");
 
-		return EvaluatableNode.of(startNode.getToken(), propertyAccess.get(), Arrays.asList(structure, name), exceptionMapper());
+		return EvaluatableNode.of(token, propertyAccess.get(), Arrays.asList(structure, name), exceptionMapper());
 	}
 
 	public static ImmutableExpressionFactory.Builder builder() {
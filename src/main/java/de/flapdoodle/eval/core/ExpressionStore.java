@@ -0,0 +1,245 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core;
+
+import de.flapdoodle.checks.Preconditions;
+import de.flapdoodle.eval.core.cache.CacheStats;
+import de.flapdoodle.eval.core.cache.LruCache;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * expressions by id in a memory mapped file, an expression is read with {@link ExpressionCodec} when it is
+ * requested for the first time and kept in a size bounded cache. Opening a store reads only header and trailer,
+ * ids are found by binary search in the mapped file, so neither startup time nor heap usage grow with the number
+ * of expressions. Functions and operators are resolved against the {@link ExpressionFactory} passed to
+ * {@link #open(Path, ExpressionFactory, int)}.
+ * <p>
+ * Layout: codec header, expressions sorted by id, ids, index of (id offset, expression offset) sorted by id,
+ * trailer of (count, index offset, magic). A store must not be larger than 2GB.
+ */
+public final class ExpressionStore {
+	public static final int MAGIC = 0x45565354;
+
+	private static final int TRAILER_SIZE = 12;
+	private static final int INDEX_ENTRY_SIZE = 8;
+
+	private final ByteBuffer buffer;
+	private final ExpressionCodec codec;
+	private final int count;
+	private final int indexOffset;
+	private final LruCache<String, Expression> cache;
+
+	private ExpressionStore(ByteBuffer buffer, ExpressionCodec codec, int count, int indexOffset, int cacheSize) {
+		this.buffer = buffer;
+		this.codec = codec;
+		this.count = count;
+		this.indexOffset = indexOffset;
+		this.cache = cacheSize > 0 ? new LruCache<>(cacheSize) : null;
+	}
+
+	public int size() {
+		return count;
+	}
+
+	public boolean contains(String id) {
+		return indexOf(id) >= 0;
+	}
+
+	public Optional<Expression> get(String id) throws IOException, EvaluationException {
+		int index = indexOf(id);
+		if (index < 0) {
+			return Optional.empty();
+		}
+		int expressionOffset = buffer.getInt(indexOffset + index * INDEX_ENTRY_SIZE + 4);
+		if (cache == null) {
+			return Optional.of(read(expressionOffset));
+		}
+		try {
+			return Optional.of(cache.get(id, key -> read(expressionOffset)));
+		}
+		catch (IOException | EvaluationException ex) {
+			throw ex;
+		}
+		catch (Exception ex) {
+			throw new IllegalStateException("unexpected exception", ex);
+		}
+	}
+
+	/**
+	 * all ids in store order, read from the mapped file one at a time
+	 */
+	public Iterable<String> ids() {
+		return () -> new Iterator<String>() {
+			int index = 0;
+
+			@Override
+			public boolean hasNext() {
+				return index < count;
+			}
+
+			@Override
+			public String next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return id(index++);
+			}
+		};
+	}
+
+	public Optional<CacheStats> cacheStats() {
+		return cache != null
+			? Optional.of(cache.stats())
+			: Optional.empty();
+	}
+
+	private Expression read(int expressionOffset) throws IOException, EvaluationException {
+		return codec.read(new ByteBufferInput(buffer, expressionOffset));
+	}
+
+	private String id(int index) {
+		int idOffset = buffer.getInt(indexOffset + index * INDEX_ENTRY_SIZE);
+		byte[] bytes = new byte[buffer.getInt(idOffset)];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = buffer.get(idOffset + 4 + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private int indexOf(String id) {
+		byte[] key = id.getBytes(StandardCharsets.UTF_8);
+		int low = 0;
+		int high = count - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int compared = compareId(buffer.getInt(indexOffset + middle * INDEX_ENTRY_SIZE), key);
+			if (compared < 0) {
+				low = middle + 1;
+			} else if (compared > 0) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -1;
+	}
+
+	private int compareId(int idOffset, byte[] key) {
+		int length = buffer.getInt(idOffset);
+		int common = Math.min(length, key.length);
+		for (int i = 0; i < common; i++) {
+			int compared = Integer.compare(buffer.get(idOffset + 4 + i) & 0xFF, key[i] & 0xFF);
+			if (compared != 0) {
+				return compared;
+			}
+		}
+		return Integer.compare(length, key.length);
+	}
+
+	public static ExpressionStore open(Path file, ExpressionFactory factory, int cacheSize) throws IOException {
+		Preconditions.checkArgument(cacheSize >= 0, "cacheSize must not be negative: %s", cacheSize);
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("store too large: " + channel.size());
+			}
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		ExpressionCodec.readHeader(new ByteBufferInput(buffer, 0));
+		if (buffer.limit() < TRAILER_SIZE) {
+			throw new EOFException("no trailer");
+		}
+		int trailer = buffer.limit() - TRAILER_SIZE;
+		int count = buffer.getInt(trailer);
+		int indexOffset = buffer.getInt(trailer + 4);
+		int magic = buffer.getInt(trailer + 8);
+		if (magic != MAGIC) {
+			throw new StreamCorruptedException(String.format("not an expression store: %08x", magic));
+		}
+		if (count < 0 || indexOffset < 0 || (long) indexOffset + (long) count * INDEX_ENTRY_SIZE != trailer) {
+			throw new StreamCorruptedException("invalid index: " + count + " entries at " + indexOffset);
+		}
+		return new ExpressionStore(buffer, ExpressionCodec.of(factory), count, indexOffset, cacheSize);
+	}
+
+	public static void write(Path file, ExpressionFactory factory, Map<String, Expression> expressions) throws IOException {
+		List<byte[]> ids = new ArrayList<>(expressions.size());
+		for (String id : expressions.keySet()) {
+			ids.add(id.getBytes(StandardCharsets.UTF_8));
+		}
+		ids.sort(ExpressionStore::compare);
+
+		ExpressionCodec codec = ExpressionCodec.of(factory);
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+			ExpressionCodec.writeHeader(out);
+
+			int[] expressionOffsets = new int[ids.size()];
+			for (int i = 0; i < ids.size(); i++) {
+				expressionOffsets[i] = offset(out);
+				codec.write(expressions.get(new String(ids.get(i), StandardCharsets.UTF_8)), out);
+			}
+
+			int[] idOffsets = new int[ids.size()];
+			for (int i = 0; i < ids.size(); i++) {
+				idOffsets[i] = offset(out);
+				out.writeInt(ids.get(i).length);
+				out.write(ids.get(i));
+			}
+
+			int indexOffset = offset(out);
+			for (int i = 0; i < ids.size(); i++) {
+				out.writeInt(idOffsets[i]);
+				out.writeInt(expressionOffsets[i]);
+			}
+
+			out.writeInt(ids.size());
+			out.writeInt(indexOffset);
+			out.writeInt(MAGIC);
+			offset(out);
+		}
+	}
+
+	// DataOutputStream.size() stops at Integer.MAX_VALUE
+	private static int offset(DataOutputStream out) throws IOException {
+		if (out.size() == Integer.MAX_VALUE) {
+			throw new IOException("store too large");
+		}
+		return out.size();
+	}
+
+	private static int compare(byte[] first, byte[] second) {
+		int common = Math.min(first.length, second.length);
+		for (int i = 0; i < common; i++) {
+			int compared = Integer.compare(first[i] & 0xFF, second[i] & 0xFF);
+			if (compared != 0) {
+				return compared;
+			}
+		}
+		return Integer.compare(first.length, second.length);
+	}
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core;
+
+import org.immutables.value.Value;
+
+import java.util.concurrent.Executor;
+
+/**
+ * arguments of evaluables marked with {@link de.flapdoodle.eval.core.evaluables.TypedEvaluable#withParallelArguments()}
+ * are evaluated on the executor, if their estimated cost (see {@link de.flapdoodle.eval.core.evaluables.TypedEvaluable#cost()})
+ * reaches the threshold
+ */
+@Value.Immutable
+public abstract class ParallelArguments {
+	@Value.Parameter
+	public abstract Executor executor();
+
+	@Value.Default
+	public int threshold() {
+		return 1000;
+	}
+
+	public static ParallelArguments of(Executor executor) {
+		return ImmutableParallelArguments.of(executor);
+	}
+
+	public static ImmutableParallelArguments.Builder builder() {
+		return ImmutableParallelArguments.builder();
+	}
+}
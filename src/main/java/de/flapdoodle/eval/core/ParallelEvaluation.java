@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core;
+
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.types.Either;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * evaluates rows in parallel: the rows are split until each chunk is small enough to give every worker of the pool
+ * a few chunks, each chunk is evaluated with the same compiled expression, results are joined in input order
+ */
+final class ParallelEvaluation {
+	// chunks per worker, so that idle workers can steal from slow ones
+	private static final int CHUNKS_PER_WORKER = 4;
+	// rows of unknown size are split into chunks of at least this size
+	private static final long UNKNOWN_SIZE_CHUNK = 1024;
+
+	private ParallelEvaluation() {
+		// no instance
+	}
+
+	static List<Either<Evaluated<?>, EvaluationException>> evaluateAll(CompiledExpression expression,
+		Spliterator<? extends VariableResolver> rows, ForkJoinPool pool) {
+		long size = rows.estimateSize();
+		long threshold = size != Long.MAX_VALUE
+			? Math.max(size / ((long) pool.getParallelism() * CHUNKS_PER_WORKER), 1)
+			: UNKNOWN_SIZE_CHUNK;
+
+		List<List<Either<Evaluated<?>, EvaluationException>>> chunks = pool.invoke(new Chunk(expression, rows, threshold));
+
+		int count = 0;
+		for (List<Either<Evaluated<?>, EvaluationException>> chunk : chunks) {
+			count += chunk.size();
+		}
+		List<Either<Evaluated<?>, EvaluationException>> result = new ArrayList<>(count);
+		for (List<Either<Evaluated<?>, EvaluationException>> chunk : chunks) {
+			result.addAll(chunk);
+		}
+		return result;
+	}
+
+	private static Either<Evaluated<?>, EvaluationException> evaluate(CompiledExpression expression, VariableResolver row) {
+		try {
+			return Either.left(expression.evaluate(row));
+		}
+		catch (EvaluationException ex) {
+			return Either.right(ex);
+		}
+	}
+
+	private static final class Chunk extends RecursiveTask<List<List<Either<Evaluated<?>, EvaluationException>>>> {
+		private final CompiledExpression expression;
+		private final Spliterator<? extends VariableResolver> rows;
+		private final long threshold;
+
+		private Chunk(CompiledExpression expression, Spliterator<? extends VariableResolver> rows, long threshold) {
+			this.expression = expression;
+			this.rows = rows;
+			this.threshold = threshold;
+		}
+
+		@Override
+		protected List<List<Either<Evaluated<?>, EvaluationException>>> compute() {
+			Spliterator<? extends VariableResolver> prefix;
+			if (rows.estimateSize() > threshold && (prefix = rows.trySplit()) != null) {
+				Chunk first = new Chunk(expression, prefix, threshold);
+				first.fork();
+				List<List<Either<Evaluated<?>, EvaluationException>>> rest = new Chunk(expression, rows, threshold).compute();
+				List<List<Either<Evaluated<?>, EvaluationException>>> result = new ArrayList<>(first.join());
+				result.addAll(rest);
+				return result;
+			}
+
+			long size = rows.estimateSize();
+			List<Either<Evaluated<?>, EvaluationException>> chunk = new ArrayList<>(size <= threshold ? (int) size : 16);
+			rows.forEachRemaining(row -> chunk.add(evaluate(expression, row)));
+			return Collections.singletonList(chunk);
+		}
+	}
+}
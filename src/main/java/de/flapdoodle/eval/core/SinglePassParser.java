@@ -0,0 +1,306 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core;
+
+import de.flapdoodle.eval.core.evaluables.OperatorMapping;
+import de.flapdoodle.eval.core.evaluables.TypedEvaluableByArguments;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.exceptions.ParseException;
+import de.flapdoodle.eval.core.parser.*;
+import de.flapdoodle.eval.core.tree.LookupNode;
+import de.flapdoodle.eval.core.tree.Node;
+import de.flapdoodle.eval.core.tree.ReusableSubtrees;
+import de.flapdoodle.eval.core.tree.Variables;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Precedence climbing parser, which reads tokens one by one and creates {@link Node}s without the
+ * intermediate token list and {@link de.flapdoodle.eval.core.parser.ASTNode} tree. Used variables are
+ * collected on the way.
+ * <p>
+ * An operator binds to the operand on its left, if its precedence is higher than the precedence of the
+ * enclosing operator (or equal, if it is right associative), which gives the same trees as the
+ * {@link de.flapdoodle.eval.core.parser.ShuntingYardConverter}.
+ * <p>
+ * Parsing the tokens of an edited source, function calls outside of the edit are taken from the previous
+ * expression, see {@link ExpressionFactory#reparse(Expression, int, int, CharSequence)}.
+ */
+final class SinglePassParser {
+	private static final int LOWEST_PRECEDENCE = Integer.MIN_VALUE;
+
+	private final ExpressionFactory factory;
+	private final CharSequence expression;
+	private final TokenReader tokenizer;
+	private final Variables.Collector variables;
+
+	// only set if parsing an edited source
+	private final TokenBuffer tokens;
+	private final ReusableSubtrees previous;
+
+	private TokenType type;
+
+	private SinglePassParser(ExpressionFactory factory, CharSequence expression, TokenReader tokenizer, TokenBuffer tokens, ReusableSubtrees previous) {
+		this.factory = factory;
+		this.expression = expression;
+		this.tokenizer = tokenizer;
+		this.variables = Variables.collector(expression);
+		this.tokens = tokens;
+		this.previous = previous;
+	}
+
+	SinglePassParser(ExpressionFactory factory, CharSequence expression) {
+		this(factory, expression, tokenizer(factory, expression), null, null);
+	}
+
+	/**
+	 * parses tokens created by {@link Tokenizer#retokenize}, reusing function calls of the previous expression
+	 */
+	SinglePassParser(ExpressionFactory factory, TokenBuffer tokens, ReusableSubtrees previous) {
+		this(factory, tokens.source(), tokens.reader(), tokens, previous);
+	}
+
+	private static Tokenizer tokenizer(ExpressionFactory factory, CharSequence expression) {
+		Tokenizer tokenizer = new Tokenizer(factory.operatorMap());
+		tokenizer.reset(expression, 0, expression.length());
+		return tokenizer;
+	}
+
+	Node parse() throws ParseException, EvaluationException {
+		advance();
+		if (type == null) {
+			throw new ParseException(expression.toString(), "Empty expression");
+		}
+		Node root = expression(LOWEST_PRECEDENCE, null);
+		if (type != null) {
+			throw new ParseException(expression.toString(), "Too many operands");
+		}
+		return root;
+	}
+
+	/**
+	 * variables in the order of their occurrence, valid after {@link #parse()}
+	 */
+	Variables variables() {
+		return variables.build();
+	}
+
+	private void advance() throws ParseException {
+		type = tokenizer.advance() ? tokenizer.type() : null;
+	}
+
+	private Node expression(int precedence, Token operator) throws ParseException, EvaluationException {
+		Node left = operand(operator);
+
+		while (type != null) {
+			switch (type) {
+				case INFIX_OPERATOR: {
+					Token token = tokenizer.token();
+					OperatorMapping mapping = mapping(factory.operatorMap().infixOperator(token.value()), token, "could not find infix operator");
+					if (!bindsTighter(mapping, precedence)) {
+						return left;
+					}
+					advance();
+					Node right = expression(mapping.precedence(), token);
+					left = factory.infixOperator(token, left, right);
+					break;
+				}
+				case POSTFIX_OPERATOR: {
+					Token token = tokenizer.token();
+					OperatorMapping mapping = mapping(factory.operatorMap().postfixOperator(token.value()), token, "could not find postfix operator");
+					if (!bindsTighter(mapping, precedence)) {
+						return left;
+					}
+					advance();
+					left = factory.postfixOperator(token, left);
+					break;
+				}
+				case STRUCTURE_SEPARATOR: {
+					// binds tighter than any operator
+					Token token = tokenizer.token();
+					advance();
+					if (type != TokenType.VARIABLE_OR_CONSTANT && type != TokenType.STRING_LITERAL) {
+						throw new ParseException(token, "Missing second operand for operator");
+					}
+					Token name = tokenizer.token();
+					advance();
+					left = factory.structureSeparator(token, left, name);
+					break;
+				}
+				case ARRAY_OPEN: {
+					Token token = indexToken(TokenType.ARRAY_INDEX);
+					advance();
+					Node index = expression(LOWEST_PRECEDENCE, token);
+					expect(TokenType.ARRAY_CLOSE);
+					left = factory.arrayIndex(token, left, index);
+					break;
+				}
+				case ASSOCIATE_OPEN: {
+					Token token = indexToken(TokenType.ASSOCIATE_INDEX);
+					advance();
+					Node index = expression(LOWEST_PRECEDENCE, token);
+					expect(TokenType.ASSOCIATE_CLOSE);
+					left = factory.associateIndex(token, left, index);
+					break;
+				}
+				default:
+					return left;
+			}
+		}
+		return left;
+	}
+
+	private Node operand(Token operator) throws ParseException, EvaluationException {
+		boolean emptyGroup = operator == null || operator.type() == TokenType.BRACE_OPEN;
+		if (emptyGroup && (type == null || type == TokenType.BRACE_CLOSE || type == TokenType.COMMA)) {
+			throw new ParseException(expression.toString(), "Empty expression");
+		}
+		if (type == null) {
+			throw new ParseException(operator, operator.type() == TokenType.INFIX_OPERATOR
+				? "Missing second operand for operator"
+				: "Missing operand for operator");
+		}
+
+		Token token = tokenizer.token();
+		switch (type) {
+			case NUMBER_LITERAL:
+				advance();
+				return factory.numberLiteral(token);
+			case STRING_LITERAL:
+				advance();
+				return factory.stringLiteral(token);
+			case VARIABLE_OR_CONSTANT: {
+				advance();
+				Node node = factory.variableOrConstant(token);
+				if (node instanceof LookupNode) {
+					variables.add(token);
+				}
+				return node;
+			}
+			case PREFIX_OPERATOR: {
+				OperatorMapping mapping = mapping(factory.operatorMap().prefixOperator(token.value()), token, "could not find prefix operator");
+				advance();
+				Node operand = expression(mapping.precedence(), token);
+				return factory.prefixOperator(token, operand);
+			}
+			case FUNCTION: {
+				Node reused = reusedFunctionCall(token);
+				return reused != null
+					? reused
+					: function(token);
+			}
+			case BRACE_OPEN: {
+				advance();
+				Node node = expression(LOWEST_PRECEDENCE, token);
+				expect(TokenType.BRACE_CLOSE);
+				return node;
+			}
+			default:
+				throw new ParseException(token, "Unexpected token of type '" + type + "'");
+		}
+	}
+
+	private Node function(Token token) throws ParseException, EvaluationException {
+		advance();
+		expect(TokenType.BRACE_OPEN);
+
+		List<Node> parameters = new ArrayList<>();
+		if (type == TokenType.BRACE_CLOSE) {
+			advance();
+		} else {
+			while (true) {
+				parameters.add(expression(LOWEST_PRECEDENCE, token));
+				if (type == TokenType.COMMA) {
+					advance();
+				} else {
+					expect(TokenType.BRACE_CLOSE);
+					break;
+				}
+			}
+		}
+
+		Optional<? extends TypedEvaluableByArguments> evaluatable = factory.evaluatables().find(token.value(), parameters.size());
+		if (!evaluatable.isPresent()) {
+			throw new ParseException(token, "could not find evaluatable '" + token.value() + "' with " + parameters.size() + " arguments");
+		}
+		return factory.function(token, parameters);
+	}
+
+	private Node reusedFunctionCall(Token token) throws ParseException {
+		if (previous == null) {
+			return null;
+		}
+		TokenBuffer.Reader reader = (TokenBuffer.Reader) tokenizer;
+		int index = reader.index();
+
+		Node node = null;
+		int closingBrace = -1;
+		if (index < tokens.unchangedTokens()) {
+			closingBrace = tokens.closingBraceOfFunction(index, tokens.unchangedTokens());
+			if (closingBrace != -1) {
+				node = previous.functionCall(token.start());
+			}
+		} else if (index >= tokens.firstShiftedToken()) {
+			node = previous.functionCall(token.start() - tokens.shift());
+			if (node != null) {
+				closingBrace = tokens.closingBraceOfFunction(index, tokens.size());
+				node = ReusableSubtrees.shift(node, tokens.shift());
+			}
+		}
+
+		if (node == null) {
+			return null;
+		}
+
+		for (Node it : Node.allNodes(node)) {
+			if (it instanceof LookupNode) {
+				variables.add(it.token());
+			}
+		}
+		reader.moveTo(closingBrace);
+		advance();
+		return node;
+	}
+
+	private Token indexToken(TokenType indexType) {
+		Token token = tokenizer.token();
+		return Token.of(token.start(), token.value(), indexType);
+	}
+
+	private void expect(TokenType expected) throws ParseException {
+		if (type != expected) {
+			if (type == null) {
+				throw new ParseException(expression.toString(), "Missing " + expected);
+			}
+			throw new ParseException(tokenizer.token(), "Unexpected token of type '" + type + "'");
+		}
+		advance();
+	}
+
+	private static boolean bindsTighter(OperatorMapping mapping, int precedence) {
+		return mapping.isLeftAssociative()
+			? mapping.precedence() > precedence
+			: mapping.precedence() >= precedence;
+	}
+
+	private static OperatorMapping mapping(Optional<OperatorMapping> mapping, Token token, String message) throws EvaluationException {
+		if (!mapping.isPresent()) throw new EvaluationException(token, message);
+		return mapping.get();
+	}
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core;
+
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * writes and reads the values of {@link de.flapdoodle.eval.core.tree.ValueNode}s, see {@link ExpressionCodec}
+ */
+public interface ValueCodec {
+	boolean canWrite(Evaluated<?> value);
+
+	void write(Evaluated<?> value, DataOutput out) throws IOException;
+
+	Evaluated<?> read(DataInput in) throws IOException;
+
+	/**
+	 * supports no value, literals are parsed again and folded values can not be written
+	 */
+	static ValueCodec none() {
+		return new ValueCodec() {
+			@Override
+			public boolean canWrite(Evaluated<?> value) {
+				return false;
+			}
+
+			@Override
+			public void write(Evaluated<?> value, DataOutput out) {
+				throw new UnsupportedOperationException("can not write " + value);
+			}
+
+			@Override
+			public Evaluated<?> read(DataInput in) throws IOException {
+				throw new IOException("no value codec");
+			}
+		};
+	}
+}
@@ -21,6 +21,14 @@ import de.flapdoodle.eval.core.evaluables.Evaluated;
 public interface VariableResolver {
 	Evaluated<?> get(String variable);
 
+	/**
+	 * variable by slot of the expression, see {@link de.flapdoodle.eval.core.tree.VariableFrame}, falls back to
+	 * {@link #get(String)}
+	 */
+	default Evaluated<?> get(int slot, String variable) {
+		return get(variable);
+	}
+
 	default VariableResolver andThen(VariableResolver fallback) {
 		VariableResolver that = this;
 		return variable -> {
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.cache;
+
+import org.immutables.value.Value;
+
+@Value.Immutable
+public abstract class CacheStats {
+	public abstract int size();
+	public abstract long hitCount();
+	public abstract long missCount();
+	public abstract long evictionCount();
+	public abstract long loadFailureCount();
+
+	@Value.Auxiliary
+	public long requestCount() {
+		return hitCount() + missCount();
+	}
+
+	@Value.Auxiliary
+	public double hitRate() {
+		long requestCount = requestCount();
+		return requestCount == 0 ? 1.0 : (double) hitCount() / requestCount;
+	}
+
+	public static CacheStats empty() {
+		return builder()
+			.size(0)
+			.hitCount(0)
+			.missCount(0)
+			.evictionCount(0)
+			.loadFailureCount(0)
+			.build();
+	}
+
+	public static ImmutableCacheStats.Builder builder() {
+		return ImmutableCacheStats.builder();
+	}
+}
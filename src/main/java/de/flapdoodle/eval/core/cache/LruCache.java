@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.cache;
+
+import de.flapdoodle.checks.Preconditions;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * size bounded cache with approximate least recently used eviction,
+ * concurrent requests for the same key are loaded only once. A hit does not lock, it only stamps the entry
+ * with an access tick. A miss which exceeds the maximum size evicts a batch of the entries with the oldest ticks.
+ */
+public final class LruCache<K, V> {
+	private final int maximumSize;
+	private final int evictionBatchSize;
+	private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+	private final AtomicLong ticks = new AtomicLong();
+	private final Object evictionLock = new Object();
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+	private final LongAdder loadFailureCount = new LongAdder();
+
+	public LruCache(int maximumSize) {
+		Preconditions.checkArgument(maximumSize > 0, "maximumSize must be greater than zero: %s", maximumSize);
+		this.maximumSize = maximumSize;
+		this.evictionBatchSize = Math.max(1, maximumSize / 16);
+	}
+
+	public int maximumSize() {
+		return maximumSize;
+	}
+
+	public <E extends Exception> V get(K key, Loader<K, V, E> loader) throws E {
+		Entry<V> entry = entries.get(key);
+		if (entry == null) {
+			Entry<V> created = new Entry<>(ticks.incrementAndGet());
+			entry = entries.putIfAbsent(key, created);
+			if (entry == null) {
+				missCount.increment();
+				evictIfFull();
+				return load(key, created, loader);
+			}
+		}
+
+		hitCount.increment();
+		entry.touch(ticks);
+		return await(entry.value);
+	}
+
+	private <E extends Exception> V load(K key, Entry<V> entry, Loader<K, V, E> loader) throws E {
+		try {
+			V value = loader.load(key);
+			entry.value.complete(value);
+			return value;
+		}
+		catch (Throwable ex) {
+			loadFailureCount.increment();
+			entries.remove(key, entry);
+			entry.value.completeExceptionally(ex);
+			throw ex;
+		}
+	}
+
+	/**
+	 * only misses evict, the oldest entries are removed in batches, so that the scan over all entries is amortized
+	 */
+	private void evictIfFull() {
+		if (entries.size() <= maximumSize) {
+			return;
+		}
+		synchronized (evictionLock) {
+			// concurrent hits might move entries past the threshold, so this is repeated until there is space
+			while (entries.size() > maximumSize) {
+				evictOldest(entries.size() - maximumSize);
+			}
+		}
+	}
+
+	private void evictOldest(int overflow) {
+		long[] lastAccess = new long[entries.size()];
+		int count = 0;
+		for (Entry<V> entry : entries.values()) {
+			if (count == lastAccess.length) break;
+			lastAccess[count++] = entry.lastAccess;
+		}
+		int evict = Math.min(count, Math.max(overflow, Math.min(evictionBatchSize, count - 1)));
+		if (evict <= 0) {
+			return;
+		}
+		Arrays.sort(lastAccess, 0, count);
+		long threshold = lastAccess[evict - 1];
+
+		Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+		while (evict > 0 && iterator.hasNext()) {
+			Map.Entry<K, Entry<V>> next = iterator.next();
+			if (next.getValue().lastAccess <= threshold && entries.remove(next.getKey(), next.getValue())) {
+				evictionCount.increment();
+				evict--;
+			}
+		}
+	}
+
+	public void invalidate(K key) {
+		entries.remove(key);
+	}
+
+	public void invalidateAll() {
+		entries.clear();
+	}
+
+	public CacheStats stats() {
+		return CacheStats.builder()
+			.size(entries.size())
+			.hitCount(hitCount.sum())
+			.missCount(missCount.sum())
+			.evictionCount(evictionCount.sum())
+			.loadFailureCount(loadFailureCount.sum())
+			.build();
+	}
+	@SuppressWarnings("unchecked")
+	private static <V, E extends Exception> V await(CompletableFuture<V> entry) throws E {
+		try {
+			return entry.join();
+		}
+		catch (CompletionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if (cause instanceof Error) throw (Error) cause;
+			throw (E) cause;
+		}
+	}
+
+	private static final class Entry<V> {
+		private final CompletableFuture<V> value = new CompletableFuture<>();
+		private volatile long lastAccess;
+
+		private Entry(long lastAccess) {
+			this.lastAccess = lastAccess;
+		}
+
+		private void touch(AtomicLong ticks) {
+			// repeated hits on the most recent entry do not write the shared counter
+			if (lastAccess != ticks.get()) {
+				lastAccess = ticks.incrementAndGet();
+			}
+		}
+	}
+
+	@FunctionalInterface
+	public interface Loader<K, V, E extends Exception> {
+		V load(K key) throws E;
+	}
+}
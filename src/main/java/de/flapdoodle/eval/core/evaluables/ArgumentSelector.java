@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.evaluables;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * for evaluables which return one of their arguments (like an if),
+ * so a call can be replaced by the selected argument if the selection is known at parse time
+ */
+@FunctionalInterface
+public interface ArgumentSelector {
+	/**
+	 * @param arguments arguments known at parse time, empty if not known
+	 * @return index of the argument returned as result, empty if it can not be decided
+	 */
+	OptionalInt select(List<Optional<Evaluated<?>>> arguments);
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.evaluables;
+
+import de.flapdoodle.eval.core.EvaluationContext;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.exceptions.EvaluableException;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.parser.Token;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * an evaluable which returns a future, like a remote lookup. Asynchronous evaluation continues when the future
+ * completes, {@link #evaluate(VariableResolver, EvaluationContext, Token, List)} waits for it. Never evaluated at
+ * parse time.
+ */
+public final class AsyncTypedEvaluable<T> implements TypedEvaluable<T> {
+	private final Signature<T> signature;
+	private final AsyncEvaluable<T> delegate;
+
+	private AsyncTypedEvaluable(Signature<T> signature, AsyncEvaluable<T> delegate) {
+		this.signature = signature;
+		this.delegate = delegate;
+	}
+
+	@Override
+	public Signature<T> signature() {
+		return signature;
+	}
+
+	@Override
+	public boolean isDeterministic() {
+		return false;
+	}
+
+	@Override
+	public Evaluated<T> evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, List<? extends Evaluated<?>> arguments)
+		throws EvaluationException {
+		CompletableFuture<Evaluated<T>> result = evaluateAsync(variableResolver, evaluationContext, token, arguments, Runnable::run);
+		try {
+			return result.get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new EvaluationException(token, "interrupted");
+		}
+		catch (ExecutionException ex) {
+			throw rethrow(ex.getCause());
+		}
+	}
+
+	@Override
+	public CompletableFuture<Evaluated<T>> evaluateAsync(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token,
+		List<? extends Evaluated<?>> arguments, Executor executor) {
+		try {
+			Optional<EvaluableException> error = signature.validateArguments(arguments);
+			if (error.isPresent()) {
+				throw new EvaluationException(token, error.get());
+			}
+			Object[] unwrapped = new Object[arguments.size()];
+			for (int i = 0; i < unwrapped.length; i++) {
+				unwrapped[i] = signature.get(i).argument(token, arguments.get(i).wrapped());
+			}
+			return delegate.evaluate(variableResolver, evaluationContext, token, unwrapped, executor)
+				.thenApply(value -> Evaluated.ofNullable(signature.returnType(), value));
+		}
+		catch (EvaluationException | RuntimeException ex) {
+			CompletableFuture<Evaluated<T>> failed = new CompletableFuture<>();
+			failed.completeExceptionally(ex);
+			return failed;
+		}
+	}
+
+	private static EvaluationException rethrow(Throwable cause) {
+		while (cause instanceof CompletionException && cause.getCause() != null) {
+			cause = cause.getCause();
+		}
+		if (cause instanceof EvaluationException.AsRuntimeException) {
+			return ((EvaluationException.AsRuntimeException) cause).wrapped();
+		}
+		if (cause instanceof EvaluationException) {
+			return (EvaluationException) cause;
+		}
+		if (cause instanceof RuntimeException) {
+			throw (RuntimeException) cause;
+		}
+		if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+		throw new RuntimeException(cause);
+	}
+
+	public interface AsyncEvaluable<T> {
+		CompletableFuture<T> evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Object[] arguments, Executor executor) throws EvaluationException;
+	}
+
+	public interface Arg1<A, T> {
+		CompletableFuture<T> evaluate(Token token, A argument, Executor executor) throws EvaluationException;
+	}
+
+	public interface Arg2<A, B, T> {
+		CompletableFuture<T> evaluate(Token token, A first, B second, Executor executor) throws EvaluationException;
+	}
+
+	public static <T> AsyncTypedEvaluable<T> of(Signature<T> signature, AsyncEvaluable<T> function) {
+		return new AsyncTypedEvaluable<>(signature, function);
+	}
+
+	public static <T, A> AsyncTypedEvaluable<T> of(Class<T> returnType, Parameter<A> a, Arg1<A, T> function) {
+		return of(Signature.of(returnType, a), (variableResolver, evaluationContext, token, arguments, executor) -> function.evaluate(token,
+			a.type().cast(arguments[0]), executor));
+	}
+
+	public static <T, A> AsyncTypedEvaluable<T> of(Class<T> returnType, Class<A> a, Arg1<A, T> function) {
+		return of(returnType, Parameter.of(a), function);
+	}
+
+	public static <T, A, B> AsyncTypedEvaluable<T> of(Class<T> returnType, Parameter<A> a, Parameter<B> b, Arg2<A, B, T> function) {
+		return of(Signature.of(returnType, a, b), (variableResolver, evaluationContext, token, arguments, executor) -> function.evaluate(token,
+			a.type().cast(arguments[0]), b.type().cast(arguments[1]), executor));
+	}
+
+	public static <T, A, B> AsyncTypedEvaluable<T> of(Class<T> returnType, Class<A> a, Class<B> b, Arg2<A, B, T> function) {
+		return of(returnType, Parameter.of(a), Parameter.of(b), function);
+	}
+
+	@Override
+	public String toString() {
+		return "AsyncTypedEvaluable{" +
+			"signature=" + signature +
+			", delegate=" + delegate +
+			'}';
+	}
+}
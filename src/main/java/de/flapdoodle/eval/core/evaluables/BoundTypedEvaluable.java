@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.evaluables;
+
+import de.flapdoodle.eval.core.exceptions.EvaluableException;
+import de.flapdoodle.reflection.TypeInfo;
+import de.flapdoodle.types.Either;
+import org.immutables.value.Value;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * an evaluable selected at parse time, arguments are only validated by the evaluable itself
+ */
+@Value.Immutable
+public abstract class BoundTypedEvaluable implements TypedEvaluableByArguments {
+	@Value.Parameter
+	public abstract TypedEvaluable<?> evaluable();
+
+	@Override
+	@Value.Auxiliary
+	public Either<TypedEvaluable<?>, EvaluableException> find(List<? extends Evaluated<?>> values) {
+		return Either.left(evaluable());
+	}
+
+	@Override
+	@Value.Auxiliary
+	public Either<TypedEvaluable<?>, EvaluableException> findType(List<? extends TypeInfo<?>> valueTypes) {
+		return Either.left(evaluable());
+	}
+
+	@Override
+	@Value.Auxiliary
+	public Optional<List<TypedEvaluable<?>>> candidates() {
+		return Optional.of(Collections.singletonList(evaluable()));
+	}
+
+	public static BoundTypedEvaluable of(TypedEvaluable<?> evaluable) {
+		return ImmutableBoundTypedEvaluable.of(evaluable);
+	}
+}
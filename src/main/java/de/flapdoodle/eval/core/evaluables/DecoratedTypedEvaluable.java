@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.evaluables;
+
+import de.flapdoodle.eval.core.EvaluationContext;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.parser.Token;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+final class DecoratedTypedEvaluable<T> implements TypedEvaluable<T> {
+	private final TypedEvaluable<T> delegate;
+	private final boolean deterministic;
+	private final Optional<ArgumentSelector> argumentSelector;
+	private final int cost;
+	private final boolean parallelArguments;
+	private final Optional<Kernel> kernel;
+
+	private DecoratedTypedEvaluable(TypedEvaluable<T> delegate, boolean deterministic, Optional<ArgumentSelector> argumentSelector, int cost,
+		boolean parallelArguments, Optional<Kernel> kernel) {
+		this.delegate = delegate;
+		this.deterministic = deterministic;
+		this.argumentSelector = argumentSelector;
+		this.cost = cost;
+		this.parallelArguments = parallelArguments;
+		this.kernel = kernel;
+	}
+
+	@Override
+	public Signature<T> signature() {
+		return delegate.signature();
+	}
+
+	@Override
+	public Evaluated<T> evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, List<? extends Evaluated<?>> arguments)
+		throws EvaluationException {
+		return delegate.evaluate(variableResolver, evaluationContext, token, arguments);
+	}
+
+	@Override
+	public Evaluated<T> evaluateValidated(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token,
+		List<? extends Evaluated<?>> arguments) throws EvaluationException {
+		return delegate.evaluateValidated(variableResolver, evaluationContext, token, arguments);
+	}
+
+	@Override
+	public Evaluated<T> evaluateValidated(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Evaluated<?> argument)
+		throws EvaluationException {
+		return delegate.evaluateValidated(variableResolver, evaluationContext, token, argument);
+	}
+
+	@Override
+	public Evaluated<T> evaluateValidated(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Evaluated<?> first,
+		Evaluated<?> second) throws EvaluationException {
+		return delegate.evaluateValidated(variableResolver, evaluationContext, token, first, second);
+	}
+
+	@Override
+	public CompletableFuture<Evaluated<T>> evaluateAsync(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token,
+		List<? extends Evaluated<?>> arguments, Executor executor) {
+		return delegate.evaluateAsync(variableResolver, evaluationContext, token, arguments, executor);
+	}
+
+	@Override
+	public boolean isDeterministic() {
+		return deterministic;
+	}
+
+	@Override
+	public Optional<ArgumentSelector> argumentSelector() {
+		return argumentSelector;
+	}
+
+	@Override
+	public int cost() {
+		return cost;
+	}
+
+	@Override
+	public boolean parallelArguments() {
+		return parallelArguments;
+	}
+
+	@Override
+	public Optional<Kernel> kernel() {
+		return kernel;
+	}
+
+	@Override
+	public TypedEvaluable<T> nonDeterministic() {
+		return new DecoratedTypedEvaluable<>(delegate, false, argumentSelector, cost, parallelArguments, kernel);
+	}
+
+	@Override
+	public TypedEvaluable<T> withArgumentSelector(ArgumentSelector argumentSelector) {
+		return new DecoratedTypedEvaluable<>(delegate, deterministic, Optional.of(argumentSelector), cost, parallelArguments, kernel);
+	}
+
+	@Override
+	public TypedEvaluable<T> withCost(int cost) {
+		if (cost < 0) {
+			throw new IllegalArgumentException("cost must not be negative: " + cost);
+		}
+		return new DecoratedTypedEvaluable<>(delegate, deterministic, argumentSelector, cost, parallelArguments, kernel);
+	}
+
+	@Override
+	public TypedEvaluable<T> withParallelArguments() {
+		return new DecoratedTypedEvaluable<>(delegate, deterministic, argumentSelector, cost, true, kernel);
+	}
+
+	@Override
+	public TypedEvaluable<T> withKernel(Kernel kernel) {
+		return new DecoratedTypedEvaluable<>(delegate, deterministic, argumentSelector, cost, parallelArguments, Optional.of(kernel));
+	}
+
+	static <T> DecoratedTypedEvaluable<T> of(TypedEvaluable<T> delegate) {
+		return new DecoratedTypedEvaluable<>(delegate, delegate.isDeterministic(), delegate.argumentSelector(), delegate.cost(),
+			delegate.parallelArguments(), delegate.kernel());
+	}
+
+	@Override
+	public String toString() {
+		return "DecoratedTypedEvaluable{" +
+			"delegate=" + delegate +
+			", deterministic=" + deterministic +
+			", argumentSelector=" + argumentSelector +
+			", cost=" + cost +
+			", parallelArguments=" + parallelArguments +
+			", kernel=" + kernel +
+			'}';
+	}
+}
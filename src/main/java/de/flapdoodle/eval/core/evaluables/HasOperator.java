@@ -19,4 +19,12 @@ package de.flapdoodle.eval.core.evaluables;
 public interface HasOperator {
 	boolean hasStartingWith(OperatorType type, String value);
 	boolean matching(OperatorType type, String value);
+
+	/**
+	 * operator names as prefix tree for the tokenizer, the default walks
+	 * {@link #hasStartingWith(OperatorType, String)} and {@link #matching(OperatorType, String)} char by char
+	 */
+	default OperatorTrie operatorTrie() {
+		return OperatorTrie.of(this);
+	}
 }
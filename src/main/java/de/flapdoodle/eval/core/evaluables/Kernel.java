@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.evaluables;
+
+import de.flapdoodle.eval.core.Column;
+import de.flapdoodle.eval.core.EvaluationContext;
+
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.Predicate;
+
+/**
+ * evaluates a {@link TypedEvaluable} with two arguments for whole primitive columns, see {@link TypedEvaluable#withKernel(Kernel)}.
+ * The result of each row must be the same as the evaluable returns for the boxed arguments. If a kernel can not
+ * compute the exact result of a row it throws an {@link ArithmeticException}, and the evaluable is called for each row.
+ */
+public final class Kernel {
+	private final Primitive<?> argumentType;
+	private final Predicate<EvaluationContext> condition;
+	private final Body body;
+
+	private Kernel(Primitive<?> argumentType, Predicate<EvaluationContext> condition, Body body) {
+		this.argumentType = argumentType;
+		this.condition = condition;
+		this.body = body;
+	}
+
+	public interface DoubleRelation {
+		boolean test(double first, double second);
+	}
+
+	public interface LongRelation {
+		boolean test(long first, long second);
+	}
+
+	private interface Body {
+		Column apply(Column first, Column second);
+	}
+
+	/**
+	 * type of both arguments
+	 */
+	public Primitive<?> argumentType() {
+		return argumentType;
+	}
+
+	public boolean isApplicable(EvaluationContext context) {
+		return condition.test(context);
+	}
+
+	/**
+	 * both columns must be primitive columns of {@link #argumentType()} with the same size
+	 */
+	public Column apply(Column first, Column second) {
+		return body.apply(first, second);
+	}
+
+	/**
+	 * only use this kernel if the condition is true for the evaluation context
+	 */
+	public Kernel when(Predicate<EvaluationContext> condition) {
+		return new Kernel(argumentType, this.condition.and(condition), body);
+	}
+
+	public static Kernel of(Primitive.OfDouble<?> type, DoubleBinaryOperator operator) {
+		return new Kernel(type, context -> true, (first, second) -> {
+			double[] a = ((Column.Doubles) first).values();
+			double[] b = ((Column.Doubles) second).values();
+			double[] result = new double[a.length];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = operator.applyAsDouble(a[i], b[i]);
+			}
+			return Column.of(result, type);
+		});
+	}
+
+	public static Kernel of(Primitive.OfLong<?> type, LongBinaryOperator operator) {
+		return new Kernel(type, context -> true, (first, second) -> {
+			long[] a = ((Column.Longs) first).values();
+			long[] b = ((Column.Longs) second).values();
+			long[] result = new long[a.length];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = operator.applyAsLong(a[i], b[i]);
+			}
+			return Column.of(result, type);
+		});
+	}
+
+	public static Kernel of(Primitive.OfDouble<?> type, DoubleRelation relation, Primitive.OfBoolean<?> resultType) {
+		return new Kernel(type, context -> true, (first, second) -> {
+			double[] a = ((Column.Doubles) first).values();
+			double[] b = ((Column.Doubles) second).values();
+			boolean[] result = new boolean[a.length];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = relation.test(a[i], b[i]);
+			}
+			return Column.of(result, resultType);
+		});
+	}
+
+	public static Kernel of(Primitive.OfLong<?> type, LongRelation relation, Primitive.OfBoolean<?> resultType) {
+		return new Kernel(type, context -> true, (first, second) -> {
+			long[] a = ((Column.Longs) first).values();
+			long[] b = ((Column.Longs) second).values();
+			boolean[] result = new boolean[a.length];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = relation.test(a[i], b[i]);
+			}
+			return Column.of(result, resultType);
+		});
+	}
+
+	@Override
+	public String toString() {
+		return "Kernel(" + argumentType + ")";
+	}
+}
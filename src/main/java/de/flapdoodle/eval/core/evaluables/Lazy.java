@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.evaluables;
+
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * argument of a lazy {@link Parameter}, evaluated not before {@link #get()} or {@link #getAsync()} is called
+ */
+@FunctionalInterface
+public interface Lazy<T> {
+	T get() throws EvaluationException;
+
+	/**
+	 * result which might complete later, so that asynchronous evaluation does not block while waiting for it,
+	 * the default calls {@link #get()}
+	 */
+	default CompletableFuture<T> getAsync() {
+		CompletableFuture<T> result = new CompletableFuture<>();
+		try {
+			result.complete(get());
+		}
+		catch (EvaluationException | RuntimeException ex) {
+			result.completeExceptionally(ex);
+		}
+		return result;
+	}
+
+	static <T> Lazy<T> of(Lazy<T> get, Supplier<CompletableFuture<T>> getAsync) {
+		return new Lazy<T>() {
+			@Override
+			public T get() throws EvaluationException {
+				return get.get();
+			}
+
+			@Override
+			public CompletableFuture<T> getAsync() {
+				return getAsync.get();
+			}
+		};
+	}
+}
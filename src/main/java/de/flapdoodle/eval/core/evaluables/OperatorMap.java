@@ -18,7 +18,6 @@ package de.flapdoodle.eval.core.evaluables;
 
 import org.immutables.value.Value;
 
-import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -30,6 +29,13 @@ public abstract class OperatorMap implements HasOperator {
 	protected abstract Map<String, OperatorMapping> infix();
 	protected abstract Map<String, OperatorMapping> postfix();
 
+	@Override
+	@Value.Derived
+	@Value.Auxiliary
+	public OperatorTrie operatorTrie() {
+		return OperatorTrie.of(prefix().keySet(), infix().keySet(), postfix().keySet());
+	}
+
 	@Value.Auxiliary
 	public Optional<OperatorMapping> prefixOperator(String name) {
 		return Optional.ofNullable(prefix().get(name));
@@ -65,15 +71,7 @@ public abstract class OperatorMap implements HasOperator {
 
 	@Override
 	public boolean hasStartingWith(OperatorType type, String value) {
-		Set<String> keys=Collections.emptySet();
-
-		switch (type) {
-			case Infix: keys = infix().keySet(); break;
-			case Prefix: keys = prefix().keySet(); break;
-			case Postfix: keys = postfix().keySet(); break;
-		}
-		
-		return keys.stream().anyMatch(it -> it.startsWith(value));
+		return operatorTrie().hasStartingWith(type, value);
 	}
 
 	@Override
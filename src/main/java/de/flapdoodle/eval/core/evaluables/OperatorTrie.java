@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.evaluables;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Prefix tree over all operator names of an {@link OperatorMap}, so that operator names can be
+ * matched char by char without creating intermediate strings. Other {@link HasOperator} implementations
+ * are walked with their lookup methods, see {@link #of(HasOperator)}.
+ */
+public final class OperatorTrie {
+	private final Node root;
+
+	private OperatorTrie(Node root) {
+		this.root = root;
+	}
+
+	public Node root() {
+		return root;
+	}
+
+	public boolean hasStartingWith(OperatorType type, CharSequence value) {
+		Node node = root;
+		for (int i = 0; i < value.length() && node != null; i++) {
+			node = node.child(value.charAt(i));
+		}
+		return node != null && node.continues(mask(type));
+	}
+
+	public boolean matching(OperatorType type, CharSequence chars, int start, int end) {
+		Node node = root;
+		for (int i = start; i < end && node != null; i++) {
+			node = node.child(chars.charAt(i));
+		}
+		return node != null && node.matches(type);
+	}
+
+	public static int mask(OperatorType type) {
+		return 1 << type.ordinal();
+	}
+
+	public static OperatorTrie of(Set<String> prefix, Set<String> infix, Set<String> postfix) {
+		Builder root = new Builder();
+		prefix.forEach(name -> root.add(name, mask(OperatorType.Prefix)));
+		infix.forEach(name -> root.add(name, mask(OperatorType.Infix)));
+		postfix.forEach(name -> root.add(name, mask(OperatorType.Postfix)));
+		return new OperatorTrie(root.build());
+	}
+
+	/**
+	 * nodes are created on each step from {@link HasOperator#hasStartingWith(OperatorType, String)} and
+	 * {@link HasOperator#matching(OperatorType, String)}
+	 */
+	public static OperatorTrie of(HasOperator operators) {
+		return new OperatorTrie(new LookupNode(operators, ""));
+	}
+
+	public static abstract class Node {
+		private Node() {
+		}
+
+		/**
+		 * @return next node or null if no operator continues with this char
+		 */
+		public abstract Node child(char c);
+
+		/**
+		 * @return true if the chars up to this node are an operator of this type
+		 */
+		public abstract boolean matches(OperatorType type);
+
+		/**
+		 * @return true if the chars up to this node are the start of an operator of any type in this mask
+		 */
+		public abstract boolean continues(int typeMask);
+	}
+
+	private static final class ArrayNode extends Node {
+		private final char[] keys;
+		private final Node[] children;
+		private final int terminals;
+		private final int reachable;
+
+		private ArrayNode(char[] keys, Node[] children, int terminals, int reachable) {
+			this.keys = keys;
+			this.children = children;
+			this.terminals = terminals;
+			this.reachable = reachable;
+		}
+
+		@Override
+		public Node child(char c) {
+			int idx = Arrays.binarySearch(keys, c);
+			return idx >= 0 ? children[idx] : null;
+		}
+
+		@Override
+		public boolean matches(OperatorType type) {
+			return (terminals & mask(type)) != 0;
+		}
+
+		@Override
+		public boolean continues(int typeMask) {
+			return (reachable & typeMask) != 0;
+		}
+	}
+
+	private static final class LookupNode extends Node {
+		private static final OperatorType[] TYPES = OperatorType.values();
+
+		private final HasOperator operators;
+		private final String value;
+
+		private LookupNode(HasOperator operators, String value) {
+			this.operators = operators;
+			this.value = value;
+		}
+
+		@Override
+		public Node child(char c) {
+			LookupNode child = new LookupNode(operators, value + c);
+			return child.continues(-1) ? child : null;
+		}
+
+		@Override
+		public boolean matches(OperatorType type) {
+			return operators.matching(type, value);
+		}
+
+		@Override
+		public boolean continues(int typeMask) {
+			for (OperatorType type : TYPES) {
+				if ((typeMask & mask(type)) != 0 && operators.hasStartingWith(type, value)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	private static final class Builder {
+		private final TreeMap<Character, Builder> children = new TreeMap<>();
+		private int terminals;
+		private int reachable;
+
+		private void add(String name, int typeMask) {
+			Builder current = this;
+			current.reachable |= typeMask;
+			for (int i = 0; i < name.length(); i++) {
+				current = current.children.computeIfAbsent(name.charAt(i), c -> new Builder());
+				current.reachable |= typeMask;
+			}
+			current.terminals |= typeMask;
+		}
+
+		private Node build() {
+			char[] keys = new char[children.size()];
+			Node[] nodes = new Node[children.size()];
+			int i = 0;
+			for (Map.Entry<Character, Builder> entry : children.entrySet()) {
+				keys[i] = entry.getKey();
+				nodes[i] = entry.getValue().build();
+				i++;
+			}
+			return new ArrayNode(keys, nodes, terminals, reachable);
+		}
+	}
+}
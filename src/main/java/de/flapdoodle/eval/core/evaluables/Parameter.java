@@ -18,7 +18,6 @@ package de.flapdoodle.eval.core.evaluables;
 
 import de.flapdoodle.eval.core.exceptions.EvaluableException;
 import de.flapdoodle.eval.core.exceptions.EvaluationException;
-import de.flapdoodle.eval.core.parser.ASTNode;
 import de.flapdoodle.eval.core.parser.Token;
 import de.flapdoodle.eval.core.validation.ParameterValidator;
 import de.flapdoodle.reflection.TypeInfo;
@@ -26,6 +25,8 @@ import org.immutables.value.Value;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /** Definition of a function parameter. */
 @Value.Immutable
@@ -37,8 +38,8 @@ public interface Parameter<T> {
 	@Value.Default
 	default boolean isNullable() { return false; }
 	/**
-	 * Set to true, the parameter will not be evaluated in advance, but the corresponding {@link
-	 * ASTNode} will be passed as a parameter value.
+	 * Set to true, the parameter will not be evaluated in advance, but a {@link Lazy} will be
+	 * passed as a parameter value, see {@link #argument(Token, Object)}.
 	 */
 	@Value.Default
 	default boolean isLazy() {
@@ -99,4 +100,56 @@ public interface Parameter<T> {
 		}
 		return Optional.empty();
 	}
+
+	@Value.Auxiliary
+	default Optional<EvaluableException> argumentError(Evaluated<?> parameterValue) {
+		if (isNullable() && parameterValue.isNull()) {
+			if (!type().isAssignable(parameterValue.type())) return Optional.of(EvaluableException.of("wrong nullable type: %s != %s", type(), parameterValue.type()));
+		} else {
+			if (!type().isInstance(parameterValue.wrapped())) return Optional.of(EvaluableException.of("wrong type: %s != %s (%s)", type(), parameterValue.type(), parameterValue.wrapped()));
+		}
+		return validationError(parameterValue);
+	}
+
+	/**
+	 * unwrapped argument value, a {@link Lazy} argument is evaluated and validated
+	 */
+	@Value.Auxiliary
+	default T argument(Token token, Object argument) throws EvaluationException {
+		if (argument instanceof Lazy) {
+			Evaluated<?> parameterValue = (Evaluated<?>) ((Lazy<?>) argument).get();
+			Optional<EvaluableException> error = argumentError(parameterValue);
+			if (error.isPresent()) {
+				throw new EvaluationException(token, error.get());
+			}
+			return type().cast(parameterValue.wrapped());
+		}
+		return type().cast(argument);
+	}
+
+	/**
+	 * like {@link #argument(Token, Object)}, a {@link Lazy} argument is evaluated with {@link Lazy#getAsync()}
+	 */
+	@Value.Auxiliary
+	default CompletableFuture<T> argumentAsync(Token token, Object argument) {
+		if (argument instanceof Lazy) {
+			return ((Lazy<?>) argument).getAsync().thenApply(value -> {
+				Evaluated<?> parameterValue = (Evaluated<?>) value;
+				Optional<EvaluableException> error = argumentError(parameterValue);
+				if (error.isPresent()) {
+					throw new CompletionException(new EvaluationException(token, error.get()));
+				}
+				return type().cast(parameterValue.wrapped());
+			});
+		}
+		return CompletableFuture.completedFuture(type().cast(argument));
+	}
+
+	/**
+	 * argument for a lazy parameter, evaluated and validated on demand
+	 */
+	@Value.Auxiliary
+	default Lazy<T> lazyArgument(Token token, Object argument) {
+		return Lazy.of(() -> argument(token, argument), () -> argumentAsync(token, argument));
+	}
 }
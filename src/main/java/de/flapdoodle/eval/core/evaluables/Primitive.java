@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.evaluables;
+
+import java.util.function.DoubleFunction;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * maps a value type to a primitive, used by primitive {@link de.flapdoodle.eval.core.Column}s and {@link Kernel}s.
+ * Boxing must always return the same class, so that the same evaluable is selected for each row.
+ */
+public abstract class Primitive<T> {
+	private final Class<T> type;
+
+	private Primitive(Class<T> type) {
+		this.type = type;
+	}
+
+	public Class<T> type() {
+		return type;
+	}
+
+	public static final class OfDouble<T> extends Primitive<T> {
+		private final DoubleFunction<? extends T> box;
+		private final ToDoubleFunction<? super T> unbox;
+
+		private OfDouble(Class<T> type, DoubleFunction<? extends T> box, ToDoubleFunction<? super T> unbox) {
+			super(type);
+			this.box = box;
+			this.unbox = unbox;
+		}
+
+		public T box(double value) {
+			return box.apply(value);
+		}
+
+		public double unbox(T value) {
+			return unbox.applyAsDouble(value);
+		}
+	}
+
+	public static final class OfLong<T> extends Primitive<T> {
+		private final LongFunction<? extends T> box;
+		private final ToLongFunction<? super T> unbox;
+
+		private OfLong(Class<T> type, LongFunction<? extends T> box, ToLongFunction<? super T> unbox) {
+			super(type);
+			this.box = box;
+			this.unbox = unbox;
+		}
+
+		public T box(long value) {
+			return box.apply(value);
+		}
+
+		/**
+		 * @throws ArithmeticException if this value has no exact long representation
+		 */
+		public long unbox(T value) {
+			return unbox.applyAsLong(value);
+		}
+	}
+
+	public static final class OfBoolean<T> extends Primitive<T> {
+		private final Function<Boolean, ? extends T> box;
+		private final Predicate<? super T> unbox;
+
+		private OfBoolean(Class<T> type, Function<Boolean, ? extends T> box, Predicate<? super T> unbox) {
+			super(type);
+			this.box = box;
+			this.unbox = unbox;
+		}
+
+		public T box(boolean value) {
+			return box.apply(value);
+		}
+
+		public boolean unbox(T value) {
+			return unbox.test(value);
+		}
+	}
+
+	public static <T> OfDouble<T> ofDouble(Class<T> type, DoubleFunction<? extends T> box, ToDoubleFunction<? super T> unbox) {
+		return new OfDouble<>(type, box, unbox);
+	}
+
+	/**
+	 * unbox should throw an {@link ArithmeticException} for values without exact long representation
+	 */
+	public static <T> OfLong<T> ofLong(Class<T> type, LongFunction<? extends T> box, ToLongFunction<? super T> unbox) {
+		return new OfLong<>(type, box, unbox);
+	}
+
+	public static <T> OfBoolean<T> ofBoolean(Class<T> type, Function<Boolean, ? extends T> box, Predicate<? super T> unbox) {
+		return new OfBoolean<>(type, box, unbox);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "(" + type.getSimpleName() + ")";
+	}
+}
@@ -50,6 +50,14 @@ public abstract class Signature<T> {
 			: parameters().size();
 	}
 
+	/**
+	 * true if no parameter has a validator, so arguments are valid if their types are
+	 */
+	@org.immutables.value.Value.Lazy
+	public boolean validatesTypesOnly() {
+		return parameters().stream().allMatch(it -> it.validators().isEmpty());
+	}
+
 	@Value.Auxiliary
 	public String asHumanReadable() {
 		return "" +returnType()+"(" + (isVarArg() ? "vararg " : "") + parameters().stream().map(it -> it.type().toString()+((it.isNullable()) ? "?" : "")).collect(Collectors.joining(", "))+")";
@@ -71,14 +79,10 @@ public abstract class Signature<T> {
 		for (int i = 0; i < minNumberOfArguments(); i++) {
 			Evaluated<?> value = arguments.get(i);
 			Parameter<?> parameter = get(i);
-			TypeInfo<?> type = parameter.type();
+			// validated on evaluation, see Parameter.argument()
+			if (isDeferred(parameter, value)) continue;
 
-			if (parameter.isNullable() && value.isNull()) {
-				if (!type.isAssignable(value.type())) return Optional.of(EvaluableException.of("wrong nullable type: %s != %s", type, value.type()));
-			} else {
-				if (!type.isInstance(value.wrapped())) return Optional.of(EvaluableException.of("wrong type: %s != %s (%s)", type, value.type(), value.wrapped()));
-			}
-			Optional<EvaluableException> error = parameter.validationError(value);
+			Optional<EvaluableException> error = parameter.argumentError(value);
 			if (error.isPresent()) return error;
 		}
 		if (isVarArg()) {
@@ -86,6 +90,7 @@ public abstract class Signature<T> {
 			TypeInfo<?> type = parameter.type();
 			for (int i = minNumberOfArguments(); i < arguments.size(); i++) {
 				Evaluated<?> value = arguments.get(i);
+				if (isDeferred(parameter, value)) continue;
 				if (parameter.isNullable() && value.isNull()) {
 					if (!type.isAssignable(value.type())) return Optional.of(EvaluableException.of("wrong nullable type: %s != %s", type, value.type()));
 				} else {
@@ -98,6 +103,29 @@ public abstract class Signature<T> {
 		return Optional.empty();
 	}
 
+	/**
+	 * like {@link #validateArguments(List)}, but ignores parameter validators, so the result
+	 * only depends on the number of arguments and the type of each argument
+	 */
+	@org.immutables.value.Value.Auxiliary
+	public boolean matchesArgumentTypes(List<? extends Evaluated<?>> arguments) {
+		if (minNumberOfArguments() > arguments.size() || arguments.size() > maxNumberOfArguments()) return false;
+
+		for (int i = 0; i < arguments.size(); i++) {
+			Evaluated<?> value = arguments.get(i);
+			Parameter<?> parameter = get(i);
+			TypeInfo<?> type = parameter.type();
+
+			if (isDeferred(parameter, value)) continue;
+			if (parameter.isNullable() && value.isNull()) {
+				if (!type.isAssignable(value.type())) return false;
+			} else {
+				if (!type.isInstance(value.wrapped())) return false;
+			}
+		}
+		return true;
+	}
+
 	@org.immutables.value.Value.Auxiliary
 	public Optional<EvaluableException> validateArgumentTypes(List<? extends TypeInfo<?>> arguments) {
 		if (minNumberOfArguments() > arguments.size()) return Optional.of(EvaluableException.of("not enough(<%s) arguments: %s", minNumberOfArguments(), arguments.size()));
@@ -121,6 +149,10 @@ public abstract class Signature<T> {
 		return Optional.empty();
 	}
 
+	private static boolean isDeferred(Parameter<?> parameter, Evaluated<?> value) {
+		return parameter.isLazy() && value.wrapped() instanceof Lazy;
+	}
+
 	public static <T> Signature<T> of(Class<T> returnType, List<? extends Parameter<?>> parameters) {
 		return of(TypeInfo.of(returnType), parameters);
 	}
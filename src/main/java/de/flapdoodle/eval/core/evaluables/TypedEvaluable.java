@@ -21,13 +21,110 @@ import de.flapdoodle.eval.core.VariableResolver;
 import de.flapdoodle.eval.core.exceptions.EvaluationException;
 import de.flapdoodle.eval.core.parser.Token;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 public interface TypedEvaluable<T> {
     Signature<T> signature();
     Evaluated<T> evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, List<? extends Evaluated<?>> arguments) throws EvaluationException;
 
+    /**
+     * arguments must already be validated against {@link #signature()}
+     */
+    default Evaluated<T> evaluateValidated(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, List<? extends Evaluated<?>> arguments) throws EvaluationException {
+        return evaluate(variableResolver, evaluationContext, token, arguments);
+    }
+
+    /**
+     * like {@link #evaluateValidated(VariableResolver, EvaluationContext, Token, List)} with one argument, without a list
+     */
+    default Evaluated<T> evaluateValidated(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Evaluated<?> argument) throws EvaluationException {
+        return evaluateValidated(variableResolver, evaluationContext, token, Collections.singletonList(argument));
+    }
+
+    /**
+     * like {@link #evaluateValidated(VariableResolver, EvaluationContext, Token, List)} with two arguments, without a list
+     */
+    default Evaluated<T> evaluateValidated(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Evaluated<?> first,
+        Evaluated<?> second) throws EvaluationException {
+        return evaluateValidated(variableResolver, evaluationContext, token, Arrays.asList(first, second));
+    }
+
+    /**
+     * result which might complete later, like a remote lookup, used by asynchronous evaluation, blocking work should
+     * run on the passed executor, the default evaluates in the calling thread
+     */
+    default CompletableFuture<Evaluated<T>> evaluateAsync(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, List<? extends Evaluated<?>> arguments, Executor executor) {
+        CompletableFuture<Evaluated<T>> result = new CompletableFuture<>();
+        try {
+            result.complete(evaluate(variableResolver, evaluationContext, token, arguments));
+        } catch (EvaluationException | RuntimeException ex) {
+            result.completeExceptionally(ex);
+        }
+        return result;
+    }
+
+    /**
+     * false if the result does not only depend on the arguments (random numbers, current time,
+     * zone of the evaluation context), such evaluables are never evaluated at parse time
+     */
+    default boolean isDeterministic() {
+        return true;
+    }
+
+    default Optional<ArgumentSelector> argumentSelector() {
+        return Optional.empty();
+    }
+
+    /**
+     * estimated cost of one evaluation, a simple operation costs 1
+     */
+    default int cost() {
+        return 1;
+    }
+
+    /**
+     * true if the arguments may be evaluated in parallel, see {@link de.flapdoodle.eval.core.ParallelArguments}
+     */
+    default boolean parallelArguments() {
+        return false;
+    }
+
+    /**
+     * primitive implementation used by {@link de.flapdoodle.eval.core.Expression#evaluateBatch(java.util.Map)}
+     */
+    default Optional<Kernel> kernel() {
+        return Optional.empty();
+    }
+
+    default TypedEvaluable<T> nonDeterministic() {
+        return DecoratedTypedEvaluable.of(this).nonDeterministic();
+    }
+
+    default TypedEvaluable<T> withArgumentSelector(ArgumentSelector argumentSelector) {
+        return DecoratedTypedEvaluable.of(this).withArgumentSelector(argumentSelector);
+    }
+
+    default TypedEvaluable<T> withCost(int cost) {
+        return DecoratedTypedEvaluable.of(this).withCost(cost);
+    }
+
+    default TypedEvaluable<T> withParallelArguments() {
+        return DecoratedTypedEvaluable.of(this).withParallelArguments();
+    }
+
+    /**
+     * the kernel must return the same result as this evaluable for all arguments of its type
+     */
+    default TypedEvaluable<T> withKernel(Kernel kernel) {
+        return DecoratedTypedEvaluable.of(this).withKernel(kernel);
+    }
+
     interface Arg0<T> {
         T evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token) throws EvaluationException;
     }
@@ -48,10 +145,24 @@ public interface TypedEvaluable<T> {
         T evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, A first, List<B> last) throws EvaluationException;
     }
 
+    /**
+     * like {@link Arg2} with a result which might complete later
+     */
+    interface AsyncArg2<A, B, T> {
+        CompletableFuture<T> evaluateAsync(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, A first, B second) throws EvaluationException;
+    }
+
     interface Arg3<A, B, C, T> {
         T evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, A first, B second, C third) throws EvaluationException;
     }
 
+    /**
+     * like {@link Arg3} with a result which might complete later
+     */
+    interface AsyncArg3<A, B, C, T> {
+        CompletableFuture<T> evaluateAsync(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, A first, B second, C third) throws EvaluationException;
+    }
+
     interface Arg4<A, B, C, D, T> {
         T evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, A first, B second, C third, D fourth) throws EvaluationException;
     }
@@ -75,8 +186,10 @@ public interface TypedEvaluable<T> {
 
     static <T, A> TypedEvaluable<T> of(Class<T> returnType, Parameter<A> a, TypedEvaluable.Arg1<A, T> function) {
         Evaluable<T> evaluable = (valueResolver, evaluationContext, token, arguments) -> function.evaluate(valueResolver, evaluationContext, token,
-                a.type().cast(arguments.get(0)));
-        return new TypedEvaluableAdapter<>(Signature.of(returnType, a), evaluable.named(function.toString()));
+                a.argument(token, arguments.get(0)));
+        TypedEvaluableAdapter.Unwrapped1<T> unwrapped = (valueResolver, evaluationContext, token, argument) -> function.evaluate(valueResolver,
+                evaluationContext, token, a.argument(token, argument));
+        return TypedEvaluableAdapter.of(Signature.of(returnType, a), evaluable.named(function.toString()), unwrapped);
     }
 
     static <T, A> TypedEvaluable<T> of(Class<T> returnType, Class<A> a, TypedEvaluable.Arg1<A, T> function) {
@@ -93,9 +206,11 @@ public interface TypedEvaluable<T> {
     static <T, A, B> TypedEvaluable<T> of(Class<T> returnType, Parameter<A> a, Parameter<B> b,
                                                                                                TypedEvaluable.Arg2<A, B, T> function) {
         Evaluable<T> evaluable = (valueResolver, evaluationContext, token, arguments) -> function.evaluate(valueResolver, evaluationContext, token,
-                a.type().cast(arguments.get(0)),
-                b.type().cast(arguments.get(1)));
-        return new TypedEvaluableAdapter<>(Signature.of(returnType, a, b), evaluable.named(function.toString()));
+                a.argument(token, arguments.get(0)),
+                b.argument(token, arguments.get(1)));
+        TypedEvaluableAdapter.Unwrapped2<T> unwrapped = (valueResolver, evaluationContext, token, first, second) -> function.evaluate(valueResolver,
+                evaluationContext, token, a.argument(token, first), b.argument(token, second));
+        return TypedEvaluableAdapter.of(Signature.of(returnType, a, b), evaluable.named(function.toString()), unwrapped);
     }
 
     static <T, A, B> TypedEvaluable<T> ofVarArg(Class<T> returnType, Class<A> a, Class<B> b, TypedEvaluable.VarArg2<A, B, T> function) {
@@ -119,55 +234,119 @@ public interface TypedEvaluable<T> {
     static <T, A, B, C> TypedEvaluable<T> of(Class<T> returnType, Parameter<A> a, Parameter<B> b, Parameter<C> c,
                                                                                                                    TypedEvaluable.Arg3<A, B, C, T> function) {
         Evaluable<T> evaluable = (valueResolver, evaluationContext, token, arguments) -> function.evaluate(valueResolver, evaluationContext, token,
-                a.type().cast(arguments.get(0)),
-                b.type().cast(arguments.get(1)),
-                c.type().cast(arguments.get(2)));
+                a.argument(token, arguments.get(0)),
+                b.argument(token, arguments.get(1)),
+                c.argument(token, arguments.get(2)));
         return new TypedEvaluableAdapter<>(Signature.of(returnType, a, b, c), evaluable.named(function.toString()));
     }
 
     static <T, A, B, C, D> TypedEvaluable<T> of(Class<T> returnType, Parameter<A> a, Parameter<B> b, Parameter<C> c, Parameter<D> d,
                                                                                                                                        TypedEvaluable.Arg4<A, B, C, D, T> function) {
         Evaluable<T> evaluable = (valueResolver, evaluationContext, token, arguments) -> function.evaluate(valueResolver, evaluationContext, token,
-                a.type().cast(arguments.get(0)),
-                b.type().cast(arguments.get(1)),
-                c.type().cast(arguments.get(2)),
-                d.type().cast(arguments.get(3)));
+                a.argument(token, arguments.get(0)),
+                b.argument(token, arguments.get(1)),
+                c.argument(token, arguments.get(2)),
+                d.argument(token, arguments.get(3)));
         return new TypedEvaluableAdapter<>(Signature.of(returnType, a, b, c, d), evaluable.named(function.toString()));
     }
 
     static <T, A, B, C, D, E> TypedEvaluable<T> of(Class<T> returnType, Parameter<A> a, Parameter<B> b, Parameter<C> c, Parameter<D> d, Parameter<E> e,
                                                                                                                                        TypedEvaluable.Arg5<A, B, C, D, E, T> function) {
         Evaluable<T> evaluable = (valueResolver, evaluationContext, token, arguments) -> function.evaluate(valueResolver, evaluationContext, token,
-                a.type().cast(arguments.get(0)),
-                b.type().cast(arguments.get(1)),
-                c.type().cast(arguments.get(2)),
-                d.type().cast(arguments.get(3)),
-                e.type().cast(arguments.get(4)));
+                a.argument(token, arguments.get(0)),
+                b.argument(token, arguments.get(1)),
+                c.argument(token, arguments.get(2)),
+                d.argument(token, arguments.get(3)),
+                e.argument(token, arguments.get(4)));
         return new TypedEvaluableAdapter<>(Signature.of(returnType, a, b, c, d, e), evaluable.named(function.toString()));
     }
 
     static <T, A, B, C, D, E, F> TypedEvaluable<T> of(Class<T> returnType, Parameter<A> a, Parameter<B> b, Parameter<C> c, Parameter<D> d, Parameter<E> e, Parameter<F> f,
                                                                                                                                                            TypedEvaluable.Arg6<A, B, C, D, E, F, T> function) {
         Evaluable<T> evaluable = (valueResolver, evaluationContext, token, arguments) -> function.evaluate(valueResolver, evaluationContext, token,
-                a.type().cast(arguments.get(0)),
-                b.type().cast(arguments.get(1)),
-                c.type().cast(arguments.get(2)),
-                d.type().cast(arguments.get(3)),
-                e.type().cast(arguments.get(4)),
-                f.type().cast(arguments.get(5)));
+                a.argument(token, arguments.get(0)),
+                b.argument(token, arguments.get(1)),
+                c.argument(token, arguments.get(2)),
+                d.argument(token, arguments.get(3)),
+                e.argument(token, arguments.get(4)),
+                f.argument(token, arguments.get(5)));
         return new TypedEvaluableAdapter<>(Signature.of(returnType, a, b, c, d, e, f), evaluable.named(function.toString()));
     }
 
     static <T, A, B, C, D, E, F, G> TypedEvaluable<T> of(Class<T> returnType, Parameter<A> a, Parameter<B> b, Parameter<C> c, Parameter<D> d, Parameter<E> e, Parameter<F> f, Parameter<G> g,
                                                                                                                                                                                TypedEvaluable.Arg7<A, B, C, D, E, F, G, T> function) {
         Evaluable<T> evaluable = (valueResolver, evaluationContext, token, arguments) -> function.evaluate(valueResolver, evaluationContext, token,
-                a.type().cast(arguments.get(0)),
-                b.type().cast(arguments.get(1)),
-                c.type().cast(arguments.get(2)),
-                d.type().cast(arguments.get(3)),
-                e.type().cast(arguments.get(4)),
-                f.type().cast(arguments.get(5)),
-                g.type().cast(arguments.get(6)));
+                a.argument(token, arguments.get(0)),
+                b.argument(token, arguments.get(1)),
+                c.argument(token, arguments.get(2)),
+                d.argument(token, arguments.get(3)),
+                e.argument(token, arguments.get(4)),
+                f.argument(token, arguments.get(5)),
+                g.argument(token, arguments.get(6)));
         return new TypedEvaluableAdapter<>(Signature.of(returnType, a, b, c, d, e, f, g), evaluable.named(function.toString()));
     }
+
+    /**
+     * all but the first argument are {@link Parameter#isLazy() lazy} and evaluated on demand
+     */
+    static <T, A, B> TypedEvaluable<T> ofLazy(Class<T> returnType, Parameter<A> a, Parameter<B> b,
+                                              TypedEvaluable.Arg2<A, Lazy<B>, T> function) {
+        Parameter<B> lazyB = ImmutableParameter.copyOf(b).withIsLazy(true);
+        Evaluable<T> evaluable = (valueResolver, evaluationContext, token, arguments) -> function.evaluate(valueResolver, evaluationContext, token,
+                a.argument(token, arguments.get(0)),
+                lazyB.lazyArgument(token, arguments.get(1)));
+        return new TypedEvaluableAdapter<>(Signature.of(returnType, a, lazyB), evaluable.named(function.toString()));
+    }
+
+    /**
+     * like {@link #ofLazy(Class, Parameter, Parameter, Arg2)}, asynchronous evaluation uses asyncFunction, which can wait
+     * for lazy arguments with {@link Lazy#getAsync()} without blocking
+     */
+    static <T, A, B> TypedEvaluable<T> ofLazy(Class<T> returnType, Parameter<A> a, Parameter<B> b,
+                                              TypedEvaluable.Arg2<A, Lazy<B>, T> function, TypedEvaluable.AsyncArg2<A, Lazy<B>, T> asyncFunction) {
+        Parameter<B> lazyB = ImmutableParameter.copyOf(b).withIsLazy(true);
+        Evaluable<T> evaluable = (valueResolver, evaluationContext, token, arguments) -> function.evaluate(valueResolver, evaluationContext, token,
+                a.argument(token, arguments.get(0)),
+                lazyB.lazyArgument(token, arguments.get(1)));
+        AsyncTypedEvaluable.AsyncEvaluable<T> asyncEvaluable = (valueResolver, evaluationContext, token, arguments, executor) -> asyncFunction.evaluateAsync(
+                valueResolver, evaluationContext, token,
+                a.argument(token, arguments[0]),
+                lazyB.lazyArgument(token, arguments[1]));
+        return new TypedEvaluableAdapter<>(Signature.of(returnType, a, lazyB), evaluable.named(function.toString()), asyncEvaluable);
+    }
+
+    /**
+     * all but the first argument are {@link Parameter#isLazy() lazy} and evaluated on demand
+     */
+    static <T, A, B, C> TypedEvaluable<T> ofLazy(Class<T> returnType, Parameter<A> a, Parameter<B> b, Parameter<C> c,
+                                                 TypedEvaluable.Arg3<A, Lazy<B>, Lazy<C>, T> function) {
+        Parameter<B> lazyB = ImmutableParameter.copyOf(b).withIsLazy(true);
+        Parameter<C> lazyC = ImmutableParameter.copyOf(c).withIsLazy(true);
+        Evaluable<T> evaluable = (valueResolver, evaluationContext, token, arguments) -> function.evaluate(valueResolver, evaluationContext, token,
+                a.argument(token, arguments.get(0)),
+                lazyB.lazyArgument(token, arguments.get(1)),
+                lazyC.lazyArgument(token, arguments.get(2)));
+        return new TypedEvaluableAdapter<>(Signature.of(returnType, a, lazyB, lazyC), evaluable.named(function.toString()));
+    }
+
+    /**
+     * like {@link #ofLazy(Class, Parameter, Parameter, Parameter, Arg3)}, asynchronous evaluation uses asyncFunction, which
+     * can wait for lazy arguments with {@link Lazy#getAsync()} without blocking
+     */
+    static <T, A, B, C> TypedEvaluable<T> ofLazy(Class<T> returnType, Parameter<A> a, Parameter<B> b, Parameter<C> c,
+                                                 TypedEvaluable.Arg3<A, Lazy<B>, Lazy<C>, T> function,
+                                                 TypedEvaluable.AsyncArg3<A, Lazy<B>, Lazy<C>, T> asyncFunction) {
+        Parameter<B> lazyB = ImmutableParameter.copyOf(b).withIsLazy(true);
+        Parameter<C> lazyC = ImmutableParameter.copyOf(c).withIsLazy(true);
+        Evaluable<T> evaluable = (valueResolver, evaluationContext, token, arguments) -> function.evaluate(valueResolver, evaluationContext, token,
+                a.argument(token, arguments.get(0)),
+                lazyB.lazyArgument(token, arguments.get(1)),
+                lazyC.lazyArgument(token, arguments.get(2)));
+        AsyncTypedEvaluable.AsyncEvaluable<T> asyncEvaluable = (valueResolver, evaluationContext, token, arguments, executor) -> asyncFunction.evaluateAsync(
+                valueResolver, evaluationContext, token,
+                a.argument(token, arguments[0]),
+                lazyB.lazyArgument(token, arguments[1]),
+                lazyC.lazyArgument(token, arguments[2]));
+        return new TypedEvaluableAdapter<>(Signature.of(returnType, a, lazyB, lazyC), evaluable.named(function.toString()), asyncEvaluable);
+    }
 }
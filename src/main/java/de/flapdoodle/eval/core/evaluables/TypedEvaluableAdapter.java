@@ -22,16 +22,36 @@ import de.flapdoodle.eval.core.exceptions.EvaluableException;
 import de.flapdoodle.eval.core.exceptions.EvaluationException;
 import de.flapdoodle.eval.core.parser.Token;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 class TypedEvaluableAdapter<T> implements TypedEvaluable<T> {
 	private final Signature<T> signature;
 	private final Evaluable<T> delegate;
+	// null if asynchronous evaluation calls the delegate
+	private final AsyncTypedEvaluable.AsyncEvaluable<T> asyncDelegate;
+	// null if validated arguments are passed as list
+	private final Unwrapped1<T> unwrapped1;
+	private final Unwrapped2<T> unwrapped2;
 
 	public TypedEvaluableAdapter(Signature<T> signature, Evaluable<T> delegate) {
+		this(signature, delegate, null);
+	}
+
+	public TypedEvaluableAdapter(Signature<T> signature, Evaluable<T> delegate, AsyncTypedEvaluable.AsyncEvaluable<T> asyncDelegate) {
+		this(signature, delegate, asyncDelegate, null, null);
+	}
+
+	private TypedEvaluableAdapter(Signature<T> signature, Evaluable<T> delegate, AsyncTypedEvaluable.AsyncEvaluable<T> asyncDelegate,
+		Unwrapped1<T> unwrapped1, Unwrapped2<T> unwrapped2) {
 		this.signature = signature;
 		this.delegate = delegate;
+		this.asyncDelegate = asyncDelegate;
+		this.unwrapped1 = unwrapped1;
+		this.unwrapped2 = unwrapped2;
 	}
 
 	public Signature<T> signature() {
@@ -45,6 +65,57 @@ class TypedEvaluableAdapter<T> implements TypedEvaluable<T> {
 		return Evaluated.ofNullable(signature.returnType(), delegate.evaluate(variableResolver, evaluationContext, token, Evaluated.unwrap(arguments)));
 	}
 
+	@Override
+	public Evaluated<T> evaluateValidated(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, List<? extends Evaluated<?>> arguments)
+		throws EvaluationException {
+		Object[] unwrapped = new Object[arguments.size()];
+		for (int i = 0; i < unwrapped.length; i++) {
+			unwrapped[i] = arguments.get(i).wrapped();
+		}
+		return Evaluated.ofNullable(signature.returnType(), delegate.evaluate(variableResolver, evaluationContext, token, Arrays.asList(unwrapped)));
+	}
+
+	@Override
+	public Evaluated<T> evaluateValidated(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Evaluated<?> argument)
+		throws EvaluationException {
+		if (unwrapped1 == null) {
+			return TypedEvaluable.super.evaluateValidated(variableResolver, evaluationContext, token, argument);
+		}
+		return Evaluated.ofNullable(signature.returnType(), unwrapped1.evaluate(variableResolver, evaluationContext, token, argument.wrapped()));
+	}
+
+	@Override
+	public Evaluated<T> evaluateValidated(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Evaluated<?> first,
+		Evaluated<?> second) throws EvaluationException {
+		if (unwrapped2 == null) {
+			return TypedEvaluable.super.evaluateValidated(variableResolver, evaluationContext, token, first, second);
+		}
+		return Evaluated.ofNullable(signature.returnType(),
+			unwrapped2.evaluate(variableResolver, evaluationContext, token, first.wrapped(), second.wrapped()));
+	}
+
+	@Override
+	public CompletableFuture<Evaluated<T>> evaluateAsync(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token,
+		List<? extends Evaluated<?>> arguments, Executor executor) {
+		if (asyncDelegate == null) {
+			return TypedEvaluable.super.evaluateAsync(variableResolver, evaluationContext, token, arguments, executor);
+		}
+		try {
+			checkArguments(token, arguments);
+			Object[] unwrapped = new Object[arguments.size()];
+			for (int i = 0; i < unwrapped.length; i++) {
+				unwrapped[i] = arguments.get(i).wrapped();
+			}
+			return asyncDelegate.evaluate(variableResolver, evaluationContext, token, unwrapped, executor)
+				.thenApply(value -> Evaluated.ofNullable(signature.returnType(), value));
+		}
+		catch (EvaluationException | RuntimeException ex) {
+			CompletableFuture<Evaluated<T>> failed = new CompletableFuture<>();
+			failed.completeExceptionally(ex);
+			return failed;
+		}
+	}
+
 	protected void checkArguments(Token token, List<? extends Evaluated<?>> arguments) throws EvaluationException {
 		Optional<EvaluableException> error = signature().validateArguments(arguments);
 		if (error.isPresent()) {
@@ -52,6 +123,29 @@ class TypedEvaluableAdapter<T> implements TypedEvaluable<T> {
 		}
 	}
 
+	static <T> TypedEvaluableAdapter<T> of(Signature<T> signature, Evaluable<T> delegate, Unwrapped1<T> unwrapped) {
+		return new TypedEvaluableAdapter<>(signature, delegate, null, unwrapped, null);
+	}
+
+	static <T> TypedEvaluableAdapter<T> of(Signature<T> signature, Evaluable<T> delegate, Unwrapped2<T> unwrapped) {
+		return new TypedEvaluableAdapter<>(signature, delegate, null, null, unwrapped);
+	}
+
+	/**
+	 * like {@link Evaluable} for one unwrapped argument
+	 */
+	interface Unwrapped1<T> {
+		T evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Object argument) throws EvaluationException;
+	}
+
+	/**
+	 * like {@link Evaluable} for two unwrapped arguments
+	 */
+	interface Unwrapped2<T> {
+		T evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Object first, Object second)
+			throws EvaluationException;
+	}
+
 	@Override
 	public String toString() {
 		return "TypedEvaluableAdapter{" +
@@ -29,6 +29,41 @@ public interface TypedEvaluableByArguments {
     Either<TypedEvaluable<?>, EvaluableException> find(List<? extends Evaluated<?>> values);
     Either<TypedEvaluable<?>, EvaluableException> findType(List<? extends TypeInfo<?>> valueTypes);
 
+    /**
+     * all evaluables find and findType are choosing from, in order, if known
+     */
+    default Optional<List<TypedEvaluable<?>>> candidates() {
+        return Optional.empty();
+    }
+
+    /**
+     * true if the argument at this position is declared lazy by all candidates
+     */
+    default boolean isLazy(int index) {
+        return candidates()
+          .map(list -> !list.isEmpty() && list.stream()
+            .allMatch(it -> index < it.signature().maxNumberOfArguments() && it.signature().get(index).isLazy()))
+          .orElse(false);
+    }
+
+    /**
+     * true if all candidates allow parallel evaluation of their arguments
+     */
+    default boolean parallelArguments() {
+        return candidates()
+          .map(list -> !list.isEmpty() && list.stream().allMatch(TypedEvaluable::parallelArguments))
+          .orElse(false);
+    }
+
+    /**
+     * highest cost of all candidates, 1 if they are not known
+     */
+    default int cost() {
+        return candidates()
+          .map(list -> list.stream().mapToInt(TypedEvaluable::cost).max().orElse(1))
+          .orElse(1);
+    }
+
     static Either<TypedEvaluable<?>, EvaluableException> find(List<TypedEvaluable<?>> list, List<? extends Evaluated<?>> values) {
         List<EvaluableException> errors = new ArrayList<>();
         for (TypedEvaluable<?> evaluable : list) {
@@ -38,8 +73,9 @@ public interface TypedEvaluableByArguments {
         }
 
         EvaluableException exception;
-        if (errors.size()==1 && errors.get(0).isValidationError()) {
-            exception = errors.get(0);
+        Optional<EvaluableException> validationError = singleValidationError(errors);
+        if (validationError.isPresent()) {
+            exception = validationError.get();
         } else {
             String valuesAsString = values.stream().map(it -> it.toString() + "(" + it.getClass() + ")").collect(Collectors.joining(", "));
             String signatures = list.stream().map(it -> it.signature().asHumanReadable()).collect(Collectors.joining("\n", "\n", "n"));
@@ -58,8 +94,9 @@ public interface TypedEvaluableByArguments {
         }
 
         EvaluableException exception;
-        if (errors.size()==1 && errors.get(0).isValidationError()) {
-            exception = errors.get(0);
+        Optional<EvaluableException> validationError = singleValidationError(errors);
+        if (validationError.isPresent()) {
+            exception = validationError.get();
         } else {
             String valuesAsString = valueTypes.stream().map(Object::toString).collect(Collectors.joining(", "));
             String signatures = list.stream().map(it -> it.signature().asHumanReadable()).collect(Collectors.joining("\n", "\n", "n"));
@@ -70,12 +107,25 @@ public interface TypedEvaluableByArguments {
     }
 
     static EvaluableException signatureNotFound(List<TypedEvaluable<?>> list, List<?> values, List<EvaluableException> errors) {
-        if (errors.size()==1 && errors.get(0).isValidationError()) {
-            return errors.get(0);
+        Optional<EvaluableException> validationError = singleValidationError(errors);
+        if (validationError.isPresent()) {
+            return validationError.get();
         }
 
         String valuesAsString = values.stream().map(it -> it.toString()+"("+it.getClass()+")").collect(Collectors.joining(", "));
         String signatures = list.stream().map(it -> it.signature().asHumanReadable()).collect(Collectors.joining("\n","\n","n"));
         return EvaluableException.of("no matching signature found for %s in %s", valuesAsString, signatures);
     }
+
+    /**
+     * if only one candidate matched the argument types but failed validation, this is the error to report
+     */
+    static Optional<EvaluableException> singleValidationError(List<EvaluableException> errors) {
+        List<EvaluableException> validationErrors = errors.stream()
+          .filter(EvaluableException::isValidationError)
+          .collect(Collectors.toList());
+        return validationErrors.size() == 1
+          ? Optional.of(validationErrors.get(0))
+          : Optional.empty();
+    }
 }
@@ -50,6 +50,12 @@ public abstract class TypedEvaluables implements TypedEvaluableByArguments, Type
 		return TypedEvaluableByArguments.findType(list(), valueTypes);
 	}
 
+	@Override
+	@Value.Auxiliary
+	public Optional<List<TypedEvaluable<?>>> candidates() {
+		return Optional.of(list());
+	}
+
 	public static ImmutableTypedEvaluables.Builder builder() {
 		return ImmutableTypedEvaluables.builder();
 	}
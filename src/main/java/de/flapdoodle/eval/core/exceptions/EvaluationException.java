@@ -39,6 +39,21 @@ public class EvaluationException extends BaseException {
 			cause);
 	}
 
+	protected EvaluationException(int startPosition, int endPosition, String tokenString, String message) {
+		super(startPosition, endPosition, tokenString, message);
+	}
+
+	/**
+	 * the same failure for a copy of the failing source moved by {@code offset} chars
+	 */
+	public EvaluationException movedBy(int offset) {
+		EvaluationException moved = new EvaluationException(getStartPosition() + offset, getEndPosition() + offset, getTokenString(), getMessage());
+		if (getCause() != null) {
+			moved.initCause(getCause());
+		}
+		return moved;
+	}
+
 	public EvaluationException of(Token token, List<? extends EvaluableException> causes) {
 		EvaluableException cause = causes.get(0);
 		for (int i = 1; i < causes.size(); i++) {
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.flow;
+
+import de.flapdoodle.eval.core.Expression;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.types.Either;
+import org.immutables.value.Value;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * settings for a pipeline stage which evaluates an expression for each row it receives. At most {@link #bufferSize()}
+ * rows are requested from upstream and not yet delivered downstream, so a slow subscriber throttles the publisher.
+ * Rows are evaluated in batches of up to {@link #batchSize()} rows, at most {@link #parallelism()} batches at once.
+ * Results are delivered in input order.
+ */
+@Value.Immutable
+public abstract class EvaluationPipeline {
+
+	@Value.Default
+	public int bufferSize() {
+		return 256;
+	}
+
+	@Value.Default
+	public int batchSize() {
+		return 16;
+	}
+
+	@Value.Default
+	public int parallelism() {
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+	@Value.Default
+	public Executor executor() {
+		return ForkJoinPool.commonPool();
+	}
+
+	@Value.Check
+	protected void check() {
+		if (batchSize() < 1) {
+			throw new IllegalArgumentException("batchSize must be at least 1: " + batchSize());
+		}
+		if (bufferSize() < batchSize()) {
+			throw new IllegalArgumentException("bufferSize " + bufferSize() + " must not be smaller than batchSize " + batchSize());
+		}
+		if (parallelism() < 1) {
+			throw new IllegalArgumentException("parallelism must be at least 1: " + parallelism());
+		}
+	}
+
+	/**
+	 * a new stage for one upstream publisher and one subscriber, evaluation errors of a row are delivered as result
+	 */
+	public Flow.Processor<VariableResolver, Either<Evaluated<?>, EvaluationException>> processor(Expression expression) {
+		return new EvaluationProcessor(expression.compile(), executor(), bufferSize(), batchSize(), parallelism());
+	}
+
+	public static ImmutableEvaluationPipeline.Builder builder() {
+		return ImmutableEvaluationPipeline.builder();
+	}
+
+	public static EvaluationPipeline defaults() {
+		return builder().build();
+	}
+}
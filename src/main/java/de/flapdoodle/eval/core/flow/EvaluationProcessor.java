@@ -0,0 +1,329 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.flow;
+
+import de.flapdoodle.eval.core.CompiledExpression;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.types.Either;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * all signals end up in {@link #drain()}, which runs on one thread at a time, so batching, requesting and delivery need
+ * no locks: rows received are collected into batches, a batch is flushed when it is full, when no more rows are
+ * requested or when nothing else is in flight, finished batches are delivered in order as far as requested. New rows
+ * are only requested if there is room in the buffer.
+ */
+final class EvaluationProcessor implements Flow.Processor<VariableResolver, Either<Evaluated<?>, EvaluationException>> {
+
+	private final CompiledExpression expression;
+	private final Executor executor;
+	private final int bufferSize;
+	private final int batchSize;
+	private final int parallelism;
+
+	private final Queue<VariableResolver> received = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger wip = new AtomicInteger();
+	private final AtomicInteger running = new AtomicInteger();
+	private final AtomicLong demand = new AtomicLong();
+	private final AtomicReference<Flow.Subscription> upstream = new AtomicReference<>();
+	private final AtomicBoolean subscribed = new AtomicBoolean();
+
+	private volatile Flow.Subscriber<? super Either<Evaluated<?>, EvaluationException>> downstream;
+	private volatile boolean upstreamDone;
+	private volatile Throwable upstreamError;
+	private volatile Throwable invalidRequest;
+	private volatile boolean cancelled;
+
+	// only touched in drain()
+	private final ArrayDeque<Batch> batches = new ArrayDeque<>();
+	private final ArrayDeque<Batch> waiting = new ArrayDeque<>();
+	private List<VariableResolver> current;
+	private long outstanding;
+	private long buffered;
+	private boolean terminated;
+
+	EvaluationProcessor(CompiledExpression expression, Executor executor, int bufferSize, int batchSize, int parallelism) {
+		this.expression = expression;
+		this.executor = executor;
+		this.bufferSize = bufferSize;
+		this.batchSize = batchSize;
+		this.parallelism = parallelism;
+		this.current = new ArrayList<>(batchSize);
+	}
+
+	@Override
+	public void onSubscribe(Flow.Subscription subscription) {
+		Objects.requireNonNull(subscription, "subscription is null");
+		if (!upstream.compareAndSet(null, subscription)) {
+			subscription.cancel();
+			return;
+		}
+		if (cancelled) {
+			subscription.cancel();
+			return;
+		}
+		drain();
+	}
+
+	@Override
+	public void onNext(VariableResolver row) {
+		received.offer(Objects.requireNonNull(row, "row is null"));
+		drain();
+	}
+
+	@Override
+	public void onError(Throwable throwable) {
+		upstreamError = Objects.requireNonNull(throwable, "throwable is null");
+		upstreamDone = true;
+		drain();
+	}
+
+	@Override
+	public void onComplete() {
+		upstreamDone = true;
+		drain();
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super Either<Evaluated<?>, EvaluationException>> subscriber) {
+		Objects.requireNonNull(subscriber, "subscriber is null");
+		if (!subscribed.compareAndSet(false, true)) {
+			subscriber.onSubscribe(new Flow.Subscription() {
+				@Override
+				public void request(long n) {
+				}
+
+				@Override
+				public void cancel() {
+				}
+			});
+			subscriber.onError(new IllegalStateException("only one subscriber supported"));
+			return;
+		}
+		subscriber.onSubscribe(new Flow.Subscription() {
+			@Override
+			public void request(long n) {
+				if (n <= 0) {
+					invalidRequest = new IllegalArgumentException("request must be positive: " + n);
+				} else {
+					demand.getAndUpdate(it -> it + n < 0 ? Long.MAX_VALUE : it + n);
+				}
+				drain();
+			}
+
+			@Override
+			public void cancel() {
+				cancelled = true;
+				Flow.Subscription subscription = upstream.get();
+				if (subscription != null) {
+					subscription.cancel();
+				}
+				drain();
+			}
+		});
+		downstream = subscriber;
+		drain();
+	}
+
+	private void drain() {
+		if (wip.getAndIncrement() != 0) {
+			return;
+		}
+		int missed = 1;
+		do {
+			if (cancelled || terminated) {
+				received.clear();
+				batches.clear();
+				waiting.clear();
+				current.clear();
+			} else {
+				boolean done = upstreamDone;
+				VariableResolver row;
+				while ((row = received.poll()) != null) {
+					outstanding--;
+					buffered++;
+					current.add(row);
+					if (current.size() == batchSize) {
+						flush();
+					}
+				}
+				if (!current.isEmpty() && (done || outstanding <= 0 || batches.isEmpty())) {
+					flush();
+				}
+				startBatches();
+
+				Flow.Subscriber<? super Either<Evaluated<?>, EvaluationException>> subscriber = downstream;
+				if (subscriber != null) {
+					deliver(subscriber);
+					// delivery might have emptied the batches, rows received meanwhile must not wait for the next row
+					if (!terminated && !cancelled && !current.isEmpty() && batches.isEmpty()) {
+						flush();
+						startBatches();
+					}
+					if (!terminated && done && batches.isEmpty()) {
+						terminated = true;
+						Throwable error = upstreamError;
+						if (error != null) {
+							subscriber.onError(error);
+						} else {
+							subscriber.onComplete();
+						}
+					}
+				}
+				if (!terminated && !done) {
+					requestMore();
+				}
+			}
+			missed = wip.addAndGet(-missed);
+		}
+		while (missed != 0);
+	}
+
+	private void flush() {
+		Batch batch = new Batch(current);
+		batches.offer(batch);
+		waiting.offer(batch);
+		current = new ArrayList<>(batchSize);
+	}
+
+	private void startBatches() {
+		while (!waiting.isEmpty() && running.get() < parallelism) {
+			Batch batch = waiting.poll();
+			running.incrementAndGet();
+			try {
+				executor.execute(() -> {
+					try {
+						batch.evaluate(expression);
+					}
+					finally {
+						running.decrementAndGet();
+						drain();
+					}
+				});
+			}
+			catch (RejectedExecutionException ex) {
+				running.decrementAndGet();
+				batch.failed(ex);
+			}
+		}
+	}
+
+	private void deliver(Flow.Subscriber<? super Either<Evaluated<?>, EvaluationException>> subscriber) {
+		Throwable invalid = invalidRequest;
+		if (invalid != null) {
+			fail(subscriber, invalid);
+			return;
+		}
+		long requested = demand.get();
+		long emitted = 0;
+		while (emitted != requested) {
+			Batch head = batches.peek();
+			if (head == null || !head.finished) {
+				break;
+			}
+			if (head.failure != null) {
+				fail(subscriber, head.failure);
+				return;
+			}
+			subscriber.onNext(head.results.get(head.delivered++));
+			emitted++;
+			buffered--;
+			if (head.delivered == head.results.size()) {
+				batches.poll();
+			}
+			if (cancelled) {
+				return;
+			}
+		}
+		if (emitted != 0 && requested != Long.MAX_VALUE) {
+			demand.addAndGet(-emitted);
+		}
+	}
+
+	private void requestMore() {
+		Flow.Subscription subscription = upstream.get();
+		if (subscription != null) {
+			long free = bufferSize - buffered - outstanding;
+			if (free >= batchSize) {
+				outstanding += free;
+				subscription.request(free);
+			}
+		}
+	}
+
+	private void fail(Flow.Subscriber<? super Either<Evaluated<?>, EvaluationException>> subscriber, Throwable error) {
+		terminated = true;
+		Flow.Subscription subscription = upstream.get();
+		if (subscription != null) {
+			subscription.cancel();
+		}
+		subscriber.onError(error);
+	}
+
+	private static final class Batch {
+		private final List<VariableResolver> rows;
+		private final List<Either<Evaluated<?>, EvaluationException>> results;
+		private Throwable failure;
+		private volatile boolean finished;
+		// only touched in drain()
+		private int delivered;
+
+		private Batch(List<VariableResolver> rows) {
+			this.rows = rows;
+			this.results = new ArrayList<>(rows.size());
+		}
+
+		private void evaluate(CompiledExpression expression) {
+			try {
+				for (VariableResolver row : rows) {
+					try {
+						results.add(Either.left(expression.evaluate(row)));
+					}
+					catch (EvaluationException ex) {
+						results.add(Either.right(ex));
+					}
+				}
+			}
+			// an error must end the stream with onError, otherwise this batch would never be delivered
+			catch (Throwable ex) {
+				failure = ex;
+			}
+			finally {
+				finished = true;
+			}
+		}
+
+		private void failed(Throwable ex) {
+			failure = ex;
+			finished = true;
+		}
+	}
+}
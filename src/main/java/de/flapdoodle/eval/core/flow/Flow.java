@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.flow;
+
+/**
+ * the interfaces of java.util.concurrent.Flow (Java 9+), so that this library can stay on Java 8. Any
+ * java.util.concurrent.Flow implementation can be adapted by delegating each method one to one.
+ */
+public final class Flow {
+
+	private Flow() {
+		// no instance
+	}
+
+	public interface Publisher<T> {
+		void subscribe(Subscriber<? super T> subscriber);
+	}
+
+	public interface Subscriber<T> {
+		void onSubscribe(Subscription subscription);
+
+		void onNext(T item);
+
+		void onError(Throwable throwable);
+
+		void onComplete();
+	}
+
+	public interface Subscription {
+		void request(long n);
+
+		void cancel();
+	}
+
+	public interface Processor<T, R> extends Subscriber<T>, Publisher<R> {
+	}
+}
@@ -29,7 +29,7 @@ import java.util.*;
  * @see <a href="https://en.wikipedia.org/wiki/Abstract_syntax_tree">Abstract syntax tree</a>
  */
 public class ShuntingYardConverter {
-	private final String originalExpression;
+	private final CharSequence originalExpression;
 	private final List<Token> expressionTokens;
 
 	private final OperatorMap operatorMap;
@@ -39,7 +39,7 @@ public class ShuntingYardConverter {
 	private final Deque<ASTNode> operandStack = new ArrayDeque<>();
 
 	public ShuntingYardConverter(
-			String originalExpression,
+			CharSequence originalExpression,
 			List<Token> expressionTokens,
 		OperatorMap operatorMap,
 		TypedEvaluableByName evaluatables) {
@@ -105,11 +105,11 @@ public class ShuntingYardConverter {
 		}
 
 		if (operandStack.isEmpty()) {
-			throw new ParseException(this.originalExpression, "Empty expression");
+			throw new ParseException(this.originalExpression.toString(), "Empty expression");
 		}
 
 		if (operandStack.size() > 1) {
-			throw new ParseException(this.originalExpression, "Too many operands");
+			throw new ParseException(this.originalExpression.toString(), "Too many operands");
 		}
 
 		return operandStack.pop();
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.parser;
+
+/**
+ * read only view of parsed chars, references the passed char sequence and does not copy it,
+ * equals and hashCode use the content like {@link String}. The referenced chars must not change.
+ */
+public final class SourceSlice implements CharSequence {
+	private final CharSequence chars;
+	private int hash;
+
+	private SourceSlice(CharSequence chars) {
+		this.chars = chars;
+	}
+
+	@Override
+	public int length() {
+		return chars.length();
+	}
+
+	@Override
+	public char charAt(int index) {
+		return chars.charAt(index);
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		return chars.subSequence(start, end);
+	}
+
+	/**
+	 * the referenced chars, a {@link java.nio.CharBuffer} stays a {@link java.nio.CharBuffer}
+	 */
+	public CharSequence referenced() {
+		return chars;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) return true;
+		if (!(other instanceof SourceSlice)) return false;
+		CharSequence otherChars = ((SourceSlice) other).chars;
+		int length = chars.length();
+		if (otherChars.length() != length || hashCode() != other.hashCode()) return false;
+		for (int i = 0; i < length; i++) {
+			if (chars.charAt(i) != otherChars.charAt(i)) return false;
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int h = hash;
+		if (h == 0) {
+			int length = chars.length();
+			for (int i = 0; i < length; i++) {
+				h = 31 * h + chars.charAt(i);
+			}
+			hash = h;
+		}
+		return h;
+	}
+
+	@Override
+	public String toString() {
+		return chars.toString();
+	}
+
+	public static SourceSlice of(CharSequence chars) {
+		return chars instanceof SourceSlice
+			? (SourceSlice) chars
+			: new SourceSlice(chars);
+	}
+}
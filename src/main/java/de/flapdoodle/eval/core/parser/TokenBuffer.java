@@ -0,0 +1,300 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.parser;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * tokens as type and source range in primitive arrays, values are only created on request
+ */
+public final class TokenBuffer {
+	private static final TokenType[] TYPES = TokenType.values();
+	private static final int INITIAL_CAPACITY = 16;
+
+	private CharSequence source = "";
+	private int offset = 0;
+	private int length = 0;
+	private byte[] types = new byte[INITIAL_CAPACITY];
+	private int[] starts = new int[INITIAL_CAPACITY];
+	private int[] ends = new int[INITIAL_CAPACITY];
+	private int size = 0;
+	// tokens taken over from a previous buffer, see Tokenizer.retokenize
+	private int unchangedTokens = 0;
+	private int shiftedTokens = 0;
+	private int shift = 0;
+
+	/**
+	 * the tokenized part of the source, token positions are relative to it
+	 */
+	public CharSequence source() {
+		return source.subSequence(offset, offset + length);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public TokenType type(int index) {
+		return TYPES[types[checkIndex(index)]];
+	}
+
+	public int start(int index) {
+		return starts[checkIndex(index)];
+	}
+
+	/**
+	 * end of the token in the source (exclusive)
+	 */
+	public int end(int index) {
+		return ends[checkIndex(index)];
+	}
+
+	public String value(int index) {
+		checkIndex(index);
+		int start = starts[index];
+		int end = ends[index];
+		if (start == end) {
+			// implicit multiplication, not part of the source
+			return "*";
+		}
+		if (TYPES[types[index]] == TokenType.STRING_LITERAL) {
+			return unescape(source, offset + start + 1, offset + end - 1);
+		}
+		return source.subSequence(offset + start, offset + end).toString();
+	}
+
+	public Token token(int index) {
+		return Token.of(start(index), value(index), type(index));
+	}
+
+	/**
+	 * a copy of all tokens
+	 */
+	public List<Token> tokens() {
+		List<Token> tokens = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			tokens.add(token(i));
+		}
+		return tokens;
+	}
+
+	/**
+	 * number of leading tokens copied unchanged from the previous buffer by {@link Tokenizer#retokenize}
+	 */
+	public int unchangedTokens() {
+		return unchangedTokens;
+	}
+
+	/**
+	 * index of the first trailing token copied from the previous buffer with positions moved by {@link #shift()},
+	 * {@link #size()} if there are none
+	 */
+	public int firstShiftedToken() {
+		return size - shiftedTokens;
+	}
+
+	public int shift() {
+		return shift;
+	}
+
+	/**
+	 * index of the brace closing the parameter list of the function at {@code functionIndex}, -1 if it is not
+	 * found before {@code limit}
+	 */
+	public int closingBraceOfFunction(int functionIndex, int limit) {
+		if (type(functionIndex) != TokenType.FUNCTION) {
+			throw new IllegalArgumentException("not a function: " + token(functionIndex));
+		}
+		int depth = 0;
+		for (int i = functionIndex + 1; i < Math.min(limit, size); i++) {
+			TokenType type = TYPES[types[i]];
+			if (type == TokenType.BRACE_OPEN) {
+				depth++;
+			} else if (type == TokenType.BRACE_CLOSE) {
+				depth--;
+				if (depth == 0) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * an independent copy, which is not changed by further use of the tokenizer
+	 */
+	public TokenBuffer copy() {
+		TokenBuffer copy = new TokenBuffer();
+		copy.source = source;
+		copy.offset = offset;
+		copy.length = length;
+		copy.types = Arrays.copyOf(types, Math.max(size, 1));
+		copy.starts = Arrays.copyOf(starts, Math.max(size, 1));
+		copy.ends = Arrays.copyOf(ends, Math.max(size, 1));
+		copy.size = size;
+		copy.unchangedTokens = unchangedTokens;
+		copy.shiftedTokens = shiftedTokens;
+		copy.shift = shift;
+		return copy;
+	}
+
+	/**
+	 * reads the tokens of this buffer one by one
+	 */
+	public Reader reader() {
+		return new Reader();
+	}
+
+	public final class Reader implements TokenReader {
+		private int index = -1;
+
+		@Override
+		public boolean advance() {
+			if (index < size) {
+				index++;
+			}
+			return index < size;
+		}
+
+		@Override
+		public TokenType type() {
+			return index >= 0 && index < size ? TokenBuffer.this.type(index) : null;
+		}
+
+		@Override
+		public Token token() {
+			return TokenBuffer.this.token(index);
+		}
+
+		public int index() {
+			return index;
+		}
+
+		/**
+		 * continue with the token at this index
+		 */
+		public void moveTo(int index) {
+			checkIndex(index);
+			this.index = index;
+		}
+	}
+
+	/**
+	 * a view of all tokens, each token is created on access
+	 */
+	public List<Token> asList() {
+		return new AbstractList<Token>() {
+			@Override
+			public Token get(int index) {
+				return token(index);
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	void reset(CharSequence source, int offset, int length) {
+		this.source = source;
+		this.offset = offset;
+		this.length = length;
+		this.size = 0;
+		this.unchangedTokens = 0;
+		this.shiftedTokens = 0;
+		this.shift = 0;
+	}
+
+	void addUnchanged(TokenBuffer previous, int count) {
+		for (int i = 0; i < count; i++) {
+			add(previous.type(i), previous.start(i), previous.end(i));
+		}
+		unchangedTokens = count;
+	}
+
+	void addShifted(TokenBuffer previous, int fromIndex, int shift) {
+		for (int i = fromIndex; i < previous.size(); i++) {
+			add(previous.type(i), previous.start(i) + shift, previous.end(i) + shift);
+		}
+		this.shiftedTokens = previous.size() - fromIndex;
+		this.shift = shift;
+	}
+
+	void add(TokenType type, int start, int end) {
+		if (size == types.length) {
+			int capacity = size * 2;
+			types = Arrays.copyOf(types, capacity);
+			starts = Arrays.copyOf(starts, capacity);
+			ends = Arrays.copyOf(ends, capacity);
+		}
+		types[size] = (byte) type.ordinal();
+		starts[size] = start;
+		ends[size] = end;
+		size++;
+	}
+
+	private int checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index " + index + " out of bounds for size " + size);
+		}
+		return index;
+	}
+
+	/**
+	 * the tokenizer has already rejected unknown escape characters
+	 */
+	static String unescape(CharSequence source, int start, int end) {
+		StringBuilder sb = new StringBuilder(end - start);
+		for (int i = start; i < end; i++) {
+			char c = source.charAt(i);
+			if (c == '\\' && i + 1 < end) {
+				i++;
+				sb.append(escapeCharacter(source.charAt(i)));
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+	static char escapeCharacter(char character) {
+		switch (character) {
+			case '\'':
+				return '\'';
+			case '"':
+				return '"';
+			case '\\':
+				return '\\';
+			case 'n':
+				return '\n';
+			case 'r':
+				return '\r';
+			case 't':
+				return '\t';
+			case 'b':
+				return '\b';
+			case 'f':
+				return '\f';
+			default:
+				return 0;
+		}
+	}
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.parser;
+
+import de.flapdoodle.eval.core.exceptions.ParseException;
+
+/**
+ * reads tokens one by one, see {@link Tokenizer} and {@link TokenBuffer#reader()}
+ */
+public interface TokenReader {
+	/**
+	 * @return false if there are no more tokens
+	 */
+	boolean advance() throws ParseException;
+
+	/**
+	 * @return type of the current token, null before the first and after the last token
+	 */
+	TokenType type();
+
+	Token token();
+}
@@ -17,37 +17,54 @@
 package de.flapdoodle.eval.core.parser;
 
 import de.flapdoodle.eval.core.evaluables.HasOperator;
+import de.flapdoodle.eval.core.evaluables.OperatorTrie;
 import de.flapdoodle.eval.core.evaluables.OperatorType;
 import de.flapdoodle.eval.core.exceptions.ParseException;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * The tokenizer is responsible to parse a string and return a list of tokens. The order of tokens
  * will follow the infix expression notation, skipping any blank characters.
+ * <p>
+ * An instance created with {@link #Tokenizer(HasOperator)} can be reused (but not shared between threads),
+ * each call of {@link #tokenize(CharSequence)} resets the {@link TokenBuffer} of this instance. Tokens can
+ * also be read one at a time with {@link #reset(CharSequence, int, int)} and {@link #advance()}.
+ * <p>
+ * Chars are read in place from the given {@link CharSequence}, so a {@link java.nio.CharBuffer} over a mapped file
+ * is not copied. All positions are relative to the start of the tokenized range.
  */
-public class Tokenizer {
-	private final String expressionString;
-	private final HasOperator operators;
+public class Tokenizer implements TokenReader {
+	private final OperatorTrie operatorTrie;
+	private final TokenBuffer tokens = new TokenBuffer();
 
-	private final char[] chars;
-	private final int end;
+	private CharSequence source;
+	private int sourceOffset;
+	private int end;
 
-	private final List<Token> tokens = new ArrayList<>();
-	
-	private int index = 0;
-	private int braceBalance = 0;
-	private int arrayBalance = 0;
-	private int associateBalance = 0;
+	private int index;
+	private int braceBalance;
+	private int arrayBalance;
+	private int associateBalance;
 
-	public Tokenizer(String expressionString, HasOperator operators) {
-		this.expressionString = expressionString;
-		this.operators = operators;
+	// token found by the last scan
+	private TokenType tokenType;
+	private int tokenStart;
+	private int tokenEnd;
+	// token returned by next(), an implicit multiplication keeps the scanned token pending
+	private TokenType currentType;
+	private int currentStart;
+	private int currentEnd;
+	private TokenType previousType;
+	private boolean pendingToken;
 
-		this.chars = expressionString.toCharArray();
-		this.end = chars.length;
+	public Tokenizer(HasOperator operators) {
+		this.operatorTrie = operators.operatorTrie();
+	}
+
+	public Tokenizer(CharSequence expression, HasOperator operators) {
+		this(operators);
+		this.source = expression;
 	}
 
 	/**
@@ -57,56 +74,210 @@ public class Tokenizer {
 	 * @throws ParseException When the expression can't be parsed.
 	 */
 	public List<Token> parse() throws ParseException {
+		return tokenize(source).tokens();
+	}
+
+	/**
+	 * Parse the given expression into the token buffer of this instance, which is valid until the next call.
+	 *
+	 * @throws ParseException When the expression can't be parsed.
+	 */
+	public TokenBuffer tokenize(CharSequence expression) throws ParseException {
+		return tokenize(expression, 0, expression.length());
+	}
+
+	/**
+	 * Parse {@code length} chars of the source starting at {@code offset}, see {@link #tokenize(CharSequence)}.
+	 *
+	 * @throws ParseException When the expression can't be parsed.
+	 */
+	public TokenBuffer tokenize(CharSequence source, int offset, int length) throws ParseException {
+		reset(source, offset, length);
+		while (advance()) {
+			tokens.add(currentType, currentStart, currentEnd);
+		}
+		return tokens;
+	}
+
+	/**
+	 * Tokenizes the source after an edit, which replaced {@code removedLength} chars at {@code offset} in the source of
+	 * the previous tokens with {@code insertedLength} chars. Only the tokens around the edit are scanned again, leading
+	 * tokens are copied and trailing tokens are moved as soon as the tokenizer is in the same state as it was for
+	 * the previous tokens, which must be a complete result of this tokenizer.
+	 *
+	 * @throws ParseException When the expression can't be parsed.
+	 */
+	public TokenBuffer retokenize(TokenBuffer previous, CharSequence source, int offset, int removedLength, int insertedLength) throws ParseException {
+		reset(source, 0, source.length());
+
+		// the token before the edit is scanned again, because its type might depend on the following chars
+		int restart = 0;
+		while (restart < previous.size() && previous.start(restart) < offset) {
+			restart++;
+		}
+		restart = Math.max(restart - 1, 0);
+		if (restart > 0 && previous.start(restart - 1) == previous.end(restart - 1)) {
+			// implicit multiplication is created together with the following token
+			restart--;
+		}
+
+		tokens.addUnchanged(previous, restart);
+		for (int i = 0; i < restart; i++) {
+			updateBalance(previous.type(i));
+			previousType = previous.type(i);
+		}
+		index = previous.size() > 0 ? previous.start(restart) : 0;
 
-		Optional<Token> token;
-		while ((token = nextToken()).isPresent()) {
-			Token currentToken = token.get();
-			if (implicitMultiplicationPossible(currentToken)) {
-				Token multiplication =
-					Token.of(
-						currentToken.start(),
-						"*",
-						TokenType.INFIX_OPERATOR);
-				tokens.add(multiplication);
+		int shift = insertedLength - removedLength;
+		int editEnd = offset + insertedLength;
+
+		// balances of the previous tokens up to previousIndex
+		int previousIndex = restart;
+		int previousBraceBalance = braceBalance;
+		int previousArrayBalance = arrayBalance;
+		int previousAssociateBalance = associateBalance;
+
+		while (advance()) {
+			tokens.add(currentType, currentStart, currentEnd);
+
+			if (currentStart >= editEnd && !pendingToken) {
+				while (previousIndex < previous.size() && previous.start(previousIndex) + shift < currentStart) {
+					TokenType type = previous.type(previousIndex++);
+					previousBraceBalance += balance(type, TokenType.BRACE_OPEN, TokenType.BRACE_CLOSE);
+					previousArrayBalance += balance(type, TokenType.ARRAY_OPEN, TokenType.ARRAY_CLOSE);
+					previousAssociateBalance += balance(type, TokenType.ASSOCIATE_OPEN, TokenType.ASSOCIATE_CLOSE);
+				}
+				if (previousIndex < previous.size()
+					&& previous.type(previousIndex) == currentType
+					&& previous.start(previousIndex) + shift == currentStart
+					&& previous.end(previousIndex) + shift == currentEnd
+					&& previousBraceBalance + balance(currentType, TokenType.BRACE_OPEN, TokenType.BRACE_CLOSE) == braceBalance
+					&& previousArrayBalance + balance(currentType, TokenType.ARRAY_OPEN, TokenType.ARRAY_CLOSE) == arrayBalance
+					&& previousAssociateBalance + balance(currentType, TokenType.ASSOCIATE_OPEN, TokenType.ASSOCIATE_CLOSE) == associateBalance) {
+					// same state as before, the rest is unchanged
+					tokens.addShifted(previous, previousIndex + 1, shift);
+					return tokens;
+				}
 			}
-			validateToken(currentToken);
-			tokens.add(currentToken);
 		}
+		return tokens;
+	}
+
+	private void updateBalance(TokenType type) {
+		braceBalance += balance(type, TokenType.BRACE_OPEN, TokenType.BRACE_CLOSE);
+		arrayBalance += balance(type, TokenType.ARRAY_OPEN, TokenType.ARRAY_CLOSE);
+		associateBalance += balance(type, TokenType.ASSOCIATE_OPEN, TokenType.ASSOCIATE_CLOSE);
+	}
 
+	private static int balance(TokenType type, TokenType open, TokenType close) {
+		return type == open ? 1 : type == close ? -1 : 0;
+	}
+
+	/**
+	 * Start reading tokens one by one with {@link #advance()} from {@code length} chars of the source starting
+	 * at {@code offset}.
+	 */
+	public void reset(CharSequence source, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > source.length()) {
+			throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + " out of bounds for length " + source.length());
+		}
+		this.source = source;
+		this.sourceOffset = offset;
+		this.end = length;
+
+		this.tokens.reset(source, offset, length);
+		this.index = 0;
+		this.braceBalance = 0;
+		this.arrayBalance = 0;
+		this.associateBalance = 0;
+		this.previousType = null;
+		this.pendingToken = false;
+		this.currentType = null;
+	}
+
+	/**
+	 * Moves to the next token, see {@link #type()} and {@link #token()}.
+	 *
+	 * @return false if there are no more tokens
+	 * @throws ParseException When the expression can't be parsed.
+	 */
+	@Override
+	public boolean advance() throws ParseException {
+		if (pendingToken) {
+			pendingToken = false;
+			setCurrent(tokenType, tokenStart, tokenEnd);
+			return true;
+		}
+
+		if (!nextToken()) {
+			currentType = null;
+			checkBalance();
+			return false;
+		}
+
+		if (implicitMultiplicationPossible()) {
+			setCurrent(TokenType.INFIX_OPERATOR, tokenStart, tokenStart);
+			validateToken();
+			pendingToken = true;
+			return true;
+		}
+
+		validateToken();
+		setCurrent(tokenType, tokenStart, tokenEnd);
+		return true;
+	}
+
+	@Override
+	public TokenType type() {
+		return currentType;
+	}
+
+	@Override
+	public Token token() {
+		return token(currentType, currentStart, currentEnd);
+	}
+
+	private void setCurrent(TokenType type, int start, int end) {
+		this.currentType = type;
+		this.currentStart = start;
+		this.currentEnd = end;
+		this.previousType = type;
+	}
+
+	private void checkBalance() throws ParseException {
 		if (braceBalance > 0) {
-			throw new ParseException(expressionString, "Closing brace not found");
+			throw new ParseException(slice(0, end), "Closing brace not found");
 		}
 
 		if (arrayBalance > 0) {
-			throw new ParseException(expressionString, "Closing array not found");
+			throw new ParseException(slice(0, end), "Closing array not found");
 		}
 
 		if (associateBalance > 0) {
-			throw new ParseException(expressionString, "Closing associate not found");
+			throw new ParseException(slice(0, end), "Closing associate not found");
 		}
-
-		return tokens;
 	}
 
-	private boolean implicitMultiplicationPossible(Token currentToken) {
-		switch (currentToken.type()) {
+	private boolean implicitMultiplicationPossible() {
+		TokenType previous = previousType;
+		switch (tokenType) {
 			case BRACE_OPEN:
-				return isPreviousTokenType(TokenType.BRACE_CLOSE, TokenType.NUMBER_LITERAL);
+				return previous == TokenType.BRACE_CLOSE || previous == TokenType.NUMBER_LITERAL;
 			case VARIABLE_OR_CONSTANT:
-				return isPreviousTokenType(TokenType.NUMBER_LITERAL);
+				return previous == TokenType.NUMBER_LITERAL;
 			default:
 				return false;
 		}
 	}
 
-	private void validateToken(Token currentToken) throws ParseException {
-		if (isPreviousTokenType(TokenType.INFIX_OPERATOR) && invalidTokenAfterInfixOperator(currentToken)) {
-			throw new ParseException(currentToken, "Unexpected token after infix operator");
+	private void validateToken() throws ParseException {
+		if (previousType == TokenType.INFIX_OPERATOR && invalidTokenAfterInfixOperator(tokenType)) {
+			throw new ParseException(token(tokenType, tokenStart, tokenEnd), "Unexpected token after infix operator");
 		}
 	}
 
-	private boolean invalidTokenAfterInfixOperator(Token token) {
-		switch (token.type()) {
+	private boolean invalidTokenAfterInfixOperator(TokenType type) {
+		switch (type) {
 			case INFIX_OPERATOR:
 			case BRACE_CLOSE:
 			case COMMA:
@@ -116,250 +287,288 @@ public class Tokenizer {
 		}
 	}
 
-	private Optional<Token> nextToken() throws ParseException {
+	private String slice(int start, int end) {
+		return source.subSequence(sourceOffset + start, sourceOffset + end).toString();
+	}
+
+	private Token currentToken() {
+		return token(tokenType, tokenStart, tokenEnd);
+	}
+
+	private Token token(TokenType type, int start, int end) {
+		String value;
+		if (start == end) {
+			// implicit multiplication, not part of the source
+			value = "*";
+		} else if (type == TokenType.STRING_LITERAL) {
+			value = TokenBuffer.unescape(source, sourceOffset + start + 1, sourceOffset + end - 1);
+		} else {
+			value = slice(start, end);
+		}
+		return Token.of(start, value, type);
+	}
+
+	private boolean nextToken() throws ParseException {
 		// blanks are always skipped.
 		skipBlanks();
 
-		return eof()
-			? Optional.empty()
-			: Optional.of(parseNextToken());
+		if (eof()) {
+			return false;
+		}
+		parseNextToken();
+		return true;
 	}
 
-	private Token parseNextToken() throws ParseException {
+	private void parseNextToken() throws ParseException {
 		char currentChar = get();
 		// we have a token start, identify and parse it
 		if (currentChar == '"') {
-			return parseStringLiteral();
+			parseStringLiteral();
 		} else if (currentChar == '(') {
-			return parseBraceOpen();
+			parseBraceOpen();
 		} else if (currentChar == ')') {
-			return parseBraceClose();
+			parseBraceClose();
 		} else if (currentChar == '[') {
-			return parseArrayOpen();
+			parseArrayOpen();
 		} else if (currentChar == ']') {
-			return parseArrayClose();
+			parseArrayClose();
 		} else if (currentChar == '{') {
-			return parseAssociateOpen();
+			parseAssociateOpen();
 		} else if (currentChar == '}') {
-			return parseAssociateClose();
+			parseAssociateClose();
 		} else if (currentChar == '.' && !isNextCharNumberChar()) {
-			return parseStructureSeparator();
+			parseStructureSeparator();
 		} else if (currentChar == ',') {
-			Token token = Token.of(index, ",", TokenType.COMMA);
+			singleCharToken(TokenType.COMMA);
 			next();
-			return token;
 		} else if (isIdentifierStart(currentChar)) {
-			return parseIdentifier();
+			parseIdentifier();
 		} else if (isNumberStart(0)) {
-			return parseNumberLiteral();
+			parseNumberLiteral();
 		} else if (currentChar == '.') {
-			Token token = Token.of(index, ".", TokenType.STRUCTURE_SEPARATOR);
+			singleCharToken(TokenType.STRUCTURE_SEPARATOR);
 			next();
-			return token;
 		} else {
-			return parseOperator();
+			parseOperator();
 		}
 	}
 
-	private Token parseStructureSeparator() throws ParseException {
-		Token token = Token.of(index, ".", TokenType.STRUCTURE_SEPARATOR);
+	private void singleCharToken(TokenType type) {
+		setToken(type, index, index + 1);
+	}
+
+	private void setToken(TokenType type, int start, int end) {
+		this.tokenType = type;
+		this.tokenStart = start;
+		this.tokenEnd = end;
+	}
+
+	private void parseStructureSeparator() throws ParseException {
+		singleCharToken(TokenType.STRUCTURE_SEPARATOR);
 		if (arrayOrAssociateOpenOrStructureSeparatorNotAllowed()) {
-			throw new ParseException(token, "Structure separator not allowed here");
+			throw new ParseException(currentToken(), "Structure separator not allowed here");
 		}
 		next();
-		return token;
 	}
 
-	private Token parseArrayClose() throws ParseException {
-		Token token = Token.of(index, "]", TokenType.ARRAY_CLOSE);
+	private void parseArrayClose() throws ParseException {
+		singleCharToken(TokenType.ARRAY_CLOSE);
 		if (!arrayOrAssociateCloseAllowed()) {
-			throw new ParseException(token, "Array close not allowed here");
+			throw new ParseException(currentToken(), "Array close not allowed here");
 		}
 		next();
 		if (arrayBalance <= 0) {
-			throw new ParseException(token, "Unexpected closing array");
+			throw new ParseException(currentToken(), "Unexpected closing array");
 		}
 		arrayBalance--;
-		return token;
 	}
 
-	private Token parseArrayOpen() throws ParseException {
-		Token token = Token.of(index, "[", TokenType.ARRAY_OPEN);
+	private void parseArrayOpen() throws ParseException {
+		singleCharToken(TokenType.ARRAY_OPEN);
 		if (arrayOrAssociateOpenOrStructureSeparatorNotAllowed()) {
-			throw new ParseException(token, "Array open not allowed here");
+			throw new ParseException(currentToken(), "Array open not allowed here");
 		}
 		next();
 		arrayBalance++;
-		return token;
 	}
 
-	private Token parseAssociateClose() throws ParseException {
-		Token token = Token.of(index, "}", TokenType.ASSOCIATE_CLOSE);
+	private void parseAssociateClose() throws ParseException {
+		singleCharToken(TokenType.ASSOCIATE_CLOSE);
 		if (!arrayOrAssociateCloseAllowed()) {
-			throw new ParseException(token, "Associate close not allowed here");
+			throw new ParseException(currentToken(), "Associate close not allowed here");
 		}
 		next();
 		if (associateBalance <= 0) {
-			throw new ParseException(token, "Unexpected closing associate");
+			throw new ParseException(currentToken(), "Unexpected closing associate");
 		}
 		associateBalance--;
-		return token;
 	}
 
-	private Token parseAssociateOpen() throws ParseException {
-		Token token = Token.of(index, "{", TokenType.ASSOCIATE_OPEN);
+	private void parseAssociateOpen() throws ParseException {
+		singleCharToken(TokenType.ASSOCIATE_OPEN);
 		if (arrayOrAssociateOpenOrStructureSeparatorNotAllowed()) {
-			throw new ParseException(token, "Associate open not allowed here");
+			throw new ParseException(currentToken(), "Associate open not allowed here");
 		}
 		next();
 		associateBalance++;
-		return token;
 	}
 
-	private Token parseBraceClose() throws ParseException {
-		Token token = Token.of(index, ")", TokenType.BRACE_CLOSE);
+	private void parseBraceClose() throws ParseException {
+		singleCharToken(TokenType.BRACE_CLOSE);
 		next();
 		if (braceBalance <= 0) {
-			throw new ParseException(token, "Unexpected closing brace");
+			throw new ParseException(currentToken(), "Unexpected closing brace");
 		}
 		braceBalance--;
-		return token;
 	}
 
-	private Token parseBraceOpen() {
-		Token token = Token.of(index, "(", TokenType.BRACE_OPEN);
+	private void parseBraceOpen() {
+		singleCharToken(TokenType.BRACE_OPEN);
 		next();
 		braceBalance++;
-		return token;
-	}
-
-	private boolean isPreviousTokenType(TokenType... match) {
-		return matchPreviousTokenType(match).orElse(false);
-	}
-
-	private Optional<Boolean> dontMatchPreviousTokenType(TokenType... match) {
-		return matchPreviousTokenType(match).map(it -> !it);
 	}
 
-	private Optional<Boolean> matchPreviousTokenType(TokenType... match) {
-		return (tokens.isEmpty()
-			? Optional.empty()
-			: Optional.of(tokens.get(tokens.size() - 1).type()))
-			.map(type -> {
-				for (TokenType m : match) {
-					if (m == type) return true;
-				}
-				return false;
-			});
-	}
-
-	private Token parseOperator() throws ParseException {
+	private void parseOperator() throws ParseException {
 		int tokenStartIndex = index;
 		boolean prefixOperatorAllowed = prefixOperatorAllowed();
 		boolean postfixOperatorAllowed = postfixOperatorAllowed();
 		boolean infixOperatorAllowed = infixOperatorAllowed();
 
-		StringBuilder tokenValue = new StringBuilder();
+		int scanTypes = (prefixOperatorAllowed ? OperatorTrie.mask(OperatorType.Prefix) : 0)
+			| (postfixOperatorAllowed ? OperatorTrie.mask(OperatorType.Postfix) : 0)
+			| (infixOperatorAllowed ? OperatorTrie.mask(OperatorType.Infix) : 0);
 
-		char currentChar;
-		while ((currentChar = get()) != 0) {
-			tokenValue.append(currentChar);
-			String tokenString = tokenValue.toString();
-			String possibleNextOperator = tokenString + peek(1);
-			// multi char operators, <= -- etc.
-			boolean possibleNextOperatorFound =
-				(prefixOperatorAllowed && operators.hasStartingWith(OperatorType.Prefix, possibleNextOperator))
-					|| (postfixOperatorAllowed
-					&& operators.hasStartingWith(OperatorType.Postfix, possibleNextOperator))
-					|| (infixOperatorAllowed
-					&& operators.hasStartingWith(OperatorType.Infix, possibleNextOperator));
+		// multi char operators, <= -- etc. longest match wins
+		TokenType matchType = null;
+		int matchEnd = tokenStartIndex;
 
-			next();
-			if (!possibleNextOperatorFound) {
+		OperatorTrie.Node node = operatorTrie.root().child(get());
+		next();
+		while (node != null) {
+			TokenType type = operatorType(node, prefixOperatorAllowed, postfixOperatorAllowed);
+			if (type != null) {
+				matchType = type;
+				matchEnd = index;
+			}
+			OperatorTrie.Node nextNode = node.child(get());
+			if (nextNode == null || !nextNode.continues(scanTypes)) {
 				break;
 			}
-
+			node = nextNode;
+			next();
 		}
-		String tokenString = tokenValue.toString();
 
-		if (prefixOperatorAllowed && operators.matching(OperatorType.Prefix, tokenString)) {
-			return Token.of(tokenStartIndex, tokenString, TokenType.PREFIX_OPERATOR);
-		} else if (postfixOperatorAllowed && operators.matching(OperatorType.Postfix, tokenString)) {
-			return Token.of(tokenStartIndex, tokenString, TokenType.POSTFIX_OPERATOR);
-		} else if (operators.matching(OperatorType.Infix, tokenString)) {
-			return Token.of(tokenStartIndex, tokenString, TokenType.INFIX_OPERATOR);
+		if (matchType == null) {
+			String tokenString = slice(tokenStartIndex, index);
+			throw new ParseException(
+				tokenStartIndex,
+				tokenStartIndex + tokenString.length() - 1,
+				tokenString,
+				"Undefined operator '" + tokenString + "'");
 		}
 
-		throw new ParseException(
-			tokenStartIndex,
-			tokenStartIndex + tokenString.length() - 1,
-			tokenString,
-			"Undefined operator '" + tokenString + "'");
+		index = matchEnd;
+		setToken(matchType, tokenStartIndex, matchEnd);
+	}
+
+	private static TokenType operatorType(OperatorTrie.Node node, boolean prefixOperatorAllowed, boolean postfixOperatorAllowed) {
+		if (prefixOperatorAllowed && node.matches(OperatorType.Prefix)) {
+			return TokenType.PREFIX_OPERATOR;
+		} else if (postfixOperatorAllowed && node.matches(OperatorType.Postfix)) {
+			return TokenType.POSTFIX_OPERATOR;
+		} else if (node.matches(OperatorType.Infix)) {
+			return TokenType.INFIX_OPERATOR;
+		}
+		return null;
 	}
 
 	private boolean arrayOrAssociateOpenOrStructureSeparatorNotAllowed() {
-		return !isPreviousTokenType(
-			TokenType.BRACE_CLOSE,
-			TokenType.VARIABLE_OR_CONSTANT,
-			TokenType.ARRAY_CLOSE,
-			TokenType.ASSOCIATE_CLOSE,
-			TokenType.STRING_LITERAL
-		);
+		TokenType previous = previousType;
+		if (previous == null) return true;
+		switch (previous) {
+			case BRACE_CLOSE:
+			case VARIABLE_OR_CONSTANT:
+			case ARRAY_CLOSE:
+			case ASSOCIATE_CLOSE:
+			case STRING_LITERAL:
+				return false;
+			default:
+				return true;
+		}
 	}
 
 	private boolean arrayOrAssociateCloseAllowed() {
-		return dontMatchPreviousTokenType(
-			TokenType.BRACE_OPEN,
-			TokenType.INFIX_OPERATOR,
-			TokenType.PREFIX_OPERATOR,
-			TokenType.FUNCTION,
-			TokenType.COMMA,
-			TokenType.ARRAY_OPEN,
-			TokenType.ASSOCIATE_OPEN
-		).orElse(false);
+		TokenType previous = previousType;
+		if (previous == null) return false;
+		switch (previous) {
+			case BRACE_OPEN:
+			case INFIX_OPERATOR:
+			case PREFIX_OPERATOR:
+			case FUNCTION:
+			case COMMA:
+			case ARRAY_OPEN:
+			case ASSOCIATE_OPEN:
+				return false;
+			default:
+				return true;
+		}
 	}
 
 	private boolean prefixOperatorAllowed() {
-		return matchPreviousTokenType(
-			TokenType.BRACE_OPEN,
-			TokenType.INFIX_OPERATOR,
-			TokenType.COMMA,
-			TokenType.PREFIX_OPERATOR
-		).orElse(true);
+		TokenType previous = previousType;
+		if (previous == null) return true;
+		switch (previous) {
+			case BRACE_OPEN:
+			case INFIX_OPERATOR:
+			case COMMA:
+			case PREFIX_OPERATOR:
+				return true;
+			default:
+				return false;
+		}
 	}
 
 	private boolean postfixOperatorAllowed() {
-		return isPreviousTokenType(
-			TokenType.BRACE_CLOSE,
-			TokenType.NUMBER_LITERAL,
-			TokenType.VARIABLE_OR_CONSTANT,
-			TokenType.STRING_LITERAL
-		);
+		TokenType previous = previousType;
+		if (previous == null) return false;
+		switch (previous) {
+			case BRACE_CLOSE:
+			case NUMBER_LITERAL:
+			case VARIABLE_OR_CONSTANT:
+			case STRING_LITERAL:
+				return true;
+			default:
+				return false;
+		}
 	}
 
 	private boolean infixOperatorAllowed() {
-		return isPreviousTokenType(
-			TokenType.BRACE_CLOSE,
-			TokenType.VARIABLE_OR_CONSTANT,
-			TokenType.STRING_LITERAL,
-			TokenType.POSTFIX_OPERATOR,
-			TokenType.NUMBER_LITERAL
-		);
+		TokenType previous = previousType;
+		if (previous == null) return false;
+		switch (previous) {
+			case BRACE_CLOSE:
+			case VARIABLE_OR_CONSTANT:
+			case STRING_LITERAL:
+			case POSTFIX_OPERATOR:
+			case NUMBER_LITERAL:
+				return true;
+			default:
+				return false;
+		}
 	}
 
-	private Token parseNumberLiteral() throws ParseException {
+	private void parseNumberLiteral() throws ParseException {
 		char currentChar = get();
 		char nextChar = peek(1); //peekNextChar();
 		if (currentChar == '0' && (nextChar == 'x' || nextChar == 'X')) {
-			return parseHexNumberLiteral();
+			parseHexNumberLiteral();
 		} else {
-			return parseDecimalNumberLiteral();
+			parseDecimalNumberLiteral();
 		}
 	}
 
-	private Token parseDecimalNumberLiteral() throws ParseException {
+	private void parseDecimalNumberLiteral() throws ParseException {
 		int tokenStartIndex = index;
-		StringBuilder tokenValue = new StringBuilder();
 
 		int lastChar = 0;
 		boolean scientificNotation = false;
@@ -368,10 +577,10 @@ public class Tokenizer {
 			if (currentChar == 'e' || currentChar == 'E') {
 				scientificNotation = true;
 			}
-			tokenValue.append(currentChar);
 			lastChar = currentChar;
 			next();
 		}
+		setToken(TokenType.NUMBER_LITERAL, tokenStartIndex, index);
 		// illegal scientific format literal
 		if (scientificNotation
 			&& (lastChar == 'e'
@@ -379,71 +588,55 @@ public class Tokenizer {
 			|| lastChar == '+'
 			|| lastChar == '-'
 			|| lastChar == '.')) {
-			throw new ParseException(
-				Token.of(tokenStartIndex, tokenValue.toString(), TokenType.NUMBER_LITERAL),
-				"Illegal scientific format");
+			throw new ParseException(currentToken(), "Illegal scientific format");
 		}
-		return Token.of(tokenStartIndex, tokenValue.toString(), TokenType.NUMBER_LITERAL);
 	}
 
-	private Token parseHexNumberLiteral() {
+	private void parseHexNumberLiteral() {
 		int tokenStartIndex = index;
-		StringBuilder tokenValue = new StringBuilder();
 
 		// hexadecimal number, consume "0x"
-		tokenValue.append(get());
 		next();
-		tokenValue.append(get());
 		next();
 		char currentChar;
 		while ((currentChar = get()) != 0 && isHexChar(currentChar)) {
-			tokenValue.append(currentChar);
 			next();
 		}
-		return Token.of(tokenStartIndex, tokenValue.toString(), TokenType.NUMBER_LITERAL);
+		setToken(TokenType.NUMBER_LITERAL, tokenStartIndex, index);
 	}
 
-	private Token parseIdentifier() throws ParseException {
+	private void parseIdentifier() throws ParseException {
 		int tokenStartIndex = index;
-		StringBuilder tokenValue = new StringBuilder();
 		char currentChar;
 		boolean firstChar = true;
 		while ((currentChar = get()) != 0 && (isIdentifierChar(currentChar) || firstChar && isIdentifierStart(currentChar))) {
 			firstChar=false;
-			tokenValue.append(currentChar);
 			next();
 		}
-		String tokenName = tokenValue.toString();
+		int tokenEndIndex = index;
 
-		if (prefixOperatorAllowed() && operators.matching(OperatorType.Prefix, tokenName)) {
-			return Token.of(
-				tokenStartIndex,
-				tokenName,
-				TokenType.PREFIX_OPERATOR);
-		} else if (postfixOperatorAllowed() && operators.matching(OperatorType.Postfix, tokenName)) {
-			return Token.of(
-				tokenStartIndex,
-				tokenName,
-				TokenType.POSTFIX_OPERATOR);
-		} else if (operators.matching(OperatorType.Infix, tokenName)) {
-			return Token.of(
-				tokenStartIndex,
-				tokenName,
-				TokenType.INFIX_OPERATOR);
+		if (prefixOperatorAllowed() && operatorTrie.matching(OperatorType.Prefix, source, sourceOffset + tokenStartIndex, sourceOffset + tokenEndIndex)) {
+			setToken(TokenType.PREFIX_OPERATOR, tokenStartIndex, tokenEndIndex);
+			return;
+		} else if (postfixOperatorAllowed() && operatorTrie.matching(OperatorType.Postfix, source, sourceOffset + tokenStartIndex, sourceOffset + tokenEndIndex)) {
+			setToken(TokenType.POSTFIX_OPERATOR, tokenStartIndex, tokenEndIndex);
+			return;
+		} else if (operatorTrie.matching(OperatorType.Infix, source, sourceOffset + tokenStartIndex, sourceOffset + tokenEndIndex)) {
+			setToken(TokenType.INFIX_OPERATOR, tokenStartIndex, tokenEndIndex);
+			return;
 		}
 
 		skipBlanks();
 		currentChar = get();
 		if (currentChar == '(') {
-			return Token.of(tokenStartIndex, tokenName, TokenType.FUNCTION);
+			setToken(TokenType.FUNCTION, tokenStartIndex, tokenEndIndex);
 		} else {
-			return Token.of(tokenStartIndex, tokenName, TokenType.VARIABLE_OR_CONSTANT);
+			setToken(TokenType.VARIABLE_OR_CONSTANT, tokenStartIndex, tokenEndIndex);
 		}
 	}
 
-	Token parseStringLiteral() throws ParseException {
+	void parseStringLiteral() throws ParseException {
 		int tokenStartIndex = index;
-		StringBuilder tokenValue = new StringBuilder();
 		// skip starting quote
 		next();
 		boolean inQuote = true;
@@ -451,42 +644,23 @@ public class Tokenizer {
 			char currentChar = get();
 			if (currentChar == '\\') {
 				next();
-				tokenValue.append(escapeCharacter(get()));
+				checkEscapeCharacter(get());
 			} else if (currentChar == '"') {
 				inQuote = false;
-			} else {
-				tokenValue.append((char) currentChar);
 			}
 			next();
 		}
 		if (inQuote) {
 			throw new ParseException(
-				tokenStartIndex, index, tokenValue.toString(), "Closing quote not found");
-		}
-		return Token.of(tokenStartIndex, tokenValue.toString(), TokenType.STRING_LITERAL);
-	}
-
-	private char escapeCharacter(int character) throws ParseException {
-		switch (character) {
-			case '\'':
-				return '\'';
-			case '"':
-				return '"';
-			case '\\':
-				return '\\';
-			case 'n':
-				return '\n';
-			case 'r':
-				return '\r';
-			case 't':
-				return '\t';
-			case 'b':
-				return '\b';
-			case 'f':
-				return '\f';
-			default:
-				throw new ParseException(
-					index, 1, "\\" + (char) character, "Unknown escape character");
+				tokenStartIndex, index, TokenBuffer.unescape(source, sourceOffset + tokenStartIndex + 1, sourceOffset + index), "Closing quote not found");
+		}
+		setToken(TokenType.STRING_LITERAL, tokenStartIndex, index);
+	}
+
+	private void checkEscapeCharacter(char character) throws ParseException {
+		if (TokenBuffer.escapeCharacter(character) == 0) {
+			throw new ParseException(
+				index, 1, "\\" + character, "Unknown escape character");
 		}
 	}
 
@@ -578,7 +752,7 @@ public class Tokenizer {
 	}
 
 	private char peek(int offset) {
-		return has(offset) ? chars[index + offset] : 0;
+		return has(offset) ? source.charAt(sourceOffset + index + offset) : 0;
 	}
 
 	private boolean eof() {
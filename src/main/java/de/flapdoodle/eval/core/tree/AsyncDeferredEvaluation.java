@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.tree;
+
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.evaluables.Lazy;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * argument for a lazy parameter in an asynchronous evaluation, evaluated at most once. {@link #getAsync()} does not
+ * block, {@link #get()} waits for the result.
+ */
+final class AsyncDeferredEvaluation implements Lazy<Evaluated<?>> {
+	private final Node node;
+	private final AsyncEvaluation evaluation;
+
+	private CompletableFuture<Evaluated<?>> result;
+
+	AsyncDeferredEvaluation(Node node, AsyncEvaluation evaluation) {
+		this.node = node;
+		this.evaluation = evaluation;
+	}
+
+	@Override
+	public synchronized CompletableFuture<Evaluated<?>> getAsync() {
+		if (result == null) {
+			result = node.evaluateAsync(evaluation);
+		}
+		return result;
+	}
+
+	@Override
+	public Evaluated<?> get() throws EvaluationException {
+		try {
+			return getAsync().get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new EvaluationException(node.token(), "interrupted");
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = AsyncEvaluation.cause(ex);
+			if (cause instanceof EvaluationException) {
+				throw (EvaluationException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new RuntimeException(cause);
+		}
+	}
+
+	static Evaluated<AsyncDeferredEvaluation> of(Node node, AsyncEvaluation evaluation) {
+		return Evaluated.value(new AsyncDeferredEvaluation(node, evaluation));
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.tree;
+
+import de.flapdoodle.eval.core.EvaluationContext;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * state of one asynchronous evaluation: the futures of all nodes are created up front on one thread, so sibling
+ * subtrees waiting for an asynchronous evaluable run concurrently, and a node continues on the executor when all
+ * its arguments are complete. Lazy arguments are started when an evaluable asks for them with
+ * {@link de.flapdoodle.eval.core.evaluables.Lazy#getAsync()}. Results of shared nodes are futures, so they are still
+ * evaluated once.
+ */
+public final class AsyncEvaluation {
+	private final VariableResolver variableResolver;
+	private final EvaluationContext context;
+	private final Executor executor;
+	private final CompletableFuture<Evaluated<?>>[] shared;
+
+	private AsyncEvaluation(VariableResolver variableResolver, EvaluationContext context, Executor executor, int sharedSlots) {
+		this.variableResolver = variableResolver;
+		this.context = context;
+		this.executor = executor;
+		this.shared = newArray(sharedSlots);
+	}
+
+	VariableResolver variableResolver() {
+		return variableResolver;
+	}
+
+	EvaluationContext context() {
+		return context;
+	}
+
+	Executor executor() {
+		return executor;
+	}
+
+	// lazy arguments may start shared nodes from other threads
+	synchronized CompletableFuture<Evaluated<?>> shared(int slot, Node node) {
+		if (slot >= shared.length) {
+			return node.evaluateAsync(this);
+		}
+		if (shared[slot] == null) {
+			shared[slot] = node.evaluateAsync(this);
+		}
+		return shared[slot];
+	}
+
+	interface Evaluation {
+		Evaluated<?> evaluate() throws EvaluationException;
+	}
+
+	static CompletableFuture<Evaluated<?>> completed(Evaluation evaluation) {
+		try {
+			return CompletableFuture.completedFuture(evaluation.evaluate());
+		}
+		catch (EvaluationException | RuntimeException ex) {
+			return failed(ex);
+		}
+	}
+
+	static <T> CompletableFuture<T> failed(Throwable ex) {
+		CompletableFuture<T> result = new CompletableFuture<>();
+		result.completeExceptionally(ex);
+		return result;
+	}
+
+	/**
+	 * the exception a synchronous evaluation would have thrown
+	 */
+	static Throwable cause(Throwable ex) {
+		Throwable cause = ex;
+		while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+			cause = cause.getCause();
+		}
+		if (cause instanceof EvaluationException.AsRuntimeException) {
+			return ((EvaluationException.AsRuntimeException) cause).wrapped();
+		}
+		return cause;
+	}
+
+	/**
+	 * the variable resolver must not be an {@link EvaluationFrame}, which is not thread safe
+	 */
+	public static CompletableFuture<Evaluated<?>> evaluate(Node root, int sharedSlots, VariableResolver variableResolver, EvaluationContext context,
+		Executor executor) {
+		CompletableFuture<Evaluated<?>> result = new CompletableFuture<>();
+		try {
+			executor.execute(() -> {
+				try {
+					root.evaluateAsync(new AsyncEvaluation(variableResolver, context, executor, sharedSlots))
+						.whenComplete((value, error) -> {
+							if (error != null) {
+								result.completeExceptionally(cause(error));
+							} else {
+								result.complete(value);
+							}
+						});
+				}
+				catch (RuntimeException ex) {
+					result.completeExceptionally(cause(ex));
+				}
+			});
+		}
+		catch (RuntimeException ex) {
+			result.completeExceptionally(ex);
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static CompletableFuture<Evaluated<?>>[] newArray(int size) {
+		return (CompletableFuture<Evaluated<?>>[]) new CompletableFuture<?>[size];
+	}
+}
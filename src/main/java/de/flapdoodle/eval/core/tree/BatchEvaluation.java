@@ -0,0 +1,364 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.tree;
+
+import de.flapdoodle.eval.core.Column;
+import de.flapdoodle.eval.core.EvaluationContext;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.evaluables.Kernel;
+import de.flapdoodle.eval.core.evaluables.Primitive;
+import de.flapdoodle.eval.core.evaluables.TypedEvaluable;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+
+import java.util.*;
+
+/**
+ * evaluates a node tree for all rows of a batch one node at a time: each node reads the result columns of its
+ * arguments and writes its own result column. Results are the same as evaluating each row on its own, an exception
+ * in an argument is mapped for this row only, lazy arguments are evaluated per row if needed. Shared nodes and
+ * variables are evaluated once per batch.
+ * If both arguments of a node are primitive columns or constants and the selected evaluable has a matching
+ * {@link Kernel}, the node is evaluated by the kernel without boxing, all other nodes box their arguments row by row.
+ */
+public final class BatchEvaluation {
+	private final Map<String, Column> columns;
+	private final int rows;
+	private final int sharedSlots;
+	private final EvaluationContext context;
+	private final RowResolver cursor;
+
+	private final Map<String, Result> variables = new HashMap<>();
+	private final Map<Node, Result> shared = new IdentityHashMap<>();
+
+	private BatchEvaluation(Map<String, Column> columns, int rows, int sharedSlots, EvaluationContext context) {
+		this.columns = columns;
+		this.rows = rows;
+		this.sharedSlots = sharedSlots;
+		this.context = context;
+		this.cursor = new RowResolver(columns);
+	}
+
+	// result column of one node: a primitive column, a constant or boxed values, errors is null if no row failed
+	private static final class Result {
+		private final Column primitive;
+		private final Evaluated<?> constant;
+		private final Evaluated<?>[] values;
+		private EvaluationException[] errors;
+
+		private Result(Column primitive, Evaluated<?> constant, Evaluated<?>[] values) {
+			this.primitive = primitive;
+			this.constant = constant;
+			this.values = values;
+		}
+
+		private static Result boxed(int rows) {
+			return new Result(null, null, new Evaluated<?>[rows]);
+		}
+
+		private static Result primitive(Column column) {
+			return new Result(column, null, null);
+		}
+
+		private static Result constant(Evaluated<?> value) {
+			return new Result(null, value, null);
+		}
+
+		private void failed(int row, EvaluationException exception) {
+			if (errors == null) {
+				errors = new EvaluationException[values.length];
+			}
+			errors[row] = exception;
+		}
+
+		// failures of a shared body for another occurrence
+		private Result movedBy(int shift) {
+			if (errors == null || shift == 0) {
+				return this;
+			}
+			Result moved = new Result(primitive, constant, values);
+			moved.errors = new EvaluationException[errors.length];
+			for (int row = 0; row < errors.length; row++) {
+				if (errors[row] != null) {
+					moved.errors[row] = errors[row].movedBy(shift);
+				}
+			}
+			return moved;
+		}
+
+		private Evaluated<?> evaluated(int row) {
+			if (primitive != null) {
+				return primitive.evaluated(row);
+			}
+			return constant != null
+				? constant
+				: values[row];
+		}
+
+		// an argument which failed for a row is passed as mapped value like in Node#evaluate
+		private Evaluated<?> argument(int row, EvaluableExceptionMapper exceptionMapper) {
+			if (errors != null && errors[row] != null) {
+				return Evaluated.value(exceptionMapper.map(errors[row]));
+			}
+			return evaluated(row);
+		}
+	}
+
+	private Result evaluate(Node node) {
+		if (node instanceof ValueNode) {
+			return Result.constant(((ValueNode<?>) node).value());
+		}
+		if (node instanceof LookupNode) {
+			Result result = variables.get(node.token().value());
+			if (result == null) {
+				result = lookup((LookupNode) node);
+				variables.put(node.token().value(), result);
+			}
+			return result;
+		}
+		if (node instanceof SharedNode) {
+			SharedNode sharedNode = (SharedNode) node;
+			Result result = shared.get(sharedNode.node());
+			if (result == null) {
+				result = evaluate(sharedNode.node());
+				shared.put(sharedNode.node(), result);
+			}
+			return result.movedBy(sharedNode.shift());
+		}
+		if (node instanceof EvaluatableNode) {
+			return evaluate((EvaluatableNode) node);
+		}
+		throw new IllegalArgumentException("unsupported node: " + node);
+	}
+
+	private Result lookup(LookupNode node) {
+		String name = node.token().value();
+		Column column = columns.get(name);
+		if (column instanceof Column.Doubles || column instanceof Column.Longs || column instanceof Column.Booleans) {
+			return Result.primitive(column);
+		}
+		Result result = Result.boxed(rows);
+		for (int row = 0; row < rows; row++) {
+			Evaluated<?> value = column != null ? column.evaluated(row) : null;
+			if (value != null) {
+				result.values[row] = value;
+			} else {
+				result.failed(row, new EvaluationException(node.token(), String.format("Variable or constant value for '%s' not found", name)));
+			}
+		}
+		return result;
+	}
+
+	private Result evaluate(EvaluatableNode node) {
+		List<Node> parameters = node.parameters();
+		EvaluableExceptionMapper exceptionMapper = node.exceptionMapper();
+
+		Result[] arguments = new Result[parameters.size()];
+		CompiledNode[] lazy = new CompiledNode[parameters.size()];
+		for (int i = 0; i < parameters.size(); i++) {
+			if (node.evaluatable().isLazy(i)) {
+				lazy[i] = NodeCompiler.compile(parameters.get(i));
+			} else {
+				arguments[i] = evaluate(parameters.get(i));
+			}
+		}
+
+		Column kernelResult = kernel(node, arguments);
+		if (kernelResult != null) {
+			return Result.primitive(kernelResult);
+		}
+
+		NodeCompiler.Invocation invocation = NodeCompiler.invocation(node.evaluatable(), exceptionMapper);
+		Result result = Result.boxed(rows);
+		Evaluated<?>[] row = new Evaluated<?>[parameters.size()];
+		List<Evaluated<?>> rowAsList = Arrays.asList(row);
+		for (int r = 0; r < rows; r++) {
+			cursor.row = r;
+			VariableResolver rowResolver = null;
+			for (int i = 0; i < row.length; i++) {
+				if (lazy[i] != null) {
+					if (rowResolver == null) {
+						rowResolver = EvaluationFrame.of(new RowResolver(columns, r), sharedSlots);
+					}
+					row[i] = DeferredEvaluation.of(lazy[i], rowResolver, context);
+				} else {
+					row[i] = arguments[i].argument(r, exceptionMapper);
+				}
+			}
+			try {
+				result.values[r] = invocation.invoke(cursor, context, node.token(), rowAsList);
+			}
+			catch (EvaluationException ex) {
+				result.failed(r, ex);
+			}
+		}
+		return result;
+	}
+
+	// null if there is no kernel for these arguments or if it fails for any row
+	private Column kernel(EvaluatableNode node, Result[] arguments) {
+		if (rows == 0 || arguments.length != 2) {
+			return null;
+		}
+		Result first = arguments[0];
+		Result second = arguments[1];
+		if (first == null || second == null || first.values != null || second.values != null
+			|| (first.primitive == null && second.primitive == null)) {
+			return null;
+		}
+		Optional<List<TypedEvaluable<?>>> candidates = node.evaluatable().candidates();
+		if (!candidates.isPresent()) {
+			return null;
+		}
+		TypedEvaluable<?> selected = select(candidates.get(), Arrays.asList(first.evaluated(0), second.evaluated(0)));
+		if (selected == null || !selected.kernel().isPresent()) {
+			return null;
+		}
+		Kernel kernel = selected.kernel().get();
+		if (!kernel.isApplicable(context)) {
+			return null;
+		}
+		try {
+			Column a = primitive(first, kernel.argumentType());
+			Column b = primitive(second, kernel.argumentType());
+			return a != null && b != null
+				? kernel.apply(a, b)
+				: null;
+		}
+		catch (ArithmeticException ex) {
+			return null;
+		}
+	}
+
+	// same candidate as selected for each row, because all rows of a primitive column have the same class,
+	// null if a candidate before could match other rows because of a parameter validator
+	private static TypedEvaluable<?> select(List<TypedEvaluable<?>> candidates, List<Evaluated<?>> sample) {
+		for (TypedEvaluable<?> candidate : candidates) {
+			if (!candidate.signature().validateArguments(sample).isPresent()) {
+				return candidate;
+			}
+			if (candidate.signature().matchesArgumentTypes(sample)) {
+				return null;
+			}
+		}
+		return null;
+	}
+
+	// primitive column of this type, a constant is repeated for each row, null if the type does not match
+	private Column primitive(Result result, Primitive<?> type) {
+		if (result.primitive != null) {
+			return type(result.primitive) == type
+				? result.primitive
+				: null;
+		}
+		Object value = result.constant.wrapped();
+		if (!type.type().isInstance(value)) {
+			return null;
+		}
+		if (type instanceof Primitive.OfDouble) {
+			return doubles((Primitive.OfDouble<?>) type, value);
+		}
+		if (type instanceof Primitive.OfLong) {
+			return longs((Primitive.OfLong<?>) type, value);
+		}
+		return booleans((Primitive.OfBoolean<?>) type, value);
+	}
+
+	private static Primitive<?> type(Column column) {
+		if (column instanceof Column.Doubles) {
+			return ((Column.Doubles) column).type();
+		}
+		if (column instanceof Column.Longs) {
+			return ((Column.Longs) column).type();
+		}
+		return ((Column.Booleans) column).type();
+	}
+
+	private <T> Column doubles(Primitive.OfDouble<T> type, Object value) {
+		double[] values = new double[rows];
+		Arrays.fill(values, type.unbox(type.type().cast(value)));
+		return Column.of(values, type);
+	}
+
+	private <T> Column longs(Primitive.OfLong<T> type, Object value) {
+		long[] values = new long[rows];
+		Arrays.fill(values, type.unbox(type.type().cast(value)));
+		return Column.of(values, type);
+	}
+
+	private <T> Column booleans(Primitive.OfBoolean<T> type, Object value) {
+		boolean[] values = new boolean[rows];
+		Arrays.fill(values, type.unbox(type.type().cast(value)));
+		return Column.of(values, type);
+	}
+
+	// reads variables of one row from the columns
+	private static final class RowResolver implements VariableResolver {
+		private final Map<String, Column> columns;
+		private int row;
+
+		private RowResolver(Map<String, Column> columns) {
+			this(columns, 0);
+		}
+
+		private RowResolver(Map<String, Column> columns, int row) {
+			this.columns = columns;
+			this.row = row;
+		}
+
+		@Override
+		public Evaluated<?> get(String variable) {
+			Column column = columns.get(variable);
+			return column != null ? column.evaluated(row) : null;
+		}
+	}
+
+	/**
+	 * all columns must have the same size, fails with the exception of the first failing row
+	 */
+	public static Column evaluate(Node root, int sharedSlots, Map<String, Column> columns, EvaluationContext context)
+		throws EvaluationException {
+		int rows = -1;
+		for (Map.Entry<String, Column> entry : columns.entrySet()) {
+			if (rows != -1 && entry.getValue().size() != rows) {
+				throw new IllegalArgumentException("column " + entry.getKey() + " has " + entry.getValue().size() + " rows, expected " + rows);
+			}
+			rows = entry.getValue().size();
+		}
+		if (rows == -1) {
+			throw new IllegalArgumentException("no columns");
+		}
+
+		Result result = new BatchEvaluation(columns, rows, sharedSlots, context).evaluate(root);
+		if (result.primitive != null) {
+			return result.primitive;
+		}
+		if (result.constant != null) {
+			Evaluated<?>[] values = new Evaluated<?>[rows];
+			Arrays.fill(values, result.constant);
+			return Column.ofEvaluated(values);
+		}
+		if (result.errors != null) {
+			for (EvaluationException error : result.errors) {
+				if (error != null) {
+					throw error;
+				}
+			}
+		}
+		return Column.ofEvaluated(result.values);
+	}
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.tree;
+
+import de.flapdoodle.eval.core.evaluables.TypedEvaluable;
+import de.flapdoodle.eval.core.evaluables.TypedEvaluableByArguments;
+
+import java.util.*;
+
+/**
+ * replaces structurally identical deterministic subtrees by {@link SharedNode}s pointing to one body, so
+ * the node tree becomes a graph where each shared subtree is evaluated once per {@link EvaluationFrame}.
+ * Subtrees are only identical if their tokens have the same relative positions, so that a failure of the body
+ * can be moved to each occurrence.
+ */
+public final class CommonSubexpressionElimination {
+
+	private CommonSubexpressionElimination() {
+		// no instance
+	}
+
+	public static Node eliminate(Node root) {
+		Map<Node, Key> keys = new IdentityHashMap<>();
+		key(root, keys);
+
+		Map<Key, Integer> occurrences = new HashMap<>();
+		count(root, keys, occurrences);
+
+		return rebuild(root, keys, occurrences, new HashMap<>());
+	}
+
+	/**
+	 * number of nodes which are not needed anymore because a shared node is used instead
+	 */
+	public static int eliminatedNodes(Node root) {
+		Set<Node> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+		int treeSize = 0;
+		for (Node node : Node.allNodes(root)) {
+			if (!(node instanceof SharedNode)) {
+				treeSize++;
+				visited.add(node);
+			}
+		}
+		return treeSize - visited.size();
+	}
+
+	/**
+	 * number of slots an {@link EvaluationFrame} needs to evaluate this graph
+	 */
+	public static int slots(Node root) {
+		int slots = 0;
+		for (Node node : Node.allNodes(root)) {
+			if (node instanceof SharedNode) {
+				slots = Math.max(slots, ((SharedNode) node).slot() + 1);
+			}
+		}
+		return slots;
+	}
+
+	private static Key key(Node node, Map<Node, Key> keys) {
+		Key key;
+		if (node instanceof ValueNode) {
+			key = new Key(true, node.getClass(), node.token().value(), ((ValueNode<?>) node).value(), Collections.emptyList());
+		} else if (node instanceof LookupNode) {
+			key = new Key(true, node.getClass(), node.token().value(), null, Collections.emptyList());
+		} else if (node instanceof SharedNode) {
+			key = key(((SharedNode) node).node(), keys);
+		} else if (node instanceof EvaluatableNode) {
+			EvaluatableNode evaluatableNode = (EvaluatableNode) node;
+			List<Key> parameters = new ArrayList<>(evaluatableNode.parameters().size());
+			List<Integer> offsets = new ArrayList<>(evaluatableNode.parameters().size());
+			boolean pure = isDeterministic(evaluatableNode.evaluatable());
+			for (Node parameter : evaluatableNode.parameters()) {
+				Key parameterKey = key(parameter, keys);
+				pure = pure && parameterKey.pure;
+				parameters.add(parameterKey);
+				offsets.add(parameter.token().start() - node.token().start());
+			}
+			key = pure
+				? new Key(true, evaluatableNode.evaluatable(), Arrays.asList(node.token().type(), node.token().value(), offsets),
+				evaluatableNode.exceptionMapper(), parameters)
+				: Key.unique();
+		} else {
+			key = Key.unique();
+		}
+		keys.put(node, key);
+		return key;
+	}
+
+	private static boolean isDeterministic(TypedEvaluableByArguments evaluatable) {
+		Optional<List<TypedEvaluable<?>>> candidates = evaluatable.candidates();
+		return candidates.isPresent() && candidates.get().stream().allMatch(TypedEvaluable::isDeterministic);
+	}
+
+	private static void count(Node node, Map<Node, Key> keys, Map<Key, Integer> occurrences) {
+		int count = occurrences.merge(keys.get(node), 1, Integer::sum);
+		// subtrees of repeated nodes are only counted once, so they are not shared on their own
+		if (count == 1) {
+			for (Node parameter : parameters(node)) {
+				count(parameter, keys, occurrences);
+			}
+		}
+	}
+
+	private static Node rebuild(Node node, Map<Node, Key> keys, Map<Key, Integer> occurrences, Map<Key, SharedNode> shared) {
+		Key key = keys.get(node);
+		boolean share = node instanceof EvaluatableNode && key.pure && occurrences.get(key) > 1;
+		if (share) {
+			SharedNode first = shared.get(key);
+			if (first != null) {
+				return SharedNode.of(first.slot(), first.node(), node.token());
+			}
+		}
+
+		Node result = node;
+		if (node instanceof EvaluatableNode) {
+			EvaluatableNode evaluatableNode = (EvaluatableNode) node;
+			List<Node> parameters = new ArrayList<>(evaluatableNode.parameters().size());
+			boolean changed = false;
+			for (Node parameter : evaluatableNode.parameters()) {
+				Node rebuild = rebuild(parameter, keys, occurrences, shared);
+				changed = changed || rebuild != parameter;
+				parameters.add(rebuild);
+			}
+			if (changed) {
+				result = EvaluatableNode.of(node.token(), evaluatableNode.evaluatable(), parameters, evaluatableNode.exceptionMapper());
+			}
+		}
+
+		if (share) {
+			SharedNode sharedNode = SharedNode.of(shared.size(), result);
+			shared.put(key, sharedNode);
+			return sharedNode;
+		}
+		return result;
+	}
+
+	private static List<Node> parameters(Node node) {
+		if (node instanceof EvaluatableNode) {
+			return ((EvaluatableNode) node).parameters();
+		}
+		if (node instanceof SharedNode) {
+			return Collections.singletonList(((SharedNode) node).node());
+		}
+		return Collections.emptyList();
+	}
+
+	private static final class Key {
+		private final boolean pure;
+		private final Object kind;
+		private final Object name;
+		private final Object value;
+		private final List<Key> parameters;
+		private final int hash;
+
+		private Key(boolean pure, Object kind, Object name, Object value, List<Key> parameters) {
+			this.pure = pure;
+			this.kind = kind;
+			this.name = name;
+			this.value = value;
+			this.parameters = parameters;
+			this.hash = Objects.hash(kind, name, value, parameters);
+		}
+
+		private static Key unique() {
+			return new Key(false, new Object(), null, null, Collections.emptyList());
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (o == null || getClass() != o.getClass()) return false;
+			Key other = (Key) o;
+			return hash == other.hash
+				&& pure == other.pure
+				&& kind.equals(other.kind)
+				&& Objects.equals(name, other.name)
+				&& Objects.equals(value, other.value)
+				&& parameters.equals(other.parameters);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+}
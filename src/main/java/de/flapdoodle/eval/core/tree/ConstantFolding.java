@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.tree;
+
+import de.flapdoodle.eval.core.EvaluationContext;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.ArgumentSelector;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.evaluables.TypedEvaluable;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * replaces subtrees without variables by their result and calls with a constant
+ * argument selection (like an if with a constant condition) by the selected argument
+ */
+public final class ConstantFolding {
+
+	private ConstantFolding() {
+		// no instance
+	}
+
+	public static Node fold(Node node, EvaluationContext context) {
+		if (node instanceof EvaluatableNode) {
+			return fold((EvaluatableNode) node, context);
+		}
+		return node;
+	}
+
+	private static Node fold(EvaluatableNode node, EvaluationContext context) {
+		List<Node> parameters = new ArrayList<>(node.parameters().size());
+		boolean changed = false;
+		boolean allConstant = true;
+		for (Node parameter : node.parameters()) {
+			Node folded = fold(parameter, context);
+			changed = changed || folded != parameter;
+			allConstant = allConstant && folded instanceof ValueNode;
+			parameters.add(folded);
+		}
+
+		EvaluatableNode current = changed
+			? EvaluatableNode.of(node.token(), node.evaluatable(), parameters, node.exceptionMapper())
+			: node;
+
+		Optional<List<TypedEvaluable<?>>> candidates = current.evaluatable().candidates();
+		if (!candidates.isPresent()) {
+			return current;
+		}
+
+		if (allConstant && candidates.get().stream().allMatch(TypedEvaluable::isDeterministic)) {
+			try {
+				return ValueNode.of(current.token(), current.evaluate(VariableResolver.empty(), context));
+			}
+			catch (EvaluationException | RuntimeException ex) {
+				// keep it, so it fails on evaluation as before
+				return current;
+			}
+		}
+
+		if (candidates.get().size() == 1) {
+			Optional<ArgumentSelector> argumentSelector = candidates.get().get(0).argumentSelector();
+			if (argumentSelector.isPresent()) {
+				List<Optional<Evaluated<?>>> arguments = new ArrayList<>(parameters.size());
+				for (Node parameter : parameters) {
+					arguments.add(parameter instanceof ValueNode
+						? Optional.of(((ValueNode<?>) parameter).value())
+						: Optional.empty());
+				}
+				OptionalInt selected = argumentSelector.get().select(arguments);
+				if (selected.isPresent()) {
+					return parameters.get(selected.getAsInt());
+				}
+			}
+		}
+
+		return current;
+	}
+}
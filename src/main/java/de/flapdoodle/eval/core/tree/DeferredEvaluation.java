@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.tree;
+
+import de.flapdoodle.eval.core.EvaluationContext;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.evaluables.Lazy;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+
+/**
+ * argument for a lazy parameter, evaluated at most once
+ */
+final class DeferredEvaluation implements Lazy<Evaluated<?>> {
+	private final CompiledNode node;
+	private final VariableResolver variableResolver;
+	private final EvaluationContext context;
+
+	private Evaluated<?> result;
+	private EvaluationException exception;
+
+	DeferredEvaluation(CompiledNode node, VariableResolver variableResolver, EvaluationContext context) {
+		this.node = node;
+		this.variableResolver = variableResolver;
+		this.context = context;
+	}
+
+	@Override
+	public Evaluated<?> get() throws EvaluationException {
+		if (result == null && exception == null) {
+			try {
+				result = node.evaluate(variableResolver, context);
+			}
+			catch (EvaluationException ex) {
+				exception = ex;
+			}
+		}
+		if (exception != null) {
+			throw exception;
+		}
+		return result;
+	}
+
+	static Evaluated<DeferredEvaluation> of(CompiledNode node, VariableResolver variableResolver, EvaluationContext context) {
+		return Evaluated.value(new DeferredEvaluation(node, variableResolver, context));
+	}
+}
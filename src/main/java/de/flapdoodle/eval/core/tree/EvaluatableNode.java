@@ -17,6 +17,7 @@
 package de.flapdoodle.eval.core.tree;
 
 import de.flapdoodle.eval.core.EvaluationContext;
+import de.flapdoodle.eval.core.ParallelArguments;
 import de.flapdoodle.eval.core.VariableResolver;
 import de.flapdoodle.eval.core.VariableTypeResolver;
 import de.flapdoodle.eval.core.evaluables.Evaluable;
@@ -32,21 +33,52 @@ import de.flapdoodle.types.Either;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 @org.immutables.value.Value.Immutable
 public abstract class EvaluatableNode extends Node {
 	@org.immutables.value.Value.Parameter
 	protected abstract TypedEvaluableByArguments evaluatable();
 	@org.immutables.value.Value.Parameter
-	protected abstract List<Node> parameters();
+	protected abstract NodeList parameters();
 	@org.immutables.value.Value.Parameter
 	protected abstract EvaluableExceptionMapper exceptionMapper();
 
 	@Override
 	public Evaluated<?> evaluate(VariableResolver variableResolver, EvaluationContext context) throws EvaluationException {
+		Optional<ParallelArguments> parallelArguments = context.parallelArguments();
+		List<Evaluated<?>> parameterResults = parallelArguments.isPresent() && context.parallelNodes().contains(this)
+			? evaluateInParallel(variableResolver, context, parallelArguments.get().executor())
+			: evaluateInSequence(variableResolver, context);
+		Optional<InlineCache> inlineCache = inlineCache();
+		if (inlineCache.isPresent()) {
+			TypedEvaluable<?> evaluable = inlineCache.get().select(parameterResults);
+			if (evaluable == null) {
+				throw new EvaluationException(token(), inlineCache.get().noMatchingCandidate(parameterResults));
+			}
+			return evaluate(evaluable, true, variableResolver, context, parameterResults);
+		}
+		Either<TypedEvaluable<?>, EvaluableException> evaluatable = evaluatable().find(parameterResults);
+		if (evaluatable.isLeft()) {
+			return evaluate(evaluatable.left(), false, variableResolver, context, parameterResults);
+		} else {
+			throw new EvaluationException(token(), evaluatable.right());
+		}
+	}
+
+	private List<Evaluated<?>> evaluateInSequence(VariableResolver variableResolver, EvaluationContext context) {
 		List<Evaluated<?>> parameterResults = new ArrayList<>();
 		for (int i = 0; i < parameters().size(); i++) {
 			Node parameter = parameters().get(i);
+			if (lazyParameters()[i]) {
+				parameterResults.add(DeferredEvaluation.of(parameter::evaluate, variableResolver, context));
+				continue;
+			}
 			try {
 				parameterResults.add(parameter.evaluate(variableResolver, context));
 			} catch (EvaluationException ex) {
@@ -54,23 +86,193 @@ public abstract class EvaluatableNode extends Node {
 				parameterResults.add(Evaluated.value(exceptionMapper().map(ex)));
 			}
 		}
-		Either<TypedEvaluable<?>, EvaluableException> evaluatable = evaluatable().find(parameterResults);
-		if (evaluatable.isLeft()) {
+		return parameterResults;
+	}
+
+	/**
+	 * all but the first argument are forked, then arguments are joined in order, running each one not yet started by
+	 * the executor in the calling thread, so this makes progress even if the executor is busy. Errors are handled
+	 * like in {@link #evaluateInSequence(VariableResolver, EvaluationContext)}: evaluation exceptions are passed as
+	 * argument, the first other exception in argument order is thrown
+	 */
+	private List<Evaluated<?>> evaluateInParallel(VariableResolver variableResolver, EvaluationContext context, Executor executor)
+		throws EvaluationException {
+		VariableResolver resolver = variableResolver instanceof EvaluationFrame
+			? ((EvaluationFrame) variableResolver).concurrent()
+			: variableResolver;
+		int size = parameters().size();
+		List<FutureTask<Evaluated<?>>> tasks = new ArrayList<>(size);
+		boolean first = true;
+		for (int i = 0; i < size; i++) {
+			if (lazyParameters()[i]) {
+				tasks.add(null);
+				continue;
+			}
+			Node parameter = parameters().get(i);
+			FutureTask<Evaluated<?>> task = new FutureTask<>(() -> parameter.evaluate(resolver, context));
+			tasks.add(task);
+			if (first) {
+				first = false;
+			} else {
+				try {
+					executor.execute(task);
+				}
+				catch (RejectedExecutionException ignore) {
+					// evaluated in this thread
+				}
+			}
+		}
+
+		List<Evaluated<?>> parameterResults = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			FutureTask<Evaluated<?>> task = tasks.get(i);
+			if (task == null) {
+				parameterResults.add(DeferredEvaluation.of(parameters().get(i)::evaluate, resolver, context));
+				continue;
+			}
+			task.run();
 			try {
-				Evaluated<?> evaluated = evaluatable.left().evaluate(variableResolver, context, token(), parameterResults);
-				Optional<EvaluationException> matchedException = exceptionMapper().match(evaluated);
-				if (matchedException.isPresent()) {
-					throw matchedException.get();
+				parameterResults.add(task.get());
+			}
+			catch (ExecutionException ex) {
+				Throwable cause = ex.getCause();
+				if (cause instanceof EvaluationException) {
+					// used in condition where one branch might not return
+					parameterResults.add(Evaluated.value(exceptionMapper().map((EvaluationException) cause)));
+					continue;
 				}
-				return evaluated;
-			} catch (EvaluationException.AsRuntimeException wrapping) {
-				throw wrapping.wrapped();
+				// later arguments are not evaluated in sequence either
+				tasks.subList(i + 1, size).forEach(it -> {
+					if (it != null) {
+						it.cancel(false);
+					}
+				});
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new IllegalStateException(cause);
 			}
-		} else {
-			throw new EvaluationException(token(), evaluatable.right());
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new EvaluationException(token(), "interrupted");
+			}
+		}
+		return parameterResults;
+	}
+
+	private Evaluated<?> evaluate(TypedEvaluable<?> evaluable, boolean validated, VariableResolver variableResolver, EvaluationContext context,
+		List<Evaluated<?>> parameterResults) throws EvaluationException {
+		try {
+			Evaluated<?> evaluated = validated
+				? evaluable.evaluateValidated(variableResolver, context, token(), parameterResults)
+				: evaluable.evaluate(variableResolver, context, token(), parameterResults);
+			Optional<EvaluationException> matchedException = exceptionMapper().match(evaluated);
+			if (matchedException.isPresent()) {
+				throw matchedException.get();
+			}
+			return evaluated;
+		} catch (EvaluationException.AsRuntimeException wrapping) {
+			throw wrapping.wrapped();
 		}
 	}
 
+	/**
+	 * like {@link #evaluate(VariableResolver, EvaluationContext)}, but all arguments are started before waiting for
+	 * any of them, lazy arguments are evaluated asynchronously when used
+	 */
+	@Override
+	public CompletableFuture<Evaluated<?>> evaluateAsync(AsyncEvaluation evaluation) {
+		int size = parameters().size();
+		CompletableFuture<?>[] parameterResults = new CompletableFuture<?>[size];
+		boolean allDone = true;
+		for (int i = 0; i < size; i++) {
+			Node parameter = parameters().get(i);
+			CompletableFuture<Evaluated<?>> parameterResult = lazyParameters()[i]
+				? CompletableFuture.completedFuture(AsyncDeferredEvaluation.of(parameter, evaluation))
+				: parameter.evaluateAsync(evaluation).handle((result, error) -> {
+					if (error == null) {
+						return result;
+					}
+					Throwable cause = AsyncEvaluation.cause(error);
+					if (cause instanceof EvaluationException) {
+						// used in condition where one branch might not return
+						return Evaluated.value(exceptionMapper().map((EvaluationException) cause));
+					}
+					throw new CompletionException(cause);
+				});
+			parameterResults[i] = parameterResult;
+			allDone = allDone && parameterResult.isDone();
+		}
+		if (allDone) {
+			return evaluateAsync(evaluation, parameterResults);
+		}
+		return CompletableFuture.allOf(parameterResults)
+			.thenComposeAsync(ignore -> evaluateAsync(evaluation, parameterResults), evaluation.executor());
+	}
+
+	private CompletableFuture<Evaluated<?>> evaluateAsync(AsyncEvaluation evaluation, CompletableFuture<?>[] parameterFutures) {
+		try {
+			List<Evaluated<?>> parameterResults = new ArrayList<>(parameterFutures.length);
+			for (CompletableFuture<?> parameterFuture : parameterFutures) {
+				parameterResults.add((Evaluated<?>) parameterFuture.join());
+			}
+			TypedEvaluable<?> evaluable;
+			Optional<InlineCache> inlineCache = inlineCache();
+			if (inlineCache.isPresent()) {
+				evaluable = inlineCache.get().select(parameterResults);
+				if (evaluable == null) {
+					throw new EvaluationException(token(), inlineCache.get().noMatchingCandidate(parameterResults));
+				}
+			} else {
+				Either<TypedEvaluable<?>, EvaluableException> evaluatable = evaluatable().find(parameterResults);
+				if (!evaluatable.isLeft()) {
+					throw new EvaluationException(token(), evaluatable.right());
+				}
+				evaluable = evaluatable.left();
+			}
+			return evaluable.evaluateAsync(evaluation.variableResolver(), evaluation.context(), token(), parameterResults, evaluation.executor())
+				.handle((evaluated, error) -> {
+					if (error != null) {
+						throw new CompletionException(AsyncEvaluation.cause(error));
+					}
+					Optional<EvaluationException> matchedException = exceptionMapper().match(evaluated);
+					if (matchedException.isPresent()) {
+						throw new CompletionException(matchedException.get());
+					}
+					return evaluated;
+				});
+		}
+		catch (EvaluationException ex) {
+			return AsyncEvaluation.failed(ex);
+		}
+		catch (RuntimeException ex) {
+			return AsyncEvaluation.failed(AsyncEvaluation.cause(ex));
+		}
+	}
+
+	/**
+	 * parameters which are lazy in all candidates are passed unevaluated
+	 */
+	@org.immutables.value.Value.Lazy
+	protected boolean[] lazyParameters() {
+		boolean[] lazyParameters = new boolean[parameters().size()];
+		for (int i = 0; i < lazyParameters.length; i++) {
+			lazyParameters[i] = evaluatable().isLazy(i);
+		}
+		return lazyParameters;
+	}
+
+	/**
+	 * selected evaluable by argument types, only if all candidates are known
+	 */
+	@org.immutables.value.Value.Lazy
+	protected Optional<InlineCache> inlineCache() {
+		return evaluatable().candidates().map(InlineCache::new);
+	}
+
 	@Override
 	public TypeInfo<?> evaluateType(VariableTypeResolver variableResolver) throws EvaluationException {
 		List<TypeInfo<?>> parameterResults = new ArrayList<>();
@@ -104,7 +306,7 @@ public abstract class EvaluatableNode extends Node {
 		return ImmutableEvaluatableNode.builder()
 			.token(token)
 			.evaluatable(function)
-			.parameters(parameters)
+			.parameters(NodeList.of(parameters))
 			.exceptionMapper(exceptionMapper)
 			.build();
 	}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.tree;
+
+import de.flapdoodle.eval.core.EvaluationContext;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+
+/**
+ * holds the results of {@link SharedNode}s for one evaluation, not thread safe unless switched to {@link #concurrent()}.
+ * A failure is kept like a result, each occurrence of a shared node throws it moved to its own position.
+ */
+public final class EvaluationFrame implements VariableResolver {
+	private final VariableResolver delegate;
+	private final Object[] owners;
+	// Evaluated or EvaluationException
+	private final Object[] results;
+	private volatile boolean concurrent;
+
+	private EvaluationFrame(VariableResolver delegate, int slots) {
+		this.delegate = delegate;
+		this.owners = new Object[slots];
+		this.results = new Object[slots];
+	}
+
+	@Override
+	public Evaluated<?> get(String variable) {
+		return delegate.get(variable);
+	}
+
+	@Override
+	public Evaluated<?> get(int slot, String variable) {
+		return delegate.get(slot, variable);
+	}
+
+	/**
+	 * evaluates the body of a shared node once per frame, the failure is moved by {@code shift} to the occurrence
+	 */
+	static Evaluated<?> shared(VariableResolver variableResolver, EvaluationContext context, int slot, CompiledNode body, int shift)
+		throws EvaluationException {
+		try {
+			return variableResolver instanceof EvaluationFrame
+				? ((EvaluationFrame) variableResolver).evaluateOnce(slot, body, context)
+				: body.evaluate(variableResolver, context);
+		}
+		catch (EvaluationException ex) {
+			throw shift != 0 ? ex.movedBy(shift) : ex;
+		}
+	}
+
+	private Evaluated<?> evaluateOnce(int slot, CompiledNode body, EvaluationContext context) throws EvaluationException {
+		Object memoized = memoized(slot, body);
+		if (memoized instanceof EvaluationException) {
+			throw (EvaluationException) memoized;
+		}
+		if (memoized != null) {
+			return (Evaluated<?>) memoized;
+		}
+		Evaluated<?> result;
+		try {
+			result = body.evaluate(this, context);
+		}
+		catch (EvaluationException ex) {
+			memoize(slot, body, ex);
+			throw ex;
+		}
+		memoize(slot, body, result);
+		return result;
+	}
+
+	private Object memoized(int slot, Object owner) {
+		if (concurrent) {
+			synchronized (this) {
+				return lookup(slot, owner);
+			}
+		}
+		return lookup(slot, owner);
+	}
+
+	private void memoize(int slot, Object owner, Object result) {
+		if (concurrent) {
+			synchronized (this) {
+				store(slot, owner, result);
+			}
+		} else {
+			store(slot, owner, result);
+		}
+	}
+
+	/**
+	 * from now on shared by threads evaluating arguments in parallel, a shared node might then be evaluated more than once
+	 */
+	EvaluationFrame concurrent() {
+		concurrent = true;
+		return this;
+	}
+
+	private Object lookup(int slot, Object owner) {
+		return slot < owners.length && owners[slot] == owner
+			? results[slot]
+			: null;
+	}
+
+	private void store(int slot, Object owner, Object result) {
+		if (slot < owners.length) {
+			owners[slot] = owner;
+			results[slot] = result;
+		}
+	}
+
+	public static VariableResolver of(VariableResolver delegate, int slots) {
+		return slots > 0
+			? new EvaluationFrame(delegate, slots)
+			: delegate;
+	}
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.tree;
+
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.evaluables.TypedEvaluable;
+import de.flapdoodle.eval.core.evaluables.TypedEvaluableByArguments;
+import de.flapdoodle.eval.core.exceptions.EvaluableException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * remembers which candidate was selected for the argument classes of an earlier call, so that
+ * candidates which can not match these classes are not validated again.
+ * A selection is only remembered if all candidates before it failed because of argument types
+ * (and not because of a parameter validator), assuming that a parameter type check only
+ * depends on the class of the argument.
+ * Lookups are lock free, new entries are added by replacing the whole entry array.
+ */
+final class InlineCache {
+	static final int MAX_ENTRIES = 4;
+
+	private final TypedEvaluable<?>[] candidates;
+	private final AtomicReference<Entry[]> entries = new AtomicReference<>(new Entry[0]);
+
+	InlineCache(List<TypedEvaluable<?>> candidates) {
+		this.candidates = candidates.toArray(new TypedEvaluable<?>[0]);
+	}
+
+	/**
+	 * @return candidate with validated arguments, null if no candidate matches
+	 */
+	TypedEvaluable<?> select(List<? extends Evaluated<?>> arguments) {
+		for (Entry entry : entries.get()) {
+			if (entry.matches(arguments)) {
+				if (entry.typesOnly || !entry.evaluable.signature().validateArguments(arguments).isPresent()) {
+					return entry.evaluable;
+				}
+				return scan(arguments, false);
+			}
+		}
+		return scan(arguments, candidates.length > 1);
+	}
+
+	/**
+	 * like {@link #select(List)} for one argument, but only if the remembered selection does not need any validation
+	 * beside the argument type, null otherwise
+	 */
+	TypedEvaluable<?> selectByType(Evaluated<?> argument) {
+		for (Entry entry : entries.get()) {
+			if (entry.key.length == 1 && entry.matches(0, argument)) {
+				return entry.typesOnly ? entry.evaluable : null;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * like {@link #selectByType(Evaluated)} for two arguments
+	 */
+	TypedEvaluable<?> selectByType(Evaluated<?> first, Evaluated<?> second) {
+		for (Entry entry : entries.get()) {
+			if (entry.key.length == 2 && entry.matches(0, first) && entry.matches(1, second)) {
+				return entry.typesOnly ? entry.evaluable : null;
+			}
+		}
+		return null;
+	}
+
+	EvaluableException noMatchingCandidate(List<? extends Evaluated<?>> arguments) {
+		return TypedEvaluableByArguments.find(Arrays.asList(candidates), arguments).right();
+	}
+
+	int size() {
+		return entries.get().length;
+	}
+
+	private TypedEvaluable<?> scan(List<? extends Evaluated<?>> arguments, boolean remember) {
+		boolean failedOnTypes = true;
+		for (TypedEvaluable<?> candidate : candidates) {
+			if (!candidate.signature().validateArguments(arguments).isPresent()) {
+				if (remember && failedOnTypes) {
+					add(new Entry(keyOf(arguments), candidate));
+				}
+				return candidate;
+			}
+			failedOnTypes = failedOnTypes && !candidate.signature().matchesArgumentTypes(arguments);
+		}
+		return null;
+	}
+
+	private void add(Entry entry) {
+		Entry[] current;
+		Entry[] changed;
+		do {
+			current = entries.get();
+			if (current.length >= MAX_ENTRIES) {
+				return;
+			}
+			for (Entry it : current) {
+				if (it.matches(entry.key)) {
+					return;
+				}
+			}
+			changed = Arrays.copyOf(current, current.length + 1);
+			changed[current.length] = entry;
+		}
+		while (!entries.compareAndSet(current, changed));
+	}
+
+	private static Object[] keyOf(List<? extends Evaluated<?>> arguments) {
+		Object[] key = new Object[arguments.size()];
+		for (int i = 0; i < key.length; i++) {
+			key[i] = keyOf(arguments.get(i));
+		}
+		return key;
+	}
+
+	private static Object keyOf(Evaluated<?> argument) {
+		Object wrapped = argument.wrapped();
+		return wrapped != null
+			? wrapped.getClass()
+			: argument.type();
+	}
+
+	private static final class Entry {
+		private final Object[] key;
+		private final TypedEvaluable<?> evaluable;
+		private final boolean typesOnly;
+
+		private Entry(Object[] key, TypedEvaluable<?> evaluable) {
+			this.key = key;
+			this.evaluable = evaluable;
+			this.typesOnly = evaluable.signature().validatesTypesOnly();
+		}
+
+		private boolean matches(List<? extends Evaluated<?>> arguments) {
+			if (arguments.size() != key.length) {
+				return false;
+			}
+			for (int i = 0; i < key.length; i++) {
+				if (!matches(i, arguments.get(i))) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private boolean matches(int index, Evaluated<?> argument) {
+			Object argumentKey = keyOf(argument);
+			return argumentKey == key[index] || argumentKey.equals(key[index]);
+		}
+
+		private boolean matches(Object[] other) {
+			return Arrays.equals(key, other);
+		}
+	}
+}
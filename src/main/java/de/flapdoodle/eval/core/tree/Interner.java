@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.tree;
+
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.parser.Token;
+
+import java.util.*;
+
+/**
+ * shares equal token values, variable names and constant values between nodes of many expressions. An interner
+ * is only needed while expressions are added, the shared instances stay referenced by the nodes.
+ */
+public final class Interner {
+	private final Map<String, String> strings = new HashMap<>();
+	private final Map<Evaluated<?>, Evaluated<?>> values = new HashMap<>();
+
+	public String string(String value) {
+		String interned = strings.putIfAbsent(value, value);
+		return interned != null ? interned : value;
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T> Evaluated<T> value(Evaluated<T> value) {
+		Evaluated<?> interned = values.putIfAbsent(value, value);
+		return interned != null ? (Evaluated<T>) interned : value;
+	}
+
+	public Token token(Token token) {
+		String value = string(token.value());
+		return value == token.value()
+			? token
+			: Token.of(token.start(), value, token.type());
+	}
+
+	public Variables variables(Variables variables) {
+		ImmutableVariables.Builder builder = Variables.builder();
+		for (Variable variable : variables.list()) {
+			builder.addList(Variable.of(string(variable.name()), variable.hash(), variable.position()));
+		}
+		return builder.build();
+	}
+
+	/**
+	 * @return an equal node tree with interned tokens and values
+	 */
+	public Node node(Node node) {
+		return node(node, new IdentityHashMap<>());
+	}
+
+	private Node node(Node node, Map<Node, Node> sharedBodies) {
+		if (node instanceof SharedNode) {
+			SharedNode sharedNode = (SharedNode) node;
+			// occurrences keep pointing to one body
+			Node body = sharedBodies.get(sharedNode.node());
+			if (body == null) {
+				body = node(sharedNode.node(), sharedBodies);
+				sharedBodies.put(sharedNode.node(), body);
+			}
+			return SharedNode.of(sharedNode.slot(), body, token(sharedNode.token()));
+		}
+		if (node instanceof EvaluatableNode) {
+			EvaluatableNode evaluatableNode = (EvaluatableNode) node;
+			List<Node> parameters = new ArrayList<>(evaluatableNode.parameters().size());
+			for (Node parameter : evaluatableNode.parameters()) {
+				parameters.add(node(parameter, sharedBodies));
+			}
+			return EvaluatableNode.of(token(node.token()), evaluatableNode.evaluatable(), parameters, evaluatableNode.exceptionMapper());
+		}
+		if (node instanceof ValueNode) {
+			return ValueNode.of(token(node.token()), value(((ValueNode<?>) node).value()));
+		}
+		if (node instanceof LookupNode) {
+			return LookupNode.of(token(node.token()));
+		}
+		throw new IllegalArgumentException("unknown node: " + node);
+	}
+}
@@ -27,28 +27,45 @@ import de.flapdoodle.reflection.TypeInfo;
 import de.flapdoodle.types.Pair;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
-public abstract class Node {
+public abstract class Node implements CompiledNode {
     @org.immutables.value.Value.Parameter
     public abstract Token token();
 
     @org.immutables.value.Value.Auxiliary
     public abstract Evaluated<?> evaluate(VariableResolver variableResolver, EvaluationContext context) throws EvaluationException;
 
+    /**
+     * see {@link AsyncEvaluation}, completes with the result or the exception of {@link #evaluate(VariableResolver, EvaluationContext)}
+     */
+    @org.immutables.value.Value.Auxiliary
+    public CompletableFuture<Evaluated<?>> evaluateAsync(AsyncEvaluation evaluation) {
+        return AsyncEvaluation.completed(() -> evaluate(evaluation.variableResolver(), evaluation.context()));
+    }
+
     @org.immutables.value.Value.Auxiliary
     public abstract TypeInfo<?> evaluateType(VariableTypeResolver variableResolver) throws EvaluationException;
 
     public static List<Node> allNodes(Node node) {
         ArrayList<Node> ret = new ArrayList<>();
         ret.add(node);
-        List<Node> subnodes = Collections.emptyList();
+        subnodes(node).forEach(subNode -> ret.addAll(allNodes(subNode)));
+        return ret;
+    }
 
+    /**
+     * parameters of an evaluatable node, the node behind a shared node, empty for all other nodes
+     */
+    public static List<Node> subnodes(Node node) {
         if (node instanceof EvaluatableNode) {
-            subnodes = ((EvaluatableNode) node).parameters();
+            return ((EvaluatableNode) node).parameters();
         }
-        subnodes.forEach(subNode -> ret.addAll(allNodes(subNode)));
-        return ret;
+        if (node instanceof SharedNode) {
+            return Collections.singletonList(((SharedNode) node).node());
+        }
+        return Collections.emptyList();
     }
 
     // VisibleForTests
@@ -66,27 +83,23 @@ public abstract class Node {
     }
 
     // VisibleForTests
-    public static Variables hashedUsedVariables(String expression, Node root) {
-        List<Variable> entries=new ArrayList<>();
-        hashedUsedVariables(entries, 0, expression, root);
-        ImmutableVariables.Builder builder = Variables.builder();
-        builder.addAllList(entries);
-        return builder.build();
+    public static Variables hashedUsedVariables(CharSequence expression, Node root) {
+        Variables.Collector collector = Variables.collector(expression);
+        hashedUsedVariables(collector, root);
+        return collector.build();
     }
 
-    private static int hashedUsedVariables(List<Variable> entries, int lastTokenEnd, String expression, Node root) {
+    private static void hashedUsedVariables(Variables.Collector collector, Node root) {
         if (root instanceof LookupNode) {
-            Token token = root.token();
-            String expressionBetweenTokens = expression.substring(lastTokenEnd, token.start());
-            entries.add(Variable.of(token.value(), (entries.size()+":"+expressionBetweenTokens).hashCode(), token.start()));
-            lastTokenEnd = token.start()+token.value().length();
+            collector.add(root.token());
         } else if (root instanceof EvaluatableNode) {
-					for (Node it : ((EvaluatableNode) root).parameters()) {
-              lastTokenEnd = hashedUsedVariables(entries, lastTokenEnd, expression, it);
-					}
-				} else {
+            for (Node it : ((EvaluatableNode) root).parameters()) {
+                hashedUsedVariables(collector, it);
+            }
+        } else if (root instanceof SharedNode) {
+            hashedUsedVariables(collector, ((SharedNode) root).node());
+        } else {
             // ignore
         }
-        return lastTokenEnd;
     }
 }
@@ -0,0 +1,492 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.tree;
+
+import de.flapdoodle.eval.core.EvaluationContext;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.evaluables.Parameter;
+import de.flapdoodle.eval.core.evaluables.Signature;
+import de.flapdoodle.eval.core.evaluables.TypedEvaluable;
+import de.flapdoodle.eval.core.evaluables.TypedEvaluableByArguments;
+import de.flapdoodle.eval.core.exceptions.EvaluableException;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.parser.Token;
+import de.flapdoodle.reflection.TypeInfo;
+import de.flapdoodle.types.Either;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * turns a node tree into a tree of closures, where each closure is specialized
+ * on the number of arguments and the way the matching evaluable is selected,
+ * so that evaluation behaves exactly like {@link Node#evaluate(VariableResolver, EvaluationContext)}
+ */
+public final class NodeCompiler {
+
+	private NodeCompiler() {
+		// no instance
+	}
+
+	public static CompiledNode compile(Node node) {
+		return compile(node, Collections.emptyMap());
+	}
+
+	/**
+	 * variables are read by slot from a {@link VariableResolver#get(int, String)}, variables without slot get the next free one
+	 */
+	public static CompiledNode compile(Node node, Map<String, Integer> slots) {
+		return compile(node, new IdentityHashMap<>(), new HashMap<>(slots));
+	}
+
+	private static CompiledNode compile(Node node, Map<Node, CompiledNode> shared, Map<String, Integer> slots) {
+		if (node instanceof ValueNode) {
+			return new Constant(((ValueNode<?>) node).value());
+		}
+		if (node instanceof LookupNode) {
+			return new Lookup(node.token(), slot(slots, node.token().value()));
+		}
+		if (node instanceof SharedNode) {
+			SharedNode sharedNode = (SharedNode) node;
+			// occurrences share the compiled body
+			CompiledNode body = shared.get(sharedNode.node());
+			if (body == null) {
+				body = compile(sharedNode.node(), shared, slots);
+				shared.put(sharedNode.node(), body);
+			}
+			return new Shared(sharedNode.slot(), body, sharedNode.shift());
+		}
+		if (node instanceof EvaluatableNode) {
+			return compile((EvaluatableNode) node, shared, slots);
+		}
+		throw new IllegalArgumentException("unsupported node: " + node);
+	}
+
+	static int slot(Map<String, Integer> slots, String name) {
+		Integer slot = slots.get(name);
+		if (slot == null) {
+			slot = slots.size();
+			slots.put(name, slot);
+		}
+		return slot;
+	}
+
+	private static CompiledNode compile(EvaluatableNode node, Map<Node, CompiledNode> shared, Map<String, Integer> slots) {
+		Token token = node.token();
+		EvaluableExceptionMapper exceptionMapper = node.exceptionMapper();
+		Invocation invocation = invocation(node.evaluatable(), exceptionMapper);
+		List<CompiledNode> parameters = new ArrayList<>(node.parameters().size());
+		for (int i = 0; i < node.parameters().size(); i++) {
+			CompiledNode parameter = compile(node.parameters().get(i), shared, slots);
+			parameters.add(node.evaluatable().isLazy(i) ? new Deferred(parameter) : parameter);
+		}
+
+		switch (parameters.size()) {
+			case 0:
+				return new Call0(token, invocation);
+			case 1:
+				return new Call1(token, invocation, exceptionMapper, parameters.get(0));
+			case 2:
+				return new Call2(token, invocation, exceptionMapper, parameters.get(0), parameters.get(1));
+			case 3:
+				return new Call3(token, invocation, exceptionMapper, parameters.get(0), parameters.get(1), parameters.get(2));
+			default:
+				return new CallN(token, invocation, exceptionMapper, parameters.toArray(new CompiledNode[0]));
+		}
+	}
+
+	static Invocation invocation(TypedEvaluableByArguments evaluatable, EvaluableExceptionMapper exceptionMapper) {
+		Optional<List<TypedEvaluable<?>>> candidates = evaluatable.candidates();
+		if (candidates.isPresent()) {
+			List<TypedEvaluable<?>> list = candidates.get();
+			if (list.size() == 1) {
+				return new SingleCandidate(list, exceptionMapper);
+			}
+			return new Candidates(list, exceptionMapper);
+		}
+		return new Dynamic(evaluatable, exceptionMapper);
+	}
+
+	private static Evaluated<?> argument(CompiledNode node, VariableResolver variableResolver, EvaluationContext context,
+		EvaluableExceptionMapper exceptionMapper) {
+		try {
+			return node.evaluate(variableResolver, context);
+		}
+		catch (EvaluationException ex) {
+			// used in condition where one branch might not return
+			return Evaluated.value(exceptionMapper.map(ex));
+		}
+	}
+
+	private static final class Constant implements CompiledNode {
+		private final Evaluated<?> value;
+
+		private Constant(Evaluated<?> value) {
+			this.value = value;
+		}
+
+		@Override
+		public Evaluated<?> evaluate(VariableResolver variableResolver, EvaluationContext context) {
+			return value;
+		}
+	}
+
+	private static final class Lookup implements CompiledNode {
+		private final Token token;
+		private final String name;
+		private final int slot;
+
+		private Lookup(Token token, int slot) {
+			this.token = token;
+			this.name = token.value();
+			this.slot = slot;
+		}
+
+		@Override
+		public Evaluated<?> evaluate(VariableResolver variableResolver, EvaluationContext context) throws EvaluationException {
+			Evaluated<?> result = variableResolver.get(slot, name);
+			if (result == null) {
+				throw new EvaluationException(token, String.format("Variable or constant value for '%s' not found", name));
+			}
+			return result;
+		}
+	}
+
+	private static final class Deferred implements CompiledNode {
+		private final CompiledNode node;
+
+		private Deferred(CompiledNode node) {
+			this.node = node;
+		}
+
+		@Override
+		public Evaluated<?> evaluate(VariableResolver variableResolver, EvaluationContext context) {
+			return DeferredEvaluation.of(node, variableResolver, context);
+		}
+	}
+
+	private static final class Shared implements CompiledNode {
+		private final int slot;
+		private final CompiledNode body;
+		private final int shift;
+
+		private Shared(int slot, CompiledNode body, int shift) {
+			this.slot = slot;
+			this.body = body;
+			this.shift = shift;
+		}
+
+		@Override
+		public Evaluated<?> evaluate(VariableResolver variableResolver, EvaluationContext context) throws EvaluationException {
+			return EvaluationFrame.shared(variableResolver, context, slot, body, shift);
+		}
+	}
+
+	private static final class Call0 implements CompiledNode {
+		private final Token token;
+		private final Invocation invocation;
+
+		private Call0(Token token, Invocation invocation) {
+			this.token = token;
+			this.invocation = invocation;
+		}
+
+		@Override
+		public Evaluated<?> evaluate(VariableResolver variableResolver, EvaluationContext context) throws EvaluationException {
+			return invocation.invoke(variableResolver, context, token, Collections.emptyList());
+		}
+	}
+
+	private static final class Call1 implements CompiledNode {
+		private final Token token;
+		private final Invocation invocation;
+		private final EvaluableExceptionMapper exceptionMapper;
+		private final CompiledNode first;
+
+		private Call1(Token token, Invocation invocation, EvaluableExceptionMapper exceptionMapper, CompiledNode first) {
+			this.token = token;
+			this.invocation = invocation;
+			this.exceptionMapper = exceptionMapper;
+			this.first = first;
+		}
+
+		@Override
+		public Evaluated<?> evaluate(VariableResolver variableResolver, EvaluationContext context) throws EvaluationException {
+			Evaluated<?> a = argument(first, variableResolver, context, exceptionMapper);
+			return invocation.invoke(variableResolver, context, token, a);
+		}
+	}
+
+	private static final class Call2 implements CompiledNode {
+		private final Token token;
+		private final Invocation invocation;
+		private final EvaluableExceptionMapper exceptionMapper;
+		private final CompiledNode first;
+		private final CompiledNode second;
+
+		private Call2(Token token, Invocation invocation, EvaluableExceptionMapper exceptionMapper, CompiledNode first, CompiledNode second) {
+			this.token = token;
+			this.invocation = invocation;
+			this.exceptionMapper = exceptionMapper;
+			this.first = first;
+			this.second = second;
+		}
+
+		@Override
+		public Evaluated<?> evaluate(VariableResolver variableResolver, EvaluationContext context) throws EvaluationException {
+			Evaluated<?> a = argument(first, variableResolver, context, exceptionMapper);
+			Evaluated<?> b = argument(second, variableResolver, context, exceptionMapper);
+			return invocation.invoke(variableResolver, context, token, a, b);
+		}
+	}
+
+	private static final class Call3 implements CompiledNode {
+		private final Token token;
+		private final Invocation invocation;
+		private final EvaluableExceptionMapper exceptionMapper;
+		private final CompiledNode first;
+		private final CompiledNode second;
+		private final CompiledNode third;
+
+		private Call3(Token token, Invocation invocation, EvaluableExceptionMapper exceptionMapper, CompiledNode first, CompiledNode second,
+			CompiledNode third) {
+			this.token = token;
+			this.invocation = invocation;
+			this.exceptionMapper = exceptionMapper;
+			this.first = first;
+			this.second = second;
+			this.third = third;
+		}
+
+		@Override
+		public Evaluated<?> evaluate(VariableResolver variableResolver, EvaluationContext context) throws EvaluationException {
+			Evaluated<?> a = argument(first, variableResolver, context, exceptionMapper);
+			Evaluated<?> b = argument(second, variableResolver, context, exceptionMapper);
+			Evaluated<?> c = argument(third, variableResolver, context, exceptionMapper);
+			return invocation.invoke(variableResolver, context, token, Arrays.asList(a, b, c));
+		}
+	}
+
+	private static final class CallN implements CompiledNode {
+		private final Token token;
+		private final Invocation invocation;
+		private final EvaluableExceptionMapper exceptionMapper;
+		private final CompiledNode[] parameters;
+
+		private CallN(Token token, Invocation invocation, EvaluableExceptionMapper exceptionMapper, CompiledNode[] parameters) {
+			this.token = token;
+			this.invocation = invocation;
+			this.exceptionMapper = exceptionMapper;
+			this.parameters = parameters;
+		}
+
+		@Override
+		public Evaluated<?> evaluate(VariableResolver variableResolver, EvaluationContext context) throws EvaluationException {
+			Evaluated<?>[] arguments = new Evaluated<?>[parameters.length];
+			for (int i = 0; i < arguments.length; i++) {
+				arguments[i] = argument(parameters[i], variableResolver, context, exceptionMapper);
+			}
+			return invocation.invoke(variableResolver, context, token, Arrays.asList(arguments));
+		}
+	}
+
+	static abstract class Invocation {
+		private final EvaluableExceptionMapper exceptionMapper;
+
+		protected Invocation(EvaluableExceptionMapper exceptionMapper) {
+			this.exceptionMapper = exceptionMapper;
+		}
+
+		abstract Evaluated<?> invoke(VariableResolver variableResolver, EvaluationContext context, Token token, List<Evaluated<?>> arguments)
+			throws EvaluationException;
+
+		Evaluated<?> invoke(VariableResolver variableResolver, EvaluationContext context, Token token, Evaluated<?> argument)
+			throws EvaluationException {
+			return invoke(variableResolver, context, token, Collections.singletonList(argument));
+		}
+
+		Evaluated<?> invoke(VariableResolver variableResolver, EvaluationContext context, Token token, Evaluated<?> first, Evaluated<?> second)
+			throws EvaluationException {
+			return invoke(variableResolver, context, token, Arrays.asList(first, second));
+		}
+
+		protected final Evaluated<?> evaluate(TypedEvaluable<?> evaluable, boolean validated, VariableResolver variableResolver,
+			EvaluationContext context, Token token, List<Evaluated<?>> arguments) throws EvaluationException {
+			try {
+				return matched(validated
+					? evaluable.evaluateValidated(variableResolver, context, token, arguments)
+					: evaluable.evaluate(variableResolver, context, token, arguments));
+			}
+			catch (EvaluationException.AsRuntimeException wrapping) {
+				throw wrapping.wrapped();
+			}
+		}
+
+		protected final Evaluated<?> evaluateValidated(TypedEvaluable<?> evaluable, VariableResolver variableResolver, EvaluationContext context,
+			Token token, Evaluated<?> argument) throws EvaluationException {
+			try {
+				return matched(evaluable.evaluateValidated(variableResolver, context, token, argument));
+			}
+			catch (EvaluationException.AsRuntimeException wrapping) {
+				throw wrapping.wrapped();
+			}
+		}
+
+		protected final Evaluated<?> evaluateValidated(TypedEvaluable<?> evaluable, VariableResolver variableResolver, EvaluationContext context,
+			Token token, Evaluated<?> first, Evaluated<?> second) throws EvaluationException {
+			try {
+				return matched(evaluable.evaluateValidated(variableResolver, context, token, first, second));
+			}
+			catch (EvaluationException.AsRuntimeException wrapping) {
+				throw wrapping.wrapped();
+			}
+		}
+
+		private Evaluated<?> matched(Evaluated<?> evaluated) throws EvaluationException {
+			Optional<EvaluationException> matchedException = exceptionMapper.match(evaluated);
+			if (matchedException.isPresent()) {
+				throw matchedException.get();
+			}
+			return evaluated;
+		}
+	}
+
+	/**
+	 * the only candidate, maybe bound by {@link TypeBinding}. One or two arguments are only checked by type if the
+	 * parameters have no validators, the type check is still needed because a failed argument is passed as a value
+	 */
+	private static final class SingleCandidate extends Invocation {
+		private final List<TypedEvaluable<?>> candidates;
+		private final TypedEvaluable<?> evaluable;
+		// null if arguments are not valid by type alone
+		private final TypeInfo<?>[] types;
+
+		private SingleCandidate(List<TypedEvaluable<?>> candidates, EvaluableExceptionMapper exceptionMapper) {
+			super(exceptionMapper);
+			this.candidates = candidates;
+			this.evaluable = candidates.get(0);
+			this.types = typesOnly(evaluable.signature());
+		}
+
+		@Override
+		Evaluated<?> invoke(VariableResolver variableResolver, EvaluationContext context, Token token, List<Evaluated<?>> arguments)
+			throws EvaluationException {
+			if (evaluable.signature().validateArguments(arguments).isPresent()) {
+				throw new EvaluationException(token, TypedEvaluableByArguments.find(candidates, arguments).right());
+			}
+			return evaluate(evaluable, true, variableResolver, context, token, arguments);
+		}
+
+		@Override
+		Evaluated<?> invoke(VariableResolver variableResolver, EvaluationContext context, Token token, Evaluated<?> argument)
+			throws EvaluationException {
+			if (types != null && types.length == 1 && types[0].isInstance(argument.wrapped())) {
+				return evaluateValidated(evaluable, variableResolver, context, token, argument);
+			}
+			return super.invoke(variableResolver, context, token, argument);
+		}
+
+		@Override
+		Evaluated<?> invoke(VariableResolver variableResolver, EvaluationContext context, Token token, Evaluated<?> first, Evaluated<?> second)
+			throws EvaluationException {
+			if (types != null && types.length == 2 && types[0].isInstance(first.wrapped()) && types[1].isInstance(second.wrapped())) {
+				return evaluateValidated(evaluable, variableResolver, context, token, first, second);
+			}
+			return super.invoke(variableResolver, context, token, first, second);
+		}
+
+		private static TypeInfo<?>[] typesOnly(Signature<?> signature) {
+			if (signature.isVarArg() || !signature.validatesTypesOnly()) {
+				return null;
+			}
+			TypeInfo<?>[] types = new TypeInfo<?>[signature.parameters().size()];
+			for (int i = 0; i < types.length; i++) {
+				Parameter<?> parameter = signature.parameters().get(i);
+				if (parameter.isLazy()) {
+					return null;
+				}
+				types[i] = parameter.type();
+			}
+			return types;
+		}
+	}
+
+	private static final class Candidates extends Invocation {
+		private final InlineCache inlineCache;
+
+		private Candidates(List<TypedEvaluable<?>> candidates, EvaluableExceptionMapper exceptionMapper) {
+			super(exceptionMapper);
+			this.inlineCache = new InlineCache(candidates);
+		}
+
+		@Override
+		Evaluated<?> invoke(VariableResolver variableResolver, EvaluationContext context, Token token, List<Evaluated<?>> arguments)
+			throws EvaluationException {
+			TypedEvaluable<?> evaluable = inlineCache.select(arguments);
+			if (evaluable == null) {
+				throw new EvaluationException(token, inlineCache.noMatchingCandidate(arguments));
+			}
+			return evaluate(evaluable, true, variableResolver, context, token, arguments);
+		}
+
+		@Override
+		Evaluated<?> invoke(VariableResolver variableResolver, EvaluationContext context, Token token, Evaluated<?> argument)
+			throws EvaluationException {
+			TypedEvaluable<?> evaluable = inlineCache.selectByType(argument);
+			if (evaluable != null) {
+				return evaluateValidated(evaluable, variableResolver, context, token, argument);
+			}
+			return super.invoke(variableResolver, context, token, argument);
+		}
+
+		@Override
+		Evaluated<?> invoke(VariableResolver variableResolver, EvaluationContext context, Token token, Evaluated<?> first, Evaluated<?> second)
+			throws EvaluationException {
+			TypedEvaluable<?> evaluable = inlineCache.selectByType(first, second);
+			if (evaluable != null) {
+				return evaluateValidated(evaluable, variableResolver, context, token, first, second);
+			}
+			return super.invoke(variableResolver, context, token, first, second);
+		}
+	}
+
+	private static final class Dynamic extends Invocation {
+		private final TypedEvaluableByArguments evaluatable;
+
+		private Dynamic(TypedEvaluableByArguments evaluatable, EvaluableExceptionMapper exceptionMapper) {
+			super(exceptionMapper);
+			this.evaluatable = evaluatable;
+		}
+
+		@Override
+		Evaluated<?> invoke(VariableResolver variableResolver, EvaluationContext context, Token token, List<Evaluated<?>> arguments)
+			throws EvaluationException {
+			Either<TypedEvaluable<?>, EvaluableException> evaluable = evaluatable.find(arguments);
+			if (evaluable.isLeft()) {
+				return evaluate(evaluable.left(), false, variableResolver, context, token, arguments);
+			}
+			throw new EvaluationException(token, evaluable.right());
+		}
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.tree;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * immutable parameters of an {@link EvaluatableNode}, a single node or a plain array instead of an unmodifiable
+ * wrapper around a copied {@link java.util.ArrayList}
+ */
+public abstract class NodeList extends AbstractList<Node> implements RandomAccess {
+	private static final NodeList EMPTY = new Many(new Node[0]);
+
+	private NodeList() {
+	}
+
+	public static NodeList of(List<? extends Node> nodes) {
+		if (nodes instanceof NodeList) {
+			return (NodeList) nodes;
+		}
+		switch (nodes.size()) {
+			case 0:
+				return EMPTY;
+			case 1:
+				return new One(requireNonNull(nodes.get(0)));
+			default:
+				Node[] array = nodes.toArray(new Node[0]);
+				for (Node node : array) {
+					requireNonNull(node);
+				}
+				return new Many(array);
+		}
+	}
+
+	private static Node requireNonNull(Node node) {
+		if (node == null) {
+			throw new NullPointerException("element");
+		}
+		return node;
+	}
+
+	private static final class One extends NodeList {
+		private final Node node;
+
+		private One(Node node) {
+			this.node = node;
+		}
+
+		@Override
+		public Node get(int index) {
+			if (index != 0) {
+				throw new IndexOutOfBoundsException("index " + index + ", size 1");
+			}
+			return node;
+		}
+
+		@Override
+		public int size() {
+			return 1;
+		}
+	}
+
+	private static final class Many extends NodeList {
+		private final Node[] nodes;
+
+		private Many(Node[] nodes) {
+			this.nodes = nodes;
+		}
+
+		@Override
+		public Node get(int index) {
+			return nodes[index];
+		}
+
+		@Override
+		public int size() {
+			return nodes.length;
+		}
+	}
+}
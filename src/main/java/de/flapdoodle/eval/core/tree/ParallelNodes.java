@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.tree;
+
+import de.flapdoodle.eval.core.ParallelArguments;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * nodes which evaluate their arguments in parallel, see {@link ParallelArguments}: the evaluable is marked, at least two
+ * arguments are not lazy and their estimated cost (see {@link de.flapdoodle.eval.core.evaluables.TypedEvaluable#cost()})
+ * reaches the threshold. Computed once per expression and only if parallel arguments are configured, so nodes don't
+ * carry their cost.
+ */
+public final class ParallelNodes {
+	private static final ParallelNodes NONE = new ParallelNodes(Collections.emptySet());
+
+	private final Set<EvaluatableNode> nodes;
+
+	private ParallelNodes(Set<EvaluatableNode> nodes) {
+		this.nodes = nodes;
+	}
+
+	boolean contains(EvaluatableNode node) {
+		return nodes.contains(node);
+	}
+
+	public static ParallelNodes none() {
+		return NONE;
+	}
+
+	public static ParallelNodes of(Node root, ParallelArguments parallelArguments) {
+		Set<EvaluatableNode> nodes = Collections.newSetFromMap(new IdentityHashMap<>());
+		cost(root, parallelArguments.threshold(), new IdentityHashMap<>(), nodes);
+		return nodes.isEmpty()
+			? NONE
+			: new ParallelNodes(nodes);
+	}
+
+	private static long cost(Node node, int threshold, Map<Node, Long> costs, Set<EvaluatableNode> parallelNodes) {
+		if (node instanceof SharedNode) {
+			return cost(((SharedNode) node).node(), threshold, costs, parallelNodes);
+		}
+		if (!(node instanceof EvaluatableNode)) {
+			return 0;
+		}
+		Long known = costs.get(node);
+		if (known != null) {
+			return known;
+		}
+
+		EvaluatableNode evaluatableNode = (EvaluatableNode) node;
+		boolean[] lazyParameters = evaluatableNode.lazyParameters();
+		long cost = evaluatableNode.evaluatable().cost();
+		long argumentCost = 0;
+		int eagerArguments = 0;
+		for (int i = 0; i < lazyParameters.length; i++) {
+			long parameterCost = cost(evaluatableNode.parameters().get(i), threshold, costs, parallelNodes);
+			cost += parameterCost;
+			if (!lazyParameters[i]) {
+				argumentCost += parameterCost;
+				eagerArguments++;
+			}
+		}
+		if (eagerArguments > 1 && argumentCost >= threshold && evaluatableNode.evaluatable().parallelArguments()) {
+			parallelNodes.add(evaluatableNode);
+		}
+		costs.put(node, cost);
+		return cost;
+	}
+}
@@ -0,0 +1,382 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.tree;
+
+import de.flapdoodle.eval.core.EvaluationContext;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.parser.Token;
+
+import java.util.*;
+
+/**
+ * a node tree flattened into postfix instructions in one int array with side tables for constants, variables,
+ * tokens and calls, run by a loop over a value stack instead of a recursive walk. Evaluation behaves exactly like
+ * {@link Node#evaluate(VariableResolver, EvaluationContext)}: an exception in an argument is mapped by the handler
+ * of this argument, which resets the stack and continues after the argument. Lazy arguments and shared subtrees
+ * are subprograms, so only these nest on the java stack.
+ */
+public final class Program implements CompiledNode {
+	// instruction, operands
+	private static final int CONSTANT = 0; // constant
+	private static final int LOOKUP = 1; // variable slot, token
+	private static final int CALL = 2; // invocation, number of arguments, token
+	private static final int DEFER = 3; // subprogram
+	private static final int SHARED = 4; // slot, subprogram, shift
+	private static final int RETURN = 5;
+
+	// reused by all runs on one thread, a nested run uses the part above the runs it is nested in
+	private static final ThreadLocal<Stack> STACKS = ThreadLocal.withInitial(Stack::new);
+
+	private final int[] code;
+	// innermost argument around each instruction, -1 if none
+	private final int[] handlers;
+	private final Evaluated<?>[] constants;
+	private final String[] variables;
+	private final Token[] tokens;
+	private final NodeCompiler.Invocation[] invocations;
+	// end of argument, stack size at start of argument
+	private final int[] arguments;
+	private final EvaluableExceptionMapper[] argumentMappers;
+	// start, stack size
+	private final int[] subprograms;
+	private final CompiledNode[] subprogramNodes;
+
+	private Program(Compiler compiler) {
+		this.code = Arrays.copyOf(compiler.code, compiler.size);
+		this.handlers = Arrays.copyOf(compiler.handlers, compiler.size);
+		this.constants = compiler.constants.toArray(new Evaluated<?>[0]);
+		this.variables = new String[compiler.variableSlots.size()];
+		compiler.variableSlots.forEach((name, slot) -> variables[slot] = name);
+		this.tokens = compiler.tokens.toArray(new Token[0]);
+		this.invocations = compiler.invocations.toArray(new NodeCompiler.Invocation[0]);
+		this.arguments = Arrays.copyOf(compiler.arguments, compiler.argumentsSize);
+		this.argumentMappers = compiler.argumentMappers.toArray(new EvaluableExceptionMapper[0]);
+		this.subprograms = Arrays.copyOf(compiler.subprograms, compiler.subprogramsSize);
+		this.subprogramNodes = new CompiledNode[subprograms.length / 2];
+		for (int i = 0; i < subprogramNodes.length; i++) {
+			int subprogram = i;
+			subprogramNodes[i] = (variableResolver, context) -> run(subprogram, variableResolver, context);
+		}
+	}
+
+	/**
+	 * number of ints in the instruction array
+	 */
+	public int size() {
+		return code.length;
+	}
+
+	/**
+	 * names of all variables by slot
+	 */
+	public List<String> variables() {
+		return Collections.unmodifiableList(Arrays.asList(variables));
+	}
+
+	@Override
+	public Evaluated<?> evaluate(VariableResolver variableResolver, EvaluationContext context) throws EvaluationException {
+		return run(0, variableResolver, context);
+	}
+
+	private Evaluated<?> run(int subprogram, VariableResolver variableResolver, EvaluationContext context) throws EvaluationException {
+		int size = subprograms[subprogram * 2 + 1];
+		Stack shared = STACKS.get();
+		int bottom = shared.top;
+		if (bottom + size > shared.values.length) {
+			if (bottom != 0) {
+				// the runs this one is nested in keep using their array
+				return run(subprogram, new Evaluated<?>[size], 0, variableResolver, context);
+			}
+			shared.values = new Evaluated<?>[Math.max(size, shared.values.length * 2)];
+		}
+		shared.top = bottom + size;
+		try {
+			return run(subprogram, shared.values, bottom, variableResolver, context);
+		}
+		finally {
+			// values must not outlive the run
+			Arrays.fill(shared.values, bottom, bottom + size, null);
+			shared.top = bottom;
+		}
+	}
+
+	private Evaluated<?> run(int subprogram, Evaluated<?>[] stack, int bottom, VariableResolver variableResolver, EvaluationContext context)
+		throws EvaluationException {
+		int sp = bottom;
+		int pc = subprograms[subprogram * 2];
+		ArgumentView view = null;
+
+		while (true) {
+			int instruction = pc;
+			try {
+				switch (code[pc]) {
+					case CONSTANT:
+						stack[sp++] = constants[code[pc + 1]];
+						pc += 2;
+						break;
+					case LOOKUP: {
+						int slot = code[pc + 1];
+						String name = variables[slot];
+						Evaluated<?> value = variableResolver.get(slot, name);
+						if (value == null) {
+							throw new EvaluationException(tokens[code[pc + 2]], String.format("Variable or constant value for '%s' not found", name));
+						}
+						stack[sp++] = value;
+						pc += 3;
+						break;
+					}
+					case CALL: {
+						NodeCompiler.Invocation invocation = invocations[code[pc + 1]];
+						int count = code[pc + 2];
+						Token token = tokens[code[pc + 3]];
+						Evaluated<?> result;
+						switch (count) {
+							case 0:
+								result = invocation.invoke(variableResolver, context, token, Collections.emptyList());
+								break;
+							case 1:
+								result = invocation.invoke(variableResolver, context, token, stack[sp - 1]);
+								break;
+							case 2:
+								result = invocation.invoke(variableResolver, context, token, stack[sp - 2], stack[sp - 1]);
+								break;
+							default:
+								if (view == null) {
+									view = new ArgumentView(stack);
+								}
+								result = invocation.invoke(variableResolver, context, token, view.of(sp - count, count));
+						}
+						sp -= count;
+						stack[sp++] = result;
+						pc += 4;
+						break;
+					}
+					case DEFER:
+						stack[sp++] = DeferredEvaluation.of(subprogramNodes[code[pc + 1]], variableResolver, context);
+						pc += 2;
+						break;
+					case SHARED:
+						stack[sp++] = EvaluationFrame.shared(variableResolver, context, code[pc + 1], subprogramNodes[code[pc + 2]], code[pc + 3]);
+						pc += 4;
+						break;
+					case RETURN:
+						return stack[sp - 1];
+					default:
+						throw new IllegalStateException("unknown instruction " + code[pc] + " at " + pc);
+				}
+			}
+			catch (EvaluationException ex) {
+				int argument = handlers[instruction];
+				if (argument == -1) {
+					throw ex;
+				}
+				sp = bottom + arguments[argument * 2 + 1];
+				stack[sp++] = Evaluated.value(argumentMappers[argument].map(ex));
+				pc = arguments[argument * 2];
+			}
+		}
+	}
+
+	private static final class Stack {
+		private Evaluated<?>[] values = new Evaluated<?>[64];
+		private int top = 0;
+	}
+
+	/**
+	 * arguments of a call as view of the stack, reused for each call of one run, so only valid during the call
+	 */
+	private static final class ArgumentView extends AbstractList<Evaluated<?>> implements RandomAccess {
+		private final Evaluated<?>[] stack;
+		private int start;
+		private int size;
+
+		private ArgumentView(Evaluated<?>[] stack) {
+			this.stack = stack;
+		}
+
+		private ArgumentView of(int start, int size) {
+			this.start = start;
+			this.size = size;
+			return this;
+		}
+
+		@Override
+		public Evaluated<?> get(int index) {
+			if (index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+			}
+			return stack[start + index];
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+
+	public static Program compile(Node root) {
+		return compile(root, Collections.emptyMap());
+	}
+
+	/**
+	 * variables are read by slot from a {@link VariableResolver#get(int, String)}, variables without slot get the next free one
+	 */
+	public static Program compile(Node root, Map<String, Integer> slots) {
+		return new Compiler(slots).compile(root);
+	}
+
+	private static final class Compiler {
+		private int[] code = new int[32];
+		private int[] handlers = new int[32];
+		private int size = 0;
+
+		private final List<Evaluated<?>> constants = new ArrayList<>();
+		private final Map<Evaluated<?>, Integer> constantIndex = new IdentityHashMap<>();
+		private final Map<String, Integer> variableSlots;
+		private final List<Token> tokens = new ArrayList<>();
+		private final List<NodeCompiler.Invocation> invocations = new ArrayList<>();
+
+		private int[] arguments = new int[16];
+		private int argumentsSize = 0;
+		private final List<EvaluableExceptionMapper> argumentMappers = new ArrayList<>();
+
+		private int[] subprograms = new int[8];
+		private int subprogramsSize = 0;
+		private final List<Node> pendingSubprograms = new ArrayList<>();
+		private final Map<Node, Integer> sharedSubprograms = new IdentityHashMap<>();
+
+		private int handler = -1;
+		private int depth = 0;
+		private int maxDepth = 0;
+
+		private Compiler(Map<String, Integer> slots) {
+			this.variableSlots = new HashMap<>(slots);
+		}
+
+		private Program compile(Node root) {
+			pendingSubprograms.add(root);
+			for (int i = 0; i < pendingSubprograms.size(); i++) {
+				int start = size;
+				handler = -1;
+				depth = 0;
+				maxDepth = 0;
+				emit(pendingSubprograms.get(i));
+				instruction(RETURN);
+				subprograms = add(subprograms, subprogramsSize, start, maxDepth);
+				subprogramsSize += 2;
+			}
+			return new Program(this);
+		}
+
+		private void emit(Node node) {
+			if (node instanceof ValueNode) {
+				instruction(CONSTANT, constant(((ValueNode<?>) node).value()));
+				push();
+			} else if (node instanceof LookupNode) {
+				instruction(LOOKUP, NodeCompiler.slot(variableSlots, node.token().value()), token(node.token()));
+				push();
+			} else if (node instanceof SharedNode) {
+				SharedNode sharedNode = (SharedNode) node;
+				// occurrences share the subprogram of the body
+				Integer subprogram = sharedSubprograms.get(sharedNode.node());
+				if (subprogram == null) {
+					subprogram = subprogram(sharedNode.node());
+					sharedSubprograms.put(sharedNode.node(), subprogram);
+				}
+				instruction(SHARED, sharedNode.slot(), subprogram, sharedNode.shift());
+				push();
+			} else if (node instanceof EvaluatableNode) {
+				emit((EvaluatableNode) node);
+			} else {
+				throw new IllegalArgumentException("unsupported node: " + node);
+			}
+		}
+
+		private void emit(EvaluatableNode node) {
+			List<Node> parameters = node.parameters();
+			for (int i = 0; i < parameters.size(); i++) {
+				if (node.evaluatable().isLazy(i)) {
+					instruction(DEFER, subprogram(parameters.get(i)));
+					push();
+				} else {
+					int argument = argumentsSize / 2;
+					arguments = add(arguments, argumentsSize, -1, depth);
+					argumentsSize += 2;
+					argumentMappers.add(node.exceptionMapper());
+
+					int outer = handler;
+					handler = argument;
+					emit(parameters.get(i));
+					handler = outer;
+					arguments[argument * 2] = size;
+				}
+			}
+			invocations.add(NodeCompiler.invocation(node.evaluatable(), node.exceptionMapper()));
+			instruction(CALL, invocations.size() - 1, parameters.size(), token(node.token()));
+			depth -= parameters.size();
+			push();
+		}
+
+		private int subprogram(Node node) {
+			pendingSubprograms.add(node);
+			return pendingSubprograms.size() - 1;
+		}
+
+		private int constant(Evaluated<?> value) {
+			Integer index = constantIndex.get(value);
+			if (index == null) {
+				index = constants.size();
+				constants.add(value);
+				constantIndex.put(value, index);
+			}
+			return index;
+		}
+
+		private int token(Token token) {
+			tokens.add(token);
+			return tokens.size() - 1;
+		}
+
+		private void push() {
+			depth++;
+			maxDepth = Math.max(maxDepth, depth);
+		}
+
+		private void instruction(int... words) {
+			if (size + words.length > code.length) {
+				int capacity = Math.max(code.length * 2, size + words.length);
+				code = Arrays.copyOf(code, capacity);
+				handlers = Arrays.copyOf(handlers, capacity);
+			}
+			for (int word : words) {
+				handlers[size] = handler;
+				code[size++] = word;
+			}
+		}
+
+		private static int[] add(int[] array, int size, int first, int second) {
+			int[] result = size + 2 > array.length
+				? Arrays.copyOf(array, array.length * 2)
+				: array;
+			result[size] = first;
+			result[size + 1] = second;
+			return result;
+		}
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.tree;
+
+import de.flapdoodle.eval.core.evaluables.BoundTypedEvaluable;
+import de.flapdoodle.eval.core.parser.Token;
+import de.flapdoodle.eval.core.parser.TokenType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * function calls of a parsed expression by source position, which can be used as they are in an expression
+ * parsed from an edited source, because a function call does not depend on the tokens around it
+ */
+public final class ReusableSubtrees {
+	private final Map<Integer, Node> functionCalls;
+
+	private ReusableSubtrees(Map<Integer, Node> functionCalls) {
+		this.functionCalls = functionCalls;
+	}
+
+	/**
+	 * @return the function call (or its folded value) starting at this source position, null if there is none
+	 */
+	public Node functionCall(int start) {
+		return functionCalls.get(start);
+	}
+
+	public static ReusableSubtrees of(Node root) {
+		Map<Integer, Node> functionCalls = new HashMap<>();
+		collect(root, functionCalls);
+		return new ReusableSubtrees(functionCalls);
+	}
+
+	/**
+	 * @return true if the node and all its children are reusable
+	 */
+	private static boolean collect(Node node, Map<Integer, Node> functionCalls) {
+		boolean reusable;
+		if (node instanceof SharedNode) {
+			// slots are assigned per expression
+			collect(((SharedNode) node).node(), functionCalls);
+			reusable = false;
+		} else if (node instanceof EvaluatableNode) {
+			EvaluatableNode evaluatableNode = (EvaluatableNode) node;
+			// bound to the variable types of the previous expression
+			reusable = !(evaluatableNode.evaluatable() instanceof BoundTypedEvaluable);
+			for (Node parameter : evaluatableNode.parameters()) {
+				reusable &= collect(parameter, functionCalls);
+			}
+		} else {
+			reusable = true;
+		}
+
+		if (reusable && node.token().type() == TokenType.FUNCTION) {
+			functionCalls.put(node.token().start(), node);
+		}
+		return reusable;
+	}
+
+	/**
+	 * @return a copy of this subtree with all token positions moved by shift
+	 */
+	public static Node shift(Node node, int shift) {
+		if (shift == 0) {
+			return node;
+		}
+		Token token = node.token();
+		Token shifted = Token.of(token.start() + shift, token.value(), token.type());
+		if (node instanceof EvaluatableNode) {
+			EvaluatableNode evaluatableNode = (EvaluatableNode) node;
+			List<Node> parameters = new ArrayList<>(evaluatableNode.parameters().size());
+			for (Node parameter : evaluatableNode.parameters()) {
+				parameters.add(shift(parameter, shift));
+			}
+			return EvaluatableNode.of(shifted, evaluatableNode.evaluatable(), parameters, evaluatableNode.exceptionMapper());
+		}
+		if (node instanceof ValueNode) {
+			return ValueNode.of(shifted, ((ValueNode<?>) node).value());
+		}
+		if (node instanceof LookupNode) {
+			return LookupNode.of(shifted);
+		}
+		throw new IllegalArgumentException("not reusable: " + node);
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.tree;
+
+import de.flapdoodle.eval.core.EvaluationContext;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.VariableTypeResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.parser.Token;
+import de.flapdoodle.reflection.TypeInfo;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * one occurrence of a subtree which is referenced from more than one place. All occurrences point to the same body,
+ * which is evaluated once per {@link EvaluationFrame}. The body keeps the tokens of the first occurrence, so a failure
+ * is moved to the position of this occurrence, see {@link #token()}.
+ */
+@org.immutables.value.Value.Immutable
+public abstract class SharedNode extends Node {
+	@org.immutables.value.Value.Parameter
+	public abstract int slot();
+	@org.immutables.value.Value.Parameter
+	protected abstract Node node();
+
+	/**
+	 * distance from the tokens of the body to the tokens of this occurrence
+	 */
+	int shift() {
+		return token().start() - node().token().start();
+	}
+
+	@Override
+	public Evaluated<?> evaluate(VariableResolver variableResolver, EvaluationContext context) throws EvaluationException {
+		return EvaluationFrame.shared(variableResolver, context, slot(), node(), shift());
+	}
+
+	@Override
+	public CompletableFuture<Evaluated<?>> evaluateAsync(AsyncEvaluation evaluation) {
+		CompletableFuture<Evaluated<?>> shared = evaluation.shared(slot(), node());
+		int shift = shift();
+		if (shift == 0) {
+			return shared;
+		}
+		CompletableFuture<Evaluated<?>> result = new CompletableFuture<>();
+		shared.whenComplete((value, failure) -> {
+			if (failure == null) {
+				result.complete(value);
+			} else {
+				result.completeExceptionally(movedBy(failure, shift));
+			}
+		});
+		return result;
+	}
+
+	@Override
+	public TypeInfo<?> evaluateType(VariableTypeResolver variableResolver) throws EvaluationException {
+		return node().evaluateType(variableResolver);
+	}
+
+	static Throwable movedBy(Throwable failure, int shift) {
+		Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+			? failure.getCause()
+			: failure;
+		return cause instanceof EvaluationException
+			? ((EvaluationException) cause).movedBy(shift)
+			: failure;
+	}
+
+	/**
+	 * the first occurrence, which is the body itself
+	 */
+	public static SharedNode of(int slot, Node node) {
+		return of(slot, node, node.token());
+	}
+
+	/**
+	 * @param token root token of this occurrence, the body must have the same layout
+	 */
+	public static SharedNode of(int slot, Node node, Token token) {
+		return ImmutableSharedNode.builder()
+			.token(token)
+			.slot(slot)
+			.node(node)
+			.build();
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.tree;
+
+import de.flapdoodle.eval.core.VariableTypeResolver;
+import de.flapdoodle.eval.core.evaluables.BoundTypedEvaluable;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.evaluables.Signature;
+import de.flapdoodle.eval.core.evaluables.TypedEvaluable;
+import de.flapdoodle.eval.core.exceptions.EvaluableException;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.reflection.TypeInfo;
+import de.flapdoodle.types.Either;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * selects the matching evaluable of each node from the declared variable types, so that
+ * evaluation does not search for a matching signature anymore, only lazy arguments may fail
+ */
+public final class TypeBinding {
+
+	private TypeBinding() {
+		// no instance
+	}
+
+	/**
+	 * an evaluable is only bound if no other candidate could match the runtime types of the arguments, which might be
+	 * subtypes of the declared types
+	 */
+	public static Node bind(Node node, VariableTypeResolver variableTypeResolver) throws EvaluationException {
+		return bound(node, variableTypeResolver).node;
+	}
+
+	private static Bound bound(Node node, VariableTypeResolver variableTypeResolver) throws EvaluationException {
+		if (node instanceof EvaluatableNode) {
+			return bound((EvaluatableNode) node, variableTypeResolver);
+		}
+		return new Bound(node, node.evaluateType(variableTypeResolver));
+	}
+
+	private static Bound bound(EvaluatableNode node, VariableTypeResolver variableTypeResolver) throws EvaluationException {
+		List<Node> parameters = new ArrayList<>(node.parameters().size());
+		List<TypeInfo<?>> parameterTypes = new ArrayList<>(node.parameters().size());
+		boolean allTypesKnown = true;
+		boolean anyTypeAmbiguous = false;
+		for (int i = 0; i < node.parameters().size(); i++) {
+			Node parameter = node.parameters().get(i);
+			try {
+				Bound bound = bound(parameter, variableTypeResolver);
+				parameters.add(bound.node);
+				parameterTypes.add(bound.type);
+				anyTypeAmbiguous = anyTypeAmbiguous || bound.type == null;
+			}
+			catch (EvaluationException ex) {
+				if (!node.evaluatable().isLazy(i)) {
+					throw ex;
+				}
+				// used in condition where one branch might not return
+				parameters.add(parameter);
+				parameterTypes.add(Evaluated.value(node.exceptionMapper().map(ex)).type());
+				allTypesKnown = false;
+			}
+		}
+
+		Node dynamic = EvaluatableNode.of(node.token(), node.evaluatable(), parameters, node.exceptionMapper());
+		if (anyTypeAmbiguous) {
+			// the result type of an argument is only known at runtime, so this one is too
+			return new Bound(dynamic, null);
+		}
+
+		Either<TypedEvaluable<?>, EvaluableException> evaluable = node.evaluatable().findType(parameterTypes);
+		if (!evaluable.isLeft()) {
+			throw new EvaluationException(node.token(), evaluable.right());
+		}
+
+		// a failing parameter might still return something else at runtime, so the choice is left to evaluation
+		if (!allTypesKnown) {
+			return new Bound(dynamic, evaluable.left().signature().returnType());
+		}
+
+		Optional<List<TypedEvaluable<?>>> possible = possibleAtRuntime(node, evaluable.left(), parameterTypes);
+		if (possible.isPresent() && possible.get().size() == 1) {
+			return new Bound(EvaluatableNode.of(node.token(), BoundTypedEvaluable.of(evaluable.left()), parameters, node.exceptionMapper()),
+				evaluable.left().signature().returnType());
+		}
+		return new Bound(dynamic, possible.isPresent()
+			? commonReturnType(possible.get())
+			: evaluable.left().signature().returnType());
+	}
+
+	/**
+	 * the selected evaluable and each candidate before it which might match argument values of a subtype of the
+	 * declared types, like a candidate for numbers if the declared type is the common base type of all values,
+	 * empty if the candidates are not known
+	 */
+	private static Optional<List<TypedEvaluable<?>>> possibleAtRuntime(EvaluatableNode node, TypedEvaluable<?> selected,
+		List<TypeInfo<?>> parameterTypes) {
+		Optional<List<TypedEvaluable<?>>> candidates = node.evaluatable().candidates();
+		if (!candidates.isPresent()) {
+			return Optional.empty();
+		}
+		List<TypedEvaluable<?>> possible = new ArrayList<>();
+		for (TypedEvaluable<?> candidate : candidates.get()) {
+			if (candidate == selected) {
+				possible.add(candidate);
+				return Optional.of(possible);
+			}
+			if (mightMatch(candidate.signature(), parameterTypes)) {
+				possible.add(candidate);
+			}
+		}
+		return Optional.empty();
+	}
+
+	private static boolean mightMatch(Signature<?> signature, List<TypeInfo<?>> parameterTypes) {
+		if (signature.minNumberOfArguments() > parameterTypes.size() || parameterTypes.size() > signature.maxNumberOfArguments()) {
+			return false;
+		}
+		for (int i = 0; i < parameterTypes.size(); i++) {
+			TypeInfo<?> type = signature.get(i).type();
+			TypeInfo<?> declared = parameterTypes.get(i);
+			if (!type.isAssignable(declared) && !declared.isAssignable(type)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * the return type which all others are assignable to, null if there is none
+	 */
+	private static TypeInfo<?> commonReturnType(List<TypedEvaluable<?>> evaluables) {
+		for (TypedEvaluable<?> evaluable : evaluables) {
+			TypeInfo<?> type = evaluable.signature().returnType();
+			if (evaluables.stream().allMatch(it -> type.isAssignable(it.signature().returnType()))) {
+				return type;
+			}
+		}
+		return null;
+	}
+
+	private static final class Bound {
+		private final Node node;
+		// null if only known at runtime
+		private final TypeInfo<?> type;
+
+		private Bound(Node node, TypeInfo<?> type) {
+			this.node = node;
+			this.type = type;
+		}
+	}
+}
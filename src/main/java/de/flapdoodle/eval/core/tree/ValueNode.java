@@ -28,7 +28,7 @@ import de.flapdoodle.reflection.TypeInfo;
 @org.immutables.value.Value.Immutable
 public abstract class ValueNode<T> extends Node {
 	@org.immutables.value.Value.Parameter
-	protected abstract Evaluated<T> value();
+	public abstract Evaluated<T> value();
 
 	@Override
 	public Evaluated<?> evaluate(VariableResolver variableResolver, EvaluationContext context) {
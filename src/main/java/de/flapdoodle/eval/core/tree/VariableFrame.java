@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.tree;
+
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+
+import java.util.Map;
+
+/**
+ * values of all variables of one expression by slot, see {@link Variables#slots()}, bound once per row and read by
+ * index from compiled expressions, not thread safe
+ */
+public final class VariableFrame implements VariableResolver {
+	private final Map<String, Integer> slots;
+	private final String[] names;
+	private final Evaluated<?>[] values;
+
+	private VariableFrame(Map<String, Integer> slots) {
+		this.slots = slots;
+		this.names = new String[slots.size()];
+		this.values = new Evaluated<?>[slots.size()];
+		slots.forEach((name, slot) -> names[slot] = name);
+	}
+
+	@Override
+	public Evaluated<?> get(String variable) {
+		Integer slot = slots.get(variable);
+		return slot != null ? values[slot] : null;
+	}
+
+	@Override
+	public Evaluated<?> get(int slot, String variable) {
+		if (slot < names.length && (names[slot] == variable || names[slot].equals(variable))) {
+			return values[slot];
+		}
+		// compiled with other slots
+		return get(variable);
+	}
+
+	public int size() {
+		return values.length;
+	}
+
+	public VariableFrame set(int slot, Evaluated<?> value) {
+		values[slot] = value;
+		return this;
+	}
+
+	/**
+	 * replaces all values with the values of the resolver, missing variables are unset
+	 */
+	public VariableFrame bind(VariableResolver variableResolver) {
+		for (int i = 0; i < names.length; i++) {
+			values[i] = variableResolver.get(names[i]);
+		}
+		return this;
+	}
+
+	public static VariableFrame of(Variables variables) {
+		return new VariableFrame(variables.slots());
+	}
+
+	public static VariableFrame of(Variables variables, VariableResolver variableResolver) {
+		return of(variables).bind(variableResolver);
+	}
+}
@@ -17,8 +17,10 @@
 package de.flapdoodle.eval.core.tree;
 
 import de.flapdoodle.checks.Preconditions;
+import de.flapdoodle.eval.core.parser.Token;
 import org.immutables.value.Value;
 
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -42,6 +44,17 @@ public abstract class Variables {
 		return nameHashMap().keySet();
 	}
 
+	/**
+	 * slot of each distinct variable, in order of first use
+	 */
+	@Value.Derived
+	@Value.Auxiliary
+	public Map<String, Integer> slots() {
+		Map<String, Integer> map = new LinkedHashMap<>();
+		names().forEach(name -> map.put(name, map.size()));
+		return Collections.unmodifiableMap(map);
+	}
+
 	@Value.Auxiliary
 	public int firstHashOf(String name) {
 		return Preconditions.checkNotNull(nameHashMap().get(name),"could not find hash of %s", name);
@@ -66,4 +79,33 @@ public abstract class Variables {
 	public static ImmutableVariables.Builder builder() {
 		return ImmutableVariables.builder();
 	}
+
+	/**
+	 * collects variables in source order, each hash covers the source between the previous and this variable
+	 */
+	public static Collector collector(CharSequence expression) {
+		return new Collector(expression);
+	}
+
+	public static final class Collector {
+		private final CharSequence expression;
+		private final ImmutableVariables.Builder builder = builder();
+		private int size = 0;
+		private int lastTokenEnd = 0;
+
+		private Collector(CharSequence expression) {
+			this.expression = expression;
+		}
+
+		public void add(Token token) {
+			String expressionBetweenTokens = expression.subSequence(lastTokenEnd, token.start()).toString();
+			builder.addList(Variable.of(token.value(), (size + ":" + expressionBetweenTokens).hashCode(), token.start()));
+			size++;
+			lastTokenEnd = token.start() + token.value().length();
+		}
+
+		public Variables build() {
+			return builder.build();
+		}
+	}
 }
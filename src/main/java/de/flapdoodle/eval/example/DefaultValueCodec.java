@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.example;
+
+import de.flapdoodle.eval.core.ValueCodec;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.reflection.TypeInfo;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * binary format of all {@link Value}s but {@link Value.FailedWithException}
+ */
+final class DefaultValueCodec implements ValueCodec {
+	private static final int NULL = 0;
+	private static final int STRING = 1;
+	private static final int NUMBER = 2;
+	private static final int BOOLEAN = 3;
+	private static final int DATE_TIME = 4;
+	private static final int DURATION = 5;
+	private static final int ARRAY = 6;
+	private static final int MAP = 7;
+	private static final int DOUBLE = 8;
+
+	private static final List<Class<?>> KINDS = Arrays.asList(
+		Value.NullValue.class,
+		Value.StringValue.class,
+		Value.NumberValue.class,
+		Value.BooleanValue.class,
+		Value.DateTimeValue.class,
+		Value.DurationValue.class,
+		Value.ArrayValue.class,
+		Value.MapValue.class,
+		Value.DoubleValue.class
+	);
+
+	// evaluated values are typed with the value class, the abstract value type or Value
+	private static final int TYPE_OF_VALUE = 0;
+	private static final int TYPE_OF_KIND = 1;
+	private static final int TYPE_VALUE = 2;
+
+	@Override
+	public boolean canWrite(Evaluated<?> value) {
+		Object wrapped = value.wrapped();
+		return wrapped != null
+			&& canWrite(wrapped)
+			&& typeOf(value) != -1;
+	}
+
+	private static int typeOf(Evaluated<?> value) {
+		Value<?> wrapped = (Value<?>) value.wrapped();
+		if (value.type().equals(TypeInfo.of(wrapped.getClass()))) {
+			return TYPE_OF_VALUE;
+		}
+		if (value.type().equals(TypeInfo.of(kindOf(wrapped)))) {
+			return TYPE_OF_KIND;
+		}
+		if (value.type().equals(TypeInfo.of(Value.class))) {
+			return TYPE_VALUE;
+		}
+		return -1;
+	}
+
+	private static Class<?> kindOf(Value<?> value) {
+		for (Class<?> kind : KINDS) {
+			if (kind.isInstance(value)) {
+				return kind;
+			}
+		}
+		throw new IllegalArgumentException("not supported: " + value);
+	}
+
+	private static boolean canWrite(Object value) {
+		if (value instanceof Value.ArrayValue) {
+			for (Value<?> it : ((Value.ArrayValue) value).wrapped().values()) {
+				if (!canWrite(it)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		if (value instanceof Value.MapValue) {
+			for (Value<?> it : ((Value.MapValue) value).wrapped().values().values()) {
+				if (!canWrite(it)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return value instanceof Value.NullValue
+			|| value instanceof Value.StringValue
+			|| value instanceof Value.NumberValue
+			|| value instanceof Value.DoubleValue
+			|| value instanceof Value.BooleanValue
+			|| value instanceof Value.DateTimeValue
+			|| value instanceof Value.DurationValue;
+	}
+
+	@Override
+	public void write(Evaluated<?> value, DataOutput out) throws IOException {
+		out.writeByte(typeOf(value));
+		write((Value<?>) value.wrapped(), out);
+	}
+
+	private static void write(Value<?> value, DataOutput out) throws IOException {
+		if (value instanceof Value.NullValue) {
+			out.writeByte(NULL);
+		} else if (value instanceof Value.StringValue) {
+			out.writeByte(STRING);
+			writeString(((Value.StringValue) value).wrapped(), out);
+		} else if (value instanceof Value.NumberValue) {
+			BigDecimal number = ((Value.NumberValue) value).wrapped();
+			byte[] unscaled = number.unscaledValue().toByteArray();
+			out.writeByte(NUMBER);
+			out.writeInt(number.scale());
+			out.writeInt(unscaled.length);
+			out.write(unscaled);
+		} else if (value instanceof Value.DoubleValue) {
+			out.writeByte(DOUBLE);
+			out.writeDouble(((Value.DoubleValue) value).value());
+		} else if (value instanceof Value.BooleanValue) {
+			out.writeByte(BOOLEAN);
+			out.writeBoolean(((Value.BooleanValue) value).wrapped());
+		} else if (value instanceof Value.DateTimeValue) {
+			Instant instant = ((Value.DateTimeValue) value).wrapped();
+			out.writeByte(DATE_TIME);
+			out.writeLong(instant.getEpochSecond());
+			out.writeInt(instant.getNano());
+		} else if (value instanceof Value.DurationValue) {
+			Duration duration = ((Value.DurationValue) value).wrapped();
+			out.writeByte(DURATION);
+			out.writeLong(duration.getSeconds());
+			out.writeInt(duration.getNano());
+		} else if (value instanceof Value.ArrayValue) {
+			List<Value<?>> values = ((Value.ArrayValue) value).wrapped().values();
+			out.writeByte(ARRAY);
+			out.writeInt(values.size());
+			for (Value<?> it : values) {
+				write(it, out);
+			}
+		} else if (value instanceof Value.MapValue) {
+			Map<String, Value<?>> values = ((Value.MapValue) value).wrapped().values();
+			out.writeByte(MAP);
+			out.writeInt(values.size());
+			for (Map.Entry<String, Value<?>> entry : values.entrySet()) {
+				writeString(entry.getKey(), out);
+				write(entry.getValue(), out);
+			}
+		} else {
+			throw new IllegalArgumentException("not supported: " + value);
+		}
+	}
+
+	@Override
+	public Evaluated<?> read(DataInput in) throws IOException {
+		int type = in.readUnsignedByte();
+		Value<?> value = readValue(in);
+		switch (type) {
+			case TYPE_OF_VALUE:
+				return Evaluated.value(value);
+			case TYPE_OF_KIND:
+				return evaluated(kindOf(value), value);
+			case TYPE_VALUE:
+				return evaluated(Value.class, value);
+			default:
+				throw new StreamCorruptedException("unknown type: " + type);
+		}
+	}
+
+	private static <T> Evaluated<T> evaluated(Class<T> type, Object value) {
+		return Evaluated.ofNullable(type, type.cast(value));
+	}
+
+	private static Value<?> readValue(DataInput in) throws IOException {
+		int type = in.readUnsignedByte();
+		switch (type) {
+			case NULL:
+				return Value.ofNull();
+			case STRING:
+				return Value.of(readString(in));
+			case NUMBER: {
+				int scale = in.readInt();
+				byte[] unscaled = new byte[in.readInt()];
+				in.readFully(unscaled);
+				return Value.of(new BigDecimal(new BigInteger(unscaled), scale));
+			}
+			case DOUBLE:
+				return Value.ofDouble(in.readDouble());
+			case BOOLEAN:
+				return Value.of(in.readBoolean());
+			case DATE_TIME:
+				return Value.of(Instant.ofEpochSecond(in.readLong(), in.readInt()));
+			case DURATION:
+				return Value.of(Duration.ofSeconds(in.readLong(), in.readInt()));
+			case ARRAY: {
+				int size = in.readInt();
+				List<Value<?>> values = new ArrayList<>(size);
+				for (int i = 0; i < size; i++) {
+					values.add(readValue(in));
+				}
+				return Value.of(values);
+			}
+			case MAP: {
+				int size = in.readInt();
+				Map<String, Value<?>> values = new LinkedHashMap<>();
+				for (int i = 0; i < size; i++) {
+					values.put(readString(in), readValue(in));
+				}
+				return Value.of(ValueMap.of(values));
+			}
+			default:
+				throw new StreamCorruptedException("unknown value type: " + type);
+		}
+	}
+
+	private static void writeString(String value, DataOutput out) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInput in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -18,6 +18,7 @@ package de.flapdoodle.eval.example;
 
 import de.flapdoodle.eval.core.ExpressionFactory;
 import de.flapdoodle.eval.core.ImmutableExpressionFactory;
+import de.flapdoodle.eval.core.ValueCodec;
 import de.flapdoodle.eval.core.VariableResolver;
 import de.flapdoodle.eval.core.evaluables.*;
 import de.flapdoodle.eval.core.exceptions.EvaluationException;
@@ -63,18 +64,35 @@ public abstract class Defaults {
 		return Collections.unmodifiableMap(constants);
 	}
 
+	static Map<String, Evaluated<Value<?>>> standardDoubleConstants() {
+		Map<String, Evaluated<Value<?>>> constants = new LinkedHashMap<>(standardConstants());
+		constants.put("PI", Evaluated.value(Value.ofDouble(Math.PI)));
+		constants.put("E", Evaluated.value(Value.ofDouble(Math.E)));
+		return Collections.unmodifiableMap(constants);
+	}
+
 	private static final VariableResolver CONSTANTS = VariableResolver.empty().withValues(standardConstants());
+	private static final VariableResolver DOUBLE_CONSTANTS = VariableResolver.empty().withValues(standardDoubleConstants());
 
 	private static final TypedEvaluableByName EVALUATABLES = defaultEvaluatablesMap();
 	private static final TypedEvaluableByNumberOfArguments ARRAY_ACCESS = new IndexedAccess();
 	private static final TypedEvaluableByNumberOfArguments ASSOCIATE_ACCESS = new IndexedAccess();
 	private static final TypedEvaluableByNumberOfArguments PROPERTY_ACCESS = new PropertyAccess();
 	private static final OperatorMap OPERATOR_MAP = defaultOperatorMap();
+	private static final ValueCodec VALUE_CODEC = new DefaultValueCodec();
 
 	public static VariableResolver constants() {
 		return CONSTANTS;
 	}
 
+	public static VariableResolver doubleConstants() {
+		return DOUBLE_CONSTANTS;
+	}
+
+	public static ValueCodec valueCodec() {
+		return VALUE_CODEC;
+	}
+
 	public static TypedEvaluableByName evaluatables() {
 		return EVALUATABLES;
 	}
@@ -218,6 +236,14 @@ public abstract class Defaults {
 		}
 	}
 
+	public static Value.DoubleValue doubleFromString(String value, MathContext mathContext) {
+		if (value.startsWith("0x") || value.startsWith("0X")) {
+			return Value.ofDouble(new BigInteger(value.substring(2), 16).doubleValue());
+		} else {
+			return Value.ofDouble(Double.parseDouble(value));
+		}
+	}
+
 	public static Value.StringValue valueFromString(String s) {
 		return Value.of(s);
 	}
@@ -248,6 +274,18 @@ public abstract class Defaults {
 			.stringAsValue(Defaults::valueFromString)
 			.operatorMap(operatorMap())
 			.exceptionMapper(exceptionMapper())
+			.valueCodec(valueCodec())
 			.build();
 	}
+
+	/**
+	 * numbers are {@link Value.DoubleValue}s: literals, constants, arithmetic, comparisons, sqrt, power and
+	 * trigonometric functions work on primitive doubles without any {@link BigDecimal}. Results follow IEEE 754,
+	 * but division by zero fails as with decimal numbers. Functions without a double variant do not accept them.
+	 */
+	public static ImmutableExpressionFactory doubleExpressionFactory() {
+		return expressionFactory()
+			.withConstants(doubleConstants())
+			.withNumberAsValue(Defaults::doubleFromString);
+	}
 }
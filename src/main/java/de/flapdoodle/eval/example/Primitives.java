@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.example;
+
+import de.flapdoodle.eval.core.EvaluationContext;
+import de.flapdoodle.eval.core.evaluables.Primitive;
+
+/**
+ * primitive representations of values, for primitive {@link de.flapdoodle.eval.core.Column}s and
+ * {@link de.flapdoodle.eval.core.evaluables.Kernel}s
+ */
+public final class Primitives {
+	// exact results of long arithmetic have at most 19 digits
+	private static final int LONG_DIGITS = 19;
+
+	public static final Primitive.OfDouble<Value.DoubleValue> DOUBLE = Primitive.ofDouble(Value.DoubleValue.class, Value::ofDouble,
+		Value.DoubleValue::value);
+
+	/**
+	 * numbers without fraction digits (scale 0) which fit into a long
+	 */
+	public static final Primitive.OfLong<Value.NumberValue> LONG = Primitive.ofLong(Value.NumberValue.class, Value::ofLong,
+		Primitives::exactLong);
+
+	public static final Primitive.OfBoolean<Value.BooleanValue> BOOLEAN = Primitive.ofBoolean(Value.BooleanValue.class, Value::of,
+		Value.BooleanValue::wrapped);
+
+	private Primitives() {
+		// no instance
+	}
+
+	/**
+	 * true if an exact long result is not rounded by the {@link java.math.MathContext} of this context, so that
+	 * long arithmetic gives the same result as {@link Value.NumberValue} arithmetic
+	 */
+	public static boolean exactLongArithmetic(EvaluationContext context) {
+		int precision = context.mathContext().getPrecision();
+		return precision == 0 || precision >= LONG_DIGITS;
+	}
+
+	private static long exactLong(Value.NumberValue value) {
+		if (value.isCompact() && value.scale() == 0) {
+			return value.unscaled();
+		}
+		throw new ArithmeticException("not a long with scale 0: " + value);
+	}
+}
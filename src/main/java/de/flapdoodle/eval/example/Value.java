@@ -17,9 +17,12 @@
 package de.flapdoodle.eval.example;
 
 import de.flapdoodle.eval.core.Nullable;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
 import de.flapdoodle.eval.core.exceptions.EvaluationException;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
@@ -66,13 +69,189 @@ public abstract class Value<T> {
 		}
 	}
 
+	/**
+	 * a decimal number, stored as unscaled long and scale as long as it fits, as {@link BigDecimal} otherwise.
+	 * Arithmetic on two compact numbers stays on primitives if the exact result fits and no rounding by the
+	 * {@link MathContext} is needed, results are equal to the {@link BigDecimal} operations in any case.
+	 */
 	@org.immutables.value.Value.Immutable
 	public static abstract class NumberValue extends Value<BigDecimal> implements Comparable<NumberValue> {
+		// exact results of long arithmetic have at most 19 digits and are never rounded with this precision
+		private static final int LONG_DIGITS = 19;
+		private static final long[] POWERS_OF_TEN = {
+			1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+			10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+			1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+		};
+
+		protected abstract long unscaled();
+
+		protected abstract int scale();
+
+		// not null if the unscaled value does not fit into a long
+		@Nullable
+		protected abstract BigDecimal big();
+
+		// the number this compact value was created from
+		@Nullable
+		@org.immutables.value.Value.Auxiliary
+		protected abstract BigDecimal source();
+
+		@Override
+		@org.immutables.value.Value.Lazy
+		public BigDecimal wrapped() {
+			if (big() != null) {
+				return big();
+			}
+			return source() != null
+				? source()
+				: BigDecimal.valueOf(unscaled(), scale());
+		}
+
+		@Override
+		@org.immutables.value.Value.Auxiliary
+		public String toString() {
+			return super.toString();
+		}
+
+		@org.immutables.value.Value.Auxiliary
+		public boolean isCompact() {
+			return big() == null;
+		}
+
 		@org.immutables.value.Value.Auxiliary
 		@Override
 		public int compareTo(NumberValue other) {
+			if (isCompact() && other.isCompact()) {
+				if (scale() == other.scale()) {
+					return Long.compare(unscaled(), other.unscaled());
+				}
+				long first = scale() < other.scale() ? rescale(unscaled(), other.scale() - scale()) : unscaled();
+				long second = other.scale() < scale() ? rescale(other.unscaled(), scale() - other.scale()) : other.unscaled();
+				if (first != Long.MIN_VALUE && second != Long.MIN_VALUE) {
+					return Long.compare(first, second);
+				}
+			}
 			return wrapped().compareTo(other.wrapped());
 		}
+
+		/**
+		 * same as {@link BigDecimal#add(BigDecimal, MathContext)}
+		 */
+		public NumberValue add(NumberValue other, MathContext mathContext) {
+			if (isCompact() && other.isCompact() && noRounding(mathContext, Math.abs((long) scale() - other.scale()))) {
+				int scale = Math.max(scale(), other.scale());
+				long first = rescale(unscaled(), scale - scale());
+				long second = rescale(other.unscaled(), scale - other.scale());
+				if (first != Long.MIN_VALUE && second != Long.MIN_VALUE) {
+					long sum = first + second;
+					// overflow if both have the same sign and the sum has not
+					if (((first ^ sum) & (second ^ sum)) >= 0 && sum != Long.MIN_VALUE) {
+						return compact(sum, scale);
+					}
+				}
+			}
+			return of(wrapped().add(other.wrapped(), mathContext));
+		}
+
+		/**
+		 * same as {@link BigDecimal#subtract(BigDecimal, MathContext)}
+		 */
+		public NumberValue subtract(NumberValue other, MathContext mathContext) {
+			if (other.isCompact()) {
+				return add(compact(-other.unscaled(), other.scale()), mathContext);
+			}
+			return of(wrapped().subtract(other.wrapped(), mathContext));
+		}
+
+		/**
+		 * same as {@link BigDecimal#multiply(BigDecimal, MathContext)}
+		 */
+		public NumberValue multiply(NumberValue other, MathContext mathContext) {
+			if (isCompact() && other.isCompact() && noRounding(mathContext, 0)) {
+				long scale = (long) scale() + other.scale();
+				long product = multiply(unscaled(), other.unscaled());
+				if (scale == (int) scale && product != Long.MIN_VALUE) {
+					return compact(product, (int) scale);
+				}
+			}
+			return of(wrapped().multiply(other.wrapped(), mathContext));
+		}
+
+		/**
+		 * same as {@link BigDecimal#negate(MathContext)}
+		 */
+		public NumberValue negate(MathContext mathContext) {
+			if (isCompact() && noRounding(mathContext, 0)) {
+				return compact(-unscaled(), scale());
+			}
+			return of(wrapped().negate(mathContext));
+		}
+
+		/**
+		 * same as {@link BigDecimal#abs(MathContext)}
+		 */
+		public NumberValue abs(MathContext mathContext) {
+			if (isCompact() && noRounding(mathContext, 0)) {
+				return unscaled() < 0 ? compact(-unscaled(), scale()) : this;
+			}
+			return of(wrapped().abs(mathContext));
+		}
+
+		// an exact result with up to 19 digits is not rounded, even if a zero operand is rescaled by scaleDifference
+		private static boolean noRounding(MathContext mathContext, long scaleDifference) {
+			return mathContext.getPrecision() == 0 || mathContext.getPrecision() >= LONG_DIGITS + scaleDifference;
+		}
+
+		// Long.MIN_VALUE on overflow, which is never stored as compact unscaled value
+		private static long rescale(long unscaled, int digits) {
+			if (digits == 0) {
+				return unscaled;
+			}
+			if (digits >= POWERS_OF_TEN.length) {
+				return unscaled == 0 ? 0 : Long.MIN_VALUE;
+			}
+			return multiply(unscaled, POWERS_OF_TEN[digits]);
+		}
+
+		// Long.MIN_VALUE on overflow
+		private static long multiply(long first, long second) {
+			long result = first * second;
+			long absFirst = Math.abs(first);
+			long absSecond = Math.abs(second);
+			if (((absFirst | absSecond) >>> 31 != 0)) {
+				// same check as Math.multiplyExact, without exception
+				if ((second != 0 && result / second != first) || (first == Long.MIN_VALUE && second == -1)) {
+					return Long.MIN_VALUE;
+				}
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * number as primitive double, see {@link de.flapdoodle.eval.example.Defaults#doubleExpressionFactory()}
+	 */
+	@org.immutables.value.Value.Immutable
+	public static abstract class DoubleValue extends Value<Double> implements Comparable<DoubleValue> {
+		public abstract double value();
+
+		@Override
+		public Double wrapped() {
+			return value();
+		}
+
+		@org.immutables.value.Value.Auxiliary
+		@Override
+		public int compareTo(DoubleValue other) {
+			return Double.compare(value(), other.value());
+		}
+
+		@Override
+		@org.immutables.value.Value.Auxiliary
+		public String toString() {
+			return Double.toString(value());
+		}
 	}
 
 	@org.immutables.value.Value.Immutable
@@ -132,7 +311,33 @@ public abstract class Value<T> {
 	}
 
 	public static NumberValue of(BigDecimal value) {
-		return ImmutableNumberValue.of(value);
+		if (value.precision() <= 18) {
+			// at most 18 digits always fit into a long
+			return compact(value.unscaledValue().longValue(), value);
+		}
+		BigInteger unscaled = value.unscaledValue();
+		return unscaled.bitLength() < 64 && unscaled.longValue() != Long.MIN_VALUE
+			? compact(unscaled.longValue(), value)
+			: ImmutableNumberValue.builder()
+				.unscaled(0)
+				.scale(value.scale())
+				.big(value)
+				.build();
+	}
+
+	private static NumberValue compact(long unscaled, BigDecimal source) {
+		return ImmutableNumberValue.builder()
+			.unscaled(unscaled)
+			.scale(source.scale())
+			.source(source)
+			.build();
+	}
+
+	private static NumberValue compact(long unscaled, int scale) {
+		return ImmutableNumberValue.builder()
+			.unscaled(unscaled)
+			.scale(scale)
+			.build();
 	}
 
 	public static NumberValue of(double value) {
@@ -142,6 +347,21 @@ public abstract class Value<T> {
 		return Value.of(BigDecimal.valueOf(value));
 	}
 
+	/**
+	 * same as {@link #of(BigDecimal)} with {@link BigDecimal#valueOf(long)}
+	 */
+	public static NumberValue ofLong(long value) {
+		return value != Long.MIN_VALUE
+			? compact(value, 0)
+			: of(BigDecimal.valueOf(value));
+	}
+
+	public static DoubleValue ofDouble(double value) {
+		return ImmutableDoubleValue.builder()
+			.value(value)
+			.build();
+	}
+
 	private static NullValue NULL = ImmutableNullValue.builder().build();
 
 	public static NullValue ofNull() {
@@ -189,6 +409,17 @@ public abstract class Value<T> {
 		return of(Values.of(Arrays.asList(array)));
 	}
 
+	/**
+	 * true if the evaluated value is true, for {@link de.flapdoodle.eval.core.Expression#asPredicate(java.util.function.Predicate)}
+	 */
+	public static boolean isTrue(Evaluated<?> evaluated) {
+		Object wrapped = evaluated.wrapped();
+		if (wrapped instanceof BooleanValue) {
+			return ((BooleanValue) wrapped).wrapped();
+		}
+		throw new IllegalArgumentException("not a boolean: " + wrapped);
+	}
+
 	public static Value<?> failedWith(EvaluationException rx) {
 		return ImmutableFailedWithException.builder()
 			.exception(rx)
@@ -31,13 +31,22 @@ public class Abs extends TypedEvaluables.Wrapper {
 		@Override
 		public Value.NumberValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.NumberValue first) throws EvaluationException {
 
-			return Value.of(first.wrapped().abs(evaluationContext.mathContext()));
+			return first.abs(evaluationContext.mathContext());
+		}
+	}
+
+	public static class DoubleNumber implements TypedEvaluable.Arg1<Value.DoubleValue, Value.DoubleValue> {
+
+		@Override
+		public Value.DoubleValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.DoubleValue first) throws EvaluationException {
+			return Value.ofDouble(Math.abs(first.value()));
 		}
 	}
 
 	public Abs() {
 		super(TypedEvaluables.builder()
 			.addList(TypedEvaluable.of(Value.NumberValue.class, Value.NumberValue.class, new Number()))
+			.addList(TypedEvaluable.of(Value.DoubleValue.class, Value.DoubleValue.class, new DoubleNumber()))
 			.build());
 	}
 }
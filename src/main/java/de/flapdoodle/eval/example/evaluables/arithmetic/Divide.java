@@ -18,10 +18,12 @@ package de.flapdoodle.eval.example.evaluables.arithmetic;
 
 import de.flapdoodle.eval.core.EvaluationContext;
 import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Kernel;
 import de.flapdoodle.eval.core.evaluables.TypedEvaluable;
 import de.flapdoodle.eval.core.evaluables.TypedEvaluables;
 import de.flapdoodle.eval.core.exceptions.EvaluationException;
 import de.flapdoodle.eval.core.parser.Token;
+import de.flapdoodle.eval.example.Primitives;
 import de.flapdoodle.eval.example.Value;
 
 import java.math.BigDecimal;
@@ -42,9 +44,32 @@ public class Divide extends TypedEvaluables.Wrapper {
 		}
 	}
 
+	public static class DoubleNumber implements TypedEvaluable.Arg2<Value.DoubleValue, Value.DoubleValue, Value.DoubleValue> {
+
+		@Override
+		public Value.DoubleValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.DoubleValue first,
+										  Value.DoubleValue second) throws EvaluationException {
+			if (second.value() == 0.0) {
+				throw new EvaluationException(token, "Division by zero");
+			}
+			return Value.ofDouble(first.value() / second.value());
+		}
+	}
+
+	// division by zero fails, so the evaluable is called for each row
+	private static double divide(double first, double second) {
+		if (second == 0.0) {
+			throw new ArithmeticException("Division by zero");
+		}
+		return first / second;
+	}
+
 	public Divide() {
 		super(TypedEvaluables.builder()
 			.addList(TypedEvaluable.of(Value.NumberValue.class, Value.NumberValue.class, Value.NumberValue.class, new Number()))
+			.addList(TypedEvaluable.of(Value.DoubleValue.class, Value.DoubleValue.class, Value.DoubleValue.class, new DoubleNumber())
+				.withKernel(Kernel.of(Primitives.DOUBLE, Divide::divide)))
+			.addAllList(Widening.toDouble(Value.DoubleValue.class, new DoubleNumber()))
 			.build());
 	}
 }
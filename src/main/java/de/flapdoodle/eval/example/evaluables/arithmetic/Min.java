@@ -24,7 +24,6 @@ import de.flapdoodle.eval.core.exceptions.EvaluationException;
 import de.flapdoodle.eval.core.parser.Token;
 import de.flapdoodle.eval.example.Value;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 public class Min extends TypedEvaluables.Wrapper {
@@ -32,19 +31,33 @@ public class Min extends TypedEvaluables.Wrapper {
 	public static class Number implements TypedEvaluable.VarArg1<Value.NumberValue, Value.NumberValue> {
 		@Override
 		public Value.NumberValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, List<Value.NumberValue> arguments) throws EvaluationException {
-			BigDecimal max = null;
+			Value.NumberValue max = null;
 			for (Value.NumberValue parameter : arguments) {
-				if (max == null || parameter.wrapped().compareTo(max) < 0) {
-					max = parameter.wrapped();
+				if (max == null || parameter.compareTo(max) < 0) {
+					max = parameter;
 				}
 			}
-			return Value.of(max);
+			return max;
+		}
+	}
+
+	public static class DoubleNumber implements TypedEvaluable.VarArg1<Value.DoubleValue, Value.DoubleValue> {
+
+		@Override
+		public Value.DoubleValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, List<Value.DoubleValue> arguments)
+			throws EvaluationException {
+			double min = arguments.get(0).value();
+			for (int i = 1; i < arguments.size(); i++) {
+				min = Math.min(min, arguments.get(i).value());
+			}
+			return Value.ofDouble(min);
 		}
 	}
 
 	public Min() {
 		super(TypedEvaluables.builder()
 			.addList(TypedEvaluable.ofVarArg(Value.NumberValue.class, Value.NumberValue.class, new Number()))
+			.addList(TypedEvaluable.ofVarArg(Value.DoubleValue.class, Value.DoubleValue.class, new DoubleNumber()))
 			.build());
 	}
 }
@@ -18,10 +18,12 @@ package de.flapdoodle.eval.example.evaluables.arithmetic;
 
 import de.flapdoodle.eval.core.EvaluationContext;
 import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Kernel;
 import de.flapdoodle.eval.core.evaluables.TypedEvaluable;
 import de.flapdoodle.eval.core.evaluables.TypedEvaluables;
 import de.flapdoodle.eval.core.exceptions.EvaluationException;
 import de.flapdoodle.eval.core.parser.Token;
+import de.flapdoodle.eval.example.Primitives;
 import de.flapdoodle.eval.example.Value;
 
 import java.time.Duration;
@@ -33,7 +35,16 @@ public class Minus extends TypedEvaluables.Wrapper {
 		@Override
 		public Value.NumberValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.NumberValue first,
 										  Value.NumberValue second) throws EvaluationException {
-			return Value.of(first.wrapped().subtract(second.wrapped(), evaluationContext.mathContext()));
+			return first.subtract(second, evaluationContext.mathContext());
+		}
+	}
+
+	public static class DoubleNumber implements TypedEvaluable.Arg2<Value.DoubleValue, Value.DoubleValue, Value.DoubleValue> {
+
+		@Override
+		public Value.DoubleValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.DoubleValue first,
+										  Value.DoubleValue second) throws EvaluationException {
+			return Value.ofDouble(first.value() - second.value());
 		}
 	}
 
@@ -77,18 +88,31 @@ public class Minus extends TypedEvaluables.Wrapper {
 
 		@Override
 		public Value.NumberValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.NumberValue first) throws EvaluationException {
-			return Value.of(first.wrapped().negate(evaluationContext.mathContext()));
+			return first.negate(evaluationContext.mathContext());
+		}
+	}
+
+	public static class NegateDouble implements TypedEvaluable.Arg1<Value.DoubleValue, Value.DoubleValue> {
+
+		@Override
+		public Value.DoubleValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.DoubleValue first) throws EvaluationException {
+			return Value.ofDouble(-first.value());
 		}
 	}
 
 	public Minus() {
 		super(TypedEvaluables.builder()
-			.addList(TypedEvaluable.of(Value.NumberValue.class, Value.NumberValue.class, Value.NumberValue.class, new Number()))
+			.addList(TypedEvaluable.of(Value.NumberValue.class, Value.NumberValue.class, Value.NumberValue.class, new Number())
+				.withKernel(Kernel.of(Primitives.LONG, Math::subtractExact).when(Primitives::exactLongArithmetic)))
+			.addList(TypedEvaluable.of(Value.DoubleValue.class, Value.DoubleValue.class, Value.DoubleValue.class, new DoubleNumber())
+				.withKernel(Kernel.of(Primitives.DOUBLE, (a, b) -> a - b)))
+			.addAllList(Widening.toDouble(Value.DoubleValue.class, new DoubleNumber()))
 			.addList(TypedEvaluable.of(Value.DateTimeValue.class, Value.DateTimeValue.class, Value.DurationValue.class, new DateTimeDuration()))
 			.addList(TypedEvaluable.of(Value.DurationValue.class, Value.DateTimeValue.class, Value.DateTimeValue.class, new DateTimeDateTime()))
 			.addList(TypedEvaluable.of(Value.DurationValue.class, Value.DurationValue.class, Value.DurationValue.class, new Durations()))
 			.addList(TypedEvaluable.of(Value.DateTimeValue.class, Value.DateTimeValue.class, Value.NumberValue.class, new DateTimeNumber()))
 			.addList(TypedEvaluable.of(Value.NumberValue.class, Value.NumberValue.class, new Negate()))
+			.addList(TypedEvaluable.of(Value.DoubleValue.class, Value.DoubleValue.class, new NegateDouble()))
 			.build());
 	}
 }
@@ -44,10 +44,24 @@ public class Modulo extends TypedEvaluables.Wrapper {
 		}
 	}
 
+	public static class DoubleNumber implements TypedEvaluable.Arg2<Value.DoubleValue, Value.DoubleValue, Value.DoubleValue> {
+
+		@Override
+		public Value.DoubleValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.DoubleValue first,
+										  Value.DoubleValue second) throws EvaluationException {
+			if (second.value() == 0.0) {
+				throw new EvaluationException(token, "Division by zero");
+			}
+			return Value.ofDouble(first.value() % second.value());
+		}
+	}
+
 	public Modulo() {
 		super(TypedEvaluables.builder()
 			.addList(TypedEvaluable.of(Value.NumberValue.class, Parameter.of(Value.NumberValue.class), Parameter.of(Value.NumberValue.class)
 					.withValidators(NumberValidator.isNot(BigDecimal.ZERO,"Division by zero")), new Number()))
+			.addList(TypedEvaluable.of(Value.DoubleValue.class, Value.DoubleValue.class, Value.DoubleValue.class, new DoubleNumber()))
+			.addAllList(Widening.toDouble(Value.DoubleValue.class, new DoubleNumber()))
 			.build());
 	}
 }
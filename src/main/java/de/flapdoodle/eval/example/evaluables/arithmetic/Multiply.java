@@ -18,10 +18,12 @@ package de.flapdoodle.eval.example.evaluables.arithmetic;
 
 import de.flapdoodle.eval.core.EvaluationContext;
 import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Kernel;
 import de.flapdoodle.eval.core.evaluables.TypedEvaluable;
 import de.flapdoodle.eval.core.evaluables.TypedEvaluables;
 import de.flapdoodle.eval.core.exceptions.EvaluationException;
 import de.flapdoodle.eval.core.parser.Token;
+import de.flapdoodle.eval.example.Primitives;
 import de.flapdoodle.eval.example.Value;
 
 public class Multiply extends TypedEvaluables.Wrapper {
@@ -31,13 +33,26 @@ public class Multiply extends TypedEvaluables.Wrapper {
 		@Override
 		public Value.NumberValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.NumberValue first,
 										  Value.NumberValue second) throws EvaluationException {
-			return Value.of(first.wrapped().multiply(second.wrapped(), evaluationContext.mathContext()));
+			return first.multiply(second, evaluationContext.mathContext());
+		}
+	}
+
+	public static class DoubleNumber implements TypedEvaluable.Arg2<Value.DoubleValue, Value.DoubleValue, Value.DoubleValue> {
+
+		@Override
+		public Value.DoubleValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.DoubleValue first,
+										  Value.DoubleValue second) throws EvaluationException {
+			return Value.ofDouble(first.value() * second.value());
 		}
 	}
 
 	public Multiply() {
 		super(TypedEvaluables.builder()
-			.addList(TypedEvaluable.of(Value.NumberValue.class, Value.NumberValue.class, Value.NumberValue.class, new Number()))
+			.addList(TypedEvaluable.of(Value.NumberValue.class, Value.NumberValue.class, Value.NumberValue.class, new Number())
+				.withKernel(Kernel.of(Primitives.LONG, Math::multiplyExact).when(Primitives::exactLongArithmetic)))
+			.addList(TypedEvaluable.of(Value.DoubleValue.class, Value.DoubleValue.class, Value.DoubleValue.class, new DoubleNumber())
+				.withKernel(Kernel.of(Primitives.DOUBLE, (a, b) -> a * b)))
+			.addAllList(Widening.toDouble(Value.DoubleValue.class, new DoubleNumber()))
 			.build());
 	}
 }
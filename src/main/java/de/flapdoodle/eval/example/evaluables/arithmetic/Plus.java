@@ -18,10 +18,12 @@ package de.flapdoodle.eval.example.evaluables.arithmetic;
 
 import de.flapdoodle.eval.core.EvaluationContext;
 import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Kernel;
 import de.flapdoodle.eval.core.evaluables.TypedEvaluable;
 import de.flapdoodle.eval.core.evaluables.TypedEvaluables;
 import de.flapdoodle.eval.core.exceptions.EvaluationException;
 import de.flapdoodle.eval.core.parser.Token;
+import de.flapdoodle.eval.example.Primitives;
 import de.flapdoodle.eval.example.Value;
 
 import java.math.BigDecimal;
@@ -35,7 +37,16 @@ public class Plus extends TypedEvaluables.Wrapper {
 		@Override
 		public Value.NumberValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.NumberValue first,
 										  Value.NumberValue second) throws EvaluationException {
-			return Value.of(first.wrapped().add(second.wrapped(), evaluationContext.mathContext()));
+			return first.add(second, evaluationContext.mathContext());
+		}
+	}
+
+	public static class DoubleNumber implements TypedEvaluable.Arg2<Value.DoubleValue, Value.DoubleValue, Value.DoubleValue> {
+
+		@Override
+		public Value.DoubleValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.DoubleValue first,
+										  Value.DoubleValue second) throws EvaluationException {
+			return Value.ofDouble(first.value() + second.value());
 		}
 	}
 
@@ -88,24 +99,41 @@ public class Plus extends TypedEvaluables.Wrapper {
 		@Override
 		public Value.NumberValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, List<Value.NumberValue> arguments)
 			throws EvaluationException {
-			BigDecimal sum = BigDecimal.ZERO;
+			Value.NumberValue sum = Value.of(BigDecimal.ZERO);
 			for (Value.NumberValue parameter : arguments) {
-				sum = sum.add(parameter.wrapped(), evaluationContext.mathContext());
+				sum = sum.add(parameter, evaluationContext.mathContext());
 			}
-			return Value.of(sum);
+			return sum;
 		}
 	}
 
+	public static class DoubleSum implements TypedEvaluable.VarArg1<Value.DoubleValue, Value.DoubleValue> {
+
+		@Override
+		public Value.DoubleValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, List<Value.DoubleValue> arguments)
+			throws EvaluationException {
+			double sum = 0.0;
+			for (Value.DoubleValue parameter : arguments) {
+				sum += parameter.value();
+			}
+			return Value.ofDouble(sum);
+		}
+	}
 
 	public Plus() {
 		super(TypedEvaluables.builder()
-			.addList(TypedEvaluable.of(Value.NumberValue.class, Value.NumberValue.class, Value.NumberValue.class, new Number()))
+			.addList(TypedEvaluable.of(Value.NumberValue.class, Value.NumberValue.class, Value.NumberValue.class, new Number())
+				.withKernel(Kernel.of(Primitives.LONG, Math::addExact).when(Primitives::exactLongArithmetic)))
+			.addList(TypedEvaluable.of(Value.DoubleValue.class, Value.DoubleValue.class, Value.DoubleValue.class, new DoubleNumber())
+				.withKernel(Kernel.of(Primitives.DOUBLE, (a, b) -> a + b)))
+			.addAllList(Widening.toDouble(Value.DoubleValue.class, new DoubleNumber()))
 			.addList(TypedEvaluable.of(Value.DateTimeValue.class, Value.DateTimeValue.class, Value.DurationValue.class, new DateTimeDuration()))
 			.addList(TypedEvaluable.of(Value.DurationValue.class, Value.DurationValue.class, Value.DurationValue.class, new Durations()))
 			.addList(TypedEvaluable.of(Value.DateTimeValue.class, Value.DateTimeValue.class, Value.NumberValue.class, new DateTimeNumber()))
 			.addList(TypedEvaluable.of(Value.StringValue.class, Value.class, Value.class, new ToString<>()))
 //			.addList(TypedEvaluable.of(Value.NumberValue.class, Value.NumberValue.class, new Prefix()))
 			.addList(TypedEvaluable.ofVarArg(Value.NumberValue.class, Value.NumberValue.class, new Sum()))
+			.addList(TypedEvaluable.ofVarArg(Value.DoubleValue.class, Value.DoubleValue.class, new DoubleSum()))
 			.build());
 	}
 }
@@ -48,8 +48,8 @@ public class Random extends TypedEvaluables.Wrapper {
 
     public Random() {
         super(TypedEvaluables.builder()
-                .addList(TypedEvaluable.of(Value.NumberValue.class, new Number()))
-                .addList(TypedEvaluable.of(Value.NumberValue.class,Value.NumberValue.class,Value.NumberValue.class, new NumberRange()))
+                .addList(TypedEvaluable.of(Value.NumberValue.class, new Number()).nonDeterministic())
+                .addList(TypedEvaluable.of(Value.NumberValue.class,Value.NumberValue.class,Value.NumberValue.class, new NumberRange()).nonDeterministic())
                 .build());
     }
 }
@@ -301,10 +301,19 @@ public class Sqrt extends TypedEvaluables.Wrapper {
 		}
 	}
 
+	public static class DoubleNumber implements TypedEvaluable.Arg1<Value.DoubleValue, Value.DoubleValue> {
+
+		@Override
+		public Value.DoubleValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.DoubleValue argument) throws EvaluationException {
+			return Value.ofDouble(Math.sqrt(argument.value()));
+		}
+	}
+
 	public Sqrt() {
 		super(TypedEvaluables.builder()
 			.addList(TypedEvaluable.of(Value.NumberValue.class, Parameter.of(Value.NumberValue.class)
 					.withValidators(NumberValidator.greaterOrEqualThan(BigDecimal.ZERO)), new Number()))
+			.addList(TypedEvaluable.of(Value.DoubleValue.class, Value.DoubleValue.class, new DoubleNumber()))
 			.build());
 	}
 }
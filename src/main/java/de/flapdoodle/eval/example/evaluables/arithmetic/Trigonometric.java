@@ -28,8 +28,8 @@ import de.flapdoodle.eval.example.Value;
 import de.flapdoodle.eval.example.evaluables.validation.NumberValidator;
 
 import java.math.BigDecimal;
-import java.util.function.BiFunction;
-import java.util.function.Function;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
 
 public class Trigonometric extends TypedEvaluables.Wrapper {
 
@@ -38,28 +38,54 @@ public class Trigonometric extends TypedEvaluables.Wrapper {
     }
 
     protected abstract static class AbstractTransformation implements TypedEvaluable.Arg1<Value.NumberValue, Value.NumberValue> {
-        private final Function<Double, Double> transformation;
+        private final DoubleUnaryOperator transformation;
 
-        public AbstractTransformation(Function<Double, Double> transformation) {
+        public AbstractTransformation(DoubleUnaryOperator transformation) {
             this.transformation = transformation;
         }
 
         @Override
         public final Value.NumberValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.NumberValue argument) throws EvaluationException {
-            return Value.of(transformation.apply(argument.wrapped().doubleValue()));
+            return Value.of(transformation.applyAsDouble(argument.wrapped().doubleValue()));
+        }
+    }
+
+    private static final class DoubleTransformation implements TypedEvaluable.Arg1<Value.DoubleValue, Value.DoubleValue> {
+        private final DoubleUnaryOperator transformation;
+
+        private DoubleTransformation(DoubleUnaryOperator transformation) {
+            this.transformation = transformation;
+        }
+
+        @Override
+        public Value.DoubleValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.DoubleValue argument) throws EvaluationException {
+            return Value.ofDouble(transformation.applyAsDouble(argument.value()));
         }
     }
 
     protected abstract static class AbstractMerge implements TypedEvaluable.Arg2<Value.NumberValue, Value.NumberValue, Value.NumberValue> {
-        private final BiFunction<Double, Double, Double> merge;
+        private final DoubleBinaryOperator merge;
 
-        public AbstractMerge(BiFunction<Double, Double, Double> merge) {
+        public AbstractMerge(DoubleBinaryOperator merge) {
             this.merge = merge;
         }
 
         @Override
         public final Value.NumberValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.NumberValue first, Value.NumberValue second) throws EvaluationException {
-            return Value.of(merge.apply(first.wrapped().doubleValue(), second.wrapped().doubleValue()));
+            return Value.of(merge.applyAsDouble(first.wrapped().doubleValue(), second.wrapped().doubleValue()));
+        }
+    }
+
+    private static final class DoubleMerge implements TypedEvaluable.Arg2<Value.DoubleValue, Value.DoubleValue, Value.DoubleValue> {
+        private final DoubleBinaryOperator merge;
+
+        private DoubleMerge(DoubleBinaryOperator merge) {
+            this.merge = merge;
+        }
+
+        @Override
+        public Value.DoubleValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.DoubleValue first, Value.DoubleValue second) throws EvaluationException {
+            return Value.ofDouble(merge.applyAsDouble(first.value(), second.value()));
         }
     }
 
@@ -68,12 +94,14 @@ public class Trigonometric extends TypedEvaluables.Wrapper {
         return new Trigonometric(TypedEvaluables.builder()
                 .addList(TypedEvaluable.of(Value.NumberValue.class, Parameter.of(Value.NumberValue.class)
                         .withValidators(validators), transformation))
+                .addList(TypedEvaluable.of(Value.DoubleValue.class, Value.DoubleValue.class, new DoubleTransformation(transformation.transformation)))
                 .build());
     }
 
     private static Trigonometric of(AbstractMerge transformation) {
         return new Trigonometric(TypedEvaluables.builder()
                 .addList(TypedEvaluable.of(Value.NumberValue.class, Value.NumberValue.class, Value.NumberValue.class, transformation))
+                .addList(TypedEvaluable.of(Value.DoubleValue.class, Value.DoubleValue.class, Value.DoubleValue.class, new DoubleMerge(transformation.merge)))
                 .build());
     }
 
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.example.evaluables.arithmetic;
+
+import de.flapdoodle.eval.core.evaluables.TypedEvaluable;
+import de.flapdoodle.eval.example.Value;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * signatures for a {@link Value.NumberValue} mixed with a {@link Value.DoubleValue}, the number is widened to double,
+ * so that decimal variables work in {@link de.flapdoodle.eval.example.Defaults#doubleExpressionFactory()} expressions
+ */
+public final class Widening {
+
+	private Widening() {
+		// no instance
+	}
+
+	public static <T> List<TypedEvaluable<?>> toDouble(Class<T> returnType, TypedEvaluable.Arg2<Value.DoubleValue, Value.DoubleValue, T> function) {
+		return Arrays.asList(
+			TypedEvaluable.of(returnType, Value.NumberValue.class, Value.DoubleValue.class,
+				(variableResolver, evaluationContext, token, first, second) -> function.evaluate(variableResolver, evaluationContext, token, asDouble(first), second)),
+			TypedEvaluable.of(returnType, Value.DoubleValue.class, Value.NumberValue.class,
+				(variableResolver, evaluationContext, token, first, second) -> function.evaluate(variableResolver, evaluationContext, token, first, asDouble(second))));
+	}
+
+	public static Value.DoubleValue asDouble(Value.NumberValue value) {
+		return Value.ofDouble(value.wrapped().doubleValue());
+	}
+}
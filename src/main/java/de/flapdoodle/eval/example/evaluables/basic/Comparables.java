@@ -18,12 +18,17 @@ package de.flapdoodle.eval.example.evaluables.basic;
 
 import de.flapdoodle.eval.core.EvaluationContext;
 import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Kernel;
 import de.flapdoodle.eval.core.evaluables.TypedEvaluable;
 import de.flapdoodle.eval.core.evaluables.TypedEvaluables;
 import de.flapdoodle.eval.core.exceptions.EvaluationException;
 import de.flapdoodle.eval.core.parser.Token;
+import de.flapdoodle.eval.example.Primitives;
 import de.flapdoodle.eval.example.Value;
+import de.flapdoodle.eval.example.evaluables.arithmetic.Widening;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Predicate;
 
 public class Comparables extends TypedEvaluables.Wrapper {
@@ -46,6 +51,23 @@ public class Comparables extends TypedEvaluables.Wrapper {
         }
     }
 
+    /**
+     * compares with the primitive operators, so any comparison with NaN is false and -0.0 equals 0.0
+     */
+    private static class CompareDouble implements TypedEvaluable.Arg2<Value.DoubleValue, Value.DoubleValue, Value.BooleanValue> {
+
+        private final Kernel.DoubleRelation relation;
+
+        public CompareDouble(Kernel.DoubleRelation relation) {
+            this.relation = relation;
+        }
+
+        @Override
+        public Value.BooleanValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.DoubleValue first, Value.DoubleValue second) throws EvaluationException {
+            return Value.of(relation.test(first.value(), second.value()));
+        }
+    }
+
     public static class Greater<T extends Comparable<T>> extends Compare<T> {
 
         public Greater() {
@@ -74,9 +96,24 @@ public class Comparables extends TypedEvaluables.Wrapper {
         }
     }
 
+    private static TypedEvaluable<Value.BooleanValue> numbers(Compare<Value.NumberValue> compare, Kernel.LongRelation relation) {
+        return TypedEvaluable.of(Value.BooleanValue.class, Value.NumberValue.class, Value.NumberValue.class, compare)
+                .withKernel(Kernel.of(Primitives.LONG, relation, Primitives.BOOLEAN));
+    }
+
+    private static List<TypedEvaluable<?>> doubles(Kernel.DoubleRelation relation) {
+        CompareDouble compare = new CompareDouble(relation);
+        List<TypedEvaluable<?>> signatures = new ArrayList<>();
+        signatures.add(TypedEvaluable.of(Value.BooleanValue.class, Value.DoubleValue.class, Value.DoubleValue.class, compare)
+                .withKernel(Kernel.of(Primitives.DOUBLE, relation, Primitives.BOOLEAN)));
+        signatures.addAll(Widening.toDouble(Value.BooleanValue.class, compare));
+        return signatures;
+    }
+
     public static Comparables less() {
         return new Comparables(TypedEvaluables.builder()
-                .addList(TypedEvaluable.of(Value.BooleanValue.class, Value.NumberValue.class, Value.NumberValue.class, new Less<>()))
+                .addList(numbers(new Less<>(), (a, b) -> a < b))
+                .addAllList(doubles((a, b) -> a < b))
                 .addList(TypedEvaluable.of(Value.BooleanValue.class, Value.StringValue.class, Value.StringValue.class, new Less<>()))
                 .addList(TypedEvaluable.of(Value.BooleanValue.class, Value.DateTimeValue.class, Value.DateTimeValue.class, new Less<>()))
                 .addList(TypedEvaluable.of(Value.BooleanValue.class, Value.DurationValue.class, Value.DurationValue.class, new Less<>()))
@@ -85,7 +122,8 @@ public class Comparables extends TypedEvaluables.Wrapper {
 
     public static Comparables lessOrEqual() {
         return new Comparables(TypedEvaluables.builder()
-                .addList(TypedEvaluable.of(Value.BooleanValue.class, Value.NumberValue.class, Value.NumberValue.class, new LessOrEqual<>()))
+                .addList(numbers(new LessOrEqual<>(), (a, b) -> a <= b))
+                .addAllList(doubles((a, b) -> a <= b))
                 .addList(TypedEvaluable.of(Value.BooleanValue.class, Value.StringValue.class, Value.StringValue.class, new LessOrEqual<>()))
                 .addList(TypedEvaluable.of(Value.BooleanValue.class, Value.DateTimeValue.class, Value.DateTimeValue.class, new LessOrEqual<>()))
                 .addList(TypedEvaluable.of(Value.BooleanValue.class, Value.DurationValue.class, Value.DurationValue.class, new LessOrEqual<>()))
@@ -94,7 +132,8 @@ public class Comparables extends TypedEvaluables.Wrapper {
 
     public static Comparables greater() {
         return new Comparables(TypedEvaluables.builder()
-                .addList(TypedEvaluable.of(Value.BooleanValue.class, Value.NumberValue.class, Value.NumberValue.class, new Greater<>()))
+                .addList(numbers(new Greater<>(), (a, b) -> a > b))
+                .addAllList(doubles((a, b) -> a > b))
                 .addList(TypedEvaluable.of(Value.BooleanValue.class, Value.StringValue.class, Value.StringValue.class, new Greater<>()))
                 .addList(TypedEvaluable.of(Value.BooleanValue.class, Value.DateTimeValue.class, Value.DateTimeValue.class, new Greater<>()))
                 .addList(TypedEvaluable.of(Value.BooleanValue.class, Value.DurationValue.class, Value.DurationValue.class, new Greater<>()))
@@ -103,7 +142,8 @@ public class Comparables extends TypedEvaluables.Wrapper {
 
     public static Comparables greaterOrEqual() {
         return new Comparables(TypedEvaluables.builder()
-                .addList(TypedEvaluable.of(Value.BooleanValue.class, Value.NumberValue.class, Value.NumberValue.class, new GreaterOrEqual<>()))
+                .addList(numbers(new GreaterOrEqual<>(), (a, b) -> a >= b))
+                .addAllList(doubles((a, b) -> a >= b))
                 .addList(TypedEvaluable.of(Value.BooleanValue.class, Value.StringValue.class, Value.StringValue.class, new GreaterOrEqual<>()))
                 .addList(TypedEvaluable.of(Value.BooleanValue.class, Value.DateTimeValue.class, Value.DateTimeValue.class, new GreaterOrEqual<>()))
                 .addList(TypedEvaluable.of(Value.BooleanValue.class, Value.DurationValue.class, Value.DurationValue.class, new GreaterOrEqual<>()))
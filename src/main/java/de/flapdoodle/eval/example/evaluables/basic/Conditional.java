@@ -18,6 +18,9 @@ package de.flapdoodle.eval.example.evaluables.basic;
 
 import de.flapdoodle.eval.core.EvaluationContext;
 import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.ArgumentSelector;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.evaluables.Lazy;
 import de.flapdoodle.eval.core.evaluables.Parameter;
 import de.flapdoodle.eval.core.evaluables.TypedEvaluable;
 import de.flapdoodle.eval.core.evaluables.TypedEvaluables;
@@ -25,20 +28,44 @@ import de.flapdoodle.eval.core.exceptions.EvaluationException;
 import de.flapdoodle.eval.core.parser.Token;
 import de.flapdoodle.eval.example.Value;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+
 public class Conditional extends TypedEvaluables.Wrapper {
 
-    public static class IfTrue<SUB extends Value<?>> implements TypedEvaluable.Arg3<Value.BooleanValue, SUB, SUB, SUB> {
+    public static class IfTrue<SUB extends Value<?>> implements TypedEvaluable.Arg3<Value.BooleanValue, Lazy<SUB>, Lazy<SUB>, SUB>,
+        TypedEvaluable.AsyncArg3<Value.BooleanValue, Lazy<SUB>, Lazy<SUB>, SUB> {
+
+        @Override
+        public SUB evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.BooleanValue first, Lazy<SUB> second, Lazy<SUB> third) throws EvaluationException {
+            return first.wrapped() ? second.get() : third.get();
+        }
+
+        @Override
+        public CompletableFuture<SUB> evaluateAsync(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.BooleanValue first, Lazy<SUB> second, Lazy<SUB> third) {
+            return first.wrapped() ? second.getAsync() : third.getAsync();
+        }
+    }
+
+    public static class SelectBranch implements ArgumentSelector {
 
         @Override
-        public SUB evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.BooleanValue first, SUB second, SUB third) throws EvaluationException {
-            return first.wrapped() ? second : third;
+        public OptionalInt select(List<Optional<Evaluated<?>>> arguments) {
+            return arguments.get(0)
+                .map(Evaluated::wrapped)
+                .filter(Value.BooleanValue.class::isInstance)
+                .map(condition -> ((Value.BooleanValue) condition).wrapped() ? OptionalInt.of(1) : OptionalInt.of(2))
+                .orElse(OptionalInt.empty());
         }
     }
 
     public Conditional() {
         super(TypedEvaluables.builder()
                 .addList(
-									TypedEvaluable.of(Value.class, Parameter.of(Value.BooleanValue.class), Parameter.lazyWith(Value.class), Parameter.lazyWith(Value.class), new IfTrue<>()))
+									TypedEvaluable.ofLazy(Value.class, Parameter.of(Value.BooleanValue.class), Parameter.lazyWith(Value.class), Parameter.lazyWith(Value.class), new IfTrue<>(), new IfTrue<>())
+										.withArgumentSelector(new SelectBranch()))
                 .build());
     }
 }
@@ -18,12 +18,15 @@ package de.flapdoodle.eval.example.evaluables.basic;
 
 import de.flapdoodle.eval.core.EvaluationContext;
 import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Kernel;
 import de.flapdoodle.eval.core.evaluables.TypedEvaluable;
 import de.flapdoodle.eval.core.evaluables.TypedEvaluableByNumberOfArguments;
 import de.flapdoodle.eval.core.evaluables.TypedEvaluables;
 import de.flapdoodle.eval.core.exceptions.EvaluationException;
 import de.flapdoodle.eval.core.parser.Token;
+import de.flapdoodle.eval.example.Primitives;
 import de.flapdoodle.eval.example.Value;
+import de.flapdoodle.eval.example.evaluables.arithmetic.Widening;
 
 import java.util.Objects;
 
@@ -45,19 +48,48 @@ public class Equals extends TypedEvaluables.Wrapper {
         }
     }
 
+    /**
+     * IEEE 754 equality: NaN is not equal to anything, -0.0 equals 0.0
+     */
+    public static class DoubleType implements TypedEvaluable.Arg2<Value.DoubleValue, Value.DoubleValue, Value.BooleanValue> {
+
+        @Override
+        public Value.BooleanValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.DoubleValue first, Value.DoubleValue second) throws EvaluationException {
+            return Value.of(first.value() == second.value());
+        }
+    }
+
+    public static class DoubleTypeNot implements TypedEvaluable.Arg2<Value.DoubleValue, Value.DoubleValue, Value.BooleanValue> {
+
+        @Override
+        public Value.BooleanValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.DoubleValue first, Value.DoubleValue second) throws EvaluationException {
+            return Value.of(first.value() != second.value());
+        }
+    }
+
     private Equals(TypedEvaluables delegate) {
         super(delegate);
     }
 
     public Equals() {
         this(TypedEvaluables.builder()
-                .addList(TypedEvaluable.of(Value.BooleanValue.class, Value.class, Value.class, new AnyType<>()))
+                .addList(TypedEvaluable.of(Value.BooleanValue.class, Value.DoubleValue.class, Value.DoubleValue.class, new DoubleType())
+                        .withKernel(Kernel.of(Primitives.DOUBLE, (a, b) -> a == b, Primitives.BOOLEAN)))
+                .addAllList(Widening.toDouble(Value.BooleanValue.class, new DoubleType()))
+                // numbers with scale 0 are equal if their long values are
+                .addList(TypedEvaluable.of(Value.BooleanValue.class, Value.class, Value.class, new AnyType<>())
+                        .withKernel(Kernel.of(Primitives.LONG, (a, b) -> a == b, Primitives.BOOLEAN)))
                 .build());
     }
 
     public static TypedEvaluableByNumberOfArguments not() {
         return new Equals(TypedEvaluables.builder()
-                .addList(TypedEvaluable.of(Value.BooleanValue.class, Value.class, Value.class, new AnyTypeNot<>()))
+                .addList(TypedEvaluable.of(Value.BooleanValue.class, Value.DoubleValue.class, Value.DoubleValue.class, new DoubleTypeNot())
+                        .withKernel(Kernel.of(Primitives.DOUBLE, (a, b) -> a != b, Primitives.BOOLEAN)))
+                .addAllList(Widening.toDouble(Value.BooleanValue.class, new DoubleTypeNot()))
+                // numbers with scale 0 are equal if their long values are
+                .addList(TypedEvaluable.of(Value.BooleanValue.class, Value.class, Value.class, new AnyTypeNot<>())
+                        .withKernel(Kernel.of(Primitives.LONG, (a, b) -> a != b, Primitives.BOOLEAN)))
                 .build());
     }
 }
@@ -18,26 +18,46 @@ package de.flapdoodle.eval.example.evaluables.booleans;
 
 import de.flapdoodle.eval.core.EvaluationContext;
 import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Lazy;
+import de.flapdoodle.eval.core.evaluables.Parameter;
 import de.flapdoodle.eval.core.evaluables.TypedEvaluable;
 import de.flapdoodle.eval.core.evaluables.TypedEvaluables;
 import de.flapdoodle.eval.core.exceptions.EvaluationException;
 import de.flapdoodle.eval.core.parser.Token;
 import de.flapdoodle.eval.example.Value;
 
+import java.util.concurrent.CompletableFuture;
+
 public class Combine extends TypedEvaluables.Wrapper {
-    public static class And implements TypedEvaluable.Arg2<Value.BooleanValue, Value.BooleanValue, Value.BooleanValue> {
+    public static class And implements TypedEvaluable.Arg2<Value.BooleanValue, Lazy<Value.BooleanValue>, Value.BooleanValue>,
+        TypedEvaluable.AsyncArg2<Value.BooleanValue, Lazy<Value.BooleanValue>, Value.BooleanValue> {
+
+        @Override
+        public Value.BooleanValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.BooleanValue first, Lazy<Value.BooleanValue> second) throws EvaluationException {
+            return Value.of(first.wrapped() && second.get().wrapped());
+        }
 
         @Override
-        public Value.BooleanValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.BooleanValue first, Value.BooleanValue second) throws EvaluationException {
-            return Value.of(first.wrapped() && second.wrapped());
+        public CompletableFuture<Value.BooleanValue> evaluateAsync(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.BooleanValue first, Lazy<Value.BooleanValue> second) {
+            return !first.wrapped()
+                ? CompletableFuture.completedFuture(first)
+                : second.getAsync().thenApply(it -> Value.of(it.wrapped()));
         }
     }
 
-    public static class Or implements TypedEvaluable.Arg2<Value.BooleanValue, Value.BooleanValue, Value.BooleanValue> {
+    public static class Or implements TypedEvaluable.Arg2<Value.BooleanValue, Lazy<Value.BooleanValue>, Value.BooleanValue>,
+        TypedEvaluable.AsyncArg2<Value.BooleanValue, Lazy<Value.BooleanValue>, Value.BooleanValue> {
+
+        @Override
+        public Value.BooleanValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.BooleanValue first, Lazy<Value.BooleanValue> second) throws EvaluationException {
+            return Value.of(first.wrapped() || second.get().wrapped());
+        }
 
         @Override
-        public Value.BooleanValue evaluate(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.BooleanValue first, Value.BooleanValue second) throws EvaluationException {
-            return Value.of(first.wrapped() || second.wrapped());
+        public CompletableFuture<Value.BooleanValue> evaluateAsync(VariableResolver variableResolver, EvaluationContext evaluationContext, Token token, Value.BooleanValue first, Lazy<Value.BooleanValue> second) {
+            return first.wrapped()
+                ? CompletableFuture.completedFuture(first)
+                : second.getAsync().thenApply(it -> Value.of(it.wrapped()));
         }
     }
 
@@ -47,13 +67,13 @@ public class Combine extends TypedEvaluables.Wrapper {
 
     public static Combine and() {
         return new Combine(TypedEvaluables.builder()
-                .addList(TypedEvaluable.of(Value.BooleanValue.class, Value.BooleanValue.class, Value.BooleanValue.class, new And()))
+                .addList(TypedEvaluable.ofLazy(Value.BooleanValue.class, Parameter.of(Value.BooleanValue.class), Parameter.lazyWith(Value.BooleanValue.class), new And(), new And()))
                 .build());
     }
 
     public static Combine or() {
         return new Combine(TypedEvaluables.builder()
-                .addList(TypedEvaluable.of(Value.BooleanValue.class, Value.BooleanValue.class, Value.BooleanValue.class, new Or()))
+                .addList(TypedEvaluable.ofLazy(Value.BooleanValue.class, Parameter.of(Value.BooleanValue.class), Parameter.lazyWith(Value.BooleanValue.class), new Or(), new Or()))
                 .build());
     }
 }
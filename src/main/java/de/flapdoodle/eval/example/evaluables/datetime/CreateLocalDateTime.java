@@ -80,24 +80,24 @@ public class CreateLocalDateTime extends TypedEvaluables.Wrapper {
         super(TypedEvaluables.builder()
                 .addList(TypedEvaluable.of(Value.DateTimeValue.class,
                         Parameter.of(Value.NumberValue.class).withValidators(year()), Parameter.of(Value.NumberValue.class).withValidators(month()), Parameter.of(Value.NumberValue.class).withValidators(dayOfMonth()),
-                        new With3Args()))
+                        new With3Args()).nonDeterministic())
                 .addList(TypedEvaluable.of(Value.DateTimeValue.class,
                         Parameter.of(Value.NumberValue.class).withValidators(year()), Parameter.of(Value.NumberValue.class).withValidators(month()), Parameter.of(Value.NumberValue.class).withValidators(dayOfMonth()),
                         Parameter.of(Value.NumberValue.class).withValidators(hourOfDay()),
-                        new With4Args()))
+                        new With4Args()).nonDeterministic())
                 .addList(TypedEvaluable.of(Value.DateTimeValue.class,
                         Parameter.of(Value.NumberValue.class).withValidators(year()), Parameter.of(Value.NumberValue.class).withValidators(month()), Parameter.of(Value.NumberValue.class).withValidators(dayOfMonth()),
                         Parameter.of(Value.NumberValue.class).withValidators(hourOfDay()), Parameter.of(Value.NumberValue.class).withValidators(minutes()),
-                        new With5Args()))
+                        new With5Args()).nonDeterministic())
                 .addList(TypedEvaluable.of(Value.DateTimeValue.class,
                         Parameter.of(Value.NumberValue.class).withValidators(year()), Parameter.of(Value.NumberValue.class).withValidators(month()), Parameter.of(Value.NumberValue.class).withValidators(dayOfMonth()),
                         Parameter.of(Value.NumberValue.class).withValidators(hourOfDay()), Parameter.of(Value.NumberValue.class).withValidators(minutes()), Parameter.of(Value.NumberValue.class).withValidators(seconds()),
-                        new With6Args()))
+                        new With6Args()).nonDeterministic())
                 .addList(TypedEvaluable.of(Value.DateTimeValue.class,
                         Parameter.of(Value.NumberValue.class).withValidators(year()), Parameter.of(Value.NumberValue.class).withValidators(month()), Parameter.of(Value.NumberValue.class).withValidators(dayOfMonth()),
                         Parameter.of(Value.NumberValue.class).withValidators(hourOfDay()), Parameter.of(Value.NumberValue.class).withValidators(minutes()), Parameter.of(Value.NumberValue.class).withValidators(seconds()),
                         Parameter.of(Value.NumberValue.class).withValidators(nano()),
-                        new With7Args()))
+                        new With7Args()).nonDeterministic())
                 .build());
     }
 
@@ -90,8 +90,8 @@ public class DateTimeParser extends TypedEvaluables.Wrapper {
 
     public DateTimeParser() {
         super(TypedEvaluables.builder()
-                .addList(TypedEvaluable.of(Value.DateTimeValue.class, Value.StringValue.class, new FromString()))
-                .addList(TypedEvaluable.of(Value.DateTimeValue.class, Value.StringValue.class, Value.StringValue.class, new WithFormat()))
+                .addList(TypedEvaluable.of(Value.DateTimeValue.class, Value.StringValue.class, new FromString()).nonDeterministic())
+                .addList(TypedEvaluable.of(Value.DateTimeValue.class, Value.StringValue.class, Value.StringValue.class, new WithFormat()).nonDeterministic())
                 .build());
     }
 }
@@ -50,8 +50,8 @@ public class FormatDateTime extends TypedEvaluables.Wrapper {
 
     public FormatDateTime() {
         super(TypedEvaluables.builder()
-                .addList(TypedEvaluable.of(Value.StringValue.class, Value.DateTimeValue.class, new ToString()))
-                .addList(TypedEvaluable.of(Value.StringValue.class, Value.DateTimeValue.class, Value.StringValue.class, new FormatString()))
+                .addList(TypedEvaluable.of(Value.StringValue.class, Value.DateTimeValue.class, new ToString()).nonDeterministic())
+                .addList(TypedEvaluable.of(Value.StringValue.class, Value.DateTimeValue.class, Value.StringValue.class, new FormatString()).nonDeterministic())
                 .build());
     }
 }
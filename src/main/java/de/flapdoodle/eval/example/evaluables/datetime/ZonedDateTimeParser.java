@@ -72,8 +72,8 @@ public class ZonedDateTimeParser extends TypedEvaluables.Wrapper {
 
     public ZonedDateTimeParser() {
         super(TypedEvaluables.builder()
-                .addList(TypedEvaluable.of(Value.DateTimeValue.class, Value.StringValue.class, new FromString()))
-                .addList(TypedEvaluable.of(Value.DateTimeValue.class, Value.StringValue.class, Value.StringValue.class, new WithFormat()))
+                .addList(TypedEvaluable.of(Value.DateTimeValue.class, Value.StringValue.class, new FromString()).nonDeterministic())
+                .addList(TypedEvaluable.of(Value.DateTimeValue.class, Value.StringValue.class, Value.StringValue.class, new WithFormat()).nonDeterministic())
                 .build());
     }
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ByteBufferInputTest {
+
+	@Test
+	void readLineLikeDataInputStream() throws IOException {
+		byte[] bytes = "first\nsecond\r\nthird\r\rlast".getBytes(StandardCharsets.ISO_8859_1);
+		ByteBufferInput testee = new ByteBufferInput(ByteBuffer.wrap(bytes), 0);
+		DataInputStream expected = new DataInputStream(new ByteArrayInputStream(bytes));
+
+		for (int i = 0; i < 6; i++) {
+			assertThat(testee.readLine()).isEqualTo(expected.readLine());
+		}
+		assertThat(testee.readLine()).isNull();
+	}
+
+	@Test
+	void readLineStartsAtPositionAndKeepsBufferPosition() throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap("skip\r\nline\nnext".getBytes(StandardCharsets.ISO_8859_1));
+		ByteBufferInput testee = new ByteBufferInput(buffer, 6);
+
+		assertThat(testee.readLine()).isEqualTo("line");
+		assertThat(testee.readByte()).isEqualTo((byte) 'n');
+		assertThat(buffer.position()).isEqualTo(0);
+	}
+}
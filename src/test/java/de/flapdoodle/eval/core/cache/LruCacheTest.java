@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LruCacheTest {
+
+	@Test
+	void loadOnlyOnceAndCountHits() {
+		LruCache<String, String> testee = new LruCache<>(10);
+		AtomicInteger loads = new AtomicInteger();
+
+		assertThat(testee.get("a", key -> key + loads.incrementAndGet())).isEqualTo("a1");
+		assertThat(testee.get("a", key -> key + loads.incrementAndGet())).isEqualTo("a1");
+		assertThat(testee.get("b", key -> key + loads.incrementAndGet())).isEqualTo("b2");
+
+		CacheStats stats = testee.stats();
+		assertThat(stats.size()).isEqualTo(2);
+		assertThat(stats.hitCount()).isEqualTo(1L);
+		assertThat(stats.missCount()).isEqualTo(2L);
+		assertThat(stats.evictionCount()).isEqualTo(0L);
+	}
+
+	@Test
+	void evictLeastRecentlyUsed() {
+		LruCache<String, String> testee = new LruCache<>(2);
+
+		testee.get("a", key -> key);
+		testee.get("b", key -> key);
+		testee.get("a", key -> key);
+		testee.get("c", key -> key);
+
+		AtomicInteger loads = new AtomicInteger();
+		testee.get("a", key -> key + loads.incrementAndGet());
+		assertThat(loads.get()).isEqualTo(0);
+		testee.get("b", key -> key + loads.incrementAndGet());
+		assertThat(loads.get()).isEqualTo(1);
+
+		CacheStats stats = testee.stats();
+		assertThat(stats.size()).isEqualTo(2);
+		assertThat(stats.evictionCount()).isEqualTo(2L);
+	}
+
+	@Test
+	void failedLoadIsNotCached() {
+		LruCache<String, String> testee = new LruCache<>(2);
+
+		assertThatThrownBy(() -> testee.get("a", key -> {
+			throw new IOException("failed");
+		}))
+			.isInstanceOf(IOException.class)
+			.hasMessage("failed");
+
+		assertThat(testee.get("a", key -> key)).isEqualTo("a");
+
+		CacheStats stats = testee.stats();
+		assertThat(stats.loadFailureCount()).isEqualTo(1L);
+		assertThat(stats.missCount()).isEqualTo(2L);
+	}
+
+	@Test
+	void concurrentRequestsForSameKeyLoadOnlyOnce() throws InterruptedException, ExecutionException {
+		LruCache<String, String> testee = new LruCache<>(10);
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			Future<String> first = executor.submit(() -> testee.get("a", key -> {
+				loads.incrementAndGet();
+				loading.countDown();
+				release.await();
+				return key;
+			}));
+			loading.await();
+
+			List<Future<String>> others = new ArrayList<>();
+			for (int i = 0; i < 7; i++) {
+				others.add(executor.submit(() -> testee.get("a", key -> key + loads.incrementAndGet())));
+			}
+			while (testee.stats().hitCount() < 7) {
+				Thread.yield();
+			}
+			release.countDown();
+
+			assertThat(first.get()).isEqualTo("a");
+			for (Future<String> other : others) {
+				assertThat(other.get()).isEqualTo("a");
+			}
+			assertThat(loads.get()).isEqualTo(1);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void concurrentHitsAndMissesKeepSizeBounded() throws InterruptedException, ExecutionException {
+		LruCache<Integer, String> testee = new LruCache<>(64);
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> workers = new ArrayList<>();
+			for (int w = 0; w < 8; w++) {
+				int seed = w;
+				workers.add(executor.submit(() -> {
+					for (int i = 0; i < 20000; i++) {
+						// mostly a hot set of keys, sometimes a key outside of it
+						int key = i % 10 == 0 ? 100 + (i * 31 + seed) % 1000 : i % 32;
+						assertThat(testee.get(key, k -> "v" + k)).isEqualTo("v" + key);
+					}
+				}));
+			}
+			for (Future<?> worker : workers) {
+				worker.get();
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		CacheStats stats = testee.stats();
+		assertThat(stats.size()).isLessThanOrEqualTo(64);
+		assertThat(stats.hitCount() + stats.missCount()).isEqualTo(8 * 20000L);
+		assertThat(stats.evictionCount()).isEqualTo(stats.missCount() - stats.size());
+
+		AtomicInteger loads = new AtomicInteger();
+		for (int key = 0; key < 32; key++) {
+			testee.get(key, k -> "v" + k + loads.incrementAndGet());
+		}
+		assertThat(loads.get()).isLessThan(8);
+	}
+}
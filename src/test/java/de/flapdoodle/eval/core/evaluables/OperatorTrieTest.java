@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.evaluables;
+
+import de.flapdoodle.eval.core.exceptions.ParseException;
+import de.flapdoodle.eval.core.parser.Token;
+import de.flapdoodle.eval.core.parser.TokenType;
+import de.flapdoodle.eval.core.parser.Tokenizer;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OperatorTrieTest {
+
+	private static final OperatorMap OPERATORS = OperatorMap.builder()
+		.putInfix("+", OperatorMapping.of(Precedence.OPERATOR_PRECEDENCE_ADDITIVE, "add"))
+		.putInfix("+++", OperatorMapping.of(Precedence.OPERATOR_PRECEDENCE_ADDITIVE, "triple"))
+		.putPrefix("+", OperatorMapping.of(Precedence.OPERATOR_PRECEDENCE_UNARY, false, "plus"))
+		.putPostfix("!", OperatorMapping.of(Precedence.OPERATOR_PRECEDENCE_UNARY, "factorial"))
+		.build();
+
+	@Test
+	void startingWithIsTrackedPerOperatorType() {
+		OperatorTrie trie = OPERATORS.operatorTrie();
+
+		assertThat(trie.hasStartingWith(OperatorType.Infix, "++")).isTrue();
+		assertThat(trie.hasStartingWith(OperatorType.Prefix, "++")).isFalse();
+		assertThat(trie.hasStartingWith(OperatorType.Postfix, "")).isTrue();
+		assertThat(trie.hasStartingWith(OperatorType.Postfix, "+")).isFalse();
+	}
+
+	@Test
+	void matchingUsesCharRange() {
+		OperatorTrie trie = OPERATORS.operatorTrie();
+		String chars = "a+++b";
+
+		assertThat(trie.matching(OperatorType.Infix, chars, 1, 4)).isTrue();
+		assertThat(trie.matching(OperatorType.Infix, chars, 1, 3)).isFalse();
+		assertThat(trie.matching(OperatorType.Prefix, chars, 1, 2)).isTrue();
+	}
+
+	@Test
+	void mergedMapContainsOperatorsOfBoth() {
+		OperatorMap merged = OperatorMap.builder()
+			.putInfix("<=>", OperatorMapping.of(Precedence.OPERATOR_PRECEDENCE_COMPARISON, "compare"))
+			.build()
+			.andThen(OPERATORS);
+
+		assertThat(merged.hasStartingWith(OperatorType.Infix, "<=")).isTrue();
+		assertThat(merged.hasStartingWith(OperatorType.Infix, "++")).isTrue();
+		assertThat(merged.operatorTrie().matching(OperatorType.Postfix, "!", 0, 1)).isTrue();
+	}
+
+	@Test
+	void tokenizerFallsBackToLongestMatchingOperator() throws ParseException {
+		assertThat(new Tokenizer("a++b", OPERATORS).parse())
+			.containsExactly(
+				Token.of(0, "a", TokenType.VARIABLE_OR_CONSTANT),
+				Token.of(1, "+", TokenType.INFIX_OPERATOR),
+				Token.of(2, "+", TokenType.PREFIX_OPERATOR),
+				Token.of(3, "b", TokenType.VARIABLE_OR_CONSTANT));
+
+		assertThat(new Tokenizer("a+++b", OPERATORS).parse())
+			.containsExactly(
+				Token.of(0, "a", TokenType.VARIABLE_OR_CONSTANT),
+				Token.of(1, "+++", TokenType.INFIX_OPERATOR),
+				Token.of(4, "b", TokenType.VARIABLE_OR_CONSTANT));
+	}
+
+	@Test
+	void otherImplementationsAreWalkedWithLookupMethods() throws ParseException {
+		HasOperator operators = new HasOperator() {
+			@Override
+			public boolean hasStartingWith(OperatorType type, String value) {
+				return OPERATORS.hasStartingWith(type, value);
+			}
+
+			@Override
+			public boolean matching(OperatorType type, String value) {
+				return OPERATORS.matching(type, value);
+			}
+		};
+
+		OperatorTrie trie = operators.operatorTrie();
+		assertThat(trie.hasStartingWith(OperatorType.Infix, "++")).isTrue();
+		assertThat(trie.hasStartingWith(OperatorType.Prefix, "++")).isFalse();
+		assertThat(trie.matching(OperatorType.Infix, "a+++b", 1, 4)).isTrue();
+		assertThat(trie.matching(OperatorType.Infix, "a+++b", 1, 3)).isFalse();
+
+		assertThat(new Tokenizer("a++b!+++c", operators).parse())
+			.isEqualTo(new Tokenizer("a++b!+++c", OPERATORS).parse());
+		assertThat(new Tokenizer("a+++b", operators).parse())
+			.containsExactly(
+				Token.of(0, "a", TokenType.VARIABLE_OR_CONSTANT),
+				Token.of(1, "+++", TokenType.INFIX_OPERATOR),
+				Token.of(4, "b", TokenType.VARIABLE_OR_CONSTANT));
+	}
+}
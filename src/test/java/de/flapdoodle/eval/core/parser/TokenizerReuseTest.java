@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.parser;
+
+import de.flapdoodle.eval.core.exceptions.ParseException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenizerReuseTest extends BaseParserTest {
+
+	@Test
+	void reusedTokenizerMatchesFreshTokenizer() throws ParseException {
+		Tokenizer tokenizer = new Tokenizer(operatorMap);
+
+		for (String expression : new String[] {
+			"2(a+b)",
+			"-x++ * 3e-2 + ++0x1F?",
+			"\"Hello, \\\"World\\\"\" + f(a, b)",
+			"a.b[1].c {x}",
+			"(2)(3) 2x",
+			"   ",
+		}) {
+			List<Token> expected = new Tokenizer(expression, operatorMap).parse();
+			TokenBuffer buffer = tokenizer.tokenize(expression);
+
+			assertThat(buffer.tokens()).isEqualTo(expected);
+			assertThat(buffer.size()).isEqualTo(expected.size());
+		}
+	}
+
+	@Test
+	void valuesAreSlicedFromSource() throws ParseException {
+		TokenBuffer buffer = new Tokenizer(operatorMap).tokenize("2(\"a\\tb\")");
+
+		assertThat(buffer.size()).isEqualTo(5);
+		assertThat(buffer.type(1)).isEqualTo(TokenType.INFIX_OPERATOR);
+		assertThat(buffer.start(1)).isEqualTo(buffer.end(1));
+		assertThat(buffer.value(1)).isEqualTo("*");
+		assertThat(buffer.type(3)).isEqualTo(TokenType.STRING_LITERAL);
+		assertThat(buffer.start(3)).isEqualTo(2);
+		assertThat(buffer.end(3)).isEqualTo(8);
+		assertThat(buffer.value(3)).isEqualTo("a\tb");
+	}
+
+	@Test
+	void failedTokenizeDoesNotAffectNextCall() throws ParseException {
+		Tokenizer tokenizer = new Tokenizer(operatorMap);
+
+		assertThatThrownBy(() -> tokenizer.tokenize("(a+b"))
+			.isInstanceOf(ParseException.class)
+			.hasMessage("Closing brace not found");
+
+		assertThat(tokenizer.tokenize("a+b").tokens())
+			.containsExactly(
+				Token.of(0, "a", TokenType.VARIABLE_OR_CONSTANT),
+				Token.of(1, "+", TokenType.INFIX_OPERATOR),
+				Token.of(2, "b", TokenType.VARIABLE_OR_CONSTANT));
+	}
+
+	@Test
+	void tokenizeRangeOfSource() throws ParseException {
+		Tokenizer tokenizer = new Tokenizer(operatorMap);
+		String source = "ignored;a + \"b\\\"\";ignored";
+
+		TokenBuffer buffer = tokenizer.tokenize(source, 8, 9);
+
+		assertThat(buffer.source().toString()).isEqualTo("a + \"b\\\"\"");
+		assertThat(buffer.tokens())
+			.containsExactly(
+				Token.of(0, "a", TokenType.VARIABLE_OR_CONSTANT),
+				Token.of(2, "+", TokenType.INFIX_OPERATOR),
+				Token.of(4, "b\"", TokenType.STRING_LITERAL));
+	}
+
+	@Test
+	void retokenizedEditMatchesFullTokenize() throws ParseException {
+		String[][] edits = {
+			// source, offset, removed, inserted
+			{ "a + f x * 2", "6", "1", "(x)" },
+			{ "a + f(x) * 2", "5", "0", "oo" },
+			{ "a + b + c + d", "4", "1", "\"b\"" },
+			{ "a + \"b\" + c", "4", "3", "b" },
+			{ "a * b + c", "0", "0", "(" },
+			{ "2 a + b", "1", "1", "" },
+			{ "x.y[1] + g(1, 2)", "14", "1", "3" },
+			{ "a + b", "5", "0", " + f(c)" },
+			{ "a + b", "0", "5", "c" },
+		};
+
+		for (String[] edit : edits) {
+			String source = edit[0];
+			int offset = Integer.parseInt(edit[1]);
+			int removed = Integer.parseInt(edit[2]);
+			String changed = source.substring(0, offset) + edit[3] + source.substring(offset + removed);
+
+			TokenBuffer previous = new Tokenizer(operatorMap).tokenize(source);
+			String balanced = changed.startsWith("(") ? changed + ")" : changed;
+			TokenBuffer buffer = new Tokenizer(operatorMap).retokenize(previous, balanced, offset, removed, edit[3].length());
+
+			assertThat(buffer.tokens())
+				.describedAs(balanced)
+				.isEqualTo(new Tokenizer(balanced, operatorMap).parse());
+			assertThat(buffer.unchangedTokens()).isLessThanOrEqualTo(buffer.firstShiftedToken());
+		}
+	}
+
+	@Test
+	void tokensAfterEditAreShifted() throws ParseException {
+		TokenBuffer previous = new Tokenizer(operatorMap).tokenize("f(a) + b + g(c)");
+		TokenBuffer buffer = new Tokenizer(operatorMap).retokenize(previous, "f(a) + bb + g(c)", 7, 1, 2);
+
+		assertThat(buffer.unchangedTokens()).isEqualTo(4);
+		assertThat(buffer.shift()).isEqualTo(1);
+		assertThat(buffer.type(buffer.firstShiftedToken())).isEqualTo(TokenType.FUNCTION);
+		assertThat(buffer.start(buffer.firstShiftedToken())).isEqualTo(12);
+		assertThat(buffer.tokens()).isEqualTo(new Tokenizer("f(a) + bb + g(c)", operatorMap).parse());
+	}
+
+	@Test
+	void retokenizeFailsLikeFullTokenize() throws ParseException {
+		TokenBuffer previous = new Tokenizer(operatorMap).tokenize("f(a) + b");
+
+		assertThatThrownBy(() -> new Tokenizer(operatorMap).retokenize(previous, "f(a + b", 3, 1, 0))
+			.isInstanceOf(ParseException.class)
+			.hasMessage("Closing brace not found");
+		assertThatThrownBy(() -> new Tokenizer(operatorMap).retokenize(previous, "f(a) + $b", 7, 0, 1))
+			.isInstanceOf(ParseException.class)
+			.hasMessage("Undefined operator '$'");
+	}
+}
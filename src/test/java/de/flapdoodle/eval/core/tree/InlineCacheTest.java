@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.core.tree;
+
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.evaluables.Parameter;
+import de.flapdoodle.eval.core.evaluables.TypedEvaluable;
+import de.flapdoodle.eval.core.exceptions.EvaluableException;
+import de.flapdoodle.eval.example.Value;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InlineCacheTest {
+	TypedEvaluable<Value.StringValue> upperCase = TypedEvaluable.of(Value.StringValue.class, Value.StringValue.class,
+		(valueResolver, evaluationContext, token, argument) -> Value.of(argument.wrapped().toUpperCase()));
+
+	TypedEvaluable<Value.NumberValue> addOne = TypedEvaluable.of(Value.NumberValue.class, Value.NumberValue.class,
+		(valueResolver, evaluationContext, token, argument) -> Value.of(argument.wrapped().add(BigDecimal.ONE)));
+
+	TypedEvaluable<Value.NumberValue> negative = TypedEvaluable.of(Value.NumberValue.class,
+		Parameter.of(Value.NumberValue.class).withValidators(parameterValue -> parameterValue.wrapped().signum() >= 0
+			? Optional.of(EvaluableException.of("positive number"))
+			: Optional.empty()),
+		(valueResolver, evaluationContext, token, argument) -> argument);
+
+	@Test
+	void selectionAfterTypeMismatchIsRemembered() {
+		InlineCache testee = new InlineCache(Arrays.asList(upperCase, addOne));
+
+		assertThat(testee.select(Evaluated.asList(Value.of(1)))).isSameAs(addOne);
+		assertThat(testee.size()).isEqualTo(1);
+		assertThat(testee.select(Evaluated.asList(Value.of(2)))).isSameAs(addOne);
+		assertThat(testee.select(Evaluated.asList(Value.of("a")))).isSameAs(upperCase);
+		assertThat(testee.size()).isEqualTo(2);
+	}
+
+	@Test
+	void selectionAfterValidationErrorIsNotRemembered() {
+		InlineCache testee = new InlineCache(Arrays.asList(negative, addOne));
+
+		assertThat(testee.select(Evaluated.asList(Value.of(1)))).isSameAs(addOne);
+		assertThat(testee.size()).isEqualTo(0);
+		assertThat(testee.select(Evaluated.asList(Value.of(-1)))).isSameAs(negative);
+	}
+
+	@Test
+	void rememberedSelectionIsValidatedAgain() {
+		InlineCache testee = new InlineCache(Arrays.asList(upperCase, negative));
+
+		assertThat(testee.select(Evaluated.asList(Value.of(-1)))).isSameAs(negative);
+		assertThat(testee.size()).isEqualTo(1);
+		assertThat(testee.select(Evaluated.asList(Value.of(1)))).isNull();
+		assertThat(testee.noMatchingCandidate(Evaluated.asList(Value.of(1))).getMessage())
+			.startsWith("no matching signature found");
+	}
+
+	@Test
+	void selectionByTypeOnlyIfThereIsNothingElseToValidate() {
+		InlineCache testee = new InlineCache(Arrays.asList(upperCase, addOne));
+
+		assertThat(testee.selectByType(Evaluated.value(Value.of(1)))).isNull();
+		testee.select(Evaluated.asList(Value.of(1)));
+		assertThat(testee.selectByType(Evaluated.value(Value.of(2)))).isSameAs(addOne);
+		assertThat(testee.selectByType(Evaluated.value(Value.of("a")))).isNull();
+		assertThat(testee.selectByType(Evaluated.value(Value.of(2)), Evaluated.value(Value.of(2)))).isNull();
+
+		InlineCache validated = new InlineCache(Arrays.asList(upperCase, negative));
+		validated.select(Evaluated.asList(Value.of(-1)));
+		assertThat(validated.size()).isEqualTo(1);
+		assertThat(validated.selectByType(Evaluated.value(Value.of(-2)))).isNull();
+	}
+
+	@Test
+	void singleCandidateIsNotRemembered() {
+		InlineCache testee = new InlineCache(Arrays.asList(addOne));
+
+		assertThat(testee.select(Evaluated.asList(Value.of(1)))).isSameAs(addOne);
+		assertThat(testee.select(Evaluated.asList(Value.of("a")))).isNull();
+		assertThat(testee.size()).isEqualTo(0);
+	}
+}
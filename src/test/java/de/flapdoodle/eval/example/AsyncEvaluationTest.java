@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.example;
+
+import de.flapdoodle.eval.core.Expression;
+import de.flapdoodle.eval.core.ImmutableExpressionFactory;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.AsyncTypedEvaluable;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.evaluables.TypedEvaluableMap;
+import de.flapdoodle.eval.core.evaluables.TypedEvaluables;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.exceptions.ParseException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class AsyncEvaluationTest {
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(2);
+	private final AtomicInteger calls = new AtomicInteger();
+	private final List<CompletableFuture<Value.NumberValue>> pending = new ArrayList<>();
+	private int completeAfter = 1;
+
+	// stand-in for a remote lookup, answers when enough lookups are waiting
+	private final ImmutableExpressionFactory factory = Defaults.expressionFactory()
+		.withEvaluatables(TypedEvaluableMap.builder()
+			.putMap("lookup", TypedEvaluables.builder()
+				.addList(AsyncTypedEvaluable.of(Value.NumberValue.class, Value.NumberValue.class, (token, key, executor) -> {
+					calls.incrementAndGet();
+					if (key.wrapped().signum() < 0) {
+						throw new EvaluationException(token, "unknown key: " + key);
+					}
+					CompletableFuture<Value.NumberValue> result = new CompletableFuture<>();
+					List<CompletableFuture<Value.NumberValue>> ready = new ArrayList<>();
+					synchronized (pending) {
+						pending.add(result);
+						if (pending.size() >= completeAfter) {
+							ready.addAll(pending);
+							pending.clear();
+						}
+					}
+					CompletableFuture.runAsync(() -> ready.forEach(it -> it.complete(null)), executor);
+					return result.thenApply(ignore -> Value.of(key.wrapped().multiply(BigDecimal.TEN)));
+				}))
+				.build())
+			.build()
+			.andThen(Defaults.expressionFactory().evaluatables()));
+
+	@AfterEach
+	void shutdown() {
+		executor.shutdown();
+	}
+
+	@Test
+	void sameResultAsSynchronousEvaluation() throws ParseException, EvaluationException, ExecutionException, InterruptedException {
+		Expression expression = factory.parse("lookup(a) + 1");
+		VariableResolver variables = VariableResolver.empty().with("a", Evaluated.value(Value.of(2)));
+
+		Evaluated<?> result = expression.evaluateAsync(variables, executor).get();
+
+		assertThat(result).isEqualTo(expression.evaluate(variables));
+		assertThat(result.wrapped()).isEqualTo(Value.of(21));
+	}
+
+	@Test
+	void siblingLookupsWaitConcurrently() throws Exception {
+		completeAfter = 2;
+		Expression expression = factory.parse("lookup(a) + lookup(b)");
+		VariableResolver variables = VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(1)))
+			.with("b", Evaluated.value(Value.of(2)));
+
+		Evaluated<?> result = expression.evaluateAsync(variables, executor).get(10, TimeUnit.SECONDS);
+
+		assertThat(result.wrapped()).isEqualTo(Value.of(30));
+	}
+
+	@Test
+	void sharedSubtreesNextToLookups() throws Exception {
+		Expression expression = factory.withCommonSubexpressionElimination(true).parse("(a * b + 1) * (a * b + 1) + lookup(a)");
+		VariableResolver variables = VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(3)))
+			.with("b", Evaluated.value(Value.of(2)));
+
+		Evaluated<?> result = expression.evaluateAsync(variables, executor).get(10, TimeUnit.SECONDS);
+
+		assertThat(expression.eliminatedNodes()).isGreaterThan(0);
+		assertThat(result).isEqualTo(expression.evaluate(variables));
+		assertThat(calls.get()).isEqualTo(2);
+	}
+
+	@Test
+	void failsLikeSynchronousEvaluation() throws ParseException, EvaluationException {
+		VariableResolver variables = VariableResolver.empty().with("a", Evaluated.value(Value.of(-1)));
+
+		for (String source : new String[] { "lookup(a) + 1", "10 / (lookup(0) * a)", "10 / (lookup(a) * a)" }) {
+			Expression expression = factory.parse(source);
+			Throwable sync = catchThrowable(() -> expression.evaluate(variables));
+			Throwable async = catchThrowable(() -> expression.evaluateAsync(variables, executor).get(10, TimeUnit.SECONDS));
+
+			assertThat(sync).isNotNull();
+			assertThat(async).isInstanceOf(ExecutionException.class);
+			assertThat(async.getCause())
+				.isInstanceOf(sync.getClass())
+				.hasMessage(sync.getMessage());
+		}
+	}
+
+	@Test
+	void lazyArgumentsAreOnlyEvaluatedWhenUsed() throws Exception {
+		Expression expression = factory.parse("if(a > 0, lookup(a), lookup(0 - a))");
+		VariableResolver variables = VariableResolver.empty().with("a", Evaluated.value(Value.of(4)));
+
+		Evaluated<?> result = expression.evaluateAsync(variables, executor).get(10, TimeUnit.SECONDS);
+
+		assertThat(result.wrapped()).isEqualTo(Value.of(40));
+		assertThat(calls.get()).isEqualTo(1);
+	}
+
+	@Test
+	void lookupInLazyArgumentDoesNotBlock() throws Exception {
+		// lookups only answer when both are waiting, a thread blocked on the lazy one would never start the other
+		completeAfter = 2;
+		VariableResolver variables = VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(1)))
+			.with("b", Evaluated.value(Value.of(2)));
+
+		Expression ifBranch = factory.parse("if(a > 0, lookup(a), 0) + lookup(b)");
+		assertThat(ifBranch.evaluateAsync(variables, executor).get(10, TimeUnit.SECONDS).wrapped()).isEqualTo(Value.of(30));
+
+		Expression and = factory.parse("if(a > 0 && lookup(a) > 5, 1, 2) + lookup(b)");
+		assertThat(and.evaluateAsync(variables, executor).get(10, TimeUnit.SECONDS).wrapped()).isEqualTo(Value.of(21));
+		assertThat(calls.get()).isEqualTo(4);
+	}
+}
@@ -57,7 +57,7 @@ public abstract class BaseEvaluationTest {
 		Expression expression1 = TestConfigurationProvider.StandardFactoryWithAdditionalTestOperators.parse(expression);
 		VariableResolver variableResolver = VariableResolver.empty();
 		assertThat(
-			expression1.evaluate(variableResolver).wrapped()
+			InterpretedAndCompiled.evaluate(expression1, variableResolver).wrapped()
 		).isEqualTo(expectedResult);
 	}
 
@@ -66,7 +66,7 @@ public abstract class BaseEvaluationTest {
 		Expression expression1 = TestConfigurationProvider.StandardFactoryWithAdditionalTestOperators.parse(expression);
 		VariableResolver variableResolver = VariableResolver.empty();
 		assertThat(
-			expression1.evaluate(variableResolver).wrapped())
+			InterpretedAndCompiled.evaluate(expression1, variableResolver).wrapped())
 			.isInstanceOf(Value.NumberValue.class)
 			.asInstanceOf(InstanceOfAssertFactories.type(Value.NumberValue.class))
 			.extracting(Value::wrapped, InstanceOfAssertFactories.BIG_DECIMAL)
@@ -89,7 +89,7 @@ public abstract class BaseEvaluationTest {
 		throws EvaluationException, ParseException {
 		Expression expression = factory.parse(expressionString);
 
-		return expression.evaluate(VariableResolver.empty()).wrapped();
+		return InterpretedAndCompiled.evaluate(expression, VariableResolver.empty()).wrapped();
 	}
 
 	protected static Value.NumberValue numberValueOf(String doubleAsString) {
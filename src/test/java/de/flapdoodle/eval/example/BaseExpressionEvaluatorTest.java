@@ -32,12 +32,12 @@ public abstract class BaseExpressionEvaluatorTest {
 	protected String evaluate(String expressionString) throws ParseException, EvaluationException {
 		Expression expression = createExpression(expressionString);
 		VariableResolver variableResolver = VariableResolver.empty();
-		return expression.evaluate(variableResolver).wrapped().toString();
+		return InterpretedAndCompiled.evaluate(expression, variableResolver).wrapped().toString();
 	}
 
 	protected String evaluate(String expressionString, VariableResolver variableResolver) throws ParseException, EvaluationException {
 		Expression expression = createExpression(expressionString);
-		return expression.evaluate(variableResolver).wrapped().toString();
+		return InterpretedAndCompiled.evaluate(expression, variableResolver).wrapped().toString();
 	}
 
 	Expression createExpression(String expressionString) throws ParseException, EvaluationException {
@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.example;
+
+import de.flapdoodle.eval.core.Column;
+import de.flapdoodle.eval.core.Expression;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.exceptions.ParseException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchEvaluationTest {
+
+	private static final long[] A = { 1, 5, -3, 0, 12, 7 };
+	private static final BigDecimal[] B = {
+		new BigDecimal("0.5"), new BigDecimal("2"), new BigDecimal("-1.25"), new BigDecimal("3"), new BigDecimal("0"), new BigDecimal("10")
+	};
+	private static final boolean[] C = { true, false, true, true, false, false };
+
+	@Test
+	void sameResultsAsEvaluatingEachRow() throws ParseException, EvaluationException {
+		String[] sources = {
+			"a + b * 2",
+			"(a * b + 1) * (a * b + 1) - a",
+			"if(c, a, b)",
+			"if(b != 0, a / b, -1)",
+			"max(a, b, 3) + abs(b)",
+			"a > b && c",
+			"sqrt(abs(a)) + 1",
+			"PI * a"
+		};
+		for (String source : sources) {
+			Expression expression = Defaults.expressionFactory().parse(source);
+
+			Column result = expression.evaluateBatch(columns());
+
+			assertThat(result.size()).isEqualTo(A.length);
+			for (int row = 0; row < A.length; row++) {
+				assertThat(result.evaluated(row)).isEqualTo(expression.evaluate(row(row)));
+			}
+		}
+	}
+
+	@Test
+	void failsWithErrorOfFirstFailingRow() throws ParseException, EvaluationException {
+		Expression expression = Defaults.expressionFactory().parse("a / b");
+
+		assertThatThrownBy(() -> expression.evaluateBatch(columns()))
+			.isInstanceOf(EvaluationException.class)
+			.hasMessage("Division by zero");
+	}
+
+	@Test
+	void missingVariable() throws ParseException, EvaluationException {
+		Expression expression = Defaults.expressionFactory().parse("a + x");
+
+		assertThatThrownBy(() -> expression.evaluateBatch(columns()))
+			.isInstanceOf(EvaluationException.class)
+			.hasMessage("Variable or constant value for 'x' not found");
+	}
+
+	@Test
+	void columnsMustHaveSameSize() throws ParseException, EvaluationException {
+		Expression expression = Defaults.expressionFactory().parse("a + b");
+		Map<String, Column> columns = new LinkedHashMap<>();
+		columns.put("a", Column.of(new long[] { 1, 2 }, it -> Value.of(BigDecimal.valueOf(it))));
+		columns.put("b", Column.of(new long[] { 1 }, it -> Value.of(BigDecimal.valueOf(it))));
+
+		assertThatThrownBy(() -> expression.evaluateBatch(columns))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void doubleColumns() throws ParseException, EvaluationException {
+		Expression expression = Defaults.doubleExpressionFactory().parse("x * x + 1");
+		Map<String, Column> columns = new LinkedHashMap<>();
+		columns.put("x", Column.of(new double[] { 1.5, -2, 0 }, Value::ofDouble));
+
+		Column result = expression.evaluateBatch(columns);
+
+		assertThat(result.get(0)).isEqualTo(Value.ofDouble(3.25));
+		assertThat(result.get(1)).isEqualTo(Value.ofDouble(5.0));
+		assertThat(result.get(2)).isEqualTo(Value.ofDouble(1.0));
+	}
+
+	@Test
+	void primitiveColumnsAreEvaluatedByKernels() throws ParseException, EvaluationException {
+		long[] a = { 1, 5, -3, 0, 12, Long.MAX_VALUE };
+		long[] b = { 2, 5, 7, -1, 0, 1 };
+		Map<String, Column> columns = new LinkedHashMap<>();
+		columns.put("a", Column.of(a, Primitives.LONG));
+		columns.put("b", Column.of(b, Primitives.LONG));
+
+		assertSameAsEachRow("a - b * 3", columns, Column.Longs.class, row -> longs(a, b, row));
+		assertSameAsEachRow("a >= b", columns, Column.Booleans.class, row -> longs(a, b, row));
+		assertSameAsEachRow("a == b", columns, Column.Booleans.class, row -> longs(a, b, row));
+		// overflow of the last row and fraction digits fall back to boxed evaluation
+		assertSameAsEachRow("a + b", columns, Column.class, row -> longs(a, b, row));
+		assertSameAsEachRow("a * 0.5", columns, Column.class, row -> longs(a, b, row));
+	}
+
+	@Test
+	void primitiveDoubleColumns() throws ParseException, EvaluationException {
+		double[] x = { 1.5, -2, 0, Double.NaN, -0.0 };
+		double[] y = { 3, 0.25, 0.0, 1, 0.0 };
+		Map<String, Column> columns = new LinkedHashMap<>();
+		columns.put("x", Column.of(x, Primitives.DOUBLE));
+		columns.put("y", Column.of(y, Primitives.DOUBLE));
+
+		assertSameAsEachRow(Defaults.doubleExpressionFactory().parse("x * x + y"), columns, Column.Doubles.class, row -> doubles(x, y, row));
+		assertSameAsEachRow(Defaults.doubleExpressionFactory().parse("x < y"), columns, Column.Booleans.class, row -> doubles(x, y, row));
+		assertSameAsEachRow(Defaults.doubleExpressionFactory().parse("x == y"), columns, Column.Booleans.class, row -> doubles(x, y, row));
+
+		assertThatThrownBy(() -> Defaults.doubleExpressionFactory().parse("x / y").evaluateBatch(columns))
+			.isInstanceOf(EvaluationException.class)
+			.hasMessage("Division by zero");
+	}
+
+	private static void assertSameAsEachRow(String source, Map<String, Column> columns, Class<?> columnType, IntFunction<VariableResolver> row)
+		throws ParseException, EvaluationException {
+		assertSameAsEachRow(Defaults.expressionFactory().parse(source), columns, columnType, row);
+	}
+
+	private static void assertSameAsEachRow(Expression expression, Map<String, Column> columns, Class<?> columnType, IntFunction<VariableResolver> row)
+		throws ParseException, EvaluationException {
+		Column result = expression.evaluateBatch(columns);
+
+		assertThat(result).isInstanceOf(columnType);
+		for (int r = 0; r < result.size(); r++) {
+			assertThat(result.evaluated(r)).isEqualTo(expression.evaluate(row.apply(r)));
+		}
+	}
+
+	private static VariableResolver longs(long[] a, long[] b, int row) {
+		return VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(BigDecimal.valueOf(a[row]))))
+			.with("b", Evaluated.value(Value.of(BigDecimal.valueOf(b[row]))));
+	}
+
+	private static VariableResolver doubles(double[] x, double[] y, int row) {
+		return VariableResolver.empty()
+			.with("x", Evaluated.value(Value.ofDouble(x[row])))
+			.with("y", Evaluated.value(Value.ofDouble(y[row])));
+	}
+
+	private static Map<String, Column> columns() {
+		Map<String, Column> columns = new LinkedHashMap<>();
+		columns.put("a", Column.of(A, it -> Value.of(BigDecimal.valueOf(it))));
+		columns.put("b", Column.of(B, Value::of));
+		columns.put("c", Column.of(C, Value::of));
+		return columns;
+	}
+
+	private static VariableResolver row(int row) {
+		return VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(BigDecimal.valueOf(A[row]))))
+			.with("b", Evaluated.value(Value.of(B[row])))
+			.with("c", Evaluated.value(Value.of(C[row])));
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.example;
+
+import de.flapdoodle.eval.core.Expression;
+import de.flapdoodle.eval.core.ExpressionFactory;
+import de.flapdoodle.eval.core.ImmutableExpressionFactory;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.evaluables.TypedEvaluable;
+import de.flapdoodle.eval.core.evaluables.TypedEvaluableMap;
+import de.flapdoodle.eval.core.evaluables.TypedEvaluables;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.exceptions.ParseException;
+import de.flapdoodle.eval.core.tree.EvaluatableNode;
+import de.flapdoodle.eval.core.tree.SharedNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CommonSubexpressionEliminationTest {
+
+	private final ImmutableExpressionFactory factory = Defaults.expressionFactory()
+		.withCommonSubexpressionElimination(true);
+
+	@Test
+	void disabledByDefault() throws ParseException, EvaluationException {
+		Expression expression = Defaults.expressionFactory().parse("(a*b)+(a*b)");
+
+		assertThat(expression.eliminatedNodes()).isEqualTo(0);
+		assertThat(expression.root()).isInstanceOf(EvaluatableNode.class);
+	}
+
+	@Test
+	void repeatedSubtreeIsShared() throws ParseException, EvaluationException {
+		Expression expression = factory.parse("(base*rate)+(base*rate)*2-(base*rate)");
+
+		assertThat(expression.eliminatedNodes()).isEqualTo(6);
+		assertThat(expression.allNodes().stream().filter(SharedNode.class::isInstance).map(it -> ((SharedNode) it).slot()).distinct().collect(Collectors.toList()))
+			.hasSize(1);
+		assertThat(expression.usedVariables()).containsExactly("base", "rate");
+		assertThat(expression.variables().positionsOf("rate")).containsExactly(6, 18, 32);
+
+		VariableResolver variables = VariableResolver.empty()
+			.with("base", Evaluated.value(Value.of(3)))
+			.with("rate", Evaluated.value(Value.of(2)));
+		assertThat(expression.evaluate(variables))
+			.isEqualTo(Defaults.expressionFactory().parse("(base*rate)+(base*rate)*2-(base*rate)").evaluate(variables))
+			.isEqualTo(expression.compile().evaluate(variables));
+	}
+
+	@Test
+	void nestedRepetitionIsSharedOnlyOnce() throws ParseException, EvaluationException {
+		Expression expression = factory.parse("((a*b)+c)*((a*b)+c)");
+
+		assertThat(expression.eliminatedNodes()).isEqualTo(5);
+		assertThat(expression.allNodes().stream().filter(SharedNode.class::isInstance).map(it -> ((SharedNode) it).slot()).distinct().collect(Collectors.toList()))
+			.hasSize(1);
+	}
+
+	@Test
+	void sharedSubtreeIsEvaluatedOncePerEvaluation() throws ParseException, EvaluationException {
+		AtomicInteger calls = new AtomicInteger();
+		TypedEvaluables count = TypedEvaluables.builder()
+			.addList(TypedEvaluable.of(Value.NumberValue.class, Value.NumberValue.class,
+				(variableResolver, evaluationContext, token, argument) -> {
+					calls.incrementAndGet();
+					return argument;
+				}))
+			.build();
+		ImmutableExpressionFactory countingFactory = factory.withEvaluatables(TypedEvaluableMap.builder()
+			.putMap("count", count)
+			.build()
+			.andThen(factory.evaluatables()));
+
+		Expression expression = countingFactory.parse("count(a)+count(a)*count(a)");
+		VariableResolver variables = VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(2)));
+
+		Evaluated<?> result = expression.evaluate(variables);
+		assertThat(calls.get()).isEqualTo(1);
+		assertThat(expression.compile().evaluate(variables)).isEqualTo(result);
+		assertThat(calls.get()).isEqualTo(2);
+		assertThat(countingFactory.withCommonSubexpressionElimination(false).parse("count(a)+count(a)*count(a)").evaluate(variables))
+			.isEqualTo(result);
+		assertThat(calls.get()).isEqualTo(5);
+	}
+
+	@Test
+	void failureOfSharedSubtreeIsReportedAtEachOccurrence() throws ParseException, EvaluationException {
+		AtomicInteger calls = new AtomicInteger();
+		TypedEvaluables fail = TypedEvaluables.builder()
+			.addList(TypedEvaluable.of(Value.NumberValue.class, Value.NumberValue.class,
+				(variableResolver, evaluationContext, token, argument) -> {
+					calls.incrementAndGet();
+					throw new EvaluationException(token, "failed");
+				}))
+			.build();
+		TypedEvaluables orElse = TypedEvaluables.builder()
+			.addList(TypedEvaluable.of(Value.class, Value.class, Value.class,
+				(variableResolver, evaluationContext, token, first, fallback) -> first instanceof Value.FailedWithException
+					? fallback
+					: first))
+			.build();
+		TypedEvaluables position = TypedEvaluables.builder()
+			.addList(TypedEvaluable.of(Value.class, Value.FailedWithException.class,
+				(variableResolver, evaluationContext, token, failed) -> Value.of(failed.exception().getStartPosition())))
+			.build();
+		ImmutableExpressionFactory failingFactory = factory.withEvaluatables(TypedEvaluableMap.builder()
+			.putMap("fail", fail)
+			.putMap("orElse", orElse)
+			.putMap("position", position)
+			.build()
+			.andThen(factory.evaluatables()));
+
+		String source = "orElse(fail(a), 1) + position(fail(a))";
+		Expression expression = failingFactory.parse(source);
+		Expression unshared = failingFactory.withCommonSubexpressionElimination(false).parse(source);
+		VariableResolver variables = VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(2)));
+
+		assertThat(expression.eliminatedNodes()).isEqualTo(2);
+		// the second occurrence reports its own position
+		Evaluated<?> expected = unshared.evaluate(variables);
+		assertThat(expected.wrapped()).isEqualTo(Value.of(31));
+		assertThat(calls.get()).isEqualTo(2);
+
+		assertThat(expression.evaluate(variables)).isEqualTo(expected);
+		assertThat(calls.get()).isEqualTo(3);
+		assertThat(expression.compile().evaluate(variables)).isEqualTo(expected);
+		assertThat(calls.get()).isEqualTo(4);
+		assertThat(expression.compileFlat().evaluate(variables)).isEqualTo(expected);
+		assertThat(calls.get()).isEqualTo(5);
+		assertThat(expression.evaluateAsync(variables, Runnable::run).join()).isEqualTo(expected);
+		assertThat(calls.get()).isEqualTo(6);
+	}
+
+	@Test
+	void subtreesWithDifferentLayoutAreNotShared() throws ParseException, EvaluationException {
+		assertThat(factory.parse("(a*b)+(a*b)").eliminatedNodes()).isEqualTo(3);
+		assertThat(factory.parse("(a*b)+(a * b)").eliminatedNodes()).isEqualTo(0);
+	}
+
+	@Test
+	void nonDeterministicSubtreesAreNotShared() throws ParseException, EvaluationException {
+		Expression expression = factory.parse("random()+random()");
+
+		assertThat(expression.eliminatedNodes()).isEqualTo(0);
+	}
+}
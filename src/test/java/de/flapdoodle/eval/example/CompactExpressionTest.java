@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.example;
+
+import de.flapdoodle.eval.core.Expression;
+import de.flapdoodle.eval.core.ImmutableExpressionFactory;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.exceptions.ParseException;
+import de.flapdoodle.eval.core.parser.Token;
+import de.flapdoodle.eval.core.parser.TokenType;
+import de.flapdoodle.eval.core.tree.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactExpressionTest {
+
+	private final ImmutableExpressionFactory factory = Defaults.expressionFactory();
+
+	@Test
+	void compactedExpressionIsEqual() throws ParseException, EvaluationException {
+		Interner interner = new Interner();
+		Expression expression = factory.parse("if(amount > 10 && country == \"DE\", max(amount * 0.19, minimum), -discount.value[2])");
+
+		Expression compacted = expression.compact(interner);
+
+		assertThat(compacted).isEqualTo(expression);
+		assertThat(compacted.variables()).isEqualTo(expression.variables());
+
+		VariableResolver variables = VariableResolver.empty()
+			.with("amount", Evaluated.value(Value.of(100)))
+			.with("country", Evaluated.value(Value.of("DE")))
+			.with("minimum", Evaluated.value(Value.of(5)));
+		assertThat(compacted.evaluate(variables)).isEqualTo(expression.evaluate(variables));
+	}
+
+	@Test
+	void tokenValuesAndConstantsAreShared() throws ParseException, EvaluationException {
+		Interner interner = new Interner();
+		Expression first = factory.parse("amount * 0.19 + amount").compact(interner);
+		Expression second = factory.parse("(amount + 1) * 0.19").compact(interner);
+
+		Node firstAmount = nodeAt(first, 0);
+		Node secondAmount = nodeAt(second, 1);
+		assertThat(firstAmount.token().value()).isSameAs(secondAmount.token().value());
+		assertThat(nodeAt(first, 16).token().value()).isSameAs(firstAmount.token().value());
+		assertThat(nodeAt(first, 7).token().value()).isSameAs(nodeAt(second, 13).token().value());
+		assertThat(((ValueNode<?>) nodeAt(first, 9)).value()).isSameAs(((ValueNode<?>) nodeAt(second, 15)).value());
+
+		assertThat(first.variables().list().get(0).name()).isSameAs(second.variables().list().get(0).name());
+	}
+
+	@Test
+	void sharedSubexpressionsStayShared() throws ParseException, EvaluationException {
+		ImmutableExpressionFactory eliminating = factory.withCommonSubexpressionElimination(true);
+		Expression expression = eliminating.parse("sqrt(a) * sqrt(a) + sqrt(a)");
+
+		Expression compacted = expression.compact(new Interner());
+
+		assertThat(compacted).isEqualTo(expression);
+		assertThat(compacted.eliminatedNodes()).isEqualTo(expression.eliminatedNodes());
+		List<Node> shared = Node.subnodes(Node.subnodes(compacted.root()).get(0));
+		// each occurrence points to the same body
+		assertThat(Node.subnodes(shared.get(0)).get(0)).isSameAs(Node.subnodes(shared.get(1)).get(0));
+	}
+
+	@Test
+	void nodeListIsEqualToOtherLists() {
+		Node a = LookupNode.of(Token.of(0, "a", TokenType.VARIABLE_OR_CONSTANT));
+		Node b = LookupNode.of(Token.of(2, "b", TokenType.VARIABLE_OR_CONSTANT));
+
+		for (List<Node> nodes : Arrays.<List<Node>>asList(Arrays.asList(), Arrays.asList(a), Arrays.asList(a, b))) {
+			NodeList nodeList = NodeList.of(nodes);
+			assertThat(nodeList).isEqualTo(nodes);
+			assertThat(nodeList.hashCode()).isEqualTo(nodes.hashCode());
+			assertThat(NodeList.of(nodeList)).isSameAs(nodeList);
+		}
+	}
+
+	private static Node nodeAt(Expression expression, int start) {
+		return expression.allNodes().stream()
+			.filter(it -> it.token().start() == start)
+			.findFirst()
+			.get();
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactNumberValueTest {
+
+	private static final List<MathContext> CONTEXTS = new ArrayList<>();
+
+	static {
+		CONTEXTS.add(MathContext.DECIMAL128);
+		CONTEXTS.add(MathContext.DECIMAL64);
+		CONTEXTS.add(MathContext.DECIMAL32);
+		CONTEXTS.add(MathContext.UNLIMITED);
+		CONTEXTS.add(new MathContext(20, RoundingMode.HALF_UP));
+		CONTEXTS.add(new MathContext(3, RoundingMode.DOWN));
+	}
+
+	@Test
+	void smallNumbersAreCompact() {
+		assertThat(Value.of(new BigDecimal("12.50")).isCompact()).isTrue();
+		assertThat(Value.of(new BigDecimal("-9223372036854775807")).isCompact()).isTrue();
+		assertThat(Value.of(new BigDecimal("-9223372036854775808")).isCompact()).isFalse();
+		assertThat(Value.of(new BigDecimal("123456789012345678901234567890")).isCompact()).isFalse();
+	}
+
+	@Test
+	void equalsLikeBigDecimal() {
+		assertThat(Value.of(new BigDecimal("1.50"))).isEqualTo(Value.of(new BigDecimal("1.50")));
+		assertThat(Value.of(new BigDecimal("1.50"))).isNotEqualTo(Value.of(new BigDecimal("1.5")));
+		assertThat(Value.of(new BigDecimal("1.50")).compareTo(Value.of(new BigDecimal("1.5")))).isEqualTo(0);
+		assertThat(Value.of(new BigDecimal("1.50")).wrapped()).isEqualTo(new BigDecimal("1.50"));
+	}
+
+	@Test
+	void moneyAmountsStayCompact() {
+		MathContext mathContext = MathContext.DECIMAL128;
+		Value.NumberValue price = Value.of(new BigDecimal("19.99"));
+		Value.NumberValue result = price.multiply(Value.of(new BigDecimal("3")), mathContext)
+			.subtract(Value.of(new BigDecimal("5.00")), mathContext)
+			.add(Value.of(new BigDecimal("0.015")), mathContext);
+
+		assertThat(result.isCompact()).isTrue();
+		assertThat(result.wrapped()).isEqualTo(new BigDecimal("54.985"));
+	}
+
+	@Test
+	void overflowIsPromoted() {
+		Value.NumberValue max = Value.of(BigDecimal.valueOf(Long.MAX_VALUE));
+
+		Value.NumberValue sum = max.add(max, MathContext.UNLIMITED);
+		assertThat(sum.isCompact()).isFalse();
+		assertThat(sum.wrapped()).isEqualTo(BigDecimal.valueOf(Long.MAX_VALUE).multiply(BigDecimal.valueOf(2)));
+
+		Value.NumberValue product = max.multiply(max, MathContext.DECIMAL128);
+		assertThat(product.wrapped()).isEqualTo(BigDecimal.valueOf(Long.MAX_VALUE).multiply(BigDecimal.valueOf(Long.MAX_VALUE), MathContext.DECIMAL128));
+	}
+
+	@Test
+	void sameResultsAsBigDecimal() {
+		Random random = new Random(42);
+		for (int i = 0; i < 20000; i++) {
+			BigDecimal first = randomNumber(random);
+			BigDecimal second = randomNumber(random);
+			Value.NumberValue a = Value.of(first);
+			Value.NumberValue b = Value.of(second);
+
+			for (MathContext mathContext : CONTEXTS) {
+				assertThat(a.add(b, mathContext)).isEqualTo(Value.of(first.add(second, mathContext)));
+				assertThat(a.subtract(b, mathContext)).isEqualTo(Value.of(first.subtract(second, mathContext)));
+				assertThat(a.multiply(b, mathContext)).isEqualTo(Value.of(first.multiply(second, mathContext)));
+				assertThat(a.negate(mathContext)).isEqualTo(Value.of(first.negate(mathContext)));
+				assertThat(a.abs(mathContext)).isEqualTo(Value.of(first.abs(mathContext)));
+			}
+			assertThat(a.compareTo(b)).isEqualTo(first.compareTo(second));
+		}
+	}
+
+	private static BigDecimal randomNumber(Random random) {
+		switch (random.nextInt(5)) {
+			case 0:
+				return BigDecimal.valueOf(random.nextInt(20001) - 10000, random.nextInt(4));
+			case 1:
+				return BigDecimal.valueOf(random.nextLong(), random.nextInt(40) - 10);
+			case 2:
+				return BigDecimal.valueOf(random.nextInt(3) - 1, random.nextInt(40) - 10);
+			case 3:
+				return new BigDecimal(new BigInteger(100, random), random.nextInt(20));
+			default:
+				return BigDecimal.valueOf(random.nextInt() >> random.nextInt(32), random.nextInt(10) - 2);
+		}
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.example;
+
+import de.flapdoodle.eval.core.CompiledExpression;
+import de.flapdoodle.eval.core.Expression;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.exceptions.ParseException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompiledExpressionTest {
+
+	@Test
+	void compiledOnlyOnce() throws ParseException, EvaluationException {
+		Expression expression = Defaults.expressionFactory().parse("a+b");
+
+		assertThat(expression.compile()).isSameAs(expression.compile());
+	}
+
+	@Test
+	void selectMatchingSignatureForEachEvaluation() throws ParseException, EvaluationException {
+		CompiledExpression compiled = Defaults.expressionFactory().parse("a+b").compile();
+
+		assertThat(compiled.evaluate(VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(1)))
+			.with("b", Evaluated.value(Value.of(2)))).wrapped())
+			.isEqualTo(Value.of(3));
+
+		assertThat(compiled.evaluate(VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of("1")))
+			.with("b", Evaluated.value(Value.of("2")))).wrapped())
+			.isEqualTo(Value.of("12"));
+	}
+
+	@Test
+	void sameErrorsAsInterpreted() throws ParseException, EvaluationException {
+		Expression expression = Defaults.expressionFactory().parse("sqrt(a) + b");
+		VariableResolver variables = VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of("x")));
+
+		EvaluationException interpreted = null;
+		try {
+			expression.evaluate(variables);
+		}
+		catch (EvaluationException ex) {
+			interpreted = ex;
+		}
+
+		assertThat(interpreted).isNotNull();
+		assertThatThrownBy(() -> expression.compile().evaluate(variables))
+			.isEqualTo(interpreted);
+	}
+
+	@Test
+	void missingVariable() throws ParseException, EvaluationException {
+		CompiledExpression compiled = Defaults.expressionFactory().parse("a").compile();
+
+		assertThatThrownBy(() -> compiled.evaluate(VariableResolver.empty()))
+			.isInstanceOf(EvaluationException.class)
+			.hasMessage("Variable or constant value for 'a' not found");
+	}
+
+	@Test
+	void functionWithManyArguments() throws ParseException, EvaluationException {
+		CompiledExpression compiled = Defaults.expressionFactory().parse("max(1, a, 7, 3)").compile();
+
+		assertThat(compiled.evaluate(VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(9)))).wrapped())
+			.isEqualTo(Value.of(9));
+	}
+}
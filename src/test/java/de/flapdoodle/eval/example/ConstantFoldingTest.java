@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.example;
+
+import de.flapdoodle.eval.core.Expression;
+import de.flapdoodle.eval.core.ExpressionFactory;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.exceptions.ParseException;
+import de.flapdoodle.eval.core.tree.EvaluatableNode;
+import de.flapdoodle.eval.core.tree.LookupNode;
+import de.flapdoodle.eval.core.tree.Node;
+import de.flapdoodle.eval.core.tree.ValueNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConstantFoldingTest {
+
+	private final ExpressionFactory factory = Defaults.expressionFactory()
+		.withConstantFolding(true);
+
+	@Test
+	void disabledByDefault() throws ParseException, EvaluationException {
+		Expression expression = Defaults.expressionFactory().parse("sqrt(4)");
+
+		assertThat(expression.root()).isInstanceOf(EvaluatableNode.class);
+	}
+
+	@Test
+	void constantSubtreeIsReplacedByValue() throws ParseException, EvaluationException {
+		Expression expression = factory.parse("2*PI*r");
+
+		List<Node> nodes = expression.allNodes();
+		assertThat(nodes).hasSize(3);
+		assertThat(nodes.get(0)).isInstanceOf(EvaluatableNode.class);
+		assertThat(nodes.get(1)).isInstanceOf(ValueNode.class);
+		assertThat(nodes.get(2)).isInstanceOf(LookupNode.class);
+
+		VariableResolver variables = VariableResolver.empty()
+			.with("r", Evaluated.value(Value.of(2)));
+		assertThat(expression.evaluate(variables))
+			.isEqualTo(Defaults.expressionFactory().parse("2*PI*r").evaluate(variables));
+	}
+
+	@Test
+	void constantFunctionCall() throws ParseException, EvaluationException {
+		Expression expression = factory.parse("sqrt(4)");
+
+		assertThat(expression.root()).isInstanceOf(ValueNode.class);
+		assertThat(expression.evaluate(VariableResolver.empty()))
+			.isEqualTo(Defaults.expressionFactory().parse("sqrt(4)").evaluate(VariableResolver.empty()));
+	}
+
+	@Test
+	void constantConditionDropsOtherBranch() throws ParseException, EvaluationException {
+		Expression expression = factory.parse("if(1 > 2, a, b + 1)");
+
+		assertThat(expression.root()).isInstanceOf(EvaluatableNode.class);
+		assertThat(expression.root().token().value()).isEqualTo("+");
+		assertThat(expression.usedVariables()).containsExactly("b");
+	}
+
+	@Test
+	void nonDeterministicFunctionsAreNotFolded() throws ParseException, EvaluationException {
+		assertThat(factory.parse("random()").root()).isInstanceOf(EvaluatableNode.class);
+		assertThat(factory.parse("random(1, 2)").root()).isInstanceOf(EvaluatableNode.class);
+		assertThat(factory.parse("localDateTime(2020, 1, 1)").root()).isInstanceOf(EvaluatableNode.class);
+		assertThat(factory.parse("formatLocalDateTime(localDateTime(2020, 1, 1))").root()).isInstanceOf(EvaluatableNode.class);
+	}
+
+	@Test
+	void failingSubtreeFailsOnEvaluation() throws ParseException, EvaluationException {
+		Expression expression = factory.parse("1/0");
+
+		assertThat(expression.root()).isInstanceOf(EvaluatableNode.class);
+		assertThatThrownBy(() -> expression.evaluate(VariableResolver.empty()))
+			.isInstanceOf(EvaluationException.class)
+			.hasMessage("Division by zero");
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.example;
+
+import de.flapdoodle.eval.core.Expression;
+import de.flapdoodle.eval.core.ExpressionCodec;
+import de.flapdoodle.eval.core.ExpressionFactory;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.exceptions.ParseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DoubleExpressionTest {
+	private final ExpressionFactory factory = Defaults.doubleExpressionFactory();
+
+	@Test
+	void literalsAreDoubles() throws ParseException, EvaluationException {
+		assertThat(evaluate("1.5 + 2 * 3")).isEqualTo(Value.ofDouble(7.5));
+		assertThat(evaluate("0x10 - 1")).isEqualTo(Value.ofDouble(15.0));
+		assertThat(evaluate("-(2 ^ 10) / 4")).isEqualTo(Value.ofDouble(-256.0));
+		assertThat(evaluate("7 % 4")).isEqualTo(Value.ofDouble(3.0));
+	}
+
+	@Test
+	void decimalsStayTheDefault() throws ParseException, EvaluationException {
+		assertThat(Defaults.expressionFactory().parse("1.5 + 2").evaluate(VariableResolver.empty()).wrapped())
+			.isInstanceOf(Value.NumberValue.class);
+	}
+
+	@Test
+	void functions() throws ParseException, EvaluationException {
+		assertThat(evaluate("sqrt(16)")).isEqualTo(Value.ofDouble(4.0));
+		assertThat(evaluate("sin(90)")).isEqualTo(Value.ofDouble(1.0));
+		assertThat(evaluate("cosR(PI)")).isEqualTo(Value.ofDouble(-1.0));
+		assertThat(evaluate("atan2R(0, 1)")).isEqualTo(Value.ofDouble(0.0));
+		assertThat(evaluate("max(1, 7.5, 3) + min(4, -2) + abs(-1)")).isEqualTo(Value.ofDouble(6.5));
+		assertThat(evaluate("sum(1, 2, 3)")).isEqualTo(Value.ofDouble(6.0));
+	}
+
+	@Test
+	void comparisons() throws ParseException, EvaluationException {
+		Expression expression = factory.parse("a > 2.5 && a <= 3 && a != 2");
+		VariableResolver variables = VariableResolver.empty()
+			.with("a", Evaluated.value(Value.ofDouble(3.0)));
+
+		assertThat(expression.evaluate(variables).wrapped()).isEqualTo(Value.of(true));
+		assertThat(expression.compile().evaluate(variables).wrapped()).isEqualTo(Value.of(true));
+		assertThat(expression.compileFlat().evaluate(variables).wrapped()).isEqualTo(Value.of(true));
+	}
+
+	@Test
+	void decimalVariablesAreWidenedToDouble() throws ParseException, EvaluationException {
+		VariableResolver variables = VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(3.0)));
+
+		for (String source : new String[] { "a + 0", "0 + a", "a - 1 + 1", "a * 1", "a / 1", "a % 4", "a ^ 1" }) {
+			Expression expression = factory.parse(source);
+			assertThat(expression.evaluate(variables).wrapped()).isEqualTo(Value.ofDouble(3.0));
+			assertThat(expression.compile().evaluate(variables).wrapped()).isEqualTo(Value.ofDouble(3.0));
+			assertThat(expression.compileFlat().evaluate(variables).wrapped()).isEqualTo(Value.ofDouble(3.0));
+		}
+
+		for (String source : new String[] { "a > 1", "a >= 3", "1 < a", "a <= 3", "a == 3", "a != 1" }) {
+			assertThat(factory.parse(source).evaluate(variables).wrapped()).isEqualTo(Value.of(true));
+		}
+	}
+
+	@Test
+	void resultsFollowIeee754() throws ParseException, EvaluationException {
+		assertThat(evaluate("sqrt(-1)")).isEqualTo(Value.ofDouble(Double.NaN));
+		assertThat(evaluate("10 ^ 400")).isEqualTo(Value.ofDouble(Double.POSITIVE_INFINITY));
+
+		assertThat(evaluate("sqrt(-1) > 1")).isEqualTo(Value.of(false));
+		assertThat(evaluate("sqrt(-1) >= 1")).isEqualTo(Value.of(false));
+		assertThat(evaluate("sqrt(-1) < 1")).isEqualTo(Value.of(false));
+		assertThat(evaluate("sqrt(-1) <= 1")).isEqualTo(Value.of(false));
+		assertThat(evaluate("sqrt(-1) == sqrt(-1)")).isEqualTo(Value.of(false));
+		assertThat(evaluate("sqrt(-1) != sqrt(-1)")).isEqualTo(Value.of(true));
+
+		assertThat(evaluate("-0")).isEqualTo(Value.ofDouble(-0.0));
+		assertThat(evaluate("-0 == 0")).isEqualTo(Value.of(true));
+		assertThat(evaluate("-0 != 0")).isEqualTo(Value.of(false));
+		assertThat(evaluate("-0 < 0")).isEqualTo(Value.of(false));
+		assertThat(evaluate("-0 >= 0")).isEqualTo(Value.of(true));
+	}
+
+	@Test
+	void divisionByZeroFails() throws ParseException, EvaluationException {
+		assertThatThrownBy(() -> factory.parse("1 / a").evaluate(VariableResolver.empty()
+			.with("a", Evaluated.value(Value.ofDouble(0.0)))))
+			.isInstanceOf(EvaluationException.class)
+			.hasMessage("Division by zero");
+	}
+
+	@Test
+	void foldedDoublesSurviveBinaryFormat() throws ParseException, EvaluationException, IOException {
+		Expression expression = factory.parse("2 * PI * r");
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ExpressionCodec.of(factory).writeAll(Collections.singletonList(expression), out);
+		List<Expression> read = ExpressionCodec.of(factory).readAll(new ByteArrayInputStream(out.toByteArray()));
+
+		assertThat(read).containsExactly(expression);
+	}
+
+	private Value<?> evaluate(String source) throws ParseException, EvaluationException {
+		return (Value<?>) factory.parse(source).evaluate(VariableResolver.empty()).wrapped();
+	}
+}
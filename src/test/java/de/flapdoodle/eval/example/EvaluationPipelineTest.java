@@ -0,0 +1,315 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.example;
+
+import de.flapdoodle.eval.core.Expression;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.evaluables.TypedEvaluable;
+import de.flapdoodle.eval.core.evaluables.TypedEvaluableMap;
+import de.flapdoodle.eval.core.evaluables.TypedEvaluables;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.exceptions.ParseException;
+import de.flapdoodle.eval.core.flow.EvaluationPipeline;
+import de.flapdoodle.eval.core.flow.Flow;
+import de.flapdoodle.types.Either;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EvaluationPipelineTest {
+
+	@Test
+	void resultsInInputOrder() throws ParseException, EvaluationException, InterruptedException {
+		Expression expression = Defaults.expressionFactory().parse("a * 2 + 1");
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			EvaluationPipeline pipeline = EvaluationPipeline.builder()
+				.executor(executor)
+				.parallelism(4)
+				.batchSize(8)
+				.bufferSize(64)
+				.build();
+
+			Rows rows = new Rows(1000);
+			Results results = new Results(Long.MAX_VALUE, null);
+			Flow.Processor<VariableResolver, Either<Evaluated<?>, EvaluationException>> processor = pipeline.processor(expression);
+			processor.subscribe(results);
+			rows.subscribe(processor);
+
+			assertThat(results.done.await(10, TimeUnit.SECONDS)).isTrue();
+			assertThat(results.error).isNull();
+			assertThat(results.items).hasSize(1000);
+			for (int i = 0; i < 1000; i++) {
+				assertThat(results.items.get(i).left()).isEqualTo(expression.evaluate(Rows.row(i)));
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void failingRowsAreDelivered() throws ParseException, EvaluationException, InterruptedException {
+		Expression expression = Defaults.expressionFactory().parse("10 / (a % 3)");
+
+		Rows rows = new Rows(30);
+		Results results = new Results(Long.MAX_VALUE, null);
+		Flow.Processor<VariableResolver, Either<Evaluated<?>, EvaluationException>> processor = EvaluationPipeline.defaults()
+			.processor(expression);
+		processor.subscribe(results);
+		rows.subscribe(processor);
+
+		assertThat(results.done.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(results.items).hasSize(30);
+		for (int i = 0; i < 30; i++) {
+			Either<Evaluated<?>, EvaluationException> result = results.items.get(i);
+			assertThat(result.isLeft()).isEqualTo(i % 3 != 0);
+			if (!result.isLeft()) {
+				assertThat(result.right()).hasMessage("Division by zero");
+			}
+		}
+	}
+
+	@Test
+	void slowSubscriberThrottlesPublisher() throws ParseException, EvaluationException, InterruptedException {
+		Expression expression = Defaults.expressionFactory().parse("a + 1");
+		EvaluationPipeline pipeline = EvaluationPipeline.builder()
+			.parallelism(2)
+			.batchSize(4)
+			.bufferSize(32)
+			.build();
+
+		Rows rows = new Rows(2000);
+		Results results = new Results(1, rows);
+		Flow.Processor<VariableResolver, Either<Evaluated<?>, EvaluationException>> processor = pipeline.processor(expression);
+		processor.subscribe(results);
+		rows.subscribe(processor);
+
+		assertThat(results.done.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(results.items).hasSize(2000);
+		assertThat(results.maxAhead.get()).isBetween(1L, 32L);
+	}
+
+	@Test
+	void upstreamErrorIsPassedOn() throws ParseException, EvaluationException, InterruptedException {
+		Expression expression = Defaults.expressionFactory().parse("a");
+		Results results = new Results(Long.MAX_VALUE, null);
+		Flow.Processor<VariableResolver, Either<Evaluated<?>, EvaluationException>> processor = EvaluationPipeline.defaults()
+			.processor(expression);
+		processor.subscribe(results);
+		processor.onSubscribe(new Flow.Subscription() {
+			@Override
+			public void request(long n) {
+			}
+
+			@Override
+			public void cancel() {
+			}
+		});
+		processor.onNext(Rows.row(1));
+		processor.onError(new IllegalStateException("queue closed"));
+
+		assertThat(results.done.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(results.items).hasSize(1);
+		assertThat(results.error).hasMessage("queue closed");
+	}
+
+	@Test
+	void errorInEvaluationEndsTheStream() throws ParseException, EvaluationException, InterruptedException {
+		Expression expression = Defaults.expressionFactory()
+			.withEvaluatables(TypedEvaluableMap.builder()
+				.putMap("broken", TypedEvaluables.builder()
+					.addList(TypedEvaluable.of(Value.NumberValue.class, Value.NumberValue.class,
+						(variableResolver, evaluationContext, token, argument) -> {
+							if (argument.wrapped().intValue() == 17) {
+								throw new Error("broken row");
+							}
+							return argument;
+						}))
+					.build())
+				.build()
+				.andThen(Defaults.expressionFactory().evaluatables()))
+			.parse("broken(a)");
+		EvaluationPipeline pipeline = EvaluationPipeline.builder()
+			.parallelism(2)
+			.batchSize(4)
+			.bufferSize(16)
+			.build();
+
+		Rows rows = new Rows(100);
+		Results results = new Results(Long.MAX_VALUE, null);
+		Flow.Processor<VariableResolver, Either<Evaluated<?>, EvaluationException>> processor = pipeline.processor(expression);
+		processor.subscribe(results);
+		rows.subscribe(processor);
+
+		assertThat(results.done.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(results.error).isInstanceOf(Error.class).hasMessage("broken row");
+		assertThat(results.items).hasSize(16);
+	}
+
+	@Test
+	void rowsReceivedWhileABatchRunsAreDeliveredWithoutMoreRows() throws ParseException, EvaluationException {
+		Expression expression = Defaults.expressionFactory().parse("a + 1");
+		Queue<Runnable> tasks = new ArrayDeque<>();
+		EvaluationPipeline pipeline = EvaluationPipeline.builder()
+			.executor(tasks::add)
+			.parallelism(2)
+			.batchSize(4)
+			.bufferSize(16)
+			.build();
+
+		Results results = new Results(Long.MAX_VALUE, null);
+		Flow.Processor<VariableResolver, Either<Evaluated<?>, EvaluationException>> processor = pipeline.processor(expression);
+		processor.subscribe(results);
+		// stays open and never completes
+		processor.onSubscribe(new Flow.Subscription() {
+			@Override
+			public void request(long n) {
+			}
+
+			@Override
+			public void cancel() {
+			}
+		});
+
+		processor.onNext(Rows.row(0));
+		assertThat(tasks).hasSize(1);
+		processor.onNext(Rows.row(1));
+		processor.onNext(Rows.row(2));
+
+		Runnable task;
+		while ((task = tasks.poll()) != null) {
+			task.run();
+		}
+
+		assertThat(results.items).hasSize(3);
+		for (int i = 0; i < 3; i++) {
+			assertThat(results.items.get(i).left()).isEqualTo(expression.evaluate(Rows.row(i)));
+		}
+		assertThat(results.done.getCount()).isEqualTo(1L);
+	}
+
+	@Test
+	void bufferMustHoldABatch() {
+		assertThatThrownBy(() -> EvaluationPipeline.builder().batchSize(10).bufferSize(5).build())
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	static class Rows implements Flow.Publisher<VariableResolver> {
+		private final int count;
+		private final AtomicLong requested = new AtomicLong();
+		private final AtomicInteger emitted = new AtomicInteger();
+		private final AtomicInteger wip = new AtomicInteger();
+
+		Rows(int count) {
+			this.count = count;
+		}
+
+		static VariableResolver row(int i) {
+			return VariableResolver.empty().with("a", Evaluated.value(Value.of(BigDecimal.valueOf(i))));
+		}
+
+		@Override
+		public void subscribe(Flow.Subscriber<? super VariableResolver> subscriber) {
+			subscriber.onSubscribe(new Flow.Subscription() {
+				@Override
+				public void request(long n) {
+					requested.addAndGet(n);
+					emit(subscriber);
+				}
+
+				@Override
+				public void cancel() {
+				}
+			});
+		}
+
+		private void emit(Flow.Subscriber<? super VariableResolver> subscriber) {
+			if (wip.getAndIncrement() != 0) {
+				return;
+			}
+			do {
+				while (emitted.get() < count && requested.get() > 0) {
+					requested.decrementAndGet();
+					subscriber.onNext(row(emitted.getAndIncrement()));
+				}
+				if (emitted.get() == count) {
+					emitted.incrementAndGet();
+					subscriber.onComplete();
+				}
+			}
+			while (wip.decrementAndGet() != 0);
+		}
+	}
+
+	static class Results implements Flow.Subscriber<Either<Evaluated<?>, EvaluationException>> {
+		private final long batch;
+		private final Rows rows;
+		private final List<Either<Evaluated<?>, EvaluationException>> items = Collections.synchronizedList(new ArrayList<>());
+		private final AtomicLong maxAhead = new AtomicLong();
+		private final CountDownLatch done = new CountDownLatch(1);
+		private volatile Throwable error;
+		private Flow.Subscription subscription;
+
+		Results(long batch, Rows rows) {
+			this.batch = batch;
+			this.rows = rows;
+		}
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+			subscription.request(batch);
+		}
+
+		@Override
+		public void onNext(Either<Evaluated<?>, EvaluationException> item) {
+			items.add(item);
+			if (rows != null) {
+				long ahead = Math.min(rows.emitted.get(), rows.count) - items.size() + 1;
+				maxAhead.accumulateAndGet(ahead, Math::max);
+				subscription.request(batch);
+			}
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			error = throwable;
+			done.countDown();
+		}
+
+		@Override
+		public void onComplete() {
+			done.countDown();
+		}
+	}
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.example;
+
+import de.flapdoodle.eval.core.Expression;
+import de.flapdoodle.eval.core.ExpressionCodec;
+import de.flapdoodle.eval.core.ExpressionFactory;
+import de.flapdoodle.eval.core.ImmutableExpressionFactory;
+import de.flapdoodle.eval.core.ValueCodec;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.evaluables.TypedEvaluableMap;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.exceptions.ParseException;
+import de.flapdoodle.eval.core.tree.SharedNode;
+import de.flapdoodle.eval.core.tree.ValueNode;
+import de.flapdoodle.eval.example.evaluables.arithmetic.Min;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExpressionCodecTest {
+
+	private final ImmutableExpressionFactory factory = Defaults.expressionFactory();
+
+	private static final List<String> SOURCES = Arrays.asList(
+		"(a + b) * 2 - c",
+		"if(a > 10 && b < 5 || c == 3, max(a, b, c), -a.x[2])",
+		"\"Hello, \\\"World\\\"\" + name",
+		"2x + 3(a - b)",
+		"a.\"long name\" + a{\"key\"} + PI",
+		"-a ^ 2 + sqrt(b) - ! c",
+		"durationOfDays(1) + localDateTime(2020, 1, 1)"
+	);
+
+	@Test
+	void readExpressionsAreEqualToParsed() throws IOException, ParseException, EvaluationException {
+		List<Expression> expressions = parseAll(factory);
+
+		assertThat(roundTrip(factory, expressions)).isEqualTo(expressions);
+	}
+
+	@Test
+	void foldedAndSharedSubtrees() throws IOException, ParseException, EvaluationException {
+		ImmutableExpressionFactory optimizing = factory
+			.withConstantFolding(true)
+			.withCommonSubexpressionElimination(true);
+		List<Expression> expressions = parseAll(optimizing);
+		expressions.add(optimizing.parse("sqrt(a) * sqrt(a) + max(1, 2) * durationOfDays(2) + a{\"x\"} + sqrt(a)"));
+
+		List<Expression> read = roundTrip(optimizing, expressions);
+
+		assertThat(read).isEqualTo(expressions);
+		Expression last = read.get(read.size() - 1);
+		assertThat(last.allNodes().stream().anyMatch(it -> it instanceof SharedNode)).isTrue();
+		assertThat(last.allNodes().stream().anyMatch(it -> it instanceof ValueNode && it.token().value().equals("durationOfDays"))).isTrue();
+		assertThat(last.eliminatedNodes()).isEqualTo(expressions.get(expressions.size() - 1).eliminatedNodes());
+
+		VariableResolver variables = VariableResolver.empty().with("a", Evaluated.value(Value.of(4)));
+		assertThat(optimizing.parse("sqrt(a) * sqrt(a) + max(1, 2) + sqrt(a)").evaluate(variables))
+			.isEqualTo(roundTrip(optimizing, Collections.singletonList(optimizing.parse("sqrt(a) * sqrt(a) + max(1, 2) + sqrt(a)")))
+				.get(0).evaluate(variables));
+	}
+
+	@Test
+	void functionsAreResolvedWhenRead() throws IOException, ParseException, EvaluationException {
+		Expression expression = factory.parse("max(a, 2)");
+		ExpressionFactory maxIsMin = factory.withEvaluatables(TypedEvaluableMap.builder()
+			.putMap("max", new Min())
+			.build());
+
+		Expression read = write(factory, Collections.singletonList(expression), maxIsMin).get(0);
+
+		VariableResolver variables = VariableResolver.empty().with("a", Evaluated.value(Value.of(1)));
+		assertThat(read.evaluate(variables)).isEqualTo(factory.parse("min(a, 2)").evaluate(variables));
+		assertThat(read.usedVariables()).containsExactly("a");
+	}
+
+	@Test
+	void missingFunctionFailsWhenRead() throws IOException, ParseException, EvaluationException {
+		ExpressionFactory withoutSqrt = factory.withEvaluatables(TypedEvaluableMap.builder()
+			.putMap("max", new Min())
+			.build());
+		List<Expression> expressions = Collections.singletonList(factory.parse("sqrt(a)"));
+
+		assertThatThrownBy(() -> write(factory, expressions, withoutSqrt))
+			.isInstanceOf(EvaluationException.class)
+			.hasMessageContaining("could not find evaluatable");
+	}
+
+	@Test
+	void foldedValuesNeedValueCodec() throws ParseException, EvaluationException {
+		ImmutableExpressionFactory folding = factory.withConstantFolding(true);
+		List<Expression> expressions = Collections.singletonList(folding.parse("max(1, 2) + a"));
+
+		assertThatThrownBy(() -> roundTrip(folding.withValueCodec(ValueCodec.none()), expressions))
+			.isInstanceOf(NotSerializableException.class);
+	}
+
+	@Test
+	void literalsWithoutValueCodecAreParsedAgain() throws IOException, ParseException, EvaluationException {
+		ImmutableExpressionFactory withoutCodec = factory.withValueCodec(ValueCodec.none());
+		List<Expression> expressions = parseAll(withoutCodec);
+
+		assertThat(roundTrip(withoutCodec, expressions)).isEqualTo(expressions);
+	}
+
+	@Test
+	void unknownHeaderOrVersionFails() throws IOException {
+		ByteArrayOutputStream otherVersion = new ByteArrayOutputStream();
+		DataOutputStream data = new DataOutputStream(otherVersion);
+		data.writeInt(ExpressionCodec.MAGIC);
+		data.writeShort(ExpressionCodec.VERSION + 1);
+
+		assertThatThrownBy(() -> ExpressionCodec.of(factory).readAll(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5, 6 })))
+			.isInstanceOf(StreamCorruptedException.class);
+		assertThatThrownBy(() -> ExpressionCodec.of(factory).readAll(new ByteArrayInputStream(otherVersion.toByteArray())))
+			.isInstanceOf(InvalidClassException.class);
+	}
+
+	private static List<Expression> parseAll(ExpressionFactory factory) throws ParseException, EvaluationException {
+		List<Expression> expressions = new ArrayList<>();
+		for (String source : SOURCES) {
+			expressions.add(factory.parse(source));
+		}
+		return expressions;
+	}
+
+	private static List<Expression> roundTrip(ExpressionFactory factory, List<Expression> expressions) throws IOException, EvaluationException {
+		return write(factory, expressions, factory);
+	}
+
+	private static List<Expression> write(ExpressionFactory writing, List<Expression> expressions, ExpressionFactory reading)
+		throws IOException, EvaluationException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ExpressionCodec.of(writing).writeAll(expressions, out);
+		return ExpressionCodec.of(reading).readAll(new ByteArrayInputStream(out.toByteArray()));
+	}
+}
@@ -16,10 +16,14 @@
  */
 package de.flapdoodle.eval.example;
 
+import de.flapdoodle.eval.core.Expression;
 import de.flapdoodle.eval.core.ExpressionFactory;
 import de.flapdoodle.eval.core.MapBasedVariableResolver;
 import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.cache.CacheStats;
 import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.exceptions.BaseException;
+import de.flapdoodle.eval.core.exceptions.ParseException;
 import org.junit.jupiter.api.Test;
 
 import java.math.MathContext;
@@ -27,6 +31,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class ExpressionFactoryTest {
 
@@ -66,4 +71,43 @@ class ExpressionFactoryTest {
 
 		assertThat(factory.constants().get("A").wrapped()).isEqualTo(Value.of("a"));
 	}
+
+	@Test
+	void parsedExpressionCache() throws BaseException {
+		ExpressionFactory factory = Defaults.expressionFactory()
+			.withParsedExpressionCacheSize(2);
+
+		Expression first = factory.parse("a+b");
+		assertThat(factory.parse("a+b")).isSameAs(first);
+		factory.parse("a-b");
+		factory.parse("a*b");
+		assertThat(factory.parse("a+b")).isNotSameAs(first).isEqualTo(first);
+
+		CacheStats stats = factory.parsedExpressionCacheStats();
+		assertThat(stats.size()).isEqualTo(2);
+		assertThat(stats.hitCount()).isEqualTo(1L);
+		assertThat(stats.missCount()).isEqualTo(4L);
+		assertThat(stats.evictionCount()).isEqualTo(2L);
+	}
+
+	@Test
+	void parseFailuresAreNotCached() {
+		ExpressionFactory factory = Defaults.expressionFactory()
+			.withParsedExpressionCacheSize(2);
+
+		assertThatThrownBy(() -> factory.parse("a+")).isInstanceOf(ParseException.class);
+		assertThatThrownBy(() -> factory.parse("a+")).isInstanceOf(ParseException.class);
+
+		CacheStats stats = factory.parsedExpressionCacheStats();
+		assertThat(stats.size()).isEqualTo(0);
+		assertThat(stats.loadFailureCount()).isEqualTo(2L);
+	}
+
+	@Test
+	void noCacheByDefault() throws BaseException {
+		ExpressionFactory factory = Defaults.expressionFactory();
+
+		assertThat(factory.parse("a+b")).isNotSameAs(factory.parse("a+b"));
+		assertThat(factory.parsedExpressionCacheStats().requestCount()).isEqualTo(0L);
+	}
 }
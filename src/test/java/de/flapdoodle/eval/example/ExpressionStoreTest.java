@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.example;
+
+import de.flapdoodle.eval.core.Expression;
+import de.flapdoodle.eval.core.ExpressionStore;
+import de.flapdoodle.eval.core.ImmutableExpressionFactory;
+import de.flapdoodle.eval.core.cache.CacheStats;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.exceptions.ParseException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExpressionStoreTest {
+
+	private final ImmutableExpressionFactory factory = Defaults.expressionFactory()
+		.withConstantFolding(true);
+
+	private Path file;
+
+	@BeforeEach
+	void createFile() throws IOException {
+		file = Files.createTempFile("expressions", ".store");
+	}
+
+	@AfterEach
+	void deleteFile() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Test
+	void expressionsAreReadById() throws IOException, ParseException, EvaluationException {
+		Map<String, Expression> expressions = rules(1000);
+		ExpressionStore.write(file, factory, expressions);
+
+		ExpressionStore store = ExpressionStore.open(file, factory, 10);
+
+		assertThat(store.size()).isEqualTo(1001);
+		for (String id : new String[] { "rule-0", "rule-1", "rule-500", "rule-999", "übung" }) {
+			assertThat(store.get(id)).contains(expressions.get(id));
+		}
+		assertThat(store.get("rule-1000")).isEmpty();
+		assertThat(store.get("")).isEmpty();
+		assertThat(store.contains("rule-42")).isTrue();
+		assertThat(store.contains("rule-")).isFalse();
+	}
+
+	@Test
+	void readExpressionsAreCached() throws IOException, ParseException, EvaluationException {
+		ExpressionStore.write(file, factory, rules(100));
+		ExpressionStore store = ExpressionStore.open(file, factory, 2);
+
+		Expression first = store.get("rule-1").get();
+		assertThat(store.get("rule-1").get()).isSameAs(first);
+		store.get("rule-2");
+		store.get("rule-3");
+		assertThat(store.get("rule-1").get()).isNotSameAs(first).isEqualTo(first);
+
+		CacheStats stats = store.cacheStats().get();
+		assertThat(stats.size()).isEqualTo(2);
+		assertThat(stats.hitCount()).isEqualTo(1L);
+		assertThat(stats.missCount()).isEqualTo(4L);
+		assertThat(stats.evictionCount()).isEqualTo(2L);
+
+		assertThat(ExpressionStore.open(file, factory, 0).cacheStats()).isEmpty();
+	}
+
+	@Test
+	void idsAreSorted() throws IOException, ParseException, EvaluationException {
+		ExpressionStore.write(file, factory, rules(12));
+
+		List<String> ids = new ArrayList<>();
+		ExpressionStore.open(file, factory, 0).ids().forEach(ids::add);
+
+		assertThat(ids).hasSize(13);
+		assertThat(ids.get(0)).isEqualTo("rule-0");
+		assertThat(ids.get(1)).isEqualTo("rule-1");
+		assertThat(ids.get(2)).isEqualTo("rule-10");
+		assertThat(ids.get(12)).isEqualTo("übung");
+	}
+
+	@Test
+	void emptyStore() throws IOException, EvaluationException {
+		ExpressionStore.write(file, factory, new LinkedHashMap<>());
+		ExpressionStore store = ExpressionStore.open(file, factory, 10);
+
+		assertThat(store.size()).isEqualTo(0);
+		assertThat(store.get("any")).isEmpty();
+	}
+
+	@Test
+	void otherFilesAreRejected() throws IOException {
+		Files.write(file, "a + b, but not an expression store".getBytes());
+
+		assertThatThrownBy(() -> ExpressionStore.open(file, factory, 10))
+			.isInstanceOf(StreamCorruptedException.class);
+	}
+
+	private Map<String, Expression> rules(int count) throws ParseException, EvaluationException {
+		Map<String, Expression> rules = new LinkedHashMap<>();
+		for (int i = 0; i < count; i++) {
+			rules.put("rule-" + i, factory.parse("if(a > " + i + ", max(b, " + i + " * 2), \"rule " + i + "\")"));
+		}
+		rules.put("übung", factory.parse("durationOfDays(2 + 3) + x.y"));
+		return rules;
+	}
+}
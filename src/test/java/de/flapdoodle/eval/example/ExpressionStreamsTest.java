@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.example;
+
+import de.flapdoodle.eval.core.Expression;
+import de.flapdoodle.eval.core.ExpressionCollectors;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.exceptions.ParseException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExpressionStreamsTest {
+
+	@Test
+	void functionAndPredicateInParallelStream() throws ParseException, EvaluationException {
+		Expression isEven = Defaults.expressionFactory().parse("a % 2 == 0");
+		Expression doubled = Defaults.expressionFactory().parse("a * 2");
+
+		List<Evaluated<?>> result = rows(1000).parallelStream()
+			.filter(isEven.asPredicate(Value::isTrue))
+			.map(doubled.asFunction())
+			.collect(Collectors.toList());
+
+		assertThat(result).hasSize(500);
+		for (int i = 0; i < result.size(); i++) {
+			assertThat(result.get(i).wrapped()).isEqualTo(Value.of(BigDecimal.valueOf(i * 4L)));
+		}
+	}
+
+	@Test
+	void mappingCollector() throws ParseException, EvaluationException {
+		Expression expression = Defaults.expressionFactory().parse("a + 1");
+
+		List<Evaluated<?>> result = rows(3).stream()
+			.collect(ExpressionCollectors.mapping(expression, Collectors.toList()));
+
+		assertThat(result.stream().map(Evaluated::wrapped).collect(Collectors.toList()))
+			.containsExactly(Value.of(BigDecimal.ONE), Value.of(BigDecimal.valueOf(2)), Value.of(BigDecimal.valueOf(3)));
+	}
+
+	@Test
+	void parallelReductionMatchesSequential() throws ParseException, EvaluationException {
+		Expression value = Defaults.expressionFactory().parse("a * a");
+		Expression sum = Defaults.expressionFactory().parse("sum + next");
+
+		Optional<Evaluated<?>> sequential = rows(2000).stream()
+			.collect(ExpressionCollectors.reducing(value, sum));
+		Optional<Evaluated<?>> parallel = rows(2000).parallelStream()
+			.collect(ExpressionCollectors.reducing(value, sum));
+
+		assertThat(sequential).isPresent();
+		assertThat(sequential.get().wrapped()).isEqualTo(Value.of(BigDecimal.valueOf(2664667000L)));
+		assertThat(parallel.get().wrapped()).isEqualTo(sequential.get().wrapped());
+	}
+
+	@Test
+	void emptyStreamReducesToEmpty() throws ParseException, EvaluationException {
+		Optional<Evaluated<?>> result = new ArrayList<VariableResolver>().stream()
+			.collect(ExpressionCollectors.reducing(Defaults.expressionFactory().parse("a"), Defaults.expressionFactory().parse("x + y")));
+
+		assertThat(result).isEmpty();
+	}
+
+	@Test
+	void combineMustUseTwoVariables() throws ParseException, EvaluationException {
+		Expression value = Defaults.expressionFactory().parse("a");
+		Expression combine = Defaults.expressionFactory().parse("x + 1");
+
+		assertThatThrownBy(() -> ExpressionCollectors.reducing(value, combine))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void evaluationErrorsAreRethrown() throws ParseException, EvaluationException {
+		Expression expression = Defaults.expressionFactory().parse("10 / (a % 3)");
+
+		assertThatThrownBy(() -> rows(10).stream().map(expression.asFunction()).collect(Collectors.toList()))
+			.isInstanceOf(EvaluationException.AsRuntimeException.class)
+			.satisfies(ex -> assertThat(((EvaluationException.AsRuntimeException) ex).wrapped()).hasMessage("Division by zero"));
+	}
+
+	private static List<VariableResolver> rows(int count) {
+		List<VariableResolver> rows = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			rows.add(VariableResolver.empty()
+				.with("a", Evaluated.value(Value.of(BigDecimal.valueOf(i)))));
+		}
+		return rows;
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.example;
+
+import de.flapdoodle.eval.core.CompiledExpression;
+import de.flapdoodle.eval.core.Expression;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.exceptions.ParseException;
+import de.flapdoodle.eval.core.tree.Program;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FlatProgramTest {
+
+	@Test
+	void compiledOnlyOnce() throws ParseException, EvaluationException {
+		Expression expression = Defaults.expressionFactory().parse("a+b");
+
+		assertThat(expression.compileFlat()).isSameAs(expression.compileFlat());
+		assertThat(expression.compileFlat().flat()).isTrue();
+		assertThat(expression.compile().flat()).isFalse();
+	}
+
+	@Test
+	void variablesGetOneSlotEach() throws ParseException, EvaluationException {
+		Program program = Program.compile(Defaults.expressionFactory().parse("a * b + a * c - b").root());
+
+		assertThat(program.variables()).containsExactly("a", "b", "c");
+	}
+
+	@Test
+	void lazyArgumentIsOnlyEvaluatedIfNeeded() throws ParseException, EvaluationException {
+		CompiledExpression compiled = Defaults.expressionFactory().parse("if(a > 0, a * 2, sqrt(x))").compileFlat();
+
+		assertThat(compiled.evaluate(VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(5)))).wrapped())
+			.isEqualTo(Value.of(10));
+	}
+
+	@Test
+	void failingArgumentIsMappedLikeInterpreted() throws ParseException, EvaluationException {
+		Expression expression = Defaults.expressionFactory().parse("1 + (2 * sqrt(a)) + b");
+		VariableResolver variables = VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of("x")))
+			.with("b", Evaluated.value(Value.of(1)));
+
+		EvaluationException interpreted = null;
+		try {
+			expression.evaluate(variables);
+		}
+		catch (EvaluationException ex) {
+			interpreted = ex;
+		}
+
+		assertThat(interpreted).isNotNull();
+		assertThatThrownBy(() -> expression.compileFlat().evaluate(variables))
+			.isEqualTo(interpreted);
+	}
+
+	@Test
+	void sharedSubexpressionsAreEvaluatedOnce() throws ParseException, EvaluationException {
+		Expression expression = Defaults.expressionFactory().parse("(a * b + 1) * (a * b + 1) - (a * b + 1)");
+		VariableResolver variables = VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(2)))
+			.with("b", Evaluated.value(Value.of(3)));
+
+		assertThat(expression.compileFlat().evaluate(variables))
+			.isEqualTo(expression.evaluate(variables));
+	}
+
+	@Test
+	void deeplyNestedExpression() throws ParseException, EvaluationException {
+		StringBuilder source = new StringBuilder("a");
+		for (int i = 0; i < 500; i++) {
+			source.append(" + a");
+		}
+		Expression expression = Defaults.expressionFactory().parse(source.toString());
+
+		assertThat(expression.compileFlat().evaluate(VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(2)))).wrapped())
+			.isEqualTo(Value.of(1002));
+	}
+
+	@Test
+	void nestedRunsLikeInterpreted() throws ParseException, EvaluationException {
+		StringBuilder deep = new StringBuilder("a");
+		for (int i = 0; i < 100; i++) {
+			deep.insert(0, "a + (").append(")");
+		}
+		VariableResolver variables = VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(2)))
+			.with("b", Evaluated.value(Value.of(3)));
+
+		for (String source : new String[] {
+			"if(a > 0, max(a, b, if(b > 0, (a + b) * (a - b), 0)), 0) + max(b, a, b, a)",
+			"if(a > 0, " + deep + ", 0)",
+			"if(a > 0, max(a, b, " + deep + "), 0) * (a * b) + (a * b)"
+		}) {
+			Expression expression = Defaults.expressionFactory().parse(source);
+
+			assertThat(expression.compileFlat().evaluate(variables)).as(source)
+				.isEqualTo(expression.evaluate(variables));
+		}
+
+		Expression failing = Defaults.expressionFactory().parse("if(a > 0, max(a, b, x), 0)");
+		assertThatThrownBy(() -> failing.compileFlat().evaluate(variables))
+			.isInstanceOf(EvaluationException.class);
+		assertThat(failing.compileFlat().evaluate(VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(2)))
+			.with("b", Evaluated.value(Value.of(3)))
+			.with("x", Evaluated.value(Value.of(7)))).wrapped())
+			.isEqualTo(Value.of(7));
+	}
+}
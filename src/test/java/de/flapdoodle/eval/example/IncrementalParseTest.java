@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.example;
+
+import de.flapdoodle.eval.core.Expression;
+import de.flapdoodle.eval.core.ImmutableExpressionFactory;
+import de.flapdoodle.eval.core.VariableTypeResolver;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.exceptions.ParseException;
+import de.flapdoodle.eval.core.tree.Node;
+import de.flapdoodle.reflection.TypeInfo;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IncrementalParseTest {
+
+	private final ImmutableExpressionFactory factory = Defaults.expressionFactory();
+
+	@Test
+	void reparseMatchesFullParse() throws ParseException, EvaluationException {
+		assertReparse("max(a, 2) + b * sqrt(c)", 12, 1, "(b + 1)");
+		assertReparse("max(a, 2) + b * sqrt(c)", 4, 1, "x");
+		assertReparse("max(a, 2) + b * sqrt(c)", 0, 3, "min");
+		assertReparse("max(a, 2) + b * sqrt(c)", 23, 0, " - abs(a)");
+		assertReparse("a + b", 1, 3, "");
+		assertReparse("if(a > 1, \"x\", \"y\") + z", 22, 1, "max(1, 2)");
+		assertReparse("a * abs(b)", 4, 0, "2 * ");
+	}
+
+	@Test
+	void reparseWithFoldingAndSharedSubexpressions() throws ParseException, EvaluationException {
+		ImmutableExpressionFactory optimizing = factory
+			.withConstantFolding(true)
+			.withCommonSubexpressionElimination(true);
+
+		String source = "max(1, 2) * abs(a) + abs(a) - x";
+		Expression previous = optimizing.parse(source);
+		Expression reparsed = optimizing.reparse(previous, 30, 1, "y");
+		Expression expected = optimizing.parse("max(1, 2) * abs(a) + abs(a) - y");
+
+		assertThat(reparsed.root()).isEqualTo(expected.root());
+		assertThat(reparsed.variables()).isEqualTo(expected.variables());
+		assertThat(reparsed.eliminatedNodes()).isEqualTo(expected.eliminatedNodes());
+	}
+
+	@Test
+	void chainedEdits() throws ParseException, EvaluationException {
+		Expression expression = factory.parse("abs(a)");
+		String source = "abs(a)";
+
+		String[] inserted = { " + b", " * max(c, d)", "2*", "", "(b)" };
+		int[] offsets = { 6, 10, 0, 0, 9 };
+		int[] removed = { 0, 0, 0, 2, 1 };
+		for (int i = 0; i < inserted.length; i++) {
+			source = source.substring(0, offsets[i]) + inserted[i] + source.substring(offsets[i] + removed[i]);
+			expression = factory.reparse(expression, offsets[i], removed[i], inserted[i]);
+
+			Expression expected = factory.parse(source);
+			assertThat(expression.source().toString()).isEqualTo(source);
+			assertThat(expression.root()).isEqualTo(expected.root());
+			assertThat(expression.variables()).isEqualTo(expected.variables());
+		}
+	}
+
+	@Test
+	void functionCallsOutsideOfEditAreReused() throws ParseException, EvaluationException {
+		Expression previous = factory.parse("max(a, 2) + b + sqrt(c)");
+		Expression reparsed = factory.reparse(previous, 12, 1, "bb");
+
+		assertThat(functionCall(reparsed, "max")).isSameAs(functionCall(previous, "max"));
+		assertThat(functionCall(reparsed, "sqrt").token().start()).isEqualTo(17);
+		assertThat(reparsed.variables().positionsOf("c")).containsExactly(22);
+	}
+
+	@Test
+	void reparseBindsTypesLikeParse() throws ParseException, EvaluationException {
+		VariableTypeResolver types = VariableTypeResolver.empty()
+			.with("a", TypeInfo.of(Value.NumberValue.class))
+			.with("b", TypeInfo.of(Value.NumberValue.class))
+			.with("s", TypeInfo.of(Value.StringValue.class));
+
+		Expression previous = factory.parse("max(a, 2) + b", types);
+		Expression reparsed = factory.reparse(previous, 12, 1, "a * 3");
+
+		assertThat(reparsed.root()).isEqualTo(factory.parse("max(a, 2) + a * 3", types).root());
+		assertThat(reparsed.root()).isNotEqualTo(factory.parse("max(a, 2) + a * 3").root());
+		assertThatThrownBy(() -> factory.reparse(previous, 12, 1, "s * a"))
+			.isInstanceOf(EvaluationException.class);
+		assertThatThrownBy(() -> factory.reparse(previous, 12, 1, "x"))
+			.isInstanceOf(EvaluationException.class)
+			.hasMessage("Variable or constant value for 'x' not found");
+	}
+
+	@Test
+	void reparseFailsLikeParse() throws ParseException, EvaluationException {
+		Expression previous = factory.parse("max(a, 2) + b");
+
+		assertThatThrownBy(() -> factory.reparse(previous, 8, 1, ""))
+			.isInstanceOf(ParseException.class)
+			.hasMessage("Closing brace not found");
+		assertThatThrownBy(() -> factory.reparse(previous, 12, 1, ""))
+			.isInstanceOf(ParseException.class)
+			.hasMessage("Missing second operand for operator");
+		assertThatThrownBy(() -> factory.reparse(previous, 10, 5, ""))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static Node functionCall(Expression expression, String name) {
+		return expression.allNodes().stream()
+			.filter(it -> it.token().value().equals(name))
+			.findFirst()
+			.get();
+	}
+
+	private void assertReparse(String source, int offset, int removed, String inserted) throws ParseException, EvaluationException {
+		String changed = source.substring(0, offset) + inserted + source.substring(offset + removed);
+		Expression reparsed = factory.reparse(factory.parse(source), offset, removed, inserted);
+		Expression expected = factory.parse(changed);
+
+		assertThat(reparsed.source().toString()).isEqualTo(changed);
+		assertThat(reparsed).isEqualTo(expected);
+	}
+}
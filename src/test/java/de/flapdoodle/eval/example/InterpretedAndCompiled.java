@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.example;
+
+import de.flapdoodle.eval.core.Expression;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.exceptions.ParseException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public abstract class InterpretedAndCompiled {
+
+	private InterpretedAndCompiled() {
+		// no instance
+	}
+
+	/**
+	 * evaluates the expression, the compiled and the flat compiled expression, fails if the results differ
+	 */
+	public static Evaluated<?> evaluate(Expression expression, VariableResolver variableResolver) throws EvaluationException, ParseException {
+		Evaluated<?> compiledResult = null;
+		EvaluationException compiledException = null;
+		try {
+			compiledResult = expression.compile().evaluate(variableResolver);
+		}
+		catch (EvaluationException ex) {
+			compiledException = ex;
+		}
+
+		Evaluated<?> flatResult = null;
+		EvaluationException flatException = null;
+		try {
+			flatResult = expression.compileFlat().evaluate(variableResolver);
+		}
+		catch (EvaluationException ex) {
+			flatException = ex;
+		}
+
+		Evaluated<?> result;
+		try {
+			result = expression.evaluate(variableResolver);
+		}
+		catch (EvaluationException ex) {
+			assertThat(compiledException).isEqualTo(ex);
+			assertThat(flatException).isEqualTo(ex);
+			throw ex;
+		}
+
+		assertThat(compiledException).isNull();
+		assertThat(compiledResult).isEqualTo(result);
+		assertThat(flatException).isNull();
+		assertThat(flatResult).isEqualTo(result);
+		return result;
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.example;
+
+import de.flapdoodle.eval.core.Expression;
+import de.flapdoodle.eval.core.ImmutableExpressionFactory;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.evaluables.TypedEvaluable;
+import de.flapdoodle.eval.core.evaluables.TypedEvaluableMap;
+import de.flapdoodle.eval.core.evaluables.TypedEvaluables;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.exceptions.ParseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LazyParameterTest {
+
+	private final AtomicInteger calls = new AtomicInteger();
+
+	private final ImmutableExpressionFactory factory = Defaults.expressionFactory()
+		.withEvaluatables(TypedEvaluableMap.builder()
+			.putMap("count", TypedEvaluables.builder()
+				.addList(TypedEvaluable.of(Value.NumberValue.class, Value.NumberValue.class,
+					(variableResolver, evaluationContext, token, argument) -> {
+						calls.incrementAndGet();
+						return argument;
+					}))
+				.build())
+			.build()
+			.andThen(Defaults.expressionFactory().evaluatables()));
+
+	@ParameterizedTest
+	@CsvSource(delimiter = ';', value = {
+		"if(a > 0, 1, count(2)); 1; 0",
+		"if(a < 0, 1, count(2)); 2; 1",
+		"if(a > 0, count(1), count(2)); 1; 1",
+		"a < 0 && count(1) > 0; false; 0",
+		"a > 0 && count(1) > 0; true; 1",
+		"a > 0 || count(1) > 0; true; 0",
+		"a < 0 || count(1) > 0; true; 1"
+	})
+	void unusedArgumentIsNotEvaluated(String source, String expected, int expectedCalls) throws ParseException, EvaluationException {
+		Expression expression = factory.parse(source);
+		VariableResolver variables = VariableResolver.empty().with("a", Evaluated.value(Value.of(1)));
+		Object expectedValue = factory.parse(expected).evaluate(VariableResolver.empty()).wrapped();
+
+		assertThat(expression.evaluate(variables).wrapped()).isEqualTo(expectedValue);
+		assertThat(calls.get()).isEqualTo(expectedCalls);
+		assertThat(expression.compile().evaluate(variables).wrapped()).isEqualTo(expectedValue);
+		assertThat(calls.get()).isEqualTo(expectedCalls * 2);
+	}
+
+	@Test
+	void failingArgumentIsOnlyThrownIfUsed() throws ParseException, EvaluationException {
+		assertThat(factory.parse("if(true, 2, 1/0)").evaluate(VariableResolver.empty()).wrapped())
+			.isEqualTo(Value.of(BigDecimal.valueOf(2)));
+		assertThatThrownBy(() -> factory.parse("if(false, 2, 1/0)").evaluate(VariableResolver.empty()))
+			.isInstanceOf(EvaluationException.class)
+			.hasMessage("Division by zero");
+	}
+
+	@Test
+	void lazyArgumentIsValidatedIfUsed() throws ParseException, EvaluationException {
+		assertThat(factory.parse("false && \"x\"").evaluate(VariableResolver.empty()).wrapped())
+			.isEqualTo(Value.of(false));
+		assertThatThrownBy(() -> factory.parse("true && \"x\"").evaluate(VariableResolver.empty()))
+			.isInstanceOf(EvaluationException.class);
+	}
+}
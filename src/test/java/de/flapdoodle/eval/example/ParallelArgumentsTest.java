@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.example;
+
+import de.flapdoodle.eval.core.Expression;
+import de.flapdoodle.eval.core.ExpressionCodec;
+import de.flapdoodle.eval.core.ImmutableExpressionFactory;
+import de.flapdoodle.eval.core.ParallelArguments;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.evaluables.TypedEvaluable;
+import de.flapdoodle.eval.core.evaluables.TypedEvaluableMap;
+import de.flapdoodle.eval.core.evaluables.TypedEvaluables;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.exceptions.ParseException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class ParallelArgumentsTest {
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(2);
+	private final Set<Thread> scoringThreads = ConcurrentHashMap.newKeySet();
+	private volatile CountDownLatch together = new CountDownLatch(0);
+
+	private final ImmutableExpressionFactory factory = Defaults.expressionFactory()
+		.withEvaluatables(TypedEvaluableMap.builder()
+			.putMap("score", TypedEvaluables.builder()
+				.addList(TypedEvaluable.of(Value.NumberValue.class, Value.NumberValue.class,
+					(variableResolver, evaluationContext, token, argument) -> {
+						scoringThreads.add(Thread.currentThread());
+						together.countDown();
+						try {
+							if (!together.await(5, TimeUnit.SECONDS)) {
+								throw new EvaluationException(token, "not evaluated in parallel");
+							}
+						}
+						catch (InterruptedException ex) {
+							throw new EvaluationException(token, "interrupted");
+						}
+						return Value.of(argument.wrapped().multiply(argument.wrapped()));
+					}).withCost(600))
+				.build())
+			.putMap("combine", TypedEvaluables.builder()
+				.addList(TypedEvaluable.of(Value.NumberValue.class, Value.NumberValue.class, Value.NumberValue.class,
+					(variableResolver, evaluationContext, token, first, second) -> Value.of(first.wrapped().add(second.wrapped())))
+					.withParallelArguments())
+				.build())
+			.build()
+			.andThen(Defaults.expressionFactory().evaluatables()));
+
+	private final ImmutableExpressionFactory parallelFactory = factory.withParallelArguments(ParallelArguments.of(executor));
+
+	private final VariableResolver variables = VariableResolver.empty()
+		.with("a", Evaluated.value(Value.of(2)))
+		.with("b", Evaluated.value(Value.of(3)));
+
+	@AfterEach
+	void shutdown() {
+		executor.shutdown();
+	}
+
+	@Test
+	void expensiveArgumentsAreEvaluatedConcurrently() throws ParseException, EvaluationException {
+		together = new CountDownLatch(2);
+		Expression expression = parallelFactory.parse("combine(score(a), score(b))");
+
+		Evaluated<?> result = expression.evaluate(variables);
+
+		assertThat(((Value.NumberValue) result.wrapped()).wrapped().compareTo(BigDecimal.valueOf(13))).isEqualTo(0);
+		assertThat(scoringThreads).hasSize(2);
+	}
+
+	@Test
+	void expressionsReadFromBinaryFormatEvaluateArgumentsConcurrently() throws ParseException, EvaluationException, IOException {
+		together = new CountDownLatch(2);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ExpressionCodec.of(parallelFactory).writeAll(Collections.singletonList(parallelFactory.parse("combine(score(a), score(b))")), out);
+		List<Expression> read = ExpressionCodec.of(parallelFactory).readAll(new ByteArrayInputStream(out.toByteArray()));
+
+		Evaluated<?> result = read.get(0).evaluate(variables);
+
+		assertThat(((Value.NumberValue) result.wrapped()).wrapped().compareTo(BigDecimal.valueOf(13))).isEqualTo(0);
+		assertThat(scoringThreads).hasSize(2);
+	}
+
+	@Test
+	void cheapArgumentsAreEvaluatedInSequence() throws ParseException, EvaluationException {
+		Expression expression = parallelFactory.parse("combine(score(a), b)");
+
+		Evaluated<?> result = expression.evaluate(variables);
+
+		assertThat(((Value.NumberValue) result.wrapped()).wrapped().compareTo(BigDecimal.valueOf(7))).isEqualTo(0);
+		assertThat(scoringThreads).containsExactly(Thread.currentThread());
+	}
+
+	@Test
+	void onlyMarkedEvaluablesForkArguments() throws ParseException, EvaluationException {
+		Expression expression = parallelFactory.parse("score(a) + score(b)");
+
+		Evaluated<?> result = expression.evaluate(variables);
+
+		assertThat(result).isEqualTo(factory.parse("score(a) + score(b)").evaluate(variables));
+		assertThat(scoringThreads).containsExactly(Thread.currentThread());
+	}
+
+	@Test
+	void sameErrorsAsSequentialEvaluation() throws ParseException, EvaluationException {
+		for (String source : new String[] {
+			"combine(score(a), score(b) / 0)",
+			"combine(score(a) / 0, score(b) / 0)",
+			"combine(score(x), score(b))",
+			"combine(score(a) + \"text\", score(b))"
+		}) {
+			together = new CountDownLatch(0);
+			Throwable sequential = catchThrowable(() -> factory.parse(source).evaluate(variables));
+			Throwable parallel = catchThrowable(() -> parallelFactory.parse(source).evaluate(variables));
+
+			assertThat(sequential).as(source).isNotNull();
+			assertThat(parallel).as(source)
+				.isInstanceOf(sequential.getClass())
+				.hasMessage(sequential.getMessage());
+		}
+	}
+
+	@Test
+	void sharedSubtreesInParallelArguments() throws ParseException, EvaluationException {
+		together = new CountDownLatch(2);
+		Expression expression = parallelFactory.withCommonSubexpressionElimination(true)
+			.parse("combine(score(a + b) + (a * b), score(a - b) * (a * b))");
+
+		Evaluated<?> result = expression.evaluate(variables);
+
+		assertThat(expression.eliminatedNodes()).isGreaterThan(0);
+		assertThat(((Value.NumberValue) result.wrapped()).wrapped().compareTo(BigDecimal.valueOf(37))).isEqualTo(0);
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.example;
+
+import de.flapdoodle.eval.core.Expression;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.exceptions.ParseException;
+import de.flapdoodle.types.Either;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParallelEvaluationTest {
+
+	@Test
+	void resultsInInputOrder() throws ParseException, EvaluationException {
+		Expression expression = Defaults.expressionFactory().parse("a * 2 + 1");
+		List<VariableResolver> rows = rows(10000);
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			List<Either<Evaluated<?>, EvaluationException>> results = expression.evaluateAll(rows, pool);
+
+			assertThat(results).hasSize(rows.size());
+			for (int i = 0; i < rows.size(); i++) {
+				assertThat(results.get(i).left()).isEqualTo(expression.evaluate(rows.get(i)));
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void failingRowsAreCaptured() throws ParseException, EvaluationException {
+		Expression expression = Defaults.expressionFactory().parse("10 / (a % 3)");
+		List<VariableResolver> rows = rows(300);
+
+		List<Either<Evaluated<?>, EvaluationException>> results = expression.evaluateAll(rows);
+
+		for (int i = 0; i < rows.size(); i++) {
+			Either<Evaluated<?>, EvaluationException> result = results.get(i);
+			if (i % 3 == 0) {
+				assertThat(result.isLeft()).isFalse();
+				assertThat(result.right()).hasMessage("Division by zero");
+			} else {
+				assertThat(result.left()).isEqualTo(expression.evaluate(rows.get(i)));
+			}
+		}
+	}
+
+	@Test
+	void rowsOfUnknownSize() throws ParseException, EvaluationException {
+		Expression expression = Defaults.expressionFactory().parse("a - 1");
+		List<VariableResolver> rows = rows(5000);
+		Spliterator<VariableResolver> unsized = Spliterators.spliteratorUnknownSize(rows.iterator(), Spliterator.ORDERED);
+
+		List<Either<Evaluated<?>, EvaluationException>> results = expression.evaluateAll(unsized);
+
+		assertThat(results).hasSize(rows.size());
+		for (int i = 0; i < rows.size(); i++) {
+			assertThat(results.get(i).left()).isEqualTo(expression.evaluate(rows.get(i)));
+		}
+	}
+
+	private static List<VariableResolver> rows(int count) {
+		List<VariableResolver> rows = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			rows.add(VariableResolver.empty()
+				.with("a", Evaluated.value(Value.of(BigDecimal.valueOf(i)))));
+		}
+		return rows;
+	}
+}
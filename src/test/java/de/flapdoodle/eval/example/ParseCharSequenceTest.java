@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.example;
+
+import de.flapdoodle.eval.core.Expression;
+import de.flapdoodle.eval.core.ExpressionFactory;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.exceptions.ParseException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.CharBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParseCharSequenceTest {
+
+	private final ExpressionFactory factory = Defaults.expressionFactory();
+
+	@Test
+	void parseSliceOfCharBuffer() throws ParseException, EvaluationException {
+		CharBuffer rules = CharBuffer.wrap("a+b;\"x\" + name;(a*b)-a\n");
+
+		Expression expression = factory.parse(rules, 15, 7);
+		Expression expected = factory.parse("(a*b)-a");
+
+		assertThat(expression.sourceChars().referenced()).isInstanceOf(CharBuffer.class);
+		assertThat(expression.source()).isEqualTo("(a*b)-a");
+		assertThat(expression.usedVariables()).isEqualTo(expected.usedVariables());
+		assertThat(expression.variables()).isEqualTo(expected.variables());
+		assertThat(expression.variables().positionsOf("a")).containsExactly(1, 6);
+
+		VariableResolver variables = VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(3)))
+			.with("b", Evaluated.value(Value.of(2)));
+		assertThat(expression.evaluate(variables)).isEqualTo(expected.evaluate(variables));
+	}
+
+	@Test
+	void expressionsOfSliceAndStringAreEqual() throws ParseException, EvaluationException {
+		CharBuffer rules = CharBuffer.wrap("a+b;(a*b)-a;(a*b)-a\n");
+
+		Expression first = factory.parse(rules, 4, 7);
+		Expression second = factory.parse(rules, 12, 7);
+		Expression expected = factory.parse("(a*b)-a");
+
+		assertThat(first).isEqualTo(second);
+		assertThat(first).isEqualTo(expected);
+		assertThat(first.hashCode()).isEqualTo(expected.hashCode());
+		assertThat(first).isNotEqualTo(factory.parse(rules, 0, 3));
+	}
+
+	@Test
+	void stringLiteralInSlice() throws ParseException, EvaluationException {
+		CharBuffer rules = CharBuffer.wrap("a+b;\"x\\ty\" + name;(a*b)-a\n");
+
+		Expression expression = factory.parse(rules, 4, 13);
+		VariableResolver variables = VariableResolver.empty().with("name", Evaluated.value(Value.of("!")));
+
+		assertThat(expression.evaluate(variables))
+			.isEqualTo(factory.parse("\"x\\ty\" + name").evaluate(variables));
+	}
+
+	@Test
+	void errorPositionsAreRelativeToSlice() {
+		CharBuffer rules = CharBuffer.wrap("a+b;2*$;c");
+
+		assertThatThrownBy(() -> factory.parse(rules, 4, 3))
+			.isInstanceOf(ParseException.class)
+			.isEqualTo(new ParseException(2, 2, "$", "Undefined operator '$'"));
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.example;
+
+import de.flapdoodle.eval.core.Expression;
+import de.flapdoodle.eval.core.ImmutableExpressionFactory;
+import de.flapdoodle.eval.core.exceptions.ParseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class SinglePassParserTest {
+
+	private final ImmutableExpressionFactory factory = Defaults.expressionFactory();
+	private final ImmutableExpressionFactory singlePass = factory.withSinglePassParser(true);
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"1+2*3-4/5",
+		"2^3^2",
+		"-2^2",
+		"-a*-b+c",
+		"(a+b)*(c-d)",
+		"2(a+b)(c)+3x",
+		"a>b && b>=c || !d",
+		"a.b.c[1]{\"x\"}.d",
+		"a.\"field 1\"[2] + -x",
+		"max(a, b+1, 2*c) + sqrt(abs(-d))",
+		"if(a>b, \"x\" + a, b)",
+		"a + a*b - a",
+		"1e3 + 0x1F + .5",
+		"-(1)",
+	})
+	void sameNodesAndVariablesAsShuntingYard(String source) throws Exception {
+		Expression expected = factory.parse(source);
+		Expression expression = singlePass.parse(source);
+
+		assertThat(expression.root()).isEqualTo(expected.root());
+		assertThat(expression.variables()).isEqualTo(expected.variables());
+		assertThat(expression).isEqualTo(expected);
+	}
+
+	@Test
+	void errorsMatchShuntingYard() {
+		for (String source : new String[] { "", "()", ",", "a+", "-", "(a", "a b", "1 +* 2", "f()" }) {
+			Throwable expected = catchThrowable(() -> factory.parse(source));
+			Throwable error = catchThrowable(() -> singlePass.parse(source));
+
+			assertThat(error).describedAs(source).isInstanceOf(ParseException.class);
+			assertThat(error.getMessage()).describedAs(source).isEqualTo(expected.getMessage());
+		}
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.example;
+
+import de.flapdoodle.eval.core.Expression;
+import de.flapdoodle.eval.core.ExpressionFactory;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.VariableTypeResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.exceptions.ParseException;
+import de.flapdoodle.reflection.TypeInfo;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class TypeBindingTest {
+
+	private final ExpressionFactory factory = Defaults.expressionFactory();
+
+	private final VariableTypeResolver types = VariableTypeResolver.empty()
+		.with("a", TypeInfo.of(Value.NumberValue.class))
+		.with("b", TypeInfo.of(Value.NumberValue.class))
+		.with("s", TypeInfo.of(Value.StringValue.class))
+		.with("v", TypeInfo.of(Value.class));
+
+	@Test
+	void boundExpressionEvaluatesLikeUnboundExpression() throws ParseException, EvaluationException {
+		VariableResolver variables = VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(2)))
+			.with("b", Evaluated.value(Value.of(3)))
+			.with("s", Evaluated.value(Value.of("x")));
+
+		for (String source : new String[] { "a+b*2", "s+a", "if(a > b, s, \"y\")", "max(a, b, 4)", "-a" }) {
+			Expression bound = factory.parse(source, types);
+			Expression unbound = factory.parse(source);
+
+			assertThat(bound.evaluate(variables)).isEqualTo(unbound.evaluate(variables));
+			assertThat(bound.compile().evaluate(variables)).isEqualTo(unbound.evaluate(variables));
+			assertThat(bound.evaluateType(types)).isEqualTo(unbound.evaluateType(types));
+		}
+	}
+
+	@Test
+	void baseTypeArgumentKeepsDynamicDispatch() throws ParseException, EvaluationException {
+		VariableResolver variables = VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(2)))
+			.with("b", Evaluated.value(Value.of(3)))
+			.with("v", Evaluated.value(Value.of(1)))
+			.with("s", Evaluated.value(Value.of("x")));
+
+		for (String source : new String[] { "v+3", "if(a > b, 1, 2)+3", "(v+3)*2", "v+s" }) {
+			Expression bound = factory.parse(source, types);
+			Expression unbound = factory.parse(source);
+
+			assertThat(bound.evaluate(variables)).isEqualTo(unbound.evaluate(variables));
+			assertThat(bound.compile().evaluate(variables)).isEqualTo(unbound.evaluate(variables));
+		}
+		assertThat(factory.parse("v+3", types).evaluate(variables).wrapped())
+			.isInstanceOf(Value.NumberValue.class);
+	}
+
+	@Test
+	void typeErrorIsThrownOnParse() {
+		assertThatThrownBy(() -> factory.parse("s*a", types))
+			.isInstanceOf(EvaluationException.class);
+	}
+
+	@Test
+	void unknownVariableIsThrownOnParse() {
+		assertThatThrownBy(() -> factory.parse("a+x", types))
+			.isInstanceOf(EvaluationException.class)
+			.hasMessage("Variable or constant value for 'x' not found");
+	}
+
+	@Test
+	void unknownVariableInLazyArgumentIsThrownOnEvaluation() throws ParseException, EvaluationException {
+		Expression expression = factory.parse("if(a > b, a, x)", types);
+
+		assertThat(expression.evaluate(VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(3)))
+			.with("b", Evaluated.value(Value.of(2)))).wrapped())
+			.isEqualTo(Value.of(3));
+		assertThatThrownBy(() -> expression.evaluate(VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(2)))
+			.with("b", Evaluated.value(Value.of(3)))))
+			.isInstanceOf(EvaluationException.class)
+			.hasMessage("Variable or constant value for 'x' not found");
+	}
+
+	@Test
+	void valueNotMatchingDeclaredTypeFailsOnEvaluation() throws ParseException, EvaluationException {
+		Expression expression = factory.parse("a*b", types);
+
+		assertThatThrownBy(() -> expression.evaluate(VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of("2")))
+			.with("b", Evaluated.value(Value.of(3)))))
+			.isInstanceOf(EvaluationException.class);
+	}
+
+	@Test
+	void compiledBoundCallsFailLikeEvaluation() throws ParseException, EvaluationException {
+		VariableResolver variables = VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(2)))
+			.with("b", Evaluated.value(Value.of(0)));
+
+		for (String source : new String[] { "a / b * a", "-(a / b)", "sqrt(a - 3)" }) {
+			Expression bound = factory.parse(source, types);
+
+			Throwable evaluated = catchThrowable(() -> bound.evaluate(variables));
+			Throwable compiled = catchThrowable(() -> bound.compile().evaluate(variables));
+
+			assertThat(evaluated).as(source).isNotNull();
+			assertThat(compiled).as(source)
+				.isInstanceOf(evaluated.getClass())
+				.hasMessage(evaluated.getMessage());
+		}
+
+		Expression bound = factory.parse("a * b", types);
+		VariableResolver wrongType = VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(2)))
+			.with("b", Evaluated.value(Value.of("3")));
+		Throwable evaluated = catchThrowable(() -> bound.evaluate(wrongType));
+		assertThat(evaluated).isInstanceOf(EvaluationException.class);
+		assertThat(catchThrowable(() -> bound.compile().evaluate(wrongType)))
+			.isInstanceOf(EvaluationException.class)
+			.hasMessage(evaluated.getMessage());
+	}
+}
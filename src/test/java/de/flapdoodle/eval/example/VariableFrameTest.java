@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.example;
+
+import de.flapdoodle.eval.core.Expression;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.exceptions.EvaluationException;
+import de.flapdoodle.eval.core.exceptions.ParseException;
+import de.flapdoodle.eval.core.tree.VariableFrame;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VariableFrameTest {
+
+	@Test
+	void slotsInOrderOfFirstUse() throws ParseException, EvaluationException {
+		Expression expression = Defaults.expressionFactory().parse("b * a + b * c");
+
+		assertThat(expression.variables().slots())
+			.containsEntry("b", 0)
+			.containsEntry("a", 1)
+			.containsEntry("c", 2);
+	}
+
+	@Test
+	void frameEvaluatesLikeResolver() throws ParseException, EvaluationException {
+		Expression expression = Defaults.expressionFactory().parse("if(a > b, a * 2, b - c)");
+		VariableResolver variables = VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(3)))
+			.with("b", Evaluated.value(Value.of(4)))
+			.with("c", Evaluated.value(Value.of(1)));
+
+		VariableFrame frame = expression.frame(variables);
+
+		Evaluated<?> expected = expression.evaluate(variables);
+		assertThat(expected.wrapped()).isEqualTo(Value.of(3));
+		assertThat(expression.evaluate(frame)).isEqualTo(expected);
+		assertThat(expression.compile().evaluate(frame)).isEqualTo(expected);
+		assertThat(expression.compileFlat().evaluate(frame)).isEqualTo(expected);
+	}
+
+	@Test
+	void reuseFrameForEachRow() throws ParseException, EvaluationException {
+		Expression expression = Defaults.expressionFactory().parse("a + b");
+		VariableFrame frame = expression.frame(VariableResolver.empty());
+
+		for (int i = 0; i < 3; i++) {
+			frame.set(0, Evaluated.value(Value.of(i)))
+				.set(1, Evaluated.value(Value.of(10)));
+
+			assertThat(expression.compile().evaluate(frame).wrapped()).isEqualTo(Value.of(10 + i));
+			assertThat(expression.compileFlat().evaluate(frame).wrapped()).isEqualTo(Value.of(10 + i));
+		}
+	}
+
+	@Test
+	void frameOfOtherExpressionFallsBackToNames() throws ParseException, EvaluationException {
+		Expression expression = Defaults.expressionFactory().parse("a - b");
+		VariableFrame frame = Defaults.expressionFactory().parse("b + a").frame(VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(5)))
+			.with("b", Evaluated.value(Value.of(2))));
+
+		assertThat(expression.compile().evaluate(frame).wrapped()).isEqualTo(Value.of(3));
+		assertThat(expression.compileFlat().evaluate(frame).wrapped()).isEqualTo(Value.of(3));
+	}
+
+	@Test
+	void missingVariable() throws ParseException, EvaluationException {
+		Expression expression = Defaults.expressionFactory().parse("a + b");
+		VariableFrame frame = expression.frame(VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(5))));
+
+		assertThatThrownBy(() -> expression.compile().evaluate(frame))
+			.isInstanceOf(EvaluationException.class)
+			.hasMessage("Variable or constant value for 'b' not found");
+		assertThatThrownBy(() -> expression.compileFlat().evaluate(frame))
+			.isInstanceOf(EvaluationException.class)
+			.hasMessage("Variable or constant value for 'b' not found");
+	}
+}
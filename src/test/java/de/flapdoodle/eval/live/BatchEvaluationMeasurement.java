@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.live;
+
+import de.flapdoodle.eval.core.Column;
+import de.flapdoodle.eval.core.CompiledExpression;
+import de.flapdoodle.eval.core.Expression;
+import de.flapdoodle.eval.core.ExpressionFactory;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.example.Defaults;
+import de.flapdoodle.eval.example.Primitives;
+import de.flapdoodle.eval.example.Value;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * not part of the test run, start main() to compare batch evaluation with and without kernels against evaluating
+ * each row of a batch with the compiled expression
+ */
+public class BatchEvaluationMeasurement {
+
+	private static final int ROWS = 1000;
+
+	public static void main(String[] args) throws Exception {
+		Random random = new Random(42);
+		long[] a = new long[ROWS];
+		long[] b = new long[ROWS];
+		double[] x = new double[ROWS];
+		double[] y = new double[ROWS];
+		for (int i = 0; i < ROWS; i++) {
+			a[i] = random.nextInt(1000);
+			b[i] = random.nextInt(1000);
+			x[i] = random.nextDouble();
+			y[i] = random.nextDouble();
+		}
+
+		VariableResolver[] longRows = new VariableResolver[ROWS];
+		VariableResolver[] doubleRows = new VariableResolver[ROWS];
+		for (int i = 0; i < ROWS; i++) {
+			longRows[i] = VariableResolver.empty()
+				.with("a", Evaluated.value(Value.ofLong(a[i])))
+				.with("b", Evaluated.value(Value.ofLong(b[i])));
+			doubleRows[i] = VariableResolver.empty()
+				.with("x", Evaluated.value(Value.ofDouble(x[i])))
+				.with("y", Evaluated.value(Value.ofDouble(y[i])));
+		}
+
+		Map<String, Column> boxedLongs = new LinkedHashMap<>();
+		boxedLongs.put("a", Column.of(a, Value::ofLong));
+		boxedLongs.put("b", Column.of(b, Value::ofLong));
+		Map<String, Column> primitiveLongs = new LinkedHashMap<>();
+		primitiveLongs.put("a", Column.of(a, Primitives.LONG));
+		primitiveLongs.put("b", Column.of(b, Primitives.LONG));
+
+		Map<String, Column> boxedDoubles = new LinkedHashMap<>();
+		boxedDoubles.put("x", Column.of(x, Value::ofDouble));
+		boxedDoubles.put("y", Column.of(y, Value::ofDouble));
+		Map<String, Column> primitiveDoubles = new LinkedHashMap<>();
+		primitiveDoubles.put("x", Column.of(x, Primitives.DOUBLE));
+		primitiveDoubles.put("y", Column.of(y, Primitives.DOUBLE));
+
+		measure(Defaults.expressionFactory(), "(a + b) * 2 - a * b", longRows, boxedLongs, primitiveLongs);
+		measure(Defaults.expressionFactory(), "a * 3 > b + 100", longRows, boxedLongs, primitiveLongs);
+		measure(Defaults.doubleExpressionFactory(), "(x + y) * 2 - x * y", doubleRows, boxedDoubles, primitiveDoubles);
+		measure(Defaults.doubleExpressionFactory(), "x * 3 > y + 0.5", doubleRows, boxedDoubles, primitiveDoubles);
+	}
+
+	private static void measure(ExpressionFactory factory, String source, VariableResolver[] rows, Map<String, Column> boxed,
+		Map<String, Column> primitive) throws Exception {
+		Expression expression = factory.parse(source);
+		CompiledExpression compiled = expression.compile();
+		String prefix = source + " (" + ROWS + " rows)";
+
+		Timing.measure(prefix + " rows", () -> {
+			Evaluated<?> last = null;
+			for (VariableResolver row : rows) {
+				last = compiled.evaluate(row);
+			}
+			return last;
+		});
+		Timing.measure(prefix + " batch", () -> expression.evaluateBatch(boxed));
+		Timing.measure(prefix + " kernels", () -> expression.evaluateBatch(primitive));
+	}
+}
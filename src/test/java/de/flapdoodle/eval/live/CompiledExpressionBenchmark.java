@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.live;
+
+import de.flapdoodle.eval.core.CompiledExpression;
+import de.flapdoodle.eval.core.Expression;
+import de.flapdoodle.eval.core.VariableResolver;
+import de.flapdoodle.eval.core.evaluables.Evaluated;
+import de.flapdoodle.eval.core.tree.VariableFrame;
+import de.flapdoodle.eval.example.Defaults;
+import de.flapdoodle.eval.example.Value;
+
+/**
+ * not part of the test run, start main() to compare compiled and interpreted evaluation
+ */
+public class CompiledExpressionBenchmark {
+
+	private static final String[] SOURCES = { "(a + b) * 2 - c", "a > 10 && b < 5 || c == 3" };
+
+	public static void main(String[] args) throws Exception {
+		VariableResolver variables = VariableResolver.empty()
+			.with("a", Evaluated.value(Value.of(12)))
+			.with("b", Evaluated.value(Value.of(3)))
+			.with("c", Evaluated.value(Value.of(3)));
+
+		for (String source : SOURCES) {
+			Expression expression = Defaults.expressionFactory().parse(source);
+			CompiledExpression compiled = expression.compile();
+			CompiledExpression flat = expression.compileFlat();
+			VariableFrame frame = expression.frame(variables);
+
+			Timing.measure(source + " interpreted", () -> expression.evaluate(variables));
+			Timing.measure(source + " compiled", () -> compiled.evaluate(variables));
+			Timing.measure(source + " flat", () -> flat.evaluate(variables));
+			Timing.measure(source + " flatWithFrame", () -> flat.evaluate(frame.bind(variables)));
+		}
+	}
+}
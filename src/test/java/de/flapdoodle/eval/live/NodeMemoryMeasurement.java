@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.live;
+
+import de.flapdoodle.eval.core.Expression;
+import de.flapdoodle.eval.core.ExpressionFactory;
+import de.flapdoodle.eval.core.exceptions.BaseException;
+import de.flapdoodle.eval.core.tree.Interner;
+import de.flapdoodle.eval.example.Defaults;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * not part of the test run, start main() to print the heap used per node of parsed and of compacted expressions,
+ * run with a fixed heap (e.g. -Xms2g -Xmx2g) for stable numbers
+ */
+public class NodeMemoryMeasurement {
+
+	private static final int EXPRESSIONS = 100_000;
+
+	public static void main(String[] args) throws BaseException, InterruptedException {
+		ExpressionFactory factory = Defaults.expressionFactory();
+
+		long empty = usedHeap();
+		List<Expression> parsed = parse(factory);
+		long nodes = nodes(parsed);
+		long parsedHeap = usedHeap() - empty;
+
+		List<Expression> compacted = compact(parsed);
+		parsed.clear();
+		long compactedHeap = usedHeap() - empty;
+
+		System.out.printf("%d expressions, %d nodes%n", compacted.size(), nodes);
+		System.out.printf("parsed:    %d bytes per node%n", parsedHeap / nodes);
+		System.out.printf("compacted: %d bytes per node%n", compactedHeap / nodes);
+	}
+
+	private static List<Expression> parse(ExpressionFactory factory) throws BaseException {
+		List<Expression> parsed = new ArrayList<>(EXPRESSIONS);
+		for (int i = 0; i < EXPRESSIONS; i++) {
+			parsed.add(factory.parse(source(i)));
+		}
+		return parsed;
+	}
+
+	private static long nodes(List<Expression> expressions) {
+		long nodes = 0;
+		for (Expression expression : expressions) {
+			nodes += expression.allNodes().size();
+		}
+		return nodes;
+	}
+
+	// the interner is not referenced after compaction
+	private static List<Expression> compact(List<Expression> expressions) {
+		Interner interner = new Interner();
+		List<Expression> compacted = new ArrayList<>(expressions.size());
+		for (Expression expression : expressions) {
+			compacted.add(expression.compact(interner));
+		}
+		return compacted;
+	}
+
+	// sources are not part of the measurement, they are kept by both variants
+	private static String source(int i) {
+		return ("if(amount > " + (i % 100) + " && country == \"DE\", max(amount * 0.19, minimum), -discount.value[" + (i % 3) + "])")
+			.intern();
+	}
+
+	private static long usedHeap() throws InterruptedException {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			Thread.sleep(100);
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
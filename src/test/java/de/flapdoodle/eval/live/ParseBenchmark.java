@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.live;
+
+import de.flapdoodle.eval.core.ExpressionCodec;
+import de.flapdoodle.eval.core.ExpressionFactory;
+import de.flapdoodle.eval.example.Defaults;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+/**
+ * not part of the test run, start main() to compare shunting yard and single pass parsing with reading a
+ * written expression
+ */
+public class ParseBenchmark {
+
+	private static final String[] SOURCES = { "(a + b) * 2 - c", "if(a > 10 && b < 5 || c == 3, max(a, b, c), -a.x[2])" };
+
+	public static void main(String[] args) throws Exception {
+		ExpressionFactory shuntingYard = Defaults.expressionFactory();
+		ExpressionFactory singlePass = Defaults.expressionFactory().withSinglePassParser(true);
+		ExpressionCodec codec = ExpressionCodec.of(shuntingYard);
+
+		for (String source : SOURCES) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			codec.write(shuntingYard.parse(source), new DataOutputStream(out));
+			byte[] written = out.toByteArray();
+
+			Timing.measure(source + " shuntingYard", () -> shuntingYard.parse(source));
+			Timing.measure(source + " singlePass", () -> singlePass.parse(source));
+			Timing.measure(source + " read", () -> codec.read(new DataInputStream(new ByteArrayInputStream(written))));
+		}
+	}
+}
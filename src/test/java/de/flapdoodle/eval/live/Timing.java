@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2023
+ *   Michael Mosmann <michael@mosmann.de>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.flapdoodle.eval.live;
+
+import java.util.Locale;
+
+/**
+ * a plain timing loop for the measurements in this package: each operation is warmed up, then timed in rounds of
+ * one second, the average time per call of all rounds is printed. Results are kept, so calls are not optimized away.
+ */
+final class Timing {
+	private static final int WARMUP_ROUNDS = 3;
+	private static final int MEASUREMENT_ROUNDS = 5;
+	private static final long ROUND_NANOS = 1_000_000_000L;
+
+	private static volatile Object sink;
+
+	private Timing() {
+		// no instance
+	}
+
+	interface Operation {
+		Object run() throws Exception;
+	}
+
+	/**
+	 * average nanoseconds per call
+	 */
+	static double measure(String name, Operation operation) throws Exception {
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			round(operation);
+		}
+		long calls = 0;
+		long nanos = 0;
+		for (int i = 0; i < MEASUREMENT_ROUNDS; i++) {
+			long[] round = round(operation);
+			calls += round[0];
+			nanos += round[1];
+		}
+		double perCall = (double) nanos / calls;
+		System.out.println(String.format(Locale.ROOT, "%-60s %12.1f ns/op", name, perCall));
+		return perCall;
+	}
+
+	private static long[] round(Operation operation) throws Exception {
+		long calls = 0;
+		long start = System.nanoTime();
+		long now;
+		Object last = null;
+		do {
+			for (int i = 0; i < 1000; i++) {
+				last = operation.run();
+			}
+			calls += 1000;
+			now = System.nanoTime();
+		}
+		while (now - start < ROUND_NANOS);
+		sink = last;
+		return new long[] { calls, now - start };
+	}
+}